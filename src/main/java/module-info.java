@@ -9,9 +9,12 @@
 module ru.spb.tksoft.flowforge.sdk {
 
     // Export public API packages
+    exports ru.spb.tksoft.flowforge.sdk.cache;
     exports ru.spb.tksoft.flowforge.sdk.contract;
+    exports ru.spb.tksoft.flowforge.sdk.engine;
     exports ru.spb.tksoft.flowforge.sdk.enumeration;
     exports ru.spb.tksoft.flowforge.sdk.model;
+    exports ru.spb.tksoft.flowforge.sdk.value;
 
     // Required modules
     requires jakarta.validation;
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.contract.ResultCache;
+
+/**
+ * In-memory LRU result cache.
+ * 
+ * Keeps at most maxEntries results weighing at most maxBytes together, and evicts the least
+ * recently used ones when full. The weight of an entry is two bytes per character of its key and
+ * result text; a result heavier than maxBytes on its own is not cached. Hits, misses and evictions
+ * are counted with {@link LongAdder}s, so the counters do not contend.
+ * 
+ * Thread-safe. Subclassing is not allowed.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public final class LruResultCache implements ResultCache {
+
+    private final int maxEntries;
+
+    private final long maxBytes;
+
+    @NotNull
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Access order: the eldest entry is the least recently used one.
+    @NotNull
+    private final LinkedHashMap<String, String> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Weight of all entries, guarded by the lock.
+    private long bytes;
+
+    @NotNull
+    private final LongAdder hits = new LongAdder();
+
+    @NotNull
+    private final LongAdder misses = new LongAdder();
+
+    @NotNull
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor. The cache is bounded by the number of entries only.
+     * 
+     * @param maxEntries - the maximum number of entries.
+     * @throws IllegalArgumentException - if maxEntries is not positive.
+     */
+    public LruResultCache(final int maxEntries) {
+        this(maxEntries, Long.MAX_VALUE);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param maxEntries - the maximum number of entries.
+     * @param maxBytes - the maximum weight of all entries in bytes.
+     * @throws IllegalArgumentException - if maxEntries or maxBytes is not positive.
+     */
+    public LruResultCache(final int maxEntries, final long maxBytes) {
+
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Get the cached result text and mark the entry as recently used.
+     * 
+     * @param key - the key.
+     * @return the result text or null if there is no such key.
+     * @throws NullArgumentException - if key is null.
+     */
+    @Override
+    public String get(final String key) {
+
+        if (key == null) {
+            throw new NullArgumentException("key must not be null");
+        }
+
+        final String resultText;
+        lock.lock();
+        try {
+            resultText = entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+
+        if (resultText == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return resultText;
+    }
+
+    /**
+     * Put the result text, evicting the least recently used entries if the cache is full.
+     * 
+     * A result heavier than maxBytes on its own is not cached, and the entry of the key is removed.
+     * 
+     * @param key - the key.
+     * @param resultText - the result text.
+     * @throws NullArgumentException - if key or resultText is null.
+     */
+    @Override
+    public void put(final String key, final String resultText) {
+
+        if (key == null || resultText == null) {
+            throw new NullArgumentException("key, resultText must not be null");
+        }
+
+        final long weight = weigh(key, resultText);
+        lock.lock();
+        try {
+            final String previous = weight > maxBytes
+                    ? entries.remove(key)
+                    : entries.put(key, resultText);
+            if (previous != null) {
+                bytes -= weigh(key, previous);
+            }
+            if (weight > maxBytes) {
+                return;
+            }
+            bytes += weight;
+
+            final Iterator<Map.Entry<String, String>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxEntries || bytes > maxBytes) {
+                final Map.Entry<String, String> entry = eldest.next();
+                bytes -= weigh(entry.getKey(), entry.getValue());
+                eldest.remove();
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove the entry.
+     * 
+     * @param key - the key.
+     */
+    public void remove(final String key) {
+
+        lock.lock();
+        try {
+            final String previous = entries.remove(key);
+            if (previous != null) {
+                bytes -= weigh(key, previous);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove all entries. The counters are kept.
+     */
+    public void clear() {
+
+        lock.lock();
+        try {
+            entries.clear();
+            bytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the number of entries.
+     * 
+     * @return the number of entries.
+     */
+    public int size() {
+
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the maximum number of entries.
+     * 
+     * @return the maximum number of entries.
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Get the weight of all entries.
+     * 
+     * @return the weight in bytes.
+     */
+    public long getBytes() {
+
+        lock.lock();
+        try {
+            return bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the maximum weight of all entries.
+     * 
+     * @return the maximum weight in bytes, Long.MAX_VALUE if the cache is bounded by the number of
+     *         entries only.
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Get the number of hits.
+     * 
+     * @return the number of hits.
+     */
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of misses.
+     * 
+     * @return the number of misses.
+     */
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Get the number of evictions.
+     * 
+     * @return the number of entries evicted because the cache was full.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Get the weight of an entry.
+     * 
+     * @param key - the key.
+     * @param resultText - the result text.
+     * @return the weight in bytes.
+     */
+    private static long weigh(final String key, final String resultText) {
+        return 2L * ((long) key.length() + resultText.length());
+    }
+}
@@ -0,0 +1,700 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.contract.ResultCache;
+import ru.spb.tksoft.utils.log.LogEx;
+
+/**
+ * Persistent memory-mapped result cache.
+ * 
+ * Results are appended to memory-mapped segment files in a directory and survive restarts:
+ * 
+ * <pre>
+ * record: [magic:int][key length:int][value length:int][crc32c:int][key:utf-8][value:utf-8]
+ * </pre>
+ * 
+ * The in-memory index maps every key to the location of its latest record, so a read is a hash
+ * lookup and a copy out of the page cache. On open the index is loaded from the hint file
+ * ({@code index.hint}, written on close and after compaction) and the records appended after the
+ * hint are recovered by scanning the segments. Without a valid hint all segments are scanned. A
+ * scan stops at the first record with a bad magic or checksum, so a record torn by a crash is
+ * dropped and overwritten by the next append.
+ * 
+ * When the segments would exceed maxBytes, the cache is compacted: live records are copied into
+ * new segments, the oldest records are dropped until the live data takes no more than half of
+ * maxBytes, and the old segments are deleted.
+ * 
+ * Errors of the disk are logged and treated as misses, they never fail a block.
+ * 
+ * Thread-safe: reads share a read lock, appends and compaction take the write lock. Subclassing
+ * is not allowed.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public final class MappedResultCache implements ResultCache, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedResultCache.class);
+
+    private static final int RECORD_MAGIC = 0x46465243;
+    private static final int HINT_MAGIC = 0x46464849;
+    private static final int HEADER_SIZE = 16;
+
+    private static final String HINT_FILE = "index.hint";
+    private static final Pattern SEGMENT_FILE = Pattern.compile("segment-(\\d{8})\\.dat");
+
+    @NotNull
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final long maxBytes;
+
+    @NotNull
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Segment id -> segment, ascending: the last one is active.
+    @NotNull
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+
+    // Key -> location of the latest record: segment id in the high half, offset in the low half.
+    @NotNull
+    private final Map<String, Long> index = new HashMap<>();
+
+    // Total size of the records referenced by the index.
+    private long liveBytes;
+
+    private boolean closed;
+
+    @NotNull
+    private final LongAdder hits = new LongAdder();
+
+    @NotNull
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Memory-mapped segment file.
+     */
+    private static final class Segment {
+
+        private final int id;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private int writePosition;
+
+        Segment(final int id, final Path path, final int size) throws IOException {
+
+            this.id = id;
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            // An existing segment keeps its size, a new one is preallocated with zeros.
+            final long existing = channel.size();
+            this.capacity = existing > 0 ? (int) Math.min(existing, Integer.MAX_VALUE) : size;
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+
+        void close() throws IOException {
+            buffer.force();
+            channel.close();
+        }
+    }
+
+    /**
+     * Constructor. Opens or creates the cache in the directory and recovers its index.
+     * 
+     * @param directory - the directory of the cache, created if absent.
+     * @param segmentSize - the size of a segment file in bytes, the largest cacheable record.
+     * @param maxBytes - the disk budget in bytes, at least two segments.
+     * @throws NullArgumentException - if directory is null.
+     * @throws IllegalArgumentException - if segmentSize or maxBytes is too small.
+     * @throws IOException - if the directory or the segments can not be opened.
+     */
+    public MappedResultCache(final Path directory, final int segmentSize, final long maxBytes)
+            throws IOException {
+
+        if (directory == null) {
+            throw new NullArgumentException("directory must not be null");
+        }
+        if (segmentSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("segmentSize must be greater than " + HEADER_SIZE);
+        }
+        if (maxBytes < 2L * segmentSize) {
+            throw new IllegalArgumentException("maxBytes must hold at least two segments");
+        }
+
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxBytes = maxBytes;
+
+        Files.createDirectories(directory);
+        open();
+    }
+
+    private static long location(final int segmentId, final int offset) {
+        return ((long) segmentId << 32) | (offset & 0xFFFFFFFFL);
+    }
+
+    private static int segmentIdOf(final long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static int offsetOf(final long location) {
+        return (int) location;
+    }
+
+    private static Path segmentPath(final Path directory, final int id) {
+        return directory.resolve(String.format("segment-%08d.dat", id));
+    }
+
+    /**
+     * Open the segments and recover the index from the hint file and the segment tails.
+     */
+    private void open() throws IOException {
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.toList()) {
+                final Matcher matcher = SEGMENT_FILE.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    final int id = Integer.parseInt(matcher.group(1));
+                    segments.put(id, new Segment(id, path, segmentSize));
+                }
+            }
+        }
+
+        final Map<Integer, Integer> hinted = loadHint();
+        for (Segment segment : segments.values()) {
+            segment.writePosition = scan(segment, hinted.getOrDefault(segment.id, 0));
+        }
+
+        LogEx.info(log, LogEx.me(), "result cache opened: " + directory + ", " + segments.size()
+                + " segments, " + index.size() + " entries, hint " + !hinted.isEmpty());
+    }
+
+    /**
+     * Scan the records of the segment and index them.
+     * 
+     * @param segment - the segment.
+     * @param from - the offset to start from.
+     * @return the offset after the last valid record.
+     */
+    private int scan(final Segment segment, final int from) {
+
+        int position = from;
+        while (position >= 0 && position + HEADER_SIZE <= segment.capacity) {
+            final MappedByteBuffer buffer = segment.buffer;
+            if (buffer.getInt(position) != RECORD_MAGIC) {
+                break;
+            }
+
+            final int keyLength = buffer.getInt(position + 4);
+            final int valueLength = buffer.getInt(position + 8);
+            final long end = (long) position + HEADER_SIZE + keyLength + valueLength;
+            if (keyLength < 0 || valueLength < 0 || end > segment.capacity
+                    || crc(buffer, position + HEADER_SIZE, keyLength + valueLength)
+                            != buffer.getInt(position + 12)) {
+                break;
+            }
+
+            final byte[] key = new byte[keyLength];
+            buffer.get(position + HEADER_SIZE, key);
+            putIndex(new String(key, StandardCharsets.UTF_8), location(segment.id, position));
+            position = (int) end;
+        }
+
+        return position;
+    }
+
+    private static int crc(final ByteBuffer buffer, final int offset, final int length) {
+
+        final CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    private void putIndex(final String key, final long location) {
+
+        final Long previous = index.put(key, location);
+        if (previous != null) {
+            liveBytes -= recordSize(previous);
+        }
+        liveBytes += recordSize(location);
+    }
+
+    private int recordSize(final long location) {
+
+        final MappedByteBuffer buffer = segments.get(segmentIdOf(location)).buffer;
+        final int offset = offsetOf(location);
+        return HEADER_SIZE + buffer.getInt(offset + 4) + buffer.getInt(offset + 8);
+    }
+
+    /**
+     * Get the cached result text.
+     * 
+     * @param key - the key.
+     * @return the result text or null if there is no such key.
+     * @throws NullArgumentException - if key is null.
+     * @throws ConfigurationMismatchException - if the cache is closed.
+     */
+    @Override
+    public String get(final String key) {
+
+        if (key == null) {
+            throw new NullArgumentException("key must not be null");
+        }
+
+        lock.readLock().lock();
+        try {
+            checkOpen();
+
+            final Long location = index.get(key);
+            if (location == null) {
+                misses.increment();
+                return null;
+            }
+
+            hits.increment();
+            return readValue(location);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private String readValue(final long location) {
+
+        final MappedByteBuffer buffer = segments.get(segmentIdOf(location)).buffer;
+        final int offset = offsetOf(location);
+        final int keyLength = buffer.getInt(offset + 4);
+        final byte[] value = new byte[buffer.getInt(offset + 8)];
+        buffer.get(offset + HEADER_SIZE + keyLength, value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Append the result text. A record larger than a segment is not cached.
+     * 
+     * @param key - the key.
+     * @param resultText - the result text.
+     * @throws NullArgumentException - if key or resultText is null.
+     * @throws ConfigurationMismatchException - if the cache is closed.
+     */
+    @Override
+    public void put(final String key, final String resultText) {
+
+        if (key == null || resultText == null) {
+            throw new NullArgumentException("key, resultText must not be null");
+        }
+
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        final byte[] valueBytes = resultText.getBytes(StandardCharsets.UTF_8);
+        final long size = (long) HEADER_SIZE + keyBytes.length + valueBytes.length;
+        if (size > segmentSize) {
+            LogEx.info(log, LogEx.me(), "result is too large to cache: " + size + " bytes");
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+
+            final Long existing = index.get(key);
+            if (existing != null && readValue(existing).equals(resultText)) {
+                return;
+            }
+
+            final Segment segment = activeSegmentFor((int) size, true);
+            final int offset = append(segment, keyBytes, valueBytes);
+            putIndex(key, location(segment.id, offset));
+        } catch (IOException e) {
+            LogEx.info(log, LogEx.me(), "result cache write failed: " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the active segment with room for the record, rolling a new one if needed.
+     * 
+     * @param size - the record size.
+     * @param mayCompact - true to compact when the disk budget would be exceeded.
+     * @return the segment.
+     */
+    private Segment activeSegmentFor(final int size, final boolean mayCompact)
+            throws IOException {
+
+        final Map.Entry<Integer, Segment> last = segments.lastEntry();
+        if (last != null && last.getValue().writePosition + size <= last.getValue().capacity) {
+            return last.getValue();
+        }
+
+        if (mayCompact && (segments.size() + 1L) * segmentSize > maxBytes) {
+            compact();
+            return activeSegmentFor(size, false);
+        }
+
+        if (last != null) {
+            last.getValue().buffer.force();
+        }
+
+        final int id = last == null ? 1 : last.getKey() + 1;
+        final Segment segment = new Segment(id, segmentPath(directory, id), segmentSize);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    /**
+     * Append the record. The magic is written last, so a torn record is never valid.
+     * 
+     * @return the offset of the record.
+     */
+    private static int append(final Segment segment, final byte[] key, final byte[] value) {
+
+        final MappedByteBuffer buffer = segment.buffer;
+        final int offset = segment.writePosition;
+
+        buffer.putInt(offset + 4, key.length);
+        buffer.putInt(offset + 8, value.length);
+        buffer.put(offset + HEADER_SIZE, key);
+        buffer.put(offset + HEADER_SIZE + key.length, value);
+        buffer.putInt(offset + 12, crc(buffer, offset + HEADER_SIZE, key.length + value.length));
+        buffer.putInt(offset, RECORD_MAGIC);
+
+        segment.writePosition = offset + HEADER_SIZE + key.length + value.length;
+        return offset;
+    }
+
+    /**
+     * Compact the cache: copy the live records, oldest dropped first, into new segments and
+     * delete the old ones. Call under the write lock.
+     * 
+     * The new segments are built on the side and swapped in together with the index only after
+     * the copy succeeds. If the copy fails, they are deleted and the cache keeps the old ones.
+     */
+    private void compact() throws IOException {
+
+        final long budget = maxBytes / 2;
+        final List<Map.Entry<String, Long>> live = new ArrayList<>(index.entrySet());
+        live.sort(Comparator.comparingLong(Map.Entry::getValue));
+
+        long keptBytes = liveBytes;
+        int first = 0;
+        while (keptBytes > budget && first < live.size()) {
+            keptBytes -= recordSize(live.get(first++).getValue());
+        }
+
+        // New segments get ids after the old ones, so a crash in the middle leaves the copies
+        // newer than the originals and the recovery prefers them.
+        final TreeMap<Integer, Segment> fresh = new TreeMap<>();
+        final Map<String, Long> copied = new HashMap<>();
+        try {
+            copyLive(live.subList(first, live.size()), fresh, copied);
+        } catch (IOException | RuntimeException e) {
+            discard(fresh.values());
+            throw e;
+        }
+
+        final List<Segment> old = new ArrayList<>(segments.values());
+        segments.clear();
+        segments.putAll(fresh);
+        index.clear();
+        liveBytes = 0;
+        copied.forEach(this::putIndex);
+
+        discard(old);
+        writeHint();
+
+        LogEx.info(log, LogEx.me(), "result cache compacted: " + first + " entries dropped, "
+                + index.size() + " entries kept");
+    }
+
+    /**
+     * Copy the records into new segments numbered after the current ones.
+     * 
+     * @param records - the keys and locations of the records to copy, oldest first.
+     * @param target - the new segments by id, filled as they are created.
+     * @param copied - the new locations by key, filled as the records are copied.
+     * @throws IOException - if a new segment can not be created.
+     */
+    private void copyLive(final List<Map.Entry<String, Long>> records,
+            final TreeMap<Integer, Segment> target, final Map<String, Long> copied)
+            throws IOException {
+
+        int nextId = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        Segment segment = null;
+        for (Map.Entry<String, Long> record : records) {
+            final long location = record.getValue();
+            final MappedByteBuffer source = segments.get(segmentIdOf(location)).buffer;
+            final int offset = offsetOf(location);
+            final byte[] key = new byte[source.getInt(offset + 4)];
+            final byte[] value = new byte[source.getInt(offset + 8)];
+            source.get(offset + HEADER_SIZE, key);
+            source.get(offset + HEADER_SIZE + key.length, value);
+
+            final int size = HEADER_SIZE + key.length + value.length;
+            if (segment == null || segment.writePosition + size > segment.capacity) {
+                if (segment != null) {
+                    segment.buffer.force();
+                }
+                segment = new Segment(nextId, segmentPath(directory, nextId), segmentSize);
+                target.put(nextId++, segment);
+            }
+            copied.put(record.getKey(), location(segment.id, append(segment, key, value)));
+        }
+        if (segment != null) {
+            segment.buffer.force();
+        }
+    }
+
+    /**
+     * Close and delete the segments which are not used any more. Errors are logged: a segment
+     * left on the disk is older than the live ones and is superseded on recovery.
+     * 
+     * @param discarded - the segments to delete.
+     */
+    private void discard(final Collection<Segment> discarded) {
+
+        for (Segment segment : discarded) {
+            try {
+                segment.channel.close();
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                LogEx.info(log, LogEx.me(), "segment not deleted: " + segment.path + ": "
+                        + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Write the hint file: segment ends and the index. Written to a temporary file and moved.
+     */
+    private void writeHint() throws IOException {
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(HINT_MAGIC);
+            out.writeInt(segments.size());
+            for (Segment segment : segments.values()) {
+                out.writeInt(segment.id);
+                out.writeInt(segment.writePosition);
+            }
+            out.writeInt(index.size());
+            for (Map.Entry<String, Long> entry : index.entrySet()) {
+                final byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(key.length);
+                out.write(key);
+                out.writeLong(entry.getValue());
+            }
+        }
+
+        final CRC32C crc = new CRC32C();
+        crc.update(bytes.toByteArray());
+        final ByteBuffer content = ByteBuffer.allocate(bytes.size() + 4);
+        content.put(bytes.toByteArray()).putInt((int) crc.getValue()).flip();
+
+        final Path temporary = directory.resolve(HINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(HINT_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Load the index from the hint file.
+     * 
+     * @return segment id -> offset to continue the scan from, empty if the hint is absent or not
+     *         valid.
+     */
+    private Map<Integer, Integer> loadHint() {
+
+        final Path path = directory.resolve(HINT_FILE);
+        try {
+            if (!Files.exists(path)) {
+                return Map.of();
+            }
+
+            final ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(path));
+            if (content.remaining() < 16) {
+                return Map.of();
+            }
+
+            final CRC32C crc = new CRC32C();
+            crc.update(content.slice(0, content.limit() - 4));
+            if ((int) crc.getValue() != content.getInt(content.limit() - 4)
+                    || content.getInt() != HINT_MAGIC) {
+                return Map.of();
+            }
+
+            final Map<Integer, Integer> ends = new HashMap<>();
+            final int segmentCount = content.getInt();
+            for (int i = 0; i < segmentCount; i++) {
+                final int id = content.getInt();
+                final int end = content.getInt();
+                final Segment segment = segments.get(id);
+                if (segment == null || end > segment.capacity) {
+                    return Map.of();
+                }
+                ends.put(id, end);
+            }
+
+            final int entryCount = content.getInt();
+            for (int i = 0; i < entryCount; i++) {
+                final byte[] key = new byte[content.getInt()];
+                content.get(key);
+                final long location = content.getLong();
+                putIndex(new String(key, StandardCharsets.UTF_8), location);
+            }
+            return ends;
+        } catch (IOException | RuntimeException e) {
+            LogEx.info(log, LogEx.me(), "result cache hint is ignored: " + e.getMessage());
+            index.clear();
+            liveBytes = 0;
+            return Map.of();
+        }
+    }
+
+    private void checkOpen() {
+
+        if (closed) {
+            throw new ConfigurationMismatchException("result cache is closed: " + directory);
+        }
+    }
+
+    /**
+     * Force the appended records to the disk.
+     */
+    public void flush() {
+
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            segments.values().forEach(segment -> segment.buffer.force());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of entries.
+     * 
+     * @return the number of entries.
+     */
+    public int size() {
+
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the size of the segment files.
+     * 
+     * @return the size of the segment files in bytes.
+     */
+    public long getDiskBytes() {
+
+        lock.readLock().lock();
+        try {
+            return segments.values().stream().mapToLong(segment -> segment.capacity).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of hits.
+     * 
+     * @return the number of hits.
+     */
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of misses.
+     * 
+     * @return the number of misses.
+     */
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Force the segments to the disk, write the hint file and close the segments.
+     * 
+     * @throws IOException - if the segments can not be forced or the hint can not be written.
+     */
+    @Override
+    public void close() throws IOException {
+
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            writeHint();
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        LogEx.info(log, LogEx.me(), "result cache closed: " + directory);
+    }
+}
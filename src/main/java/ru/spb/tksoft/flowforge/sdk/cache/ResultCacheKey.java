@@ -0,0 +1,157 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.contract.Block;
+import ru.spb.tksoft.flowforge.sdk.value.Payload;
+
+/**
+ * Result cache key.
+ * 
+ * Content address of a block result: SHA-256 of the block type id, the effective input text and
+ * the results of the predecessors, as a lowercase hex string. Each part is hashed after its length
+ * in bytes, so no content, not even one with NUL characters, can shift the boundaries of the parts.
+ * 
+ * The key of a block hashes the result payloads of its predecessors one by one, so a spilled
+ * result is hashed from its file window by window, not read back onto the heap.
+ * 
+ * Utility class.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public final class ResultCacheKey {
+
+    private static final String ALGORITHM = "SHA-256";
+
+    // Length prefix of an absent part, distinct from the prefix of an empty one.
+    private static final int ABSENT = -1;
+
+    // Length prefix of a part over 2 GB, followed by the length as a long.
+    private static final int LONG = -2;
+
+    private ResultCacheKey() {}
+
+    /**
+     * Get the key of the block's current input.
+     * 
+     * @param block - the block.
+     * @return the key.
+     * @throws NullArgumentException - if block is null.
+     */
+    @NotNull
+    public static String of(final Block block) {
+
+        if (block == null) {
+            throw new NullArgumentException("block must not be null");
+        }
+
+        final MessageDigest digest = newDigest();
+        update(digest, block.getBlockTypeId());
+        update(digest, block.getInputText());
+        for (Payload payload : block.getInputJunction().getResultPayloads()) {
+            update(digest, payload);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Get the key.
+     * 
+     * @param blockTypeId - the block type id.
+     * @param inputText - the effective input text.
+     * @param upstreamResult - the joined results of the predecessors.
+     * @return the key.
+     * @throws NullArgumentException - if blockTypeId is null.
+     */
+    @NotNull
+    public static String of(final String blockTypeId, final String inputText,
+            final String upstreamResult) {
+
+        if (blockTypeId == null) {
+            throw new NullArgumentException("blockTypeId must not be null");
+        }
+
+        final MessageDigest digest = newDigest();
+        update(digest, blockTypeId);
+        update(digest, inputText);
+        update(digest, upstreamResult);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(final MessageDigest digest, final String part) {
+
+        if (part == null) {
+            updateLength(digest, ABSENT);
+            return;
+        }
+        final byte[] bytes = part.getBytes(StandardCharsets.UTF_8);
+        updateLength(digest, bytes.length);
+        digest.update(bytes);
+    }
+
+    private static void update(final MessageDigest digest, final Payload payload) {
+
+        digest.update((byte) payload.getType().ordinal());
+        if (payload.isText() && !payload.isSpilled()) {
+            update(digest, payload.asText());
+            return;
+        }
+        // Spilled and binary payloads are digested chunk by chunk, whatever their size.
+        updateLength(digest, payload.getSize());
+        final byte[] buffer = new byte[8192];
+        try (InputStream bytes = payload.openStream()) {
+            int n;
+            while ((n = bytes.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void updateLength(final MessageDigest digest, final int length) {
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(0, length));
+    }
+
+    private static void updateLength(final MessageDigest digest, final long length) {
+
+        if (length <= Integer.MAX_VALUE) {
+            updateLength(digest, (int) length);
+            return;
+        }
+        updateLength(digest, LONG);
+        digest.update(ByteBuffer.allocate(Long.BYTES).putLong(0, length));
+    }
+
+    private static MessageDigest newDigest() {
+
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(ALGORITHM + " is not supported", e);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.cache;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+
+/**
+ * Single-flight coalescing of identical concurrent invocations.
+ * 
+ * The first caller of {@link #join(String)} for a key becomes the leader of the flight and must
+ * settle it with {@link Flight#complete(String)} or {@link Flight#fail(Throwable)}. Callers joining
+ * while the flight is in the air become followers: they wait for the leader's result instead of
+ * computing it again. A settled flight is removed, the next caller leads a new one.
+ * 
+ * Followers wait no longer than maxWait: a leader which never settles its flight (e.g. its job
+ * threw an exception) makes them compute the result themselves, not hang. The first follower
+ * which runs out of time removes the flight, so the key is led again by the next caller.
+ * Asynchronous followers continue on the executor, not on the thread which settles the flight
+ * or the timer thread.
+ * 
+ * Keys are usually {@link ResultCacheKey}s. Thread-safe. Subclassing is not allowed.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public final class SingleFlight {
+
+    @NotNull
+    private final Duration maxWait;
+
+    @NotNull
+    private final Executor executor;
+
+    @NotNull
+    private final ConcurrentHashMap<String, CompletableFuture<String>> flights =
+            new ConcurrentHashMap<>();
+
+    @NotNull
+    private final LongAdder leaders = new LongAdder();
+
+    @NotNull
+    private final LongAdder followers = new LongAdder();
+
+    /**
+     * A flight joined by the caller.
+     */
+    public final class Flight {
+
+        @NotNull
+        private final String key;
+
+        @NotNull
+        private final CompletableFuture<String> result;
+
+        private final boolean leader;
+
+        private Flight(final String key, final CompletableFuture<String> result,
+                final boolean leader) {
+
+            this.key = key;
+            this.result = result;
+            this.leader = leader;
+        }
+
+        /**
+         * Get the key.
+         * 
+         * @return the key.
+         */
+        @NotNull
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * Check if the caller leads the flight.
+         * 
+         * @return true if the caller leads the flight and must settle it, false if it follows.
+         */
+        public boolean isLeader() {
+            return leader;
+        }
+
+        /**
+         * Complete the flight: the followers take the result text. Leader only.
+         * 
+         * @param resultText - the result text.
+         */
+        public void complete(final String resultText) {
+
+            flights.remove(key, result);
+            result.complete(resultText);
+        }
+
+        /**
+         * Fail the flight: the followers compute the result themselves. Leader only.
+         * 
+         * @param error - the error.
+         * @throws NullArgumentException - if error is null.
+         */
+        public void fail(final Throwable error) {
+
+            if (error == null) {
+                throw new NullArgumentException("error must not be null");
+            }
+
+            flights.remove(key, result);
+            result.completeExceptionally(error);
+        }
+
+        /**
+         * Wait for the result of the leader, no longer than maxWait. Follower only.
+         * 
+         * @return the result text or null if the leader failed or did not finish in time.
+         */
+        public String await() {
+
+            try {
+                return result.get(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (TimeoutException e) {
+                abandon();
+                return null;
+            } catch (ExecutionException | CancellationException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Get the result of the leader without blocking. Follower only.
+         * 
+         * @return the stage which is completed on the executor with the result text, or with
+         *         null if the leader failed or did not finish within maxWait.
+         */
+        @NotNull
+        public CompletableFuture<String> awaitAsync() {
+
+            return result.copy()
+                    .orTimeout(maxWait.toNanos(), TimeUnit.NANOSECONDS)
+                    .handleAsync((resultText, error) -> {
+                        if (error == null) {
+                            return resultText;
+                        }
+                        final Throwable cause = error instanceof CompletionException
+                                && error.getCause() != null ? error.getCause() : error;
+                        if (cause instanceof TimeoutException) {
+                            abandon();
+                        }
+                        return null;
+                    }, executor);
+        }
+
+        /**
+         * Remove the flight the leader has not settled in time, so the next caller leads a new
+         * one instead of waiting for the dead one.
+         */
+        private void abandon() {
+
+            if (flights.remove(key, result)) {
+                result.completeExceptionally(new TimeoutException(
+                        "flight not settled within " + maxWait + ": " + key));
+            }
+        }
+    }
+
+    /**
+     * Constructor. Asynchronous followers continue on the common fork-join pool.
+     * 
+     * @param maxWait - the maximum time a follower waits for the leader.
+     * @throws NullArgumentException - if maxWait is null.
+     * @throws IllegalArgumentException - if maxWait is not positive.
+     */
+    public SingleFlight(final Duration maxWait) {
+        this(maxWait, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param maxWait - the maximum time a follower waits for the leader.
+     * @param executor - the executor asynchronous followers continue on.
+     * @throws NullArgumentException - if maxWait or executor is null.
+     * @throws IllegalArgumentException - if maxWait is not positive.
+     */
+    public SingleFlight(final Duration maxWait, final Executor executor) {
+
+        if (maxWait == null || executor == null) {
+            throw new NullArgumentException("maxWait, executor must not be null");
+        }
+        if (maxWait.isNegative() || maxWait.isZero()) {
+            throw new IllegalArgumentException("maxWait must be positive");
+        }
+
+        this.maxWait = maxWait;
+        this.executor = executor;
+    }
+
+    /**
+     * Join the flight of the key, leading it if there is none.
+     * 
+     * @param key - the key.
+     * @return the flight.
+     * @throws NullArgumentException - if key is null.
+     */
+    @NotNull
+    public Flight join(final String key) {
+
+        if (key == null) {
+            throw new NullArgumentException("key must not be null");
+        }
+
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        final CompletableFuture<String> existing = flights.putIfAbsent(key, result);
+        if (existing == null) {
+            leaders.increment();
+            return new Flight(key, result, true);
+        }
+
+        followers.increment();
+        return new Flight(key, existing, false);
+    }
+
+    /**
+     * Get the maximum time a follower waits for the leader.
+     * 
+     * @return the maximum wait.
+     */
+    @NotNull
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    /**
+     * Get the number of flights in the air.
+     * 
+     * @return the number of flights in the air.
+     */
+    public int getInFlightCount() {
+        return flights.size();
+    }
+
+    /**
+     * Get the number of led flights.
+     * 
+     * @return the number of invocations which computed the result.
+     */
+    public long getLeaderCount() {
+        return leaders.sum();
+    }
+
+    /**
+     * Get the number of coalesced invocations.
+     * 
+     * @return the number of invocations which joined a flight led by another one.
+     */
+    public long getFollowerCount() {
+        return followers.sum();
+    }
+}
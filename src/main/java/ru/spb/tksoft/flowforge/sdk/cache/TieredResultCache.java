@@ -0,0 +1,122 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.contract.ResultCache;
+
+/**
+ * Two-tier result cache.
+ * 
+ * Reads the memory tier first and falls back to the disk tier, promoting the result found there
+ * into the memory tier. Writes go to both tiers. Typically an {@link LruResultCache} in front of a
+ * {@link MappedResultCache}: after a restart the memory tier is cold, but the results are served
+ * from the mapped segments instead of being recomputed.
+ * 
+ * Thread-safe if both tiers are. Subclassing is not allowed.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public final class TieredResultCache implements ResultCache {
+
+    @NotNull
+    private final ResultCache memory;
+
+    @NotNull
+    private final ResultCache disk;
+
+    @NotNull
+    private final LongAdder hits = new LongAdder();
+
+    @NotNull
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Constructor.
+     * 
+     * @param memory - the memory tier.
+     * @param disk - the disk tier.
+     * @throws NullArgumentException - if memory or disk is null.
+     */
+    public TieredResultCache(final ResultCache memory, final ResultCache disk) {
+
+        if (memory == null || disk == null) {
+            throw new NullArgumentException("memory, disk must not be null");
+        }
+
+        this.memory = memory;
+        this.disk = disk;
+    }
+
+    /**
+     * Get the cached result text from the memory tier or else from the disk tier.
+     * 
+     * @param key - the key.
+     * @return the result text or null if there is no such key in both tiers.
+     */
+    @Override
+    public String get(final String key) {
+
+        String resultText = memory.get(key);
+        if (resultText == null) {
+            resultText = disk.get(key);
+            if (resultText != null) {
+                memory.put(key, resultText);
+            }
+        }
+
+        if (resultText == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return resultText;
+    }
+
+    /**
+     * Put the result text into both tiers.
+     * 
+     * @param key - the key.
+     * @param resultText - the result text.
+     */
+    @Override
+    public void put(final String key, final String resultText) {
+
+        memory.put(key, resultText);
+        disk.put(key, resultText);
+    }
+
+    /**
+     * Get the number of hits in any tier.
+     * 
+     * @return the number of hits.
+     */
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of misses in both tiers.
+     * 
+     * @return the number of misses.
+     */
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.contract;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Asynchronous block interface.
+ * 
+ * The block does not hold a thread while it waits for the result, e.g. for a remote call.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public interface AsyncBlock extends Block {
+
+    /**
+     * Run the block asynchronously.
+     * 
+     * @return the stage which is completed with the result text when the block is DONE, or
+     *         completed exceptionally when the block fails.
+     */
+    CompletionStage<String> runAsync();
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.contract;
+
+import java.util.List;
+
+/**
+ * Batch capable block interface.
+ * 
+ * The block can process the inputs of many blocks of its type in one bulk call, e.g. one database
+ * query instead of one per flow instance. Invocations with the same batch key are collected and
+ * passed to {@link #runBatch(List)} of any of the blocks, so the method must not depend on the
+ * state of the particular block beyond what its batch key describes.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public interface BatchCapableBlock extends Block {
+
+    /**
+     * Process the inputs in one bulk call.
+     * 
+     * @param inputs - the inputs.
+     * @return the result texts, one per input in the same order.
+     */
+    List<String> runBatch(List<String> inputs);
+
+    /**
+     * Get the batch key: invocations with equal keys are batched together.
+     * 
+     * The default key is made of the block type id and the implementation class. Override it to
+     * add the configuration which changes what {@link #runBatch(List)} does, so that blocks
+     * configured differently are never batched together.
+     * 
+     * @return the batch key.
+     */
+    default String getBatchKey() {
+        return getBlockTypeId() + '@' + getClass().getName();
+    }
+}
@@ -14,6 +14,9 @@
 
 package ru.spb.tksoft.flowforge.sdk.contract;
 
+import ru.spb.tksoft.flowforge.sdk.value.JsonNode;
+import ru.spb.tksoft.flowforge.sdk.value.Payload;
+
 /**
  * Block interface.
  * 
@@ -59,10 +62,51 @@ public interface Block extends Runnable, Modifiable {
     /**
      * Get the result text.
      * 
+     * For a binary result this is the Base64 of the data, kept for compatibility.
+     * 
      * @return the result text.
      */
     String getResultText();
 
+    /**
+     * Get the result payload: text or binary data.
+     * 
+     * The default implementation wraps {@link #getResultText()}, for blocks which produce text
+     * only.
+     * 
+     * @return the result payload.
+     */
+    default Payload getResultPayload() {
+
+        final String resultText = getResultText();
+        return resultText == null ? Payload.EMPTY : Payload.ofText(resultText);
+    }
+
+    /**
+     * Get the result text parsed as a JSON document.
+     * 
+     * The tree is parsed once per result and shared by all readers (see
+     * {@link Payload#asJson()}).
+     * 
+     * @return the root node.
+     * @throws IllegalArgumentException - if the result text is not a JSON document.
+     */
+    default JsonNode getResultJson() {
+        return getResultPayload().asJson();
+    }
+
+    /**
+     * Check if the result of the block may be cached.
+     * 
+     * Return true only if the result text is a pure function of the block type id, the input text
+     * and the results of the predecessors. Not cacheable by default.
+     * 
+     * @return true if the result may be cached, false otherwise.
+     */
+    default boolean isCacheable() {
+        return false;
+    }
+
     /**
      * Get the printable state.
      * 
@@ -70,6 +114,18 @@ public interface Block extends Runnable, Modifiable {
      */
     String getPrintableState();
 
+    /**
+     * Get the snapshot of the block state.
+     * 
+     * The default implementation reads the accessors one by one. Implementations which publish
+     * immutable snapshots on every mutation return them without locking.
+     * 
+     * @return the snapshot of the block state.
+     */
+    default BlockSnapshot snapshot() {
+        return BlockSnapshot.of(this);
+    }
+
     /**
      * Get the input junction.
      * 
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.contract;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Block batcher interface.
+ * 
+ * Collects invocations of batch capable blocks and runs those with equal batch keys (see
+ * {@link BatchCapableBlock#getBatchKey()}) in one bulk call of
+ * {@link BatchCapableBlock#runBatch(java.util.List)}. Implementations must be thread-safe.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public interface BlockBatcher {
+
+    /**
+     * Submit an invocation.
+     * 
+     * @param block - the block, its {@code runBatch()} may run the whole batch.
+     * @param input - the input of the invocation.
+     * @return the stage which is completed with the result text of the invocation, or completed
+     *         exceptionally if the batch fails.
+     */
+    CompletionStage<String> submit(BatchCapableBlock block, String input);
+}
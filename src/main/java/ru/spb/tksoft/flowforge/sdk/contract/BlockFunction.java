@@ -0,0 +1,37 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.contract;
+
+/**
+ * Block function interface.
+ * 
+ * Stateless computation of a block type, used to run flow templates without block objects: the
+ * per-run state lives in the flow instance, not in the function.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+@FunctionalInterface
+public interface BlockFunction {
+
+    /**
+     * Compute the result of the block.
+     * 
+     * @param inputText - the effective input text of the block.
+     * @param upstreamResult - the joined results of the predecessors, as returned by
+     *        {@link LineJunction#getResultString()}. Empty for the blocks without input lines.
+     * @return the result text.
+     */
+    String apply(String inputText, String upstreamResult);
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.contract;
+
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.flowforge.sdk.enumeration.RunnableState;
+
+/**
+ * Immutable snapshot of the block state.
+ * 
+ * Published by the block on every mutation, so monitoring readers get a consistent view without
+ * locking. Snapshots of the same block are ordered by the version.
+ * 
+ * @param version - the version of the snapshot, greater for later snapshots of the same block.
+ * @param blockTypeId - the block type id.
+ * @param internalBlockId - the internal block id.
+ * @param defaultInputText - the default input text.
+ * @param inputText - the input text (the default input text if the input text is blank).
+ * @param resultText - the result text.
+ * @param state - the state.
+ * @param hasError - the error flag.
+ * @param errorMessage - the error message.
+ * @param modified - the modified flag.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public record BlockSnapshot(
+        long version,
+        @NotNull String blockTypeId,
+        @NotNull String internalBlockId,
+        @NotNull String defaultInputText,
+        @NotNull String inputText,
+        @NotNull String resultText,
+        @NotNull RunnableState state,
+        boolean hasError,
+        @NotNull String errorMessage,
+        boolean modified) {
+
+    private static final String NL = System.lineSeparator();
+
+    /**
+     * Take a snapshot of a block through its accessors.
+     * 
+     * The view is consistent only if the block is not changing meanwhile. Blocks which publish
+     * their own snapshots (see {@link Block#snapshot()}) do not need it.
+     * 
+     * @param block - the block.
+     * @return the snapshot with version 0.
+     */
+    @NotNull
+    public static BlockSnapshot of(final @NotNull Block block) {
+
+        return new BlockSnapshot(0,
+                block.getBlockTypeId(), block.getInternalBlockId(),
+                block.getDefaultInputText(), block.getInputText(), block.getResultText(),
+                block.getState(), block.hasError(), block.getErrorMessage(), block.isModified());
+    }
+
+    /**
+     * Get the printable state.
+     * 
+     * @return the printable state in a human readable format.
+     */
+    @NotNull
+    public String toPrintableState() {
+
+        return new StringBuilder(160 + inputText.length() + resultText.length())
+                .append("Block Type ID: ").append(blockTypeId).append(NL)
+                .append("Internal Block ID: ").append(internalBlockId).append(NL)
+                .append("Default Input Text: ").append(defaultInputText).append(NL)
+                .append("Input Text: ").append(inputText).append(NL)
+                .append("Result Text: ").append(resultText).append(NL)
+                .append("State: ").append(state).append(NL)
+                .append("Has Error: ").append(hasError).append(NL)
+                .append("Error Message: ").append(errorMessage).append(NL)
+                .append("Modified: ").append(modified)
+                .toString();
+    }
+}
@@ -16,14 +16,25 @@
 
 package ru.spb.tksoft.flowforge.sdk.contract;
 
+import java.io.IOException;
+import java.io.Reader;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
 import ru.spb.tksoft.flowforge.sdk.enumeration.LineState;
+import ru.spb.tksoft.flowforge.sdk.value.JsonNode;
+import ru.spb.tksoft.flowforge.sdk.value.Payload;
 
 /**
  * Line interface.
  * 
+ * Listeners are notified on every actual transition of the line state.
+ * 
+ * A streaming line carries a stream of records besides the result text: the block from opens the
+ * channel and turns the line ON when it starts running, the block to consumes the records as they
+ * arrive.
+ * 
  * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
  */
-public interface Line extends Modifiable {
+public interface Line extends Modifiable, EventProducer<LineStateChangedEvent> {
 
     /**
      * Get the internal line id.
@@ -71,4 +82,95 @@ public interface Line extends Modifiable {
      * @return the results from previous block.
      */
     String getResultText();
+
+    /**
+     * Get the result payload from previous block.
+     * 
+     * The default implementation wraps {@link #getResultText()}.
+     * 
+     * @return the result payload from previous block.
+     */
+    default Payload getResultPayload() {
+
+        final String resultText = getResultText();
+        return resultText == null ? Payload.EMPTY : Payload.ofText(resultText);
+    }
+
+    /**
+     * Open a reader of the result from previous block, which streams a spilled result from its
+     * file instead of reading it onto the heap as {@link #getResultText()} does.
+     * 
+     * The default implementation reads {@link #getResultPayload()}.
+     * 
+     * @return the reader, to be closed by the caller.
+     * @throws IOException - if the spill file cannot be opened.
+     */
+    default Reader openResultReader() throws IOException {
+        return getResultPayload().openReader();
+    }
+
+    /**
+     * Get the result from previous block parsed as a JSON document, shared with the other
+     * successors of the block.
+     * 
+     * The default implementation parses {@link #getResultPayload()}.
+     * 
+     * @return the root node.
+     * @throws IllegalArgumentException - if the result text is not a JSON document.
+     */
+    default JsonNode getResultJson() {
+        return getResultPayload().asJson();
+    }
+
+    /**
+     * Check if the result carried by the line is consumed: the next block has finished with it.
+     * 
+     * The default implementation never reports the result consumed, so the previous block keeps
+     * it.
+     * 
+     * @return true if the result is consumed, false otherwise.
+     */
+    default boolean isConsumed() {
+        return false;
+    }
+
+    /**
+     * Set the consumed flag of the line.
+     * 
+     * The default implementation ignores the flag.
+     * 
+     * @param consumed - true if the next block has finished with the result.
+     */
+    default void setConsumed(boolean consumed) {
+    }
+
+    /**
+     * Check if the line carries a stream of records.
+     * 
+     * @return true if the line is streaming, false otherwise. The default implementation is not
+     *         streaming.
+     */
+    default boolean isStreaming() {
+        return false;
+    }
+
+    /**
+     * Open a new record channel for a run, replacing the previous one.
+     * 
+     * @return the new channel.
+     * @throws ConfigurationMismatchException - if the line is not streaming, always by default.
+     */
+    default RecordChannel openChannel() {
+        throw new ConfigurationMismatchException(
+                "line is not streaming: " + getInternalLineId());
+    }
+
+    /**
+     * Get the record channel of the current run.
+     * 
+     * @return the channel or null if it is not opened, always null by default.
+     */
+    default RecordChannel getChannel() {
+        return null;
+    }
 }
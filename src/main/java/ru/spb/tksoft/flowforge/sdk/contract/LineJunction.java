@@ -16,7 +16,17 @@
 
 package ru.spb.tksoft.flowforge.sdk.contract;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
 import ru.spb.tksoft.flowforge.sdk.enumeration.LineState;
+import ru.spb.tksoft.flowforge.sdk.value.JoinPolicy;
+import ru.spb.tksoft.flowforge.sdk.value.Payload;
 
 /**
  * LineJunction interface.
@@ -32,6 +42,13 @@ public interface LineJunction {
      */
     void addLine(Line line);
 
+    /**
+     * Get the lines of the junction.
+     * 
+     * @return the unmodifiable list of lines.
+     */
+    List<Line> getLines();
+
     /**
      * Check if the junction has lines.
      * 
@@ -46,6 +63,54 @@ public interface LineJunction {
      */
     void setState(LineState state);
 
+    /**
+     * Select the lines to activate: turn the selected lines ON and the other lines OFF.
+     * 
+     * Used by a block which routes its result conditionally: the blocks behind the lines which are
+     * not selected are on a branch which is not taken.
+     * 
+     * The default implementation does not route: it accepts all lines or none only.
+     * 
+     * @param internalLineIds - the internal ids of the lines to turn ON.
+     * @throws NullArgumentException - if internalLineIds is null.
+     * @throws ConfigurationMismatchException - if only some of the lines are selected and the
+     *         junction does not route.
+     */
+    default void select(Collection<String> internalLineIds) {
+
+        if (internalLineIds == null) {
+            throw new NullArgumentException("internalLineIds must not be null");
+        }
+
+        final Set<String> selected = Set.copyOf(internalLineIds);
+        if (selected.isEmpty()) {
+            setState(LineState.OFF);
+            return;
+        }
+
+        final Set<String> all = getLines().stream().map(Line::getInternalLineId)
+                .collect(Collectors.toSet());
+        if (!selected.equals(all)) {
+            throw new ConfigurationMismatchException(
+                    "line junction can not select some of its lines: " + selected);
+        }
+        setState(LineState.ON);
+    }
+
+    /**
+     * Check if the line is selected by the last activation of the junction: by
+     * {@link #setState(LineState)} with ON (all lines) or by {@link #select(Collection)}.
+     * 
+     * The default implementation, which does not route, selects all lines while the junction is
+     * ON.
+     * 
+     * @param line - the line.
+     * @return true if the line is selected, false otherwise.
+     */
+    default boolean isSelected(Line line) {
+        return line != null && getState() == LineState.ON && getLines().contains(line);
+    }
+
     /**
      * Get the state of the junction.
      * 
@@ -53,10 +118,86 @@ public interface LineJunction {
      */
     LineState getState();
 
+    /**
+     * Set the join policy: how many lines must be ON for the junction to be satisfied.
+     * 
+     * The default implementation supports {@link JoinPolicy#all()} only.
+     * 
+     * @param joinPolicy - the join policy.
+     * @throws NullArgumentException - if joinPolicy is null.
+     * @throws ConfigurationMismatchException - if the junction does not support the policy.
+     */
+    default void setJoinPolicy(JoinPolicy joinPolicy) {
+
+        if (joinPolicy == null) {
+            throw new NullArgumentException("joinPolicy must not be null");
+        }
+        if (!joinPolicy.equals(JoinPolicy.all())) {
+            throw new ConfigurationMismatchException(
+                    "line junction supports only the ALL join policy: " + joinPolicy);
+        }
+    }
+
+    /**
+     * Get the join policy.
+     * 
+     * @return the join policy, {@link JoinPolicy#all()} by default.
+     */
+    default JoinPolicy getJoinPolicy() {
+        return JoinPolicy.all();
+    }
+
+    /**
+     * Check if the junction is satisfied: enough of its lines are ON for its join policy.
+     * 
+     * The default implementation counts the lines which are ON.
+     * 
+     * @return true if the junction is satisfied, false otherwise.
+     */
+    default boolean isSatisfied() {
+
+        final List<Line> lines = getLines();
+        final long on = lines.stream().filter(line -> line.getState() == LineState.ON).count();
+        return on >= getJoinPolicy().getRequiredCount(lines.size());
+    }
+
+    /**
+     * Get the result from previous blocks as a character sequence.
+     * 
+     * The sequence may reference the result texts of the previous blocks instead of copying
+     * them; call toString() to materialize it. The default implementation returns
+     * {@link #getResultString()}.
+     * 
+     * @return the result.
+     */
+    default CharSequence getResult() {
+        return getResultString();
+    }
+
     /**
      * Get the result string from previous blocks.
      * 
      * @return the result string.
      */
     String getResultString();
+
+    /**
+     * Get the result payloads from previous blocks, in the order of the lines, as they are:
+     * binary data is not transcoded.
+     * 
+     * The default implementation takes the non-empty payloads of all lines.
+     * 
+     * @return the result payloads.
+     */
+    default List<Payload> getResultPayloads() {
+
+        final List<Payload> payloads = new ArrayList<>();
+        for (Line line : getLines()) {
+            final Payload payload = line.getResultPayload();
+            if (payload != null && !payload.isEmpty()) {
+                payloads.add(payload);
+            }
+        }
+        return Collections.unmodifiableList(payloads);
+    }
 }
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.contract;
+
+/**
+ * RecordChannel interface: a bounded stream of records from one producer to one consumer.
+ * 
+ * The producer blocks in {@link #send(String)} while the channel is full, so a slow consumer
+ * slows the producer down and the memory held by the channel is bounded by its capacity.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public interface RecordChannel {
+
+    /**
+     * Send a record, waiting while the channel is full.
+     * 
+     * @param record - the record.
+     * @return true if the record is accepted, false if the consumer has cancelled the channel.
+     * @throws InterruptedException - if interrupted while waiting.
+     */
+    boolean send(String record) throws InterruptedException;
+
+    /**
+     * Receive the next record, waiting while the channel is empty.
+     * 
+     * @return the next record or null at the end of the stream.
+     * @throws InterruptedException - if interrupted while waiting.
+     * @throws IllegalStateException - if the producer has failed.
+     */
+    String receive() throws InterruptedException;
+
+    /**
+     * Close the channel: the end of the stream. Never blocks.
+     */
+    void close();
+
+    /**
+     * Fail the channel: the consumer gets the error after the records sent before. Never blocks.
+     * 
+     * @param error - the error.
+     */
+    void fail(Throwable error);
+
+    /**
+     * Cancel the channel from the consumer side: the records are dropped and the producer is not
+     * blocked any more.
+     */
+    void cancel();
+
+    /**
+     * Check if the producer has closed or failed the channel.
+     * 
+     * @return true if the channel is closed, false otherwise.
+     */
+    boolean isClosed();
+
+    /**
+     * Check if the consumer has cancelled the channel.
+     * 
+     * @return true if the channel is cancelled, false otherwise.
+     */
+    boolean isCancelled();
+
+    /**
+     * Get the capacity of the channel.
+     * 
+     * @return the maximum number of records buffered in the channel.
+     */
+    int getCapacity();
+}
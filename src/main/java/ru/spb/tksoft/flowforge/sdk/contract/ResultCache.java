@@ -0,0 +1,56 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.contract;
+
+/**
+ * Result cache interface.
+ * 
+ * Maps content keys (see {@code ResultCacheKey}) to result texts of cacheable blocks.
+ * Implementations must be thread-safe.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public interface ResultCache {
+
+    /**
+     * Get the cached result text.
+     * 
+     * @param key - the key.
+     * @return the result text or null if there is no such key.
+     */
+    String get(String key);
+
+    /**
+     * Put the result text.
+     * 
+     * @param key - the key.
+     * @param resultText - the result text.
+     */
+    void put(String key, String resultText);
+
+    /**
+     * Get the number of hits.
+     * 
+     * @return the number of {@link #get(String)} calls which found the key.
+     */
+    long getHitCount();
+
+    /**
+     * Get the number of misses.
+     * 
+     * @return the number of {@link #get(String)} calls which did not find the key.
+     */
+    long getMissCount();
+}
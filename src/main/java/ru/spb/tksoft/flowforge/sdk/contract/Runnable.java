@@ -56,6 +56,17 @@ public interface Runnable {
      */
     void abort();
 
+    /**
+     * Skip the runnable which is not going to run: move it from READY to SKIPPED.
+     * 
+     * The default implementation does not skip: the runnable stays READY and is never run.
+     * 
+     * @return true if the runnable is skipped, false if it is not READY or can not be skipped.
+     */
+    default boolean skip() {
+        return false;
+    }
+
     /**
      * Reset the runnable.
      */
@@ -0,0 +1,792 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.engine;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.contract.AsyncBlock;
+import ru.spb.tksoft.flowforge.sdk.contract.Block;
+import ru.spb.tksoft.flowforge.sdk.contract.Line;
+import ru.spb.tksoft.flowforge.sdk.enumeration.ExecutionMode;
+import ru.spb.tksoft.flowforge.sdk.enumeration.LineState;
+import ru.spb.tksoft.flowforge.sdk.enumeration.RunnableState;
+import ru.spb.tksoft.flowforge.sdk.value.JoinPolicy;
+import ru.spb.tksoft.utils.log.LogEx;
+
+/**
+ * Flow executor.
+ *
+ * Runs resolved blocks in dependency order. Every block whose input junction is satisfied (all of
+ * its input lines are ON, or as many as its {@link JoinPolicy} requires) is dispatched onto a
+ * fork-join pool or onto virtual threads (see {@link ExecutionMode}), so independent branches of
+ * the flow run concurrently. Ready blocks are discovered from the line state transitions, the
+ * executor never polls the blocks.
+ *
+ * The executor does not change the block state machine: blocks are expected to go
+ * [READY]->[RUNNING]->[DONE] inside {@code run()} (or when the stage returned by
+ * {@link AsyncBlock#runAsync()} completes) and to turn on their output lines (normally with
+ * {@code goFurtherNormal()}). Only lines turned ON by the upstream block make the downstream block
+ * eligible to run, so all lines must be OFF before the execution starts.
+ *
+ * A block may route its result conditionally and turn on only some of its output lines (normally
+ * with {@code goFurtherSelected()}). The lines left OFF by a DONE block are dead: a block with a
+ * dead input line can not run any more, so it is marked SKIPPED without being scheduled, and its
+ * output lines are dead too. The whole unreachable subgraph is skipped in a single pass. A block
+ * which does not wait for all of its input lines is skipped only when too many of them are dead
+ * for its join policy.
+ *
+ * If the join policy of a block cancels the slower predecessors, then once the block fires its
+ * predecessors which have not delivered yet and feed only blocks which have already fired are
+ * skipped (not started yet, and then their own predecessors are considered the same way) or
+ * stopped (running). The failure of a stopped block is ignored.
+ *
+ * Subclassing is not allowed.
+ *
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public final class FlowExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(FlowExecutor.class);
+
+    @NotNull
+    private final Executor executor;
+
+    // Limits the number of blocks running at once, null if unbounded.
+    private final Semaphore permits;
+
+    @NotNull
+    private final FlowPlan plan;
+
+    /**
+     * Constructor. Blocks are dispatched onto the common fork-join pool.
+     *
+     * @param blocks - the resolved blocks.
+     * @param lines - the resolved lines.
+     * @throws NullArgumentException - if blocks or lines is null.
+     * @throws ConfigurationMismatchException - if the lines are not resolved, refer to unknown
+     *         blocks, block ids are duplicated or the flow has a cycle.
+     */
+    public FlowExecutor(final List<Block> blocks, final List<Line> lines) {
+        this(blocks, lines, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor. Blocks are dispatched onto the common fork-join pool.
+     *
+     * @param graph - the graph built by {@link FlowGraphBuilder}.
+     * @throws NullArgumentException - if graph is null.
+     * @throws ConfigurationMismatchException - if the flow has a cycle.
+     */
+    public FlowExecutor(final FlowGraph graph) {
+        this(requireGraph(graph).getBlocks(), graph.getLines());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param blocks - the resolved blocks.
+     * @param lines - the resolved lines.
+     * @param pool - the pool to dispatch blocks onto.
+     * @throws NullArgumentException - if blocks, lines or pool is null.
+     * @throws ConfigurationMismatchException - if the lines are not resolved, refer to unknown
+     *         blocks, block ids are duplicated or the flow has a cycle.
+     */
+    public FlowExecutor(final List<Block> blocks, final List<Line> lines,
+            final ForkJoinPool pool) {
+
+        this(blocks, lines, pool, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * In {@link ExecutionMode#FORK_JOIN} mode blocks are dispatched onto the common fork-join pool.
+     * In {@link ExecutionMode#VIRTUAL_THREADS} mode every block invocation runs on its own virtual
+     * thread, which suits blocks waiting on I/O inside {@code run()}. In both modes no more than
+     * maxConcurrency blocks run at once, the rest wait in the ready queue. An asynchronous block
+     * counts only while its stage is being started, not while the stage is pending.
+     *
+     * @param blocks - the resolved blocks.
+     * @param lines - the resolved lines.
+     * @param mode - the execution mode.
+     * @param maxConcurrency - the maximum number of blocks running at once.
+     * @throws NullArgumentException - if blocks, lines or mode is null.
+     * @throws IllegalArgumentException - if maxConcurrency is not positive.
+     * @throws ConfigurationMismatchException - if the lines are not resolved, refer to unknown
+     *         blocks, block ids are duplicated or the flow has a cycle.
+     */
+    public FlowExecutor(final List<Block> blocks, final List<Line> lines,
+            final ExecutionMode mode, final int maxConcurrency) {
+
+        this(blocks, lines, toExecutor(mode), toPermits(maxConcurrency));
+    }
+
+    /**
+     * Constructor. Blocks are dispatched onto the common fork-join pool.
+     *
+     * Use it to run the same compiled plan many times without compiling it again.
+     *
+     * @param plan - the compiled flow plan.
+     * @throws NullArgumentException - if plan is null.
+     */
+    public FlowExecutor(final FlowPlan plan) {
+        this(plan, ForkJoinPool.commonPool(), null);
+    }
+
+    private FlowExecutor(final List<Block> blocks, final List<Line> lines,
+            final Executor executor, final Semaphore permits) {
+
+        this(FlowPlan.compile(blocks, lines), executor, permits);
+    }
+
+    private FlowExecutor(final FlowPlan plan, final Executor executor,
+            final Semaphore permits) {
+
+        if (plan == null || executor == null) {
+            throw new NullArgumentException("plan, pool must not be null");
+        }
+
+        this.executor = executor;
+        this.permits = permits;
+        this.plan = plan;
+    }
+
+    @NotNull
+    private static FlowGraph requireGraph(final FlowGraph graph) {
+
+        if (graph == null) {
+            throw new NullArgumentException("graph must not be null");
+        }
+        return graph;
+    }
+
+    /**
+     * Get the executor for the execution mode.
+     *
+     * @param mode - the execution mode.
+     * @return the executor.
+     */
+    private static Executor toExecutor(final ExecutionMode mode) {
+
+        if (mode == null) {
+            throw new NullArgumentException("mode must not be null");
+        }
+
+        if (mode == ExecutionMode.VIRTUAL_THREADS) {
+            final ThreadFactory factory = Thread.ofVirtual().name("flow-block-", 0).factory();
+            return task -> factory.newThread(task).start();
+        }
+
+        return ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Get the permits for the concurrency cap.
+     *
+     * @param maxConcurrency - the maximum number of blocks running at once.
+     * @return the permits.
+     */
+    private static Semaphore toPermits(final int maxConcurrency) {
+
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+
+        return new Semaphore(maxConcurrency);
+    }
+
+    /**
+     * Get the blocks in topological order.
+     *
+     * @return the unmodifiable list of blocks in topological order.
+     */
+    @NotNull
+    public List<Block> getTopologicalOrder() {
+        return plan.getTopologicalBlocks();
+    }
+
+    /**
+     * Get the compiled flow plan.
+     *
+     * @return the flow plan.
+     */
+    @NotNull
+    public FlowPlan getPlan() {
+        return plan;
+    }
+
+    /**
+     * Execute the flow and wait for its completion.
+     *
+     * Blocks without input lines are dispatched first. Every other block is dispatched once, as
+     * soon as the last of its input lines turns ON (see {@link ReadyQueue}). The method returns
+     * when no block is running and no block can be dispatched any more.
+     *
+     * Blocks which end up DONE or SKIPPED are marked as not modified, so a later
+     * {@link #executeIncremental()} re-executes only what changes after this run.
+     *
+     * @throws RuntimeException - the first exception thrown by a block, rethrown after all
+     *         dispatched blocks have finished. Subsequent exceptions are added as suppressed.
+     */
+    public void execute() {
+
+        LogEx.info(log, LogEx.me(), "flow execution started");
+
+        final BitSet all = new BitSet(plan.getBlockCount());
+        all.set(0, plan.getBlockCount());
+        execute(all);
+
+        LogEx.info(log, LogEx.me(), "flow execution completed");
+    }
+
+    /**
+     * Re-execute only the dirty part of the flow and wait for its completion.
+     *
+     * A block is dirty if it is modified (e.g. its input text was changed) or it is neither DONE
+     * nor SKIPPED. The dirty blocks and everything downstream of them (the dirty cone) are set
+     * READY and run again, the blocks outside the cone are not touched and their cached result
+     * texts are reused. Input lines coming into the cone from outside are turned ON if they are
+     * selected by their block, lines inside the cone are turned OFF.
+     *
+     * Blocks which end up DONE or SKIPPED are marked as not modified. Blocks with an error must be
+     * reset before.
+     *
+     * @throws RuntimeException - the first exception thrown by a block, rethrown after all
+     *         dispatched blocks have finished. Subsequent exceptions are added as suppressed.
+     * @throws ConfigurationMismatchException - if a dirty block has an error.
+     */
+    public void executeIncremental() {
+
+        final BitSet cone = findDirtyCone();
+        if (cone.isEmpty()) {
+            LogEx.info(log, LogEx.me(), "incremental flow execution skipped: nothing is modified");
+            return;
+        }
+
+        LogEx.info(log, LogEx.me(), "incremental flow execution started: " + cone.cardinality()
+                + " of " + plan.getBlockCount() + " blocks");
+
+        prepareCone(cone);
+        execute(cone);
+
+        LogEx.info(log, LogEx.me(), "incremental flow execution completed");
+    }
+
+    /**
+     * Run the blocks and mark the ones which end up DONE or SKIPPED as not modified.
+     *
+     * @param blocks - the block indexes to run.
+     */
+    private void execute(final BitSet blocks) {
+
+        try (Run run = new Run()) {
+            run.start(blocks);
+            run.await();
+        } finally {
+            blocks.stream()
+                    .mapToObj(plan::getBlock)
+                    .filter(block -> block.getState() == RunnableState.DONE
+                            || block.getState() == RunnableState.SKIPPED)
+                    .forEach(Block::resetModified);
+        }
+    }
+
+    /**
+     * Find the dirty blocks and all blocks downstream of them.
+     *
+     * @return the block indexes of the dirty cone.
+     */
+    @NotNull
+    private BitSet findDirtyCone() {
+
+        final BitSet cone = new BitSet(plan.getBlockCount());
+
+        // A single pass in topological order: predecessors are visited before successors.
+        for (int position = 0; position < plan.getBlockCount(); position++) {
+            final int block = plan.getTopologicalBlock(position);
+            if (!cone.get(block)) {
+                final Block b = plan.getBlock(block);
+                if (!b.isModified() && (b.getState() == RunnableState.DONE
+                        || b.getState() == RunnableState.SKIPPED)) {
+                    continue;
+                }
+                cone.set(block);
+            }
+
+            for (int k = 0; k < plan.getFanOut(block); k++) {
+                cone.set(plan.getSuccessor(block, k));
+            }
+        }
+
+        return cone;
+    }
+
+    /**
+     * Set the blocks of the cone READY and their input lines ON (from outside of the cone and
+     * selected by their block, the results are cached) or OFF (from inside of the cone, the
+     * results are to be recomputed, or not selected, the line is dead).
+     *
+     * @param cone - the block indexes of the dirty cone.
+     */
+    private void prepareCone(final BitSet cone) {
+
+        cone.stream().forEach(block -> {
+            plan.getBlock(block).setReady();
+
+            for (int k = 0; k < plan.getFanIn(block); k++) {
+                final int predecessor = plan.getPredecessor(block, k);
+                final Line line = plan.getLine(plan.getPredecessorLine(block, k));
+                line.setState(!cone.get(predecessor)
+                        && plan.getBlock(predecessor).getOutputJunction().isSelected(line)
+                                ? LineState.ON
+                                : LineState.OFF);
+            }
+        });
+    }
+
+    /**
+     * State of a single execution.
+     */
+    private final class Run implements AutoCloseable {
+
+        // Blocks fused into their predecessor are run by the chain, not enqueued.
+        private final ReadyQueue readyQueue = new ReadyQueue(plan, true);
+
+        // The caller holds one token until all roots are dispatched, so completion can not be
+        // signalled while roots are still being dispatched.
+        private final AtomicInteger inFlight = new AtomicInteger(1);
+
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+        private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        // Number of dead input lines of every block.
+        private final AtomicIntegerArray deadInputs = new AtomicIntegerArray(plan.getBlockCount());
+
+        // Blocks to run, the others are not touched.
+        private BitSet scope;
+
+        // Running blocks stopped because a block they feed has fired without them.
+        private final Set<Integer> cancelled = ConcurrentHashMap.newKeySet();
+
+        // Fused chains to resume after their asynchronous block, each holding an in-flight token.
+        private final ConcurrentLinkedQueue<Integer> resumed = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Seed the ready queue with the given blocks. Blocks made ready later are dispatched by
+         * the thread which turned their last input line ON.
+         *
+         * Input lines which come from the blocks not to run and are OFF never turn ON in this run,
+         * so they are dead from the start.
+         *
+         * @param blocks - the block indexes to seed the queue with.
+         */
+        void start(final BitSet blocks) {
+
+            scope = blocks;
+            blocks.stream().forEach(block -> {
+                for (int k = 0; k < plan.getFanIn(block); k++) {
+                    final int line = plan.getPredecessorLine(block, k);
+                    if (!blocks.get(plan.getPredecessor(block, k))
+                            && plan.getLine(line).getState() != LineState.ON) {
+                        eliminateDeadLine(line);
+                    }
+                }
+            });
+
+            readyQueue.addListener(block -> {
+                cancelSlower(plan.indexOf(block.getInternalBlockId()));
+                dispatchReady();
+            });
+            readyQueue.offerSatisfied(blocks);
+        }
+
+        /**
+         * Dispatch the resumed chains and the ready blocks onto the executor while the concurrency
+         * cap allows it.
+         */
+        private void dispatchReady() {
+
+            while (true) {
+                if (permits != null && !permits.tryAcquire()) {
+                    // A running block dispatches the rest when it releases its permit.
+                    return;
+                }
+
+                final Integer chain = resumed.poll();
+                if (chain != null) {
+                    // The in-flight token of the asynchronous block passes to its chain.
+                    submit(chain);
+                    continue;
+                }
+
+                final Block block = readyQueue.poll();
+                if (block == null) {
+                    if (permits != null) {
+                        permits.release();
+                    }
+
+                    // Re-check: a block enqueued while the permit was held could be missed.
+                    if (readyQueue.isEmpty() && resumed.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+
+                inFlight.incrementAndGet();
+                submit(plan.indexOf(block.getInternalBlockId()));
+            }
+        }
+
+        /**
+         * Submit the chain of the block to the executor, holding a permit and an in-flight token.
+         *
+         * If the executor rejects it, the block is aborted and the failure is recorded, the permit
+         * and the in-flight token are returned at once, so the run still settles.
+         *
+         * @param block - the index of the first block of the chain.
+         */
+        private void submit(final int block) {
+
+            try {
+                executor.execute(() -> runChain(block));
+            } catch (RejectedExecutionException e) {
+                fail(block, e);
+                final Block b = plan.getBlock(block);
+                if (b.getState() == RunnableState.READY) {
+                    b.abort();
+                }
+                if (permits != null) {
+                    // The caller goes on dispatching, the permit is not released through it.
+                    permits.release();
+                }
+                release();
+            }
+        }
+
+        /**
+         * Run the block and the blocks of its fused chain (see {@link FlowPlan#getChainNext(int)})
+         * back to back on this thread. The other successors are made ready by the transitions of
+         * the output lines.
+         *
+         * An asynchronous block releases its permit as soon as its stage is started and holds
+         * only its in-flight token until the stage completes, neither a thread nor a permit. The
+         * rest of its chain then waits for a permit like a ready block.
+         *
+         * A block with a streaming output line releases its permit before it runs: it waits for
+         * its consumers while it runs, and they need permits to run, so it does not count
+         * against the concurrency cap.
+         *
+         * @param head - the index of the first block to run.
+         */
+        private void runChain(final int head) {
+
+            int index = head;
+            boolean started = false;
+            boolean permitHeld = permits != null;
+            try {
+                while (index >= 0 && plan.getBlock(index).getState().isReadyToRun()) {
+                    final Block block = plan.getBlock(index);
+                    if (permitHeld && plan.hasStreamingOutput(index)) {
+                        permitHeld = false;
+                        releasePermit();
+                    }
+                    if (block instanceof AsyncBlock asyncBlock) {
+                        final int current = index;
+                        asyncBlock.runAsync()
+                                .whenComplete((resultText, error) -> settleAsync(current, error));
+                        started = true;
+                        break;
+                    }
+
+                    block.run();
+                    eliminateDeadBranches(index);
+                    index = nextInChain(index);
+                }
+            } catch (RuntimeException | Error e) {
+                abortFailed(index);
+                fail(index, e);
+            }
+
+            try {
+                if (permitHeld) {
+                    releasePermit();
+                }
+            } finally {
+                // The stage of an asynchronous block settles its in-flight token.
+                if (!started) {
+                    release();
+                }
+            }
+        }
+
+        /**
+         * Settle the completed stage of an asynchronous block: record its failure, or eliminate
+         * its dead branches and resume its chain. The in-flight token of the block is released
+         * whatever is thrown on the way, so the execution always completes.
+         *
+         * @param block - the index of the asynchronous block.
+         * @param error - the error the stage has completed with, or null.
+         */
+        private void settleAsync(final int block, final Throwable error) {
+
+            boolean chained = false;
+            try {
+                if (error != null) {
+                    fail(block, error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause()
+                            : error);
+                    return;
+                }
+
+                eliminateDeadBranches(block);
+                final int next = nextInChain(block);
+                if (next >= 0) {
+                    resumed.add(next);
+                    chained = true;
+                    dispatchReady();
+                }
+            } catch (RuntimeException | Error e) {
+                fail(block, e);
+            } finally {
+                if (!chained) {
+                    release();
+                }
+            }
+        }
+
+        /**
+         * Abort the block whose run has thrown while RUNNING, so it does not stay RUNNING: the
+         * block settles what it holds for the run, e.g. the flight of identical invocations it
+         * leads.
+         *
+         * @param block - the index of the failed block.
+         */
+        private void abortFailed(final int block) {
+
+            final Block b = plan.getBlock(block);
+            if (b.getState() == RunnableState.RUNNING) {
+                b.abort();
+            }
+        }
+
+        /**
+         * Eliminate the branches not taken by the block: if it is DONE, its output lines which are
+         * not selected are dead.
+         *
+         * @param block - the block index.
+         */
+        private void eliminateDeadBranches(final int block) {
+
+            final Block b = plan.getBlock(block);
+            if (b.getState() != RunnableState.DONE) {
+                return;
+            }
+
+            for (int k = 0; k < plan.getFanOut(block); k++) {
+                final int line = plan.getSuccessorLine(block, k);
+                if (!b.getOutputJunction().isSelected(plan.getLine(line))) {
+                    eliminateDeadLine(line);
+                }
+            }
+        }
+
+        /**
+         * Propagate the dead line downstream in a single pass: the block behind it can not run,
+         * so it is skipped and all of its output lines are dead too. Every line is visited at most
+         * once, the skipped blocks are never scheduled.
+         *
+         * @param deadLine - the dead line index.
+         */
+        private void eliminateDeadLine(final int deadLine) {
+
+            final ArrayDeque<Integer> dead = new ArrayDeque<>();
+            dead.push(deadLine);
+
+            while (!dead.isEmpty()) {
+                final int block = plan.getLineTo(dead.pop());
+
+                // The block is skipped by the dead input line which leaves too few live ones for
+                // its join policy, by one line only.
+                if (!scope.get(block) || deadInputs.incrementAndGet(block)
+                        != plan.getFanIn(block) - readyQueue.getRequiredCount(block) + 1
+                        || !plan.getBlock(block).skip()) {
+                    continue;
+                }
+
+                for (int k = 0; k < plan.getFanOut(block); k++) {
+                    dead.push(plan.getSuccessorLine(block, k));
+                }
+            }
+        }
+
+        /**
+         * Cancel the slower predecessors of the block which has fired, if its join policy asks for
+         * it. A predecessor is cancelled only if all blocks it feeds have fired or are skipped.
+         *
+         * @param block - the index of the block which has fired.
+         */
+        private void cancelSlower(final int block) {
+
+            if (!plan.getBlock(block).getInputJunction().getJoinPolicy().cancelSlower()) {
+                return;
+            }
+
+            final ArrayDeque<Integer> candidates = new ArrayDeque<>();
+            for (int k = 0; k < plan.getFanIn(block); k++) {
+                if (plan.getLine(plan.getPredecessorLine(block, k)).getState() != LineState.ON) {
+                    candidates.push(plan.getPredecessor(block, k));
+                }
+            }
+
+            while (!candidates.isEmpty()) {
+                final int predecessor = candidates.pop();
+                if (!scope.get(predecessor) || !isConsumed(predecessor)) {
+                    continue;
+                }
+
+                final Block p = plan.getBlock(predecessor);
+                if (p.skip()) {
+                    for (int k = 0; k < plan.getFanIn(predecessor); k++) {
+                        candidates.push(plan.getPredecessor(predecessor, k));
+                    }
+                } else if (p.getState() == RunnableState.RUNNING) {
+                    cancelled.add(predecessor);
+                    p.stop();
+                    LogEx.info(log, LogEx.me(), "slower block stopped: "
+                            + p.getInternalBlockId());
+                }
+            }
+        }
+
+        /**
+         * Check if nobody waits for the block any more: all blocks it feeds have fired or are
+         * skipped.
+         *
+         * @param block - the block index.
+         * @return true if the block is not needed, false otherwise.
+         */
+        private boolean isConsumed(final int block) {
+
+            for (int k = 0; k < plan.getFanOut(block); k++) {
+                final int successor = plan.getSuccessor(block, k);
+                if (!readyQueue.isEnqueued(successor)
+                        && plan.getBlock(successor).getState() != RunnableState.SKIPPED) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Get the next block of the chain if the block has turned the chain line ON.
+         *
+         * @param block - the block index.
+         * @return the next block index or -1.
+         */
+        private int nextInChain(final int block) {
+
+            final int next = plan.getChainNext(block);
+            if (next < 0 || plan.getLine(plan.getSuccessorLine(block, 0)).getState()
+                    != LineState.ON) {
+                return -1;
+            }
+            return next;
+        }
+
+        /**
+         * Record the failure unless the block has been cancelled.
+         *
+         * @param block - the index of the failed block.
+         * @param error - the error.
+         */
+        private void fail(final int block, final Throwable error) {
+
+            if (cancelled.contains(block)) {
+                LogEx.info(log, LogEx.me(), "failure of cancelled block ignored: "
+                        + plan.getBlock(block).getInternalBlockId());
+                return;
+            }
+
+            final RuntimeException e = error instanceof RuntimeException re ? re
+                    : new CompletionException(error);
+            if (!failure.compareAndSet(null, e)) {
+                failure.get().addSuppressed(e);
+            }
+        }
+
+        /**
+         * Release the permit of the block and dispatch the blocks waiting for it.
+         */
+        private void releasePermit() {
+
+            if (permits != null) {
+                permits.release();
+                dispatchReady();
+            }
+        }
+
+        /**
+         * Release one in-flight token and signal the completion on the last one.
+         */
+        private void release() {
+
+            if (inFlight.decrementAndGet() == 0) {
+                completion.complete(null);
+            }
+        }
+
+        /**
+         * Wait until all dispatched blocks have finished.
+         */
+        void await() {
+
+            release();
+            completion.join();
+
+            final RuntimeException e = failure.get();
+            if (e != null) {
+                throw e;
+            }
+        }
+
+        /**
+         * Unsubscribe the ready queue from the lines.
+         */
+        @Override
+        public void close() {
+            readyQueue.close();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.engine;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.flowforge.sdk.contract.Block;
+import ru.spb.tksoft.flowforge.sdk.contract.Line;
+
+/**
+ * Flow graph: the wired blocks and lines of a flow.
+ * 
+ * Built by {@link FlowGraphBuilder}. The graph is immutable, the blocks and lines are not.
+ * 
+ * Subclassing is not allowed.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public final class FlowGraph {
+
+    @NotNull
+    private final List<Block> blocks;
+
+    @NotNull
+    private final List<Line> lines;
+
+    @NotNull
+    private final Map<String, Block> blocksById;
+
+    /**
+     * Constructor.
+     * 
+     * @param blocks - the blocks in the declaration order.
+     * @param lines - the wired lines in the declaration order.
+     * @param blocksById - the blocks by internal block id.
+     */
+    FlowGraph(final List<Block> blocks, final List<Line> lines,
+            final Map<String, Block> blocksById) {
+
+        this.blocks = Collections.unmodifiableList(blocks);
+        this.lines = Collections.unmodifiableList(lines);
+        this.blocksById = Collections.unmodifiableMap(blocksById);
+    }
+
+    /**
+     * Get the blocks.
+     * 
+     * @return the unmodifiable list of blocks in the declaration order.
+     */
+    @NotNull
+    public List<Block> getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * Get the lines.
+     * 
+     * @return the unmodifiable list of lines in the declaration order.
+     */
+    @NotNull
+    public List<Line> getLines() {
+        return lines;
+    }
+
+    /**
+     * Get the terminal blocks: the blocks without output lines, whose results are the outputs of
+     * the flow.
+     * 
+     * Pass them to {@link ru.spb.tksoft.flowforge.sdk.model.BlockOutputPublisher} to publish the
+     * outputs of the flow.
+     * 
+     * @return the unmodifiable list of terminal blocks in the declaration order.
+     */
+    @NotNull
+    public List<Block> getTerminalBlocks() {
+
+        return blocks.stream()
+                .filter(block -> block.getOutputJunction().getLines().isEmpty())
+                .toList();
+    }
+
+    /**
+     * Get the block by internal block id.
+     * 
+     * @param internalBlockId - the internal block id.
+     * @return the block or null if there is no such block.
+     */
+    public Block getBlock(final String internalBlockId) {
+        return blocksById.get(internalBlockId);
+    }
+}
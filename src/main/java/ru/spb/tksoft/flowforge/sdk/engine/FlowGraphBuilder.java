@@ -0,0 +1,203 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.engine;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.contract.Block;
+import ru.spb.tksoft.flowforge.sdk.contract.Line;
+import ru.spb.tksoft.flowforge.sdk.model.LineImpl;
+import ru.spb.tksoft.utils.log.LogEx;
+
+/**
+ * Flow graph builder.
+ * 
+ * Wires lines and blocks in a single O(B+L) pass: blocks are indexed by internal block id once,
+ * then every line is resolved and added to the output junction of its block from and to the input
+ * junction of its block to. Replaces calling {@code LineImpl.resolveBlocks(List)} and
+ * {@code BlockBaseImpl.resolveLines(List)} for every line and block, which is O(B*L).
+ * 
+ * The whole input is validated before anything is wired, and all problems (duplicate ids, dangling
+ * block ids, already wired blocks or lines) are reported at once.
+ * 
+ * Not thread-safe. Subclassing is not allowed.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public final class FlowGraphBuilder {
+
+    private static final Logger log = LoggerFactory.getLogger(FlowGraphBuilder.class);
+
+    @NotNull
+    private final List<Block> blocks = new ArrayList<>();
+
+    @NotNull
+    private final List<LineImpl> lines = new ArrayList<>();
+
+    /**
+     * Add a block.
+     * 
+     * @param block - the block.
+     * @return this builder.
+     * @throws NullArgumentException - if block is null.
+     */
+    @NotNull
+    public FlowGraphBuilder addBlock(final Block block) {
+
+        if (block == null) {
+            throw new NullArgumentException("block must not be null");
+        }
+
+        blocks.add(block);
+        return this;
+    }
+
+    /**
+     * Add blocks. Null elements are ignored.
+     * 
+     * @param blocks - the blocks.
+     * @return this builder.
+     * @throws NullArgumentException - if blocks is null.
+     */
+    @NotNull
+    public FlowGraphBuilder addBlocks(final Collection<? extends Block> blocks) {
+
+        if (blocks == null) {
+            throw new NullArgumentException("blocks must not be null");
+        }
+
+        blocks.stream().filter(Objects::nonNull).forEach(this.blocks::add);
+        return this;
+    }
+
+    /**
+     * Add a line.
+     * 
+     * @param line - the unresolved line.
+     * @return this builder.
+     * @throws NullArgumentException - if line is null.
+     */
+    @NotNull
+    public FlowGraphBuilder addLine(final LineImpl line) {
+
+        if (line == null) {
+            throw new NullArgumentException("line must not be null");
+        }
+
+        lines.add(line);
+        return this;
+    }
+
+    /**
+     * Add lines. Null elements are ignored.
+     * 
+     * @param lines - the unresolved lines.
+     * @return this builder.
+     * @throws NullArgumentException - if lines is null.
+     */
+    @NotNull
+    public FlowGraphBuilder addLines(final Collection<? extends LineImpl> lines) {
+
+        if (lines == null) {
+            throw new NullArgumentException("lines must not be null");
+        }
+
+        lines.stream().filter(Objects::nonNull).forEach(this.lines::add);
+        return this;
+    }
+
+    /**
+     * Validate the blocks and lines and wire them.
+     * 
+     * @return the flow graph.
+     * @throws ConfigurationMismatchException - with the list of all problems found, if any. Nothing
+     *         is wired in this case.
+     */
+    @NotNull
+    public FlowGraph build() {
+
+        final List<String> problems = new ArrayList<>();
+
+        final Map<String, Block> blocksById = new HashMap<>(blocks.size() * 2);
+        final Set<String> duplicateBlockIds = new LinkedHashSet<>();
+        for (Block block : blocks) {
+            if (blocksById.putIfAbsent(block.getInternalBlockId(), block) != null) {
+                duplicateBlockIds.add(block.getInternalBlockId());
+            }
+            if (block.getInputJunction().hasLines() || block.getOutputJunction().hasLines()) {
+                problems.add("block is already wired: " + block.getInternalBlockId());
+            }
+        }
+        duplicateBlockIds.forEach(id -> problems.add("duplicate block id: " + id));
+
+        final Set<String> lineIds = new HashSet<>(lines.size() * 2);
+        final Set<String> duplicateLineIds = new LinkedHashSet<>();
+        for (LineImpl line : lines) {
+            if (!lineIds.add(line.getInternalLineId())) {
+                duplicateLineIds.add(line.getInternalLineId());
+            }
+            if (line.getBlockFrom() != null || line.getBlockTo() != null) {
+                problems.add("line is already resolved: " + line.getInternalLineId());
+            }
+            if (!blocksById.containsKey(line.getBlockFromInternalId())) {
+                problems.add("line " + line.getInternalLineId() + " refers to unknown block from: "
+                        + line.getBlockFromInternalId());
+            }
+            if (!blocksById.containsKey(line.getBlockToInternalId())) {
+                problems.add("line " + line.getInternalLineId() + " refers to unknown block to: "
+                        + line.getBlockToInternalId());
+            }
+        }
+        duplicateLineIds.forEach(id -> problems.add("duplicate line id: " + id));
+
+        if (!problems.isEmpty()) {
+            throw new ConfigurationMismatchException(
+                    "flow graph is invalid (" + problems.size() + " problems): "
+                            + String.join("; ", problems));
+        }
+
+        final List<Line> wiredLines = new ArrayList<>(lines.size());
+        for (LineImpl line : lines) {
+            final Block blockFrom = blocksById.get(line.getBlockFromInternalId());
+            final Block blockTo = blocksById.get(line.getBlockToInternalId());
+
+            // Line diagram:
+            // blockFrom --------> blockTo
+            // equivalent to block diagram:
+            // outputJunction ---> inputJunction
+            line.resolveBlocks(blockFrom, blockTo);
+            blockFrom.getOutputJunction().addLine(line);
+            blockTo.getInputJunction().addLine(line);
+            wiredLines.add(line);
+        }
+
+        LogEx.info(log, LogEx.me(), "flow graph built: " + blocks.size() + " blocks, "
+                + wiredLines.size() + " lines");
+
+        return new FlowGraph(new ArrayList<>(blocks), wiredLines, blocksById);
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.engine;
+
+import java.util.Arrays;
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.flowforge.sdk.enumeration.RunnableState;
+import ru.spb.tksoft.flowforge.sdk.value.JoinPolicy;
+
+/**
+ * Flow instance: a single run of a {@link FlowTemplate}.
+ * 
+ * Holds only the per-run state in arrays indexed by block index: input texts, result texts,
+ * states and error messages. Everything else is shared with the template.
+ * 
+ * {@link #run()} runs the blocks in topological order on the calling thread, so many instances
+ * of the same template can run concurrently on different threads. A block runs once enough of its
+ * predecessors are DONE for the join policy of its input junction (see {@link JoinPolicy}), all
+ * of them by default. As with the executor, it fires on the predecessors which are DONE first: with
+ * ANY or QUORUM, the results of the predecessors done after the policy was met are not joined.
+ * Block functions do not route, so every output line of a DONE block is taken. A block whose
+ * function throws is ABORTED, the descendants which can no longer run stay READY, independent
+ * blocks still run.
+ * 
+ * Not thread-safe. Subclassing is not allowed.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public final class FlowInstance {
+
+    private static final String NL = System.lineSeparator();
+
+    @NotNull
+    private final FlowTemplate template;
+
+    // Null means the default input text of the template.
+    @NotNull
+    private final String[] inputTexts;
+
+    @NotNull
+    private final String[] resultTexts;
+
+    @NotNull
+    private final RunnableState[] states;
+
+    @NotNull
+    private final String[] errorMessages;
+
+    // The order in which the blocks became DONE, valid for DONE blocks only.
+    @NotNull
+    private final int[] doneOrders;
+
+    private int doneCount;
+
+    /**
+     * Constructor.
+     * 
+     * @param template - the template.
+     */
+    FlowInstance(final FlowTemplate template) {
+
+        final int count = template.getBlockCount();
+        this.template = template;
+        this.inputTexts = new String[count];
+        this.resultTexts = new String[count];
+        this.states = new RunnableState[count];
+        this.errorMessages = new String[count];
+        this.doneOrders = new int[count];
+        Arrays.fill(states, RunnableState.READY);
+    }
+
+    /**
+     * Get the template.
+     * 
+     * @return the template.
+     */
+    @NotNull
+    public FlowTemplate getTemplate() {
+        return template;
+    }
+
+    /**
+     * Set the input text of the block for this run.
+     * 
+     * @param internalBlockId - the internal block id.
+     * @param inputText - the input text, null or blank to use the default input text.
+     * @throws ConfigurationMismatchException - if there is no such block.
+     */
+    public void setInputText(final String internalBlockId, final String inputText) {
+        inputTexts[template.indexOf(internalBlockId)] = inputText;
+    }
+
+    /**
+     * Get the effective input text of the block.
+     * 
+     * @param internalBlockId - the internal block id.
+     * @return the input text or the default input text if the input text is blank.
+     * @throws ConfigurationMismatchException - if there is no such block.
+     */
+    public String getInputText(final String internalBlockId) {
+        return effectiveInputText(template.indexOf(internalBlockId));
+    }
+
+    private String effectiveInputText(final int block) {
+
+        final String text = inputTexts[block];
+        return text == null || text.isBlank() ? template.getDefaultInputText(block) : text;
+    }
+
+    /**
+     * Get the result text of the block.
+     * 
+     * @param internalBlockId - the internal block id.
+     * @return the result text or null if the block is not DONE.
+     * @throws ConfigurationMismatchException - if there is no such block.
+     */
+    public String getResultText(final String internalBlockId) {
+        return resultTexts[template.indexOf(internalBlockId)];
+    }
+
+    /**
+     * Get the state of the block.
+     * 
+     * @param internalBlockId - the internal block id.
+     * @return the state.
+     * @throws ConfigurationMismatchException - if there is no such block.
+     */
+    @NotNull
+    public RunnableState getState(final String internalBlockId) {
+        return states[template.indexOf(internalBlockId)];
+    }
+
+    /**
+     * Get the error message of the block.
+     * 
+     * @param internalBlockId - the internal block id.
+     * @return the error message or null if the block has no error.
+     * @throws ConfigurationMismatchException - if there is no such block.
+     */
+    public String getErrorMessage(final String internalBlockId) {
+        return errorMessages[template.indexOf(internalBlockId)];
+    }
+
+    /**
+     * Run all READY blocks whose join policies are met, in topological order.
+     * 
+     * @throws RuntimeException - the first exception thrown by a block function, rethrown after
+     *         all runnable blocks have run. Subsequent exceptions are added as suppressed.
+     */
+    public void run() {
+
+        final FlowPlan plan = template.getPlan();
+        RuntimeException failure = null;
+
+        for (int position = 0; position < plan.getBlockCount(); position++) {
+            final int block = plan.getTopologicalBlock(position);
+            if (states[block] != RunnableState.READY) {
+                continue;
+            }
+            final String upstreamResult = upstreamResult(plan, block);
+            if (upstreamResult == null) {
+                continue;
+            }
+
+            states[block] = RunnableState.RUNNING;
+            try {
+                resultTexts[block] = template.getFunction(block)
+                        .apply(effectiveInputText(block), upstreamResult);
+                doneOrders[block] = doneCount++;
+                states[block] = RunnableState.DONE;
+            } catch (RuntimeException e) {
+                errorMessages[block] = e.getMessage();
+                states[block] = RunnableState.ABORTED;
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Join the non-blank results of the predecessors the block fires on, the same way the input
+     * junction does: the predecessors which were DONE first, as many as its join policy requires.
+     * 
+     * @param plan - the flow plan.
+     * @param block - the block index.
+     * @return the joined results or null if the join policy of the block is not met.
+     */
+    private String upstreamResult(final FlowPlan plan, final int block) {
+
+        final int fanIn = plan.getFanIn(block);
+        final int required = template.getRequiredCount(block);
+        int done = 0;
+        for (int k = 0; k < fanIn; k++) {
+            if (states[plan.getPredecessor(block, k)] == RunnableState.DONE) {
+                done++;
+            }
+        }
+        if (done < required) {
+            return null;
+        }
+
+        // The block fires when the required-th predecessor is DONE.
+        final int lastOrder = done > required ? firingOrder(plan, block, done, required)
+                : Integer.MAX_VALUE;
+        final StringBuilder sb = new StringBuilder();
+        for (int k = 0; k < fanIn; k++) {
+            final int predecessor = plan.getPredecessor(block, k);
+            if (states[predecessor] != RunnableState.DONE
+                    || doneOrders[predecessor] > lastOrder) {
+                continue;
+            }
+            final String result = resultTexts[predecessor];
+            if (result != null && !result.isBlank()) {
+                sb.append(result).append(NL);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Get the order in which the required-th predecessor of the block became DONE.
+     * 
+     * @param plan - the flow plan.
+     * @param block - the block index.
+     * @param done - the number of DONE predecessors.
+     * @param required - the number of predecessors required by the join policy, positive.
+     * @return the done order.
+     */
+    private int firingOrder(final FlowPlan plan, final int block, final int done,
+            final int required) {
+
+        final int[] orders = new int[done];
+        int count = 0;
+        for (int k = 0; k < plan.getFanIn(block); k++) {
+            final int predecessor = plan.getPredecessor(block, k);
+            if (states[predecessor] == RunnableState.DONE) {
+                orders[count++] = doneOrders[predecessor];
+            }
+        }
+        Arrays.sort(orders);
+        return orders[required - 1];
+    }
+
+    /**
+     * Reset the results, states and errors, keeping the input texts, to run the instance again.
+     */
+    public void reset() {
+
+        Arrays.fill(resultTexts, null);
+        Arrays.fill(errorMessages, null);
+        Arrays.fill(states, RunnableState.READY);
+        doneCount = 0;
+    }
+}
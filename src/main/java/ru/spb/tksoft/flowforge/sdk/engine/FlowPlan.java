@@ -0,0 +1,514 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.engine;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.contract.Block;
+import ru.spb.tksoft.flowforge.sdk.contract.Line;
+
+/**
+ * Compiled flow plan.
+ * 
+ * Immutable, int-indexed form of a resolved flow. Blocks get dense indexes 0..B-1 in the
+ * declaration order, lines get dense indexes 0..L-1 in the declaration order. Predecessors and
+ * successors are kept in compressed sparse row (CSR) arrays: the neighbours of block {@code i}
+ * are at positions {@code offsets[i]..offsets[i + 1] - 1} of the index array, so walking the graph
+ * costs neither string comparisons nor pointer chasing through the junctions.
+ * 
+ * For example, successors of block {@code i}:
+ * 
+ * <pre>
+ * for (int k = 0; k &lt; plan.getFanOut(i); k++) {
+ *     int successor = plan.getSuccessor(i, k);
+ *     int line = plan.getSuccessorLine(i, k);
+ * }
+ * </pre>
+ * 
+ * The topology of a resolved flow never changes, so compile the plan once and share it. The plan
+ * refers to the blocks and lines, but does not change them.
+ * 
+ * Subclassing is not allowed.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public final class FlowPlan {
+
+    @NotNull
+    private final Block[] blocks;
+
+    @NotNull
+    private final Line[] lines;
+
+    @NotNull
+    private final List<Line> lineList;
+
+    @NotNull
+    private final Map<String, Integer> indexById;
+
+    // Line index -> block index.
+    @NotNull
+    private final int[] lineFrom;
+
+    @NotNull
+    private final int[] lineTo;
+
+    // CSR of the predecessors: block index -> predecessor block indexes and their line indexes.
+    @NotNull
+    private final int[] predecessorOffsets;
+
+    @NotNull
+    private final int[] predecessors;
+
+    @NotNull
+    private final int[] predecessorLines;
+
+    // CSR of the successors: block index -> successor block indexes and their line indexes.
+    @NotNull
+    private final int[] successorOffsets;
+
+    @NotNull
+    private final int[] successors;
+
+    @NotNull
+    private final int[] successorLines;
+
+    // Block index -> the next block of its fused chain, -1 if the chain ends at the block.
+    @NotNull
+    private final int[] chainNext;
+
+    // Topological position -> block index.
+    @NotNull
+    private final int[] topologicalOrder;
+
+    @NotNull
+    private final List<Block> topologicalBlocks;
+
+    private FlowPlan(final Block[] blocks, final Line[] lines,
+            final Map<String, Integer> indexById, final int[] lineFrom, final int[] lineTo) {
+
+        this.blocks = blocks;
+        this.lines = lines;
+        this.lineList = List.of(lines);
+        this.indexById = indexById;
+        this.lineFrom = lineFrom;
+        this.lineTo = lineTo;
+
+        this.predecessorOffsets = new int[blocks.length + 1];
+        this.predecessors = new int[lines.length];
+        this.predecessorLines = new int[lines.length];
+        fillCsr(lineTo, lineFrom, predecessorOffsets, predecessors, predecessorLines);
+
+        this.successorOffsets = new int[blocks.length + 1];
+        this.successors = new int[lines.length];
+        this.successorLines = new int[lines.length];
+        fillCsr(lineFrom, lineTo, successorOffsets, successors, successorLines);
+
+        this.chainNext = detectChains();
+        this.topologicalOrder = sortTopologically();
+        this.topologicalBlocks = Arrays.stream(topologicalOrder)
+                .mapToObj(i -> blocks[i])
+                .toList();
+    }
+
+    /**
+     * Compile the flow plan.
+     * 
+     * @param blocks - the blocks. Null elements are ignored.
+     * @param lines - the lines resolved to the blocks. Null elements are ignored.
+     * @return the flow plan.
+     * @throws NullArgumentException - if blocks or lines is null.
+     * @throws ConfigurationMismatchException - if the lines are not resolved, refer to unknown
+     *         blocks, block ids are duplicated or the flow has a cycle.
+     */
+    @NotNull
+    public static FlowPlan compile(final List<? extends Block> blocks,
+            final List<? extends Line> lines) {
+
+        if (blocks == null || lines == null) {
+            throw new NullArgumentException("blocks, lines must not be null");
+        }
+
+        final Block[] blockArray = blocks.stream().filter(Objects::nonNull)
+                .toArray(Block[]::new);
+        final Map<String, Integer> indexById = new HashMap<>(blockArray.length * 2);
+        for (int i = 0; i < blockArray.length; i++) {
+            if (indexById.putIfAbsent(blockArray[i].getInternalBlockId(), i) != null) {
+                throw new ConfigurationMismatchException(
+                        "duplicate block id: " + blockArray[i].getInternalBlockId());
+            }
+        }
+
+        final Line[] lineArray = lines.stream().filter(Objects::nonNull).toArray(Line[]::new);
+        final int[] lineFrom = new int[lineArray.length];
+        final int[] lineTo = new int[lineArray.length];
+        for (int l = 0; l < lineArray.length; l++) {
+            final Line line = lineArray[l];
+            if (line.getBlockFrom() == null || line.getBlockTo() == null) {
+                throw new ConfigurationMismatchException(
+                        "line is not resolved: " + line.getInternalLineId());
+            }
+
+            final Integer from = indexById.get(line.getBlockFrom().getInternalBlockId());
+            final Integer to = indexById.get(line.getBlockTo().getInternalBlockId());
+            if (from == null || to == null) {
+                throw new ConfigurationMismatchException(
+                        "line refers to unknown block: " + line.getInternalLineId());
+            }
+
+            lineFrom[l] = from;
+            lineTo[l] = to;
+        }
+
+        return new FlowPlan(blockArray, lineArray, Collections.unmodifiableMap(indexById),
+                lineFrom, lineTo);
+    }
+
+    /**
+     * Compile the flow plan.
+     * 
+     * @param graph - the graph built by {@link FlowGraphBuilder}.
+     * @return the flow plan.
+     * @throws NullArgumentException - if graph is null.
+     * @throws ConfigurationMismatchException - if the flow has a cycle.
+     */
+    @NotNull
+    public static FlowPlan compile(final FlowGraph graph) {
+
+        if (graph == null) {
+            throw new NullArgumentException("graph must not be null");
+        }
+
+        return compile(graph.getBlocks(), graph.getLines());
+    }
+
+    /**
+     * Fill CSR arrays (counting sort of the lines by their key block).
+     * 
+     * @param key - line index -> block index to group by.
+     * @param value - line index -> neighbour block index.
+     * @param offsets - the offsets to fill, block count + 1 long.
+     * @param indexes - the neighbour block indexes to fill, line count long.
+     * @param lineIndexes - the line indexes to fill, line count long.
+     */
+    private static void fillCsr(final int[] key, final int[] value, final int[] offsets,
+            final int[] indexes, final int[] lineIndexes) {
+
+        for (int k : key) {
+            offsets[k + 1]++;
+        }
+        for (int i = 0; i < offsets.length - 1; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        // Lines keep their declaration order within a row.
+        final int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+        for (int l = 0; l < key.length; l++) {
+            final int position = next[key[l]]++;
+            indexes[position] = value[l];
+            lineIndexes[position] = l;
+        }
+    }
+
+    /**
+     * Detect linear chains: a block with a single output line is fused with its successor if
+     * that line is the single input line of the successor. Streaming lines are never fused: the
+     * successor consumes the records while the block is still running.
+     * 
+     * @return block index -> the next block of the chain or -1.
+     */
+    private int[] detectChains() {
+
+        final int[] next = new int[blocks.length];
+        for (int i = 0; i < blocks.length; i++) {
+            next[i] = -1;
+            if (getFanOut(i) == 1 && !lines[successorLines[successorOffsets[i]]].isStreaming()) {
+                final int successor = successors[successorOffsets[i]];
+                if (getFanIn(successor) == 1 && successor != i) {
+                    next[i] = successor;
+                }
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Sort blocks topologically (Kahn's algorithm).
+     * 
+     * @return topological position -> block index.
+     * @throws ConfigurationMismatchException - if the flow has a cycle.
+     */
+    private int[] sortTopologically() {
+
+        final int[] inDegree = new int[blocks.length];
+        final int[] order = new int[blocks.length];
+        int tail = 0;
+        for (int i = 0; i < blocks.length; i++) {
+            inDegree[i] = getFanIn(i);
+            if (inDegree[i] == 0) {
+                order[tail++] = i;
+            }
+        }
+
+        // The order array itself is the queue.
+        for (int head = 0; head < tail; head++) {
+            final int block = order[head];
+            for (int k = successorOffsets[block]; k < successorOffsets[block + 1]; k++) {
+                if (--inDegree[successors[k]] == 0) {
+                    order[tail++] = successors[k];
+                }
+            }
+        }
+
+        if (tail != blocks.length) {
+            throw new ConfigurationMismatchException("flow has a cycle");
+        }
+
+        return order;
+    }
+
+    /**
+     * Get the number of blocks.
+     * 
+     * @return the number of blocks.
+     */
+    public int getBlockCount() {
+        return blocks.length;
+    }
+
+    /**
+     * Get the number of lines.
+     * 
+     * @return the number of lines.
+     */
+    public int getLineCount() {
+        return lines.length;
+    }
+
+    /**
+     * Get the block by index.
+     * 
+     * @param block - the block index.
+     * @return the block.
+     */
+    @NotNull
+    public Block getBlock(final int block) {
+        return blocks[block];
+    }
+
+    /**
+     * Get the line by index.
+     * 
+     * @param line - the line index.
+     * @return the line.
+     */
+    @NotNull
+    public Line getLine(final int line) {
+        return lines[line];
+    }
+
+    /**
+     * Get the block index by internal block id.
+     * 
+     * @param internalBlockId - the internal block id.
+     * @return the block index or -1 if there is no such block.
+     */
+    public int indexOf(final String internalBlockId) {
+
+        final Integer index = indexById.get(internalBlockId);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Get the index of the block from of the line.
+     * 
+     * @param line - the line index.
+     * @return the block index.
+     */
+    public int getLineFrom(final int line) {
+        return lineFrom[line];
+    }
+
+    /**
+     * Get the index of the block to of the line.
+     * 
+     * @param line - the line index.
+     * @return the block index.
+     */
+    public int getLineTo(final int line) {
+        return lineTo[line];
+    }
+
+    /**
+     * Get the number of input lines of the block.
+     * 
+     * @param block - the block index.
+     * @return the fan-in.
+     */
+    public int getFanIn(final int block) {
+        return predecessorOffsets[block + 1] - predecessorOffsets[block];
+    }
+
+    /**
+     * Get the number of output lines of the block.
+     * 
+     * @param block - the block index.
+     * @return the fan-out.
+     */
+    public int getFanOut(final int block) {
+        return successorOffsets[block + 1] - successorOffsets[block];
+    }
+
+    /**
+     * Get the k-th predecessor of the block.
+     * 
+     * @param block - the block index.
+     * @param k - the input line number, 0..fan-in - 1.
+     * @return the predecessor block index.
+     */
+    public int getPredecessor(final int block, final int k) {
+        return predecessors[predecessorOffsets[block] + checkRow(k, getFanIn(block))];
+    }
+
+    /**
+     * Get the k-th input line of the block.
+     * 
+     * @param block - the block index.
+     * @param k - the input line number, 0..fan-in - 1.
+     * @return the line index.
+     */
+    public int getPredecessorLine(final int block, final int k) {
+        return predecessorLines[predecessorOffsets[block] + checkRow(k, getFanIn(block))];
+    }
+
+    /**
+     * Get the k-th successor of the block.
+     * 
+     * @param block - the block index.
+     * @param k - the output line number, 0..fan-out - 1.
+     * @return the successor block index.
+     */
+    public int getSuccessor(final int block, final int k) {
+        return successors[successorOffsets[block] + checkRow(k, getFanOut(block))];
+    }
+
+    /**
+     * Get the k-th output line of the block.
+     * 
+     * @param block - the block index.
+     * @param k - the output line number, 0..fan-out - 1.
+     * @return the line index.
+     */
+    public int getSuccessorLine(final int block, final int k) {
+        return successorLines[successorOffsets[block] + checkRow(k, getFanOut(block))];
+    }
+
+    /**
+     * Get the next block of the fused chain.
+     * 
+     * Blocks of a linear chain (each link is the only output line of one block and the only input
+     * line of the next one) can run back to back on one thread without being scheduled one by
+     * one.
+     * 
+     * @param block - the block index.
+     * @return the index of the next block of the chain or -1 if the chain ends at the block.
+     */
+    public int getChainNext(final int block) {
+        return chainNext[block];
+    }
+
+    /**
+     * Check if the block has a streaming output line.
+     * 
+     * Such a block waits for its consumers while it runs, see {@link Line#isStreaming()}.
+     * 
+     * @param block - the block index.
+     * @return true if at least one of its output lines is streaming, false otherwise.
+     */
+    public boolean hasStreamingOutput(final int block) {
+
+        for (int k = successorOffsets[block]; k < successorOffsets[block + 1]; k++) {
+            if (lines[successorLines[k]].isStreaming()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if the block is fused into the chain of its predecessor.
+     * 
+     * @param block - the block index.
+     * @return true if the block is run right after its single predecessor, false otherwise.
+     */
+    public boolean isFused(final int block) {
+        return getFanIn(block) == 1 && chainNext[predecessors[predecessorOffsets[block]]] == block;
+    }
+
+    private static int checkRow(final int k, final int size) {
+
+        if (k < 0 || k >= size) {
+            throw new IndexOutOfBoundsException("index " + k + " out of bounds for " + size);
+        }
+        return k;
+    }
+
+    /**
+     * Get the block indexes in topological order.
+     * 
+     * @return a copy of the topological order: position -> block index.
+     */
+    @NotNull
+    public int[] getTopologicalOrder() {
+        return topologicalOrder.clone();
+    }
+
+    /**
+     * Get the block index at the topological position, without copying the order.
+     * 
+     * @param position - the topological position, 0..block count - 1.
+     * @return the block index.
+     */
+    public int getTopologicalBlock(final int position) {
+        return topologicalOrder[position];
+    }
+
+    /**
+     * Get the blocks in topological order.
+     * 
+     * @return the unmodifiable list of blocks in topological order.
+     */
+    @NotNull
+    public List<Block> getTopologicalBlocks() {
+        return topologicalBlocks;
+    }
+
+    /**
+     * Get the lines.
+     * 
+     * @return the unmodifiable list of lines in the declaration order.
+     */
+    @NotNull
+    public List<Line> getLines() {
+        return lineList;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.engine;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.contract.Block;
+import ru.spb.tksoft.flowforge.sdk.contract.BlockFunction;
+
+/**
+ * Flow template.
+ * 
+ * Immutable flow definition shared by any number of runs: the compiled topology (see
+ * {@link FlowPlan}), block ids, block type ids, default input texts, the join policies of the input
+ * junctions and the block functions. The block objects of the plan are used as prototypes only,
+ * they are neither run nor changed.
+ * 
+ * Every run is a {@link FlowInstance}, which holds nothing but a few per-run arrays, so
+ * instantiation costs O(blocks) with a small constant: no blocks, lines or junctions are created
+ * or resolved.
+ * 
+ * Thread-safe. Subclassing is not allowed.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public final class FlowTemplate {
+
+    @NotNull
+    private final FlowPlan plan;
+
+    @NotNull
+    private final String[] blockIds;
+
+    @NotNull
+    private final String[] blockTypeIds;
+
+    @NotNull
+    private final String[] defaultInputTexts;
+
+    @NotNull
+    private final BlockFunction[] functions;
+
+    // Number of predecessors which must be DONE for the block to run, see JoinPolicy.
+    @NotNull
+    private final int[] requiredCounts;
+
+    /**
+     * Constructor.
+     * 
+     * @param plan - the compiled flow plan.
+     * @param functionsByBlockTypeId - the block functions by block type id.
+     * @throws NullArgumentException - if plan or functionsByBlockTypeId is null.
+     * @throws ConfigurationMismatchException - if there is no function for some of the block types
+     *         of the plan, or if the quorum of a join policy exceeds the number of input lines.
+     */
+    public FlowTemplate(final FlowPlan plan,
+            final Map<String, BlockFunction> functionsByBlockTypeId) {
+
+        if (plan == null || functionsByBlockTypeId == null) {
+            throw new NullArgumentException("plan, functionsByBlockTypeId must not be null");
+        }
+
+        final int count = plan.getBlockCount();
+        this.plan = plan;
+        this.blockIds = new String[count];
+        this.blockTypeIds = new String[count];
+        this.defaultInputTexts = new String[count];
+        this.functions = new BlockFunction[count];
+        this.requiredCounts = new int[count];
+
+        final TreeSet<String> missing = new TreeSet<>();
+        for (int i = 0; i < count; i++) {
+            final Block block = plan.getBlock(i);
+            blockIds[i] = block.getInternalBlockId();
+            blockTypeIds[i] = block.getBlockTypeId();
+            defaultInputTexts[i] = block.getDefaultInputText();
+            functions[i] = functionsByBlockTypeId.get(blockTypeIds[i]);
+            requiredCounts[i] = block.getInputJunction().getJoinPolicy()
+                    .getRequiredCount(plan.getFanIn(i));
+            if (functions[i] == null) {
+                missing.add(blockTypeIds[i]);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            throw new ConfigurationMismatchException(
+                    "no block function for block types: " + String.join(", ", missing));
+        }
+    }
+
+    /**
+     * Create a new run of the template.
+     * 
+     * @return the new flow instance, all blocks are READY.
+     */
+    @NotNull
+    public FlowInstance newInstance() {
+        return new FlowInstance(this);
+    }
+
+    /**
+     * Get the compiled flow plan.
+     * 
+     * @return the flow plan.
+     */
+    @NotNull
+    public FlowPlan getPlan() {
+        return plan;
+    }
+
+    /**
+     * Get the number of blocks.
+     * 
+     * @return the number of blocks.
+     */
+    public int getBlockCount() {
+        return blockIds.length;
+    }
+
+    /**
+     * Get the block ids.
+     * 
+     * @return the unmodifiable list of block ids by block index.
+     */
+    @NotNull
+    public List<String> getBlockIds() {
+        return List.of(blockIds);
+    }
+
+    /**
+     * Get the block index by internal block id.
+     * 
+     * @param internalBlockId - the internal block id.
+     * @return the block index.
+     * @throws ConfigurationMismatchException - if there is no such block.
+     */
+    int indexOf(final String internalBlockId) {
+
+        final int index = plan.indexOf(internalBlockId);
+        if (index < 0) {
+            throw new ConfigurationMismatchException("unknown block: " + internalBlockId);
+        }
+        return index;
+    }
+
+    @NotNull
+    String getBlockId(final int block) {
+        return blockIds[block];
+    }
+
+    String getDefaultInputText(final int block) {
+        return defaultInputTexts[block];
+    }
+
+    @NotNull
+    BlockFunction getFunction(final int block) {
+        return functions[block];
+    }
+
+    int getRequiredCount(final int block) {
+        return requiredCounts[block];
+    }
+}
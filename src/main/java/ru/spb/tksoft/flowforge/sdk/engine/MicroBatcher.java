@@ -0,0 +1,288 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.engine;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.contract.BatchCapableBlock;
+import ru.spb.tksoft.flowforge.sdk.contract.BlockBatcher;
+import ru.spb.tksoft.utils.log.LogEx;
+
+/**
+ * Micro-batcher.
+ * 
+ * Collects pending invocations of batch capable blocks across flow instances, separately for
+ * every batch key (see {@link BatchCapableBlock#getBatchKey()}), and runs them with one
+ * {@link BatchCapableBlock#runBatch(List)} call of the block which opened the batch. A
+ * batch is dispatched as soon as it has maxBatchSize invocations, or maxLinger after its first
+ * invocation, whichever comes first. Batches run on virtual threads, the results are fanned out
+ * to the stages returned by {@link #submit(BatchCapableBlock, String)}; if the batch throws, all of
+ * them are completed exceptionally.
+ * 
+ * Thread-safe. Close the batcher to dispatch the pending invocations and stop its timer.
+ * Subclassing is not allowed.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public final class MicroBatcher implements BlockBatcher, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MicroBatcher.class);
+
+    private final int maxBatchSize;
+
+    @NotNull
+    private final Duration maxLinger;
+
+    @NotNull
+    private final Executor executor;
+
+    @NotNull
+    private final ScheduledExecutorService timer;
+
+    @NotNull
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Batch key -> batch being collected.
+    @NotNull
+    private final Map<String, Batch> batches = new HashMap<>();
+
+    private boolean closed;
+
+    @NotNull
+    private final LongAdder batchCount = new LongAdder();
+
+    @NotNull
+    private final LongAdder invocationCount = new LongAdder();
+
+    /**
+     * Pending invocation.
+     */
+    private record Invocation(String input, CompletableFuture<String> result) {
+    }
+
+    /**
+     * Batch being collected.
+     */
+    private static final class Batch {
+
+        private final BatchCapableBlock block;
+        private final List<Invocation> invocations = new ArrayList<>();
+        private ScheduledFuture<?> lingerTask;
+
+        Batch(final BatchCapableBlock block) {
+            this.block = block;
+        }
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param maxBatchSize - the maximum number of invocations in a batch.
+     * @param maxLinger - the maximum time the first invocation of a batch waits for the others.
+     * @throws NullArgumentException - if maxLinger is null.
+     * @throws IllegalArgumentException - if maxBatchSize is not positive or maxLinger is
+     *         negative.
+     */
+    public MicroBatcher(final int maxBatchSize, final Duration maxLinger) {
+
+        if (maxLinger == null) {
+            throw new NullArgumentException("maxLinger must not be null");
+        }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be positive");
+        }
+        if (maxLinger.isNegative()) {
+            throw new IllegalArgumentException("maxLinger must not be negative");
+        }
+
+        this.maxBatchSize = maxBatchSize;
+        this.maxLinger = maxLinger;
+
+        final ThreadFactory factory = Thread.ofVirtual().name("flow-batch-", 0).factory();
+        this.executor = task -> factory.newThread(task).start();
+        this.timer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("flow-batch-timer").daemon().factory());
+    }
+
+    /**
+     * Submit an invocation.
+     * 
+     * @param block - the block, its {@code runBatch()} may run the whole batch.
+     * @param input - the input of the invocation.
+     * @return the stage which is completed with the result text of the invocation, or completed
+     *         exceptionally if the batch fails.
+     * @throws NullArgumentException - if block or input is null.
+     * @throws ConfigurationMismatchException - if the batcher is closed.
+     */
+    @Override
+    @NotNull
+    public CompletableFuture<String> submit(final BatchCapableBlock block, final String input) {
+
+        if (block == null || input == null) {
+            throw new NullArgumentException("block, input must not be null");
+        }
+
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        Batch full = null;
+
+        lock.lock();
+        try {
+            if (closed) {
+                throw new ConfigurationMismatchException("micro-batcher is closed");
+            }
+
+            final String batchKey = block.getBatchKey();
+            Batch batch = batches.get(batchKey);
+            if (batch == null) {
+                batch = new Batch(block);
+                batches.put(batchKey, batch);
+
+                final Batch lingering = batch;
+                batch.lingerTask = timer.schedule(() -> flush(batchKey, lingering),
+                        maxLinger.toNanos(), TimeUnit.NANOSECONDS);
+            }
+
+            batch.invocations.add(new Invocation(input, result));
+            if (batch.invocations.size() >= maxBatchSize) {
+                batches.remove(batchKey);
+                batch.lingerTask.cancel(false);
+                full = batch;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (full != null) {
+            dispatch(full);
+        }
+        return result;
+    }
+
+    /**
+     * Dispatch the batch when its linger time is over, unless it is already dispatched.
+     * 
+     * @param batchKey - the batch key.
+     * @param batch - the batch.
+     */
+    private void flush(final String batchKey, final Batch batch) {
+
+        lock.lock();
+        try {
+            if (!batches.remove(batchKey, batch)) {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        dispatch(batch);
+    }
+
+    private void dispatch(final Batch batch) {
+        executor.execute(() -> runBatch(batch));
+    }
+
+    /**
+     * Run the batch and fan the results out. Whatever the batch throws, errors included, fails all
+     * of its invocations, so no stage is left pending.
+     * 
+     * @param batch - the batch.
+     */
+    private void runBatch(final Batch batch) {
+
+        batchCount.increment();
+        invocationCount.add(batch.invocations.size());
+
+        final List<String> inputs = batch.invocations.stream().map(Invocation::input).toList();
+        try {
+            final List<String> results = batch.block.runBatch(inputs);
+            if (results == null || results.size() != inputs.size()) {
+                throw new ConfigurationMismatchException("runBatch() of "
+                        + batch.block.getBlockTypeId() + " returned "
+                        + (results == null ? "null" : results.size() + " results")
+                        + " for " + inputs.size() + " inputs");
+            }
+
+            for (int i = 0; i < results.size(); i++) {
+                batch.invocations.get(i).result().complete(results.get(i));
+            }
+        } catch (Throwable e) {
+            LogEx.info(log, LogEx.me(), "batch failed: " + e);
+            batch.invocations.forEach(invocation -> invocation.result().completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Get the number of dispatched batches.
+     * 
+     * @return the number of batches.
+     */
+    public long getBatchCount() {
+        return batchCount.sum();
+    }
+
+    /**
+     * Get the number of dispatched invocations.
+     * 
+     * @return the number of invocations.
+     */
+    public long getInvocationCount() {
+        return invocationCount.sum();
+    }
+
+    /**
+     * Dispatch the pending invocations and stop the timer. Later submissions are rejected.
+     */
+    @Override
+    public void close() {
+
+        final List<Batch> pending;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            pending = new ArrayList<>(batches.values());
+            batches.clear();
+        } finally {
+            lock.unlock();
+        }
+
+        pending.forEach(batch -> {
+            batch.lingerTask.cancel(false);
+            dispatch(batch);
+        });
+        timer.shutdownNow();
+    }
+}
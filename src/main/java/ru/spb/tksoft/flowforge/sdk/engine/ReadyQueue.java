@@ -0,0 +1,357 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.engine;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.contract.Block;
+import ru.spb.tksoft.flowforge.sdk.contract.EventListener;
+import ru.spb.tksoft.flowforge.sdk.contract.EventProducer;
+import ru.spb.tksoft.flowforge.sdk.contract.Line;
+import ru.spb.tksoft.flowforge.sdk.contract.LineStateChangedEvent;
+import ru.spb.tksoft.flowforge.sdk.enumeration.LineState;
+import ru.spb.tksoft.flowforge.sdk.value.JoinPolicy;
+
+/**
+ * Ready queue.
+ * 
+ * Keeps the blocks which are ready to run. The queue is fed by the line state transitions: every
+ * block keeps a counter of its input lines still to turn ON for the join policy of its input
+ * junction (see {@link JoinPolicy}), and when the counter drops to zero the block is enqueued. By
+ * default all input lines must be ON. Each block is enqueued at most once during the lifetime of
+ * the queue, so create a new queue for every run and close it afterwards.
+ * 
+ * Scheduling cost is proportional to the number of line transitions, not to the size of the flow:
+ * nobody has to scan the blocks.
+ * 
+ * Listeners are notified after a block is enqueued.
+ * 
+ * Subclassing is not allowed.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public final class ReadyQueue implements EventProducer<Block>, AutoCloseable {
+
+    @NotNull
+    private final BlockingQueue<Block> queue = new LinkedBlockingQueue<>();
+
+    @NotNull
+    private final FlowPlan plan;
+
+    // Block index -> entry.
+    @NotNull
+    private final Entry[] entries;
+
+    @NotNull
+    private final List<Subscription> subscriptions = new ArrayList<>();
+
+    @NotNull
+    private final List<EventListener<Block>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Per block scheduling state.
+     */
+    private final class Entry {
+
+        private final Block block;
+
+        // Number of input lines which must be ON for the join policy.
+        private final int required;
+
+        // Number of input lines still to turn ON, zero or less if the join policy is met.
+        private final AtomicInteger pending;
+
+        private final AtomicBoolean enqueued = new AtomicBoolean();
+
+        Entry(final Block block, final int fanIn) {
+            this.block = block;
+            this.required = block.getInputJunction().getJoinPolicy().getRequiredCount(fanIn);
+            this.pending = new AtomicInteger(required);
+        }
+
+        void onLineStateChanged(final LineStateChangedEvent event) {
+
+            if (event.getNewState() == LineState.ON) {
+                if (pending.decrementAndGet() == 0) {
+                    enqueue(this);
+                }
+            } else {
+                pending.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Line subscription to be removed on close.
+     */
+    private record Subscription(Line line, EventListener<LineStateChangedEvent> listener) {
+    }
+
+    /**
+     * Constructor.
+     * 
+     * Compiles the flow plan and subscribes to the state transitions of the lines. Create the
+     * queue while the lines are not changing their states, i.e. before the run starts.
+     * 
+     * @param blocks - the blocks.
+     * @param lines - the resolved lines between the blocks.
+     * @throws NullArgumentException - if blocks or lines is null.
+     * @throws ConfigurationMismatchException - if a line is not resolved or refers to an unknown
+     *         block, block ids are duplicated or the flow has a cycle.
+     */
+    public ReadyQueue(final List<Block> blocks, final List<Line> lines) {
+        this(FlowPlan.compile(blocks, lines));
+    }
+
+    /**
+     * Constructor.
+     * 
+     * Subscribes to the state transitions of the lines. Create the queue while the lines are not
+     * changing their states, i.e. before the run starts.
+     * 
+     * @param plan - the compiled flow plan.
+     * @throws NullArgumentException - if plan is null.
+     * @throws ConfigurationMismatchException - if a quorum exceeds the number of input lines.
+     */
+    public ReadyQueue(final FlowPlan plan) {
+        this(plan, false);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * Subscribes to the state transitions of the lines. Create the queue while the lines are not
+     * changing their states, i.e. before the run starts.
+     * 
+     * With fused chains the blocks fused into their predecessor (see {@link FlowPlan#isFused(int)})
+     * are not enqueued when their input line turns ON: the caller runs them right after the
+     * predecessor. They are still enqueued by {@link #offerSatisfied()} if their input line is ON
+     * before the run.
+     * 
+     * @param plan - the compiled flow plan.
+     * @param fuseChains - true to leave the fused blocks to the caller.
+     * @throws NullArgumentException - if plan is null.
+     * @throws ConfigurationMismatchException - if a quorum exceeds the number of input lines.
+     */
+    public ReadyQueue(final FlowPlan plan, final boolean fuseChains) {
+
+        if (plan == null) {
+            throw new NullArgumentException("plan must not be null");
+        }
+
+        this.plan = plan;
+        this.entries = new Entry[plan.getBlockCount()];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = new Entry(plan.getBlock(i), plan.getFanIn(i));
+        }
+
+        for (int l = 0; l < plan.getLineCount(); l++) {
+            final Line line = plan.getLine(l);
+            final Entry entry = entries[plan.getLineTo(l)];
+
+            if (line.getState() == LineState.ON) {
+                entry.pending.decrementAndGet();
+            }
+
+            if (fuseChains && plan.isFused(plan.getLineTo(l))) {
+                continue;
+            }
+
+            final EventListener<LineStateChangedEvent> listener = entry::onLineStateChanged;
+            line.addListener(listener);
+            subscriptions.add(new Subscription(line, listener));
+        }
+    }
+
+    /**
+     * Enqueue the entry unless it is already enqueued.
+     * 
+     * @param entry - the entry.
+     * @return true if the block is enqueued, false otherwise.
+     */
+    private boolean enqueue(final Entry entry) {
+
+        if (!entry.enqueued.compareAndSet(false, true)) {
+            return false;
+        }
+
+        queue.add(entry.block);
+        listeners.forEach(listener -> listener.onEvent(entry.block));
+        return true;
+    }
+
+    /**
+     * Enqueue the block regardless of its input lines, e.g. to seed the blocks without input
+     * lines.
+     * 
+     * @param block - the block.
+     * @return true if the block is enqueued, false if it was already enqueued.
+     * @throws NullArgumentException - if block is null.
+     * @throws ConfigurationMismatchException - if the block is unknown to the queue.
+     */
+    public boolean offer(final Block block) {
+
+        if (block == null) {
+            throw new NullArgumentException("block must not be null");
+        }
+
+        final int index = plan.indexOf(block.getInternalBlockId());
+        if (index < 0 || plan.getBlock(index) != block) {
+            throw new ConfigurationMismatchException(
+                    "unknown block: " + block.getInternalBlockId());
+        }
+
+        return enqueue(entries[index]);
+    }
+
+    /**
+     * Get the number of input lines of the block which must be ON for its join policy.
+     * 
+     * @param block - the block index of the plan.
+     * @return the number of input lines which must be ON.
+     */
+    int getRequiredCount(final int block) {
+        return entries[block].required;
+    }
+
+    /**
+     * Check if the block has been enqueued.
+     * 
+     * @param block - the block index of the plan.
+     * @return true if the block has been enqueued, false otherwise.
+     */
+    boolean isEnqueued(final int block) {
+        return entries[block].enqueued.get();
+    }
+
+    /**
+     * Enqueue all blocks whose join policy is met, including the blocks without input lines.
+     * 
+     * Use it once to seed the queue before the run starts.
+     */
+    public void offerSatisfied() {
+
+        for (Entry entry : entries) {
+            if (entry.pending.get() <= 0) {
+                enqueue(entry);
+            }
+        }
+    }
+
+    /**
+     * Enqueue the given blocks whose join policy is met.
+     * 
+     * Use it once to seed the queue before the run starts, when only a part of the flow is going
+     * to run.
+     * 
+     * @param blocks - the block indexes of the plan to consider.
+     * @throws NullArgumentException - if blocks is null.
+     */
+    public void offerSatisfied(final BitSet blocks) {
+
+        if (blocks == null) {
+            throw new NullArgumentException("blocks must not be null");
+        }
+
+        for (int i = blocks.nextSetBit(0); i >= 0 && i < entries.length;
+                i = blocks.nextSetBit(i + 1)) {
+            if (entries[i].pending.get() <= 0) {
+                enqueue(entries[i]);
+            }
+        }
+    }
+
+    /**
+     * Retrieve and remove the next ready block.
+     * 
+     * @return the next ready block or null if there is none.
+     */
+    public Block poll() {
+        return queue.poll();
+    }
+
+    /**
+     * Retrieve and remove the next ready block, waiting if necessary.
+     * 
+     * @return the next ready block.
+     * @throws InterruptedException - if interrupted while waiting.
+     */
+    @NotNull
+    public Block take() throws InterruptedException {
+        return queue.take();
+    }
+
+    /**
+     * Check if there are no ready blocks.
+     * 
+     * @return true if there are no ready blocks, false otherwise.
+     */
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    /**
+     * Get the number of ready blocks.
+     * 
+     * @return the number of ready blocks.
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * Add a listener which is notified after a block is enqueued.
+     * 
+     * @param listener - the listener to add.
+     */
+    @Override
+    public void addListener(final EventListener<Block> listener) {
+
+        if (listener == null) {
+            throw new NullArgumentException("listener must not be null");
+        }
+
+        listeners.add(listener);
+    }
+
+    /**
+     * Remove a listener.
+     * 
+     * @param listener - the listener to remove.
+     */
+    @Override
+    public void removeListener(final EventListener<Block> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Unsubscribe from the lines.
+     */
+    @Override
+    public void close() {
+
+        subscriptions.forEach(s -> s.line().removeListener(s.listener()));
+        subscriptions.clear();
+    }
+}
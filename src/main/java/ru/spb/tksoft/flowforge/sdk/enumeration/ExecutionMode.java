@@ -0,0 +1,65 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.enumeration;
+
+/**
+ * ExecutionMode enum.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public enum ExecutionMode {
+
+    /** Blocks run on a fork-join pool. Suits CPU-bound blocks. */
+    FORK_JOIN("FORK_JOIN"),
+
+    /** Every block invocation runs on its own virtual thread. Suits I/O-bound blocks. */
+    VIRTUAL_THREADS("VIRTUAL_THREADS");
+
+    /** Mode value. */
+    private final String value;
+
+    /**
+     * Constructor.
+     * 
+     * @param value - mode value.
+     */
+    ExecutionMode(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Get the mode value.
+     * 
+     * @return the mode value.
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Get ExecutionMode by value.
+     * 
+     * @param value - mode value.
+     * @return ExecutionMode or FORK_JOIN if not found.
+     */
+    public static ExecutionMode fromValue(String value) {
+        for (ExecutionMode mode : ExecutionMode.values()) {
+            if (mode.value.equals(value)) {
+                return mode;
+            }
+        }
+        return ExecutionMode.FORK_JOIN;
+    }
+}
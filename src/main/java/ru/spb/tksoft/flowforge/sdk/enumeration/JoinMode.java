@@ -0,0 +1,68 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.enumeration;
+
+/**
+ * JoinMode enum: when an input junction is satisfied.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public enum JoinMode {
+
+    /** All input lines are ON. */
+    ALL("ALL"),
+
+    /** Any input line is ON: the first result wins. */
+    ANY("ANY"),
+
+    /** At least N of M input lines are ON. */
+    QUORUM("QUORUM");
+
+    /** Mode value. */
+    private final String value;
+
+    /**
+     * Constructor.
+     * 
+     * @param value - mode value.
+     */
+    JoinMode(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Get the mode value.
+     * 
+     * @return the mode value.
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Get JoinMode by value.
+     * 
+     * @param value - mode value.
+     * @return JoinMode or ALL if not found.
+     */
+    public static JoinMode fromValue(String value) {
+        for (JoinMode mode : JoinMode.values()) {
+            if (mode.value.equals(value)) {
+                return mode;
+            }
+        }
+        return JoinMode.ALL;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.enumeration;
+
+/**
+ * JsonType enum: the type of a JSON value.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public enum JsonType {
+
+    /** Object: unordered set of name/value pairs, kept in the document order. */
+    OBJECT("OBJECT"),
+
+    /** Array: ordered sequence of values. */
+    ARRAY("ARRAY"),
+
+    /** String. */
+    STRING("STRING"),
+
+    /** Number. */
+    NUMBER("NUMBER"),
+
+    /** true or false. */
+    BOOLEAN("BOOLEAN"),
+
+    /** null. */
+    NULL("NULL");
+
+    /** Type value. */
+    private final String value;
+
+    /**
+     * Constructor.
+     * 
+     * @param value - type value.
+     */
+    JsonType(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Get the type value.
+     * 
+     * @return the type value.
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Get JsonType by value.
+     * 
+     * @param value - type value.
+     * @return JsonType or NULL if not found.
+     */
+    public static JsonType fromValue(String value) {
+        for (JsonType type : JsonType.values()) {
+            if (type.value.equals(value)) {
+                return type;
+            }
+        }
+        return JsonType.NULL;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.enumeration;
+
+/**
+ * PayloadType enum: the kind of data a payload carries.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public enum PayloadType {
+
+    /** Character data. */
+    TEXT("TEXT"),
+
+    /** Binary data. */
+    BINARY("BINARY");
+
+    /** Type value. */
+    private final String value;
+
+    /**
+     * Constructor.
+     * 
+     * @param value - type value.
+     */
+    PayloadType(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Get the type value.
+     * 
+     * @return the type value.
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Get PayloadType by value.
+     * 
+     * @param value - type value.
+     * @return PayloadType or TEXT if not found.
+     */
+    public static PayloadType fromValue(String value) {
+        for (PayloadType type : PayloadType.values()) {
+            if (type.value.equals(value)) {
+                return type;
+            }
+        }
+        return PayloadType.TEXT;
+    }
+}
@@ -44,7 +44,13 @@ public enum RunnableState {
     /**
      * Aborted from outside.
      */
-    ABORTED("ABORTED");
+    ABORTED("ABORTED"),
+
+    /**
+     * Skipped: the block is on a branch which is not taken, none of its predecessors can make it
+     * ready to run.
+     */
+    SKIPPED("SKIPPED");
 
     /** State value. */
     private final String value;
@@ -76,6 +82,35 @@ public enum RunnableState {
         return this == READY || this == RUNNING;
     }
 
+    /**
+     * Check if the transition from this state to the target state is allowed.
+     * 
+     * Staying in the same state is always allowed. Any state may go back to READY (reset).
+     * 
+     * @param target - the target state.
+     * @return true if the transition is allowed, false otherwise.
+     */
+    public boolean canTransitionTo(final RunnableState target) {
+
+        if (target == null) {
+            return false;
+        }
+
+        if (target == this || target == READY) {
+            return true;
+        }
+
+        return switch (this) {
+            case NOT_CONFIGURED -> target == STOPPED || target == ABORTED;
+            case READY -> true;
+            case RUNNING -> target == DONE || target == STOPPED || target == ABORTED;
+            case DONE -> target == STOPPED || target == ABORTED;
+            case STOPPED -> target == ABORTED;
+            case ABORTED -> false;
+            case SKIPPED -> target == STOPPED || target == ABORTED;
+        };
+    }
+
     /**
      * Get RunnableState by value.
      * 
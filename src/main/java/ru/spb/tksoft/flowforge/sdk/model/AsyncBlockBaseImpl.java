@@ -0,0 +1,261 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.model;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.cache.SingleFlight;
+import ru.spb.tksoft.flowforge.sdk.contract.AsyncBlock;
+import ru.spb.tksoft.flowforge.sdk.contract.RunnableStateChangeListener;
+import ru.spb.tksoft.flowforge.sdk.enumeration.RunnableState;
+import ru.spb.tksoft.utils.log.LogEx;
+
+/**
+ * Asynchronous block implementation. Base class for blocks which wait for their result without
+ * holding a thread.
+ * 
+ * Open for subclassing. Subclasses implement {@link #process(String)} instead of {@code run()}.
+ * When the returned stage completes, the block sets the result text, moves to [DONE] and goes
+ * further in the normal flow. When the stage fails, the block sets the error and moves to
+ * [ABORTED].
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public abstract class AsyncBlockBaseImpl extends BlockBaseImpl implements AsyncBlock {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncBlockBaseImpl.class);
+
+    /**
+     * Constructor.
+     * 
+     * @param blockTypeId - the block type id.
+     * @param internalBlockId - the internal block id.
+     * @param defaultInputText - the default input text.
+     */
+    protected AsyncBlockBaseImpl(final String blockTypeId,
+            final String internalBlockId, final String defaultInputText) {
+
+        super(blockTypeId, internalBlockId, defaultInputText);
+    }
+
+    /**
+     * Start the job of the block. Called in [RUNNING] state.
+     * 
+     * Must not block: return a stage which is completed when the job is done.
+     * 
+     * @param inputText - the input text.
+     * @return the stage which is completed with the result text.
+     */
+    @NotNull
+    protected abstract CompletionStage<String> process(final String inputText);
+
+    /**
+     * Run the block asynchronously.
+     * 
+     * Only the caller which moves the block to RUNNING processes the input. A concurrent call
+     * which has lost the start gets the outcome of that run.
+     * 
+     * @return the stage which is completed with the result text when the block is DONE, or
+     *         completed exceptionally when the block fails.
+     * @throws ConfigurationMismatchException - if the block is not configured.
+     */
+    @Override
+    @NotNull
+    public CompletionStage<String> runAsync() {
+
+        final RunStart start = startRun();
+        if (start.isLost()) {
+            return awaitRun();
+        }
+
+        final SingleFlight.Flight followed = start.flight();
+        if (followed != null) {
+            // Wait for the leader without holding the thread, run if it has failed.
+            return followed.awaitAsync().thenCompose(shared -> {
+                if (shared != null) {
+                    takeSharedResult(shared, "result shared by an identical invocation");
+                }
+                return continueRun();
+            });
+        }
+
+        return continueRun();
+    }
+
+    /**
+     * Get the outcome of the run started by another caller.
+     * 
+     * A block already DONE goes further as a synchronous block does in the DONE state. A running
+     * block is waited for without holding the thread.
+     * 
+     * @return the stage which is completed with the result text when the block is DONE, or
+     *         completed exceptionally when it ends in another state.
+     */
+    @NotNull
+    private CompletionStage<String> awaitRun() {
+
+        if (getState() == RunnableState.DONE) {
+            goFurtherNormal();
+            return CompletableFuture.completedFuture(getResultText());
+        }
+
+        final CompletableFuture<String> outcome = new CompletableFuture<>();
+        final RunnableStateChangeListener listener = event -> settleRun(outcome);
+        addStateChangeListener(listener);
+        outcome.whenComplete((resultText, error) -> removeStateChangeListener(listener));
+
+        // The run may have ended before the listener was added.
+        settleRun(outcome);
+        return outcome;
+    }
+
+    /**
+     * Settle the outcome of the run started by another caller once the block is not RUNNING.
+     * 
+     * @param outcome - the outcome to settle.
+     */
+    private void settleRun(final CompletableFuture<String> outcome) {
+
+        final RunnableState state = getState();
+        if (state == RunnableState.RUNNING) {
+            return;
+        }
+
+        if (state == RunnableState.DONE) {
+            outcome.complete(getResultText());
+        } else {
+            outcome.completeExceptionally(new ConfigurationMismatchException(
+                    getLogText("block is not running: " + state)));
+        }
+    }
+
+    /**
+     * Continue the started run: go further if DONE, process the input if RUNNING.
+     * 
+     * @return the stage which is completed with the result text.
+     */
+    @NotNull
+    private CompletionStage<String> continueRun() {
+
+        // Already done or the result is taken from the cache: go further as a synchronous block
+        // does in the DONE state.
+        if (getState() == RunnableState.DONE) {
+            goFurtherNormal();
+            return CompletableFuture.completedFuture(getResultText());
+        }
+
+        if (getState() != RunnableState.RUNNING) {
+            return CompletableFuture.failedFuture(new ConfigurationMismatchException(
+                    getLogText("block is not running: " + getState())));
+        }
+
+        final CompletionStage<String> stage;
+        try {
+            stage = process(getInputText());
+            if (stage == null) {
+                throw new NullArgumentException(getLogText("process() returned null"));
+            }
+        } catch (RuntimeException | Error e) {
+            // Leave RUNNING on any failure, so the flight led by the block is settled.
+            onFailure(e);
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return stage.handle((resultText, error) -> {
+            final Throwable cause = unwrap(error);
+            if (cause == null && resultText != null) {
+                onSuccess(resultText);
+                return resultText;
+            }
+
+            final Throwable failure = cause != null ? cause
+                    : new NullArgumentException(getLogText("result text is null"));
+            onFailure(failure);
+            throw failure instanceof CompletionException ce ? ce
+                    : new CompletionException(failure);
+        });
+    }
+
+    /**
+     * Run the block and wait for the stage to complete.
+     * 
+     * Prefer {@link #runAsync()}: this method holds the calling thread for the whole job.
+     * 
+     * @throws ConfigurationMismatchException - if the block is not configured.
+     */
+    @Override
+    public void run() {
+
+        try {
+            runAsync().toCompletableFuture().join();
+        } catch (CompletionException e) {
+            // The error is already recorded in the block.
+            LogEx.info(log, LogEx.me(), getLogText("run failed: " + getErrorMessage()));
+        }
+    }
+
+    /**
+     * Complete the job: set the result text, move to [DONE] and go further in the normal flow.
+     * 
+     * Does nothing if the block has left [RUNNING] in the meantime, e.g. it was stopped.
+     * 
+     * @param resultText - the result text.
+     */
+    private void onSuccess(final String resultText) {
+
+        if (getState() != RunnableState.RUNNING) {
+            LogEx.info(log, LogEx.me(), getLogText("result ignored in state " + getState()));
+            return;
+        }
+
+        setResultText(resultText);
+        if (!compareAndSetState(RunnableState.RUNNING, RunnableState.DONE)) {
+            LogEx.info(log, LogEx.me(), getLogText("result ignored in state " + getState()));
+            return;
+        }
+
+        goFurtherNormal();
+    }
+
+    /**
+     * Fail the job: set the error and move to [ABORTED].
+     * 
+     * @param error - the error.
+     */
+    private void onFailure(final Throwable error) {
+
+        setError(true, String.valueOf(error.getMessage()));
+        compareAndSetState(RunnableState.RUNNING, RunnableState.ABORTED);
+    }
+
+    /**
+     * Unwrap the CompletionException.
+     * 
+     * @param error - the error or null.
+     * @return the cause of the CompletionException, the error itself otherwise.
+     */
+    private static Throwable unwrap(final Throwable error) {
+
+        return error instanceof CompletionException && error.getCause() != null
+                ? error.getCause()
+                : error;
+    }
+}
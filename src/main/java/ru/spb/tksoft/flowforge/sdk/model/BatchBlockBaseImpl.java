@@ -0,0 +1,93 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.model;
+
+import java.util.concurrent.CompletionStage;
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.contract.BatchCapableBlock;
+import ru.spb.tksoft.flowforge.sdk.contract.BlockBatcher;
+
+/**
+ * Batch block implementation. Base class for blocks which process their inputs in bulk calls.
+ * 
+ * Open for subclassing. Subclasses implement {@link #runBatch(java.util.List)}. Running the block
+ * submits its input to the batcher (e.g. {@code engine.MicroBatcher}), which runs it together with
+ * the inputs of the other blocks with the same batch key. When the batch completes, the block sets
+ * its result text, moves to [DONE] and goes further in the normal flow, as an asynchronous block
+ * does.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public abstract class BatchBlockBaseImpl extends AsyncBlockBaseImpl implements BatchCapableBlock {
+
+    @NotNull
+    private final BlockBatcher batcher;
+
+    /**
+     * Constructor.
+     * 
+     * @param blockTypeId - the block type id.
+     * @param internalBlockId - the internal block id.
+     * @param defaultInputText - the default input text.
+     * @param batcher - the batcher, shared by the blocks to be batched together.
+     * @throws NullArgumentException - if batcher is null.
+     */
+    protected BatchBlockBaseImpl(final String blockTypeId, final String internalBlockId,
+            final String defaultInputText, final BlockBatcher batcher) {
+
+        super(blockTypeId, internalBlockId, defaultInputText);
+
+        if (batcher == null) {
+            throw new NullArgumentException("batcher must not be null");
+        }
+        this.batcher = batcher;
+    }
+
+    /**
+     * Get the batcher.
+     * 
+     * @return the batcher.
+     */
+    @NotNull
+    public BlockBatcher getBatcher() {
+        return batcher;
+    }
+
+    /**
+     * Get the input of the block for the batch.
+     * 
+     * Override to combine the input text with the results of the predecessors.
+     * 
+     * @param inputText - the input text.
+     * @return the batch input, the input text by default.
+     */
+    @NotNull
+    protected String toBatchInput(final String inputText) {
+        return inputText;
+    }
+
+    /**
+     * Submit the input to the batcher.
+     * 
+     * @param inputText - the input text.
+     * @return the stage which is completed with the result text when the batch completes.
+     */
+    @Override
+    @NotNull
+    protected CompletionStage<String> process(final String inputText) {
+        return batcher.submit(this, toBatchInput(inputText));
+    }
+}
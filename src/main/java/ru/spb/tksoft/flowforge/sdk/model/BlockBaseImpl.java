@@ -14,20 +14,37 @@
 
 package ru.spb.tksoft.flowforge.sdk.model;
 
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import jakarta.validation.constraints.NotNull;
 import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
 import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.cache.ResultCacheKey;
+import ru.spb.tksoft.flowforge.sdk.cache.SingleFlight;
 import ru.spb.tksoft.flowforge.sdk.contract.Block;
+import ru.spb.tksoft.flowforge.sdk.contract.BlockSnapshot;
 import ru.spb.tksoft.flowforge.sdk.contract.Line;
 import ru.spb.tksoft.flowforge.sdk.contract.LineJunction;
+import ru.spb.tksoft.flowforge.sdk.contract.RecordChannel;
+import ru.spb.tksoft.flowforge.sdk.contract.ResultCache;
 import ru.spb.tksoft.flowforge.sdk.contract.RunnableStateChangeListener;
 import ru.spb.tksoft.flowforge.sdk.enumeration.LineState;
 import ru.spb.tksoft.flowforge.sdk.enumeration.RunnableState;
+import ru.spb.tksoft.flowforge.sdk.value.Payload;
+import ru.spb.tksoft.flowforge.sdk.value.PayloadWriter;
+import ru.spb.tksoft.flowforge.sdk.value.ResultSpill;
 import ru.spb.tksoft.utils.log.LogEx;
 
 /**
@@ -35,6 +52,12 @@ import ru.spb.tksoft.utils.log.LogEx;
  * 
  * Open for subclassing.
  * 
+ * Accessors never block: the fields are volatile and the state transitions are validated against
+ * {@link RunnableState#canTransitionTo(RunnableState)} and applied with CAS. Writers of the other
+ * fields are serialized with a ReentrantLock, not with the monitor of the block. Subclasses should
+ * not declare {@code run()} as {@code synchronized}: a virtual thread which blocks on I/O inside a
+ * monitor pins its carrier thread.
+ * 
  * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
  */
 public abstract class BlockBaseImpl implements Block {
@@ -43,6 +66,11 @@ public abstract class BlockBaseImpl implements Block {
 
     protected static final String NL = System.lineSeparator();
 
+    // Serializes the writers of the block. Readers never take it: the fields are volatile and the
+    // state is changed with CAS. A ReentrantLock is used instead of the monitor so a virtual thread
+    // running the block is not pinned to its carrier while it holds the lock.
+    private final ReentrantLock lock = new ReentrantLock();
+
     @NotNull
     private final String internalBlockId;
 
@@ -53,10 +81,10 @@ public abstract class BlockBaseImpl implements Block {
     private final String defaultInputText;
 
     @NotNull
-    private String inputText = "";
+    private volatile String inputText = "";
 
     @NotNull
-    private String resultText = "";
+    private volatile Payload resultPayload = Payload.EMPTY;
 
     @NotNull
     private final LineJunction inputJunction = new LineJunctionImpl();
@@ -65,35 +93,94 @@ public abstract class BlockBaseImpl implements Block {
     private final LineJunction outputJunction = new LineJunctionImpl();
 
     @NotNull
-    private volatile RunnableState state = RunnableState.NOT_CONFIGURED;
+    private final AtomicReference<RunnableState> state =
+            new AtomicReference<>(RunnableState.NOT_CONFIGURED);
 
     private volatile boolean hasError = false;
 
     @NotNull
-    private String errorMessage = "";
+    private volatile String errorMessage = "";
 
     private volatile boolean modified;
 
+    // Null if the results are not cached.
+    private volatile ResultCache resultCache;
+
+    // Key of the running block's input, set on a cache miss and used to store the result on DONE.
+    private volatile String pendingCacheKey;
+
+    // Null if oversized results are kept on the heap.
+    private volatile ResultSpill resultSpill;
+
+    // Release the result once all output lines are consumed.
+    private volatile boolean releaseWhenConsumed;
+
+    // Number of holders which keep the result from being released.
+    @NotNull
+    private final AtomicInteger resultPins = new AtomicInteger();
+
+    // True after the result has been released, until a new result is set.
+    private volatile boolean resultReleased;
+
+    // Null if identical concurrent invocations are not coalesced.
+    private volatile SingleFlight singleFlight;
+
+    // Flight led by the running block, settled when the block leaves RUNNING.
+    private volatile SingleFlight.Flight ledFlight;
+
+    // Thread which has moved the block to RUNNING in run(), null when the block is not running.
+    private volatile Thread runOwner;
+
+    // Channels of the streaming output lines opened by the running block, empty otherwise.
+    @NotNull
+    private volatile List<RecordChannel> outputStreams = List.of();
+
+    // Orders the published snapshots: a snapshot is replaced only by a later one.
+    private final AtomicLong snapshotVersion = new AtomicLong();
+
+    @NotNull
+    private final AtomicReference<BlockSnapshot> snapshot = new AtomicReference<>();
+
     /**
      * Get the printable state.
      * 
      * @return the printable state in a human readable format.
      */
     @Override
-    public synchronized String getPrintableState() {
+    public String getPrintableState() {
+        return snapshot().toPrintableState();
+    }
 
-        return String.format(
-                "Block Type ID: %s" + NL +
-                        "Internal Block ID: %s" + NL +
-                        "Default Input Text: %s" + NL +
-                        "Input Text: %s" + NL +
-                        "Result Text: %s" + NL +
-                        "State: %s" + NL +
-                        "Has Error: %s" + NL +
-                        "Error Message: %s" + NL +
-                        "Modified: %s",
-                blockTypeId, internalBlockId, defaultInputText, getInputText(), resultText, state,
-                hasError, errorMessage, modified);
+    /**
+     * Get the last published snapshot of the block state.
+     * 
+     * Never blocks. The snapshot is published on every mutation of the block.
+     * 
+     * @return the snapshot of the block state.
+     */
+    @Override
+    @NotNull
+    public BlockSnapshot snapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Publish the snapshot of the current block state.
+     * 
+     * The version is taken before the fields are read, so the snapshot with the greatest version
+     * has seen all mutations published before it. Concurrent publishers never replace a later
+     * snapshot with an earlier one.
+     */
+    private void publishSnapshot() {
+
+        final BlockSnapshot next = new BlockSnapshot(snapshotVersion.incrementAndGet(),
+                blockTypeId, internalBlockId, defaultInputText, effectiveInputText(),
+                snapshotResultText(), state.get(), hasError, errorMessage, isModified());
+
+        snapshot.accumulateAndGet(next,
+                (current, candidate) -> current == null || candidate.version() > current.version()
+                        ? candidate
+                        : current);
     }
 
     /**
@@ -102,14 +189,20 @@ public abstract class BlockBaseImpl implements Block {
      * @param hasError - the error flag.
      * @param errorMessage - the error message.
      */
-    protected synchronized void setError(final boolean hasError, final String errorMessage) {
+    protected void setError(final boolean hasError, final String errorMessage) {
 
-        if (this.hasError != hasError) {
-            setModified();
-        }
+        lock.lock();
+        try {
+            if (this.hasError != hasError) {
+                setModified();
+            }
 
-        this.hasError = hasError;
-        this.errorMessage = errorMessage;
+            this.hasError = hasError;
+            this.errorMessage = errorMessage;
+            publishSnapshot();
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -151,7 +244,8 @@ public abstract class BlockBaseImpl implements Block {
         // Set the modified flag to true to force the initial state to be modified.
         this.modified = true;
 
-        this.state = RunnableState.READY;
+        this.state.set(RunnableState.READY);
+        publishSnapshot();
     }
 
     /**
@@ -161,31 +255,36 @@ public abstract class BlockBaseImpl implements Block {
      * 
      * @param lines - the lines.
      */
-    public synchronized void resolveLines(final @NotNull List<Line> lines) {
+    public void resolveLines(final @NotNull List<Line> lines) {
 
-        if (inputJunction.hasLines() || outputJunction.hasLines()) {
-            throw new ConfigurationMismatchException(
-                    getLogText("inputJunction or outputJunction must not have lines"));
-        }
-
-        // Line diagram:
-        // blockFrom --------> blockTo
-        // equivalent to block diagram:
-        // outputJunction ---> inputJunction
-        lines.stream().filter(Objects::nonNull)
-                .filter(line -> line.getBlockFrom() != null && line.getBlockTo() != null)
-                .forEach(line -> {
-                    // If "me" is the 'block from' for line,
-                    // then add the line to the output junction.
-                    if (line.getBlockFrom().getInternalBlockId().equals(internalBlockId)) {
-                        outputJunction.addLine(line);
-                    }
-                    // If "me" is the 'block to' for line,
-                    // then add the line to the input junction.
-                    if (line.getBlockTo().getInternalBlockId().equals(internalBlockId)) {
-                        inputJunction.addLine(line);
-                    }
-                });
+        lock.lock();
+        try {
+            if (inputJunction.hasLines() || outputJunction.hasLines()) {
+                throw new ConfigurationMismatchException(
+                        getLogText("inputJunction or outputJunction must not have lines"));
+            }
+
+            // Line diagram:
+            // blockFrom --------> blockTo
+            // equivalent to block diagram:
+            // outputJunction ---> inputJunction
+            lines.stream().filter(Objects::nonNull)
+                    .filter(line -> line.getBlockFrom() != null && line.getBlockTo() != null)
+                    .forEach(line -> {
+                        // If "me" is the 'block from' for line,
+                        // then add the line to the output junction.
+                        if (line.getBlockFrom().getInternalBlockId().equals(internalBlockId)) {
+                            outputJunction.addLine(line);
+                        }
+                        // If "me" is the 'block to' for line,
+                        // then add the line to the input junction.
+                        if (line.getBlockTo().getInternalBlockId().equals(internalBlockId)) {
+                            inputJunction.addLine(line);
+                        }
+                    });
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -203,17 +302,24 @@ public abstract class BlockBaseImpl implements Block {
      */
     @Override
     public void setModified() {
-        this.modified = true;
+
+        if (!modified) {
+            this.modified = true;
+            publishSnapshot();
+        }
     }
 
     /**
      * Check if the modified flag is set.
      * 
-     * @return true if the modified flag is set, false otherwise.
+     * A block whose result is released counts as modified until it runs again, so the
+     * incremental execution does not take it for a clean block with a result.
+     * 
+     * @return true if the modified flag is set or the result is released, false otherwise.
      */
     @Override
     public boolean isModified() {
-        return modified;
+        return modified || resultReleased;
     }
 
     /**
@@ -221,7 +327,11 @@ public abstract class BlockBaseImpl implements Block {
      */
     @Override
     public void resetModified() {
-        this.modified = false;
+
+        if (modified) {
+            this.modified = false;
+            publishSnapshot();
+        }
     }
 
     /**
@@ -252,19 +362,25 @@ public abstract class BlockBaseImpl implements Block {
      * @param inputText - the input text.
      */
     @Override
-    public synchronized void setInputText(final String inputText) {
+    public void setInputText(final String inputText) {
 
-        if (inputText == null) {
-            setError(true, "Input text is null");
-            throw new NullArgumentException(getLogText(getErrorMessage()));
-        }
+        lock.lock();
+        try {
+            if (inputText == null) {
+                setError(true, "Input text is null");
+                throw new NullArgumentException(getLogText(getErrorMessage()));
+            }
 
-        if (!this.inputText.equals(inputText)) {
-            setModified();
-        }
+            if (!this.inputText.equals(inputText)) {
+                setModified();
+            }
 
-        this.inputText = inputText;
-        LogEx.info(log, LogEx.me(), getLogText("inputText changed"));
+            this.inputText = inputText;
+            publishSnapshot();
+            LogEx.info(log, LogEx.me(), getLogText("inputText changed"));
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -274,8 +390,19 @@ public abstract class BlockBaseImpl implements Block {
      */
     @Override
     @NotNull
-    public synchronized String getInputText() {
-        return inputText == null || inputText.isBlank() ? getDefaultInputText() : inputText;
+    public String getInputText() {
+        return effectiveInputText();
+    }
+
+    /**
+     * Get the input text or the default input text if the input text is blank.
+     * 
+     * @return the effective input text.
+     */
+    private String effectiveInputText() {
+
+        final String text = inputText;
+        return text == null || text.isBlank() ? defaultInputText : text;
     }
 
     /**
@@ -283,30 +410,131 @@ public abstract class BlockBaseImpl implements Block {
      * 
      * @param resultText - the result text.
      */
-    protected synchronized void setResultText(final String resultText) {
+    protected void setResultText(final String resultText) {
 
         if (resultText == null) {
             setError(true, "Result text is null");
             throw new NullArgumentException(getLogText(getErrorMessage()));
         }
 
-        if (!this.resultText.equals(resultText)) {
-            setModified();
+        setResultPayload(Payload.ofText(resultText));
+    }
+
+    /**
+     * Set the result payload, e.g. binary data which successors take without transcoding.
+     * 
+     * With a result spill set, an oversized payload is moved to a file. The file of the previous
+     * result is deleted.
+     * 
+     * @param resultPayload - the result payload.
+     */
+    protected void setResultPayload(final Payload resultPayload) {
+
+        lock.lock();
+        try {
+            if (resultPayload == null) {
+                setError(true, "Result payload is null");
+                throw new NullArgumentException(getLogText(getErrorMessage()));
+            }
+
+            final ResultSpill spill = resultSpill;
+            final Payload payload = spill != null ? spill.spill(resultPayload) : resultPayload;
+            final Payload previous = this.resultPayload;
+
+            if (!previous.equals(payload)) {
+                setModified();
+            }
+
+            this.resultPayload = payload;
+            this.resultReleased = false;
+            if (previous != payload) {
+                previous.release();
+            }
+            publishSnapshot();
+            LogEx.info(log, LogEx.me(), getLogText("resultPayload changed"));
+        } finally {
+            lock.unlock();
         }
+    }
+
+    /**
+     * Open a writer of the result text, for blocks which produce large text.
+     * 
+     * With a result spill set, the text moves to a spill file once it reaches the threshold and
+     * the rest goes to the file as it is written, so the result is never held on the heap as a
+     * whole (see {@link ResultSpill#openWriter()}). Closing the writer sets the result.
+     * 
+     * @return the writer, to be closed by the block.
+     */
+    @NotNull
+    protected Writer openResultWriter() {
 
-        this.resultText = resultText;
-        LogEx.info(log, LogEx.me(), getLogText("resultText changed"));
+        final ResultSpill spill = resultSpill;
+        return new ResultWriter(spill != null ? spill.openWriter() : new PayloadWriter());
     }
 
     /**
-     * Get the result text.
+     * Writer of the result text which sets the result when it is closed.
+     */
+    private final class ResultWriter extends FilterWriter {
+
+        private final PayloadWriter payloadWriter;
+
+        private boolean closed;
+
+        ResultWriter(final PayloadWriter payloadWriter) {
+
+            super(payloadWriter);
+            this.payloadWriter = payloadWriter;
+        }
+
+        @Override
+        public void close() throws IOException {
+
+            if (closed) {
+                return;
+            }
+            closed = true;
+            payloadWriter.close();
+            setResultPayload(payloadWriter.getPayload());
+        }
+    }
+
+    /**
+     * Get the result text: the text of a text payload, the Base64 of a binary one.
+     * 
+     * A spilled result is read back onto the heap, prefer {@link #getResultPayload()} and
+     * {@link Payload#openReader()} for it.
      * 
      * @return the result text.
      */
     @Override
     @NotNull
-    public synchronized String getResultText() {
-        return resultText;
+    public String getResultText() {
+        return resultPayload.asText();
+    }
+
+    /**
+     * Get the result payload.
+     * 
+     * @return the result payload.
+     */
+    @Override
+    @NotNull
+    public Payload getResultPayload() {
+        return resultPayload;
+    }
+
+    /**
+     * Get the result text for the snapshot. Binary and spilled data is only described, so
+     * publishing a snapshot never encodes or reads it.
+     * 
+     * @return the result text or the description of the binary payload.
+     */
+    private String snapshotResultText() {
+
+        final Payload payload = resultPayload;
+        return payload.isText() && !payload.isSpilled() ? payload.asText() : payload.toString();
     }
 
     /**
@@ -358,35 +586,102 @@ public abstract class BlockBaseImpl implements Block {
     /**
      * Get the state.
      * 
-     * Synchronized to match the synchronization on "setState". sonarqube(java:S2886)
+     * Never blocks: the state is an atomic reference changed with CAS.
      * 
      * @return current state.
      */
     @Override
     @NotNull
-    public synchronized RunnableState getState() {
-        return state;
+    public RunnableState getState() {
+        return state.get();
     }
 
     /**
      * Set the state.
      * 
+     * The transition is validated with {@link RunnableState#canTransitionTo(RunnableState)} and
+     * applied with CAS, no lock is taken.
+     * 
      * @param state - the state.
+     * @throws NullArgumentException - if state is null.
+     * @throws ConfigurationMismatchException - if the transition is not allowed.
      */
-    protected synchronized void setState(final RunnableState state) {
+    protected void setState(final RunnableState state) {
 
         if (state == null) {
             setError(true, "state is null");
             throw new NullArgumentException(getLogText(getErrorMessage()));
         }
 
-        if (this.state != state) {
+        RunnableState current;
+        do {
+            current = this.state.get();
+            if (!current.canTransitionTo(state)) {
+                throw new ConfigurationMismatchException(
+                        getLogText("illegal state transition " + current + " -> " + state));
+            }
+        } while (!this.state.compareAndSet(current, state));
+
+        onStateChanged(current, state);
+    }
+
+    /**
+     * Set the state if the current state is the expected one.
+     * 
+     * Use it when the transition must not overwrite a concurrent one, e.g. [RUNNING]->[DONE] must
+     * not overwrite [STOPPED] set from another thread.
+     * 
+     * @param expected - the expected current state.
+     * @param state - the new state.
+     * @return true if the state is set, false if the current state is not the expected one or the
+     *         transition is not allowed.
+     */
+    protected boolean compareAndSetState(final RunnableState expected,
+            final RunnableState state) {
+
+        if (expected == null || !expected.canTransitionTo(state)
+                || !this.state.compareAndSet(expected, state)) {
+            return false;
+        }
+
+        onStateChanged(expected, state);
+        return true;
+    }
+
+    /**
+     * Publish the applied state transition.
+     * 
+     * @param oldState - the old state.
+     * @param newState - the new state.
+     */
+    private void onStateChanged(final RunnableState oldState, final RunnableState newState) {
+
+        if (oldState != newState) {
             setModified();
         }
+        if (newState == RunnableState.DONE) {
+            storeCachedResult();
+        }
+        if (oldState == RunnableState.RUNNING && newState != RunnableState.RUNNING) {
+            runOwner = null;
+            settleLedFlight(newState);
+            settleStreams(newState);
+        }
+        if (newState == RunnableState.RUNNING) {
+            getOutputJunction().getLines().forEach(line -> line.setConsumed(false));
+        }
+        publishSnapshot();
 
-        this.state = state;
-        fireStateChanged(state);
-        LogEx.info(log, LogEx.me(), getLogText("state changed to " + state));
+        fireStateChanged(newState);
+        LogEx.info(log, LogEx.me(), getLogText("state changed to " + newState));
+
+        // After the listeners: they may still read the result of the block which is DONE.
+        if (newState == RunnableState.DONE || newState == RunnableState.SKIPPED) {
+            consumeInputs();
+        }
+        if (newState == RunnableState.DONE) {
+            releaseIfConsumed();
+        }
     }
 
     /**
@@ -406,17 +701,22 @@ public abstract class BlockBaseImpl implements Block {
      */
     @Override
     @NotNull
-    public synchronized String getErrorMessage() {
+    public String getErrorMessage() {
         return errorMessage;
     }
 
     /**
      * Stop the block.
+     * 
+     * Does nothing if the block can not be stopped in its current state, e.g. it is [ABORTED].
      */
     @Override
-    public synchronized void stop() {
+    public void stop() {
 
-        setState(RunnableState.STOPPED);
+        if (!transitFromAny(RunnableState.STOPPED)) {
+            LogEx.info(log, LogEx.me(), getLogText("stop ignored in state " + getState()));
+            return;
+        }
 
         // Do nothing with the junctions. Just stop.
 
@@ -428,11 +728,16 @@ public abstract class BlockBaseImpl implements Block {
 
     /**
      * Forced stop the block.
+     * 
+     * Does nothing if the block can not be aborted in its current state.
      */
     @Override
-    public synchronized void abort() {
+    public void abort() {
 
-        setState(RunnableState.ABORTED);
+        if (!transitFromAny(RunnableState.ABORTED)) {
+            LogEx.info(log, LogEx.me(), getLogText("abort ignored in state " + getState()));
+            return;
+        }
 
         // Do nothing with the junctions. Abort as needed.
 
@@ -443,45 +748,527 @@ public abstract class BlockBaseImpl implements Block {
     }
 
     /**
-     * Set the block to READY state without resetting it.
+     * Skip the block which is not going to run: move it from READY to SKIPPED.
      * 
-     * This method is used to set the block to READY state without resetting it. It is used to set
-     * the block to READY state when the block is in DONE state for example. Use with caution.
+     * Used by the engine for the blocks on a branch which is not taken (see
+     * {@link #goFurtherSelected(Collection)}). The output junction is turned off, so the
+     * successors are not selected either.
+     * 
+     * @return true if the block is skipped, false if it is not READY.
      */
     @Override
-    public synchronized void setReady() {
+    public boolean skip() {
+
+        if (!compareAndSetState(RunnableState.READY, RunnableState.SKIPPED)) {
+            return false;
+        }
+
+        getOutputJunction().setState(LineState.OFF);
+
+        LogEx.info(log, LogEx.me(), getLogText("skip completed"));
+        return true;
+    }
+
+    /**
+     * Set the state from whatever current state allows the transition.
+     * 
+     * @param state - the new state.
+     * @return true if the state is set, false if the current state does not allow the transition.
+     */
+    private boolean transitFromAny(final RunnableState state) {
 
-        if (state == RunnableState.DONE || state == RunnableState.ABORTED
-                || state == RunnableState.STOPPED) {
+        RunnableState current;
+        do {
+            current = this.state.get();
+            if (!current.canTransitionTo(state)) {
+                return false;
+            }
+        } while (!compareAndSetState(current, state));
+
+        return true;
+    }
+
+    /**
+     * Set the block to READY state without resetting it.
+     * 
+     * This method is used to set the block to READY state when the block is in DONE or SKIPPED
+     * state for example. Use with caution.
+     * 
+     * @throws ConfigurationMismatchException - if the block has an error.
+     */
+    @Override
+    public void setReady() {
+
+        RunnableState current;
+        do {
+            current = this.state.get();
+            if (current != RunnableState.DONE && current != RunnableState.ABORTED
+                    && current != RunnableState.STOPPED && current != RunnableState.SKIPPED) {
+                return;
+            }
 
             if (hasError) {
                 throw new ConfigurationMismatchException(getLogText(getErrorMessage()));
             }
+        } while (!compareAndSetState(current, RunnableState.READY));
+    }
+
+    /**
+     * Reset the block.
+     */
+    @Override
+    public void reset() {
 
+        lock.lock();
+        try {
             setState(RunnableState.READY);
+
+            // Yes, reset this fields here.
+            setError(false, "");
+            setInputText("");
+            setResultText("");
+
+            // Set the output junction to off.
+            getOutputJunction().setState(LineState.OFF);
+
+            // Ensure the block is marked as modified.
+            setModified();
+
+            LogEx.info(log, LogEx.me(), getLogText("reset completed"));
+        } finally {
+            lock.unlock();
         }
     }
 
     /**
-     * Reset the block.
+     * Set the result cache.
+     * 
+     * If the block is cacheable (see {@link #isCacheable()}), {@link #run()} looks the result up
+     * in the cache after moving to RUNNING. On a hit the block goes to DONE at once with the cached
+     * result text, so the subclass skips the RUNNING part and only goes further in the DONE part.
+     * On a miss the result text is stored in the cache when the block goes to DONE.
+     * 
+     * @param resultCache - the result cache, null to disable caching.
      */
-    @Override
-    public synchronized void reset() {
+    public void setResultCache(final ResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
 
-        setState(RunnableState.READY);
+    /**
+     * Get the result cache.
+     * 
+     * @return the result cache or null if caching is disabled.
+     */
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
 
-        // Yes, reset this fields here.
-        setError(false, "");
-        setInputText("");
-        setResultText("");
+    /**
+     * Set the result spill.
+     * 
+     * Results which reach the threshold of the spill are moved from the heap to files, see
+     * {@link ResultSpill}. Successors read them with {@link Payload#openReader()} or
+     * {@link Payload#asBuffer()} without materializing them.
+     * 
+     * @param resultSpill - the result spill, null to keep all results on the heap.
+     */
+    public void setResultSpill(final ResultSpill resultSpill) {
+        this.resultSpill = resultSpill;
+    }
 
-        // Set the output junction to off.
-        getOutputJunction().setState(LineState.OFF);
+    /**
+     * Get the result spill.
+     * 
+     * @return the result spill or null if all results are kept on the heap.
+     */
+    public ResultSpill getResultSpill() {
+        return resultSpill;
+    }
 
-        // Ensure the block is marked as modified.
-        setModified();
+    /**
+     * Set the release of the result once it is consumed.
+     * 
+     * If enabled, the result of the block is released as soon as every output line is consumed,
+     * i.e. every next block is DONE or SKIPPED, and no holder has pinned it (see
+     * {@link #pinResult()}). A terminal block is never released. Then peak memory follows the
+     * frontier of the running flow instead of its total size. The released block counts as
+     * modified (see {@link #isModified()}), so the incremental execution computes it again when
+     * its result is needed. Disabled by default.
+     * 
+     * @param releaseWhenConsumed - true to release the consumed result.
+     */
+    public void setReleaseWhenConsumed(final boolean releaseWhenConsumed) {
+
+        this.releaseWhenConsumed = releaseWhenConsumed;
+        if (releaseWhenConsumed) {
+            releaseIfConsumed();
+        }
+    }
+
+    /**
+     * Check if the result is released once it is consumed.
+     * 
+     * @return true if the consumed result is released, false otherwise.
+     */
+    public boolean isReleaseWhenConsumed() {
+        return releaseWhenConsumed;
+    }
+
+    /**
+     * Pin the result, so it is not released while the holder still needs it.
+     * 
+     * @return true if the result is pinned, false if it is already released.
+     */
+    public boolean pinResult() {
+
+        lock.lock();
+        try {
+            if (resultReleased) {
+                return false;
+            }
+            resultPins.incrementAndGet();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Unpin the result pinned with {@link #pinResult()}. The last unpin releases the result if it
+     * is consumed meanwhile.
+     * 
+     * @throws ConfigurationMismatchException - if the result is not pinned.
+     */
+    public void unpinResult() {
+
+        if (resultPins.getAndUpdate(pins -> pins > 0 ? pins - 1 : pins) == 0) {
+            throw new ConfigurationMismatchException(getLogText("result is not pinned"));
+        }
+        releaseIfConsumed();
+    }
+
+    /**
+     * Check if the result is released.
+     * 
+     * @return true if the result has been released and not computed again, false otherwise.
+     */
+    public boolean isResultReleased() {
+        return resultReleased;
+    }
+
+    /**
+     * Mark the input lines consumed and let the previous blocks release their results.
+     * 
+     * The cached result of the input junction references the results of the previous blocks, so
+     * it is dropped if any of them releases its results.
+     */
+    private void consumeInputs() {
+
+        boolean releasing = false;
+        for (Line line : getInputJunction().getLines()) {
+            line.setConsumed(true);
+            if (line.getBlockFrom() instanceof BlockBaseImpl previous
+                    && previous.isReleaseWhenConsumed()) {
+                releasing = true;
+            }
+        }
+        if (!releasing) {
+            return;
+        }
+
+        if (getInputJunction() instanceof LineJunctionImpl junction) {
+            junction.dropCachedResult();
+        }
+        for (Line line : getInputJunction().getLines()) {
+            if (line.getBlockFrom() instanceof BlockBaseImpl previous) {
+                previous.releaseIfConsumed();
+            }
+        }
+    }
+
+    /**
+     * Release the result if it is enabled, the block is DONE, every output line is consumed and
+     * the result is not pinned.
+     * 
+     * @return true if the result is released by this call, false otherwise.
+     */
+    boolean releaseIfConsumed() {
+
+        if (!releaseWhenConsumed || resultReleased || getState() != RunnableState.DONE) {
+            return false;
+        }
+
+        final List<Line> outputLines = getOutputJunction().getLines();
+        if (outputLines.isEmpty() || !outputLines.stream().allMatch(Line::isConsumed)) {
+            return false;
+        }
+
+        final Payload previous;
+        lock.lock();
+        try {
+            if (resultReleased || resultPins.get() > 0 || getState() != RunnableState.DONE) {
+                return false;
+            }
+            previous = resultPayload;
+            resultPayload = Payload.EMPTY;
+            resultReleased = true;
+            publishSnapshot();
+        } finally {
+            lock.unlock();
+        }
+
+        previous.release();
+        LogEx.info(log, LogEx.me(), getLogText("consumed result released: " + previous));
+        return true;
+    }
+
+    /**
+     * Set the single-flight coalescing of identical concurrent invocations.
+     * 
+     * If the block is cacheable (see {@link #isCacheable()}) and its result is not in the cache,
+     * {@link #run()} joins the flight of its cache key. The first invocation leads the flight and
+     * runs, the identical invocations arriving meanwhile wait for its result and go to DONE with
+     * it. If the leader does not reach DONE, they run themselves.
+     * 
+     * @param singleFlight - the single-flight, null to disable coalescing.
+     */
+    public void setSingleFlight(final SingleFlight singleFlight) {
+        this.singleFlight = singleFlight;
+    }
+
+    /**
+     * Get the single-flight coalescing of identical concurrent invocations.
+     * 
+     * @return the single-flight or null if coalescing is disabled.
+     */
+    public SingleFlight getSingleFlight() {
+        return singleFlight;
+    }
+
+    /**
+     * Start the run: move from READY to RUNNING, then take the result from the cache if possible
+     * and join the flight of identical invocations.
+     * 
+     * Of concurrent callers only one wins the move to RUNNING, the others lose and must not do
+     * the job.
+     * 
+     * @return the outcome for the caller.
+     * @throws ConfigurationMismatchException - if the block is not configured.
+     */
+    @NotNull
+    RunStart startRun() {
+
+        if (getState() == RunnableState.NOT_CONFIGURED) {
+            setError(true, "Block is not configured");
+            throw new ConfigurationMismatchException(getLogText(getErrorMessage()));
+        }
+
+        // Only one of concurrent callers moves the block to RUNNING.
+        if (!compareAndSetState(RunnableState.READY, RunnableState.RUNNING)) {
+            return RunStart.LOST;
+        }
+
+        runOwner = Thread.currentThread();
+        pendingCacheKey = null;
+        ledFlight = null;
+
+        final ResultCache cache = resultCache;
+        final SingleFlight flights = singleFlight;
+        if (cache == null && flights == null || !isCacheable()) {
+            return RunStart.WON;
+        }
 
-        LogEx.info(log, LogEx.me(), getLogText("reset completed"));
+        final String key = ResultCacheKey.of(this);
+        if (cache != null) {
+            final String cached = cache.get(key);
+            if (cached != null) {
+                takeSharedResult(cached, "result taken from cache");
+                return RunStart.WON;
+            }
+            pendingCacheKey = key;
+        }
+
+        if (flights == null) {
+            return RunStart.WON;
+        }
+
+        final SingleFlight.Flight flight = flights.join(key);
+        if (flight.isLeader()) {
+            ledFlight = flight;
+            return RunStart.WON;
+        }
+        return RunStart.following(flight);
+    }
+
+    /**
+     * Check if the current thread owns the run: it has moved the block to RUNNING in
+     * {@link #run()} and the block is still RUNNING.
+     * 
+     * A subclass checks it after {@code super.run()} to do the job: a concurrent {@code run()}
+     * which has lost the start sees RUNNING too, but does not own the run.
+     * 
+     * @return true if the current thread must do the job, false otherwise.
+     */
+    protected boolean isRunOwner() {
+        return runOwner == Thread.currentThread() && getState() == RunnableState.RUNNING;
+    }
+
+    /**
+     * Take the result computed elsewhere and go to DONE.
+     * 
+     * @param resultText - the result text.
+     * @param source - where the result comes from, for the log.
+     */
+    void takeSharedResult(final String resultText, final String source) {
+
+        // Already cached, do not store it again.
+        pendingCacheKey = null;
+
+        setResultText(resultText);
+        if (compareAndSetState(RunnableState.RUNNING, RunnableState.DONE)) {
+            LogEx.info(log, LogEx.me(), getLogText(source));
+        }
+    }
+
+    /**
+     * Settle the flight led by the block which has left RUNNING.
+     * 
+     * The flight shares in-memory text only: with a binary or spilled result the followers
+     * compute their own.
+     * 
+     * @param newState - the new state.
+     */
+    private void settleLedFlight(final RunnableState newState) {
+
+        final SingleFlight.Flight flight = ledFlight;
+        if (flight == null) {
+            return;
+        }
+        ledFlight = null;
+
+        final Payload payload = resultPayload;
+        if (newState == RunnableState.DONE && !hasError && payload.isText()
+                && !payload.isSpilled()) {
+            flight.complete(payload.asText());
+        } else {
+            flight.fail(new ConfigurationMismatchException(getLogText(
+                    "leader finished in state " + newState + " with " + payload)));
+        }
+    }
+
+    /**
+     * Open the record channels of the streaming output lines and turn these lines ON, so the
+     * successors start consuming the records while the block is running.
+     * 
+     * Call it in [RUNNING] before {@link #emit(String)}. When the block leaves [RUNNING], the
+     * channels are closed (DONE without error) or failed (otherwise).
+     */
+    protected void openOutputStreams() {
+
+        final List<Line> streaming = getOutputJunction().getLines().stream()
+                .filter(Line::isStreaming)
+                .toList();
+
+        final List<RecordChannel> channels = new ArrayList<>(streaming.size());
+        streaming.forEach(line -> channels.add(line.openChannel()));
+        outputStreams = List.copyOf(channels);
+
+        streaming.forEach(line -> line.setState(LineState.ON));
+    }
+
+    /**
+     * Emit a record to all open output streams, waiting while a consumer is behind.
+     * 
+     * @param record - the record.
+     * @return true if at least one consumer accepted the record, false if all of them have
+     *         cancelled their streams (the block may stop producing).
+     * @throws InterruptedException - if interrupted while waiting.
+     * @throws NullArgumentException - if record is null.
+     * @throws ConfigurationMismatchException - if the output streams are not opened.
+     */
+    protected boolean emit(final String record) throws InterruptedException {
+
+        final List<RecordChannel> channels = outputStreams;
+        if (channels.isEmpty()) {
+            throw new ConfigurationMismatchException(getLogText("output streams are not opened"));
+        }
+
+        boolean accepted = false;
+        for (RecordChannel channel : channels) {
+            accepted |= channel.send(record);
+        }
+        return accepted;
+    }
+
+    /**
+     * Get the record channel of the single streaming input line.
+     * 
+     * @return the channel to receive the records from.
+     * @throws ConfigurationMismatchException - if the block does not have exactly one streaming
+     *         input line or its channel is not opened.
+     */
+    @NotNull
+    protected RecordChannel getInputStream() {
+
+        final List<Line> streaming = getInputJunction().getLines().stream()
+                .filter(Line::isStreaming)
+                .toList();
+        if (streaming.size() != 1) {
+            throw new ConfigurationMismatchException(
+                    getLogText("block must have exactly one streaming input line"));
+        }
+
+        final RecordChannel channel = streaming.get(0).getChannel();
+        if (channel == null) {
+            throw new ConfigurationMismatchException(getLogText("input stream is not opened"));
+        }
+        return channel;
+    }
+
+    /**
+     * Settle the streams of the block which has left RUNNING: close or fail its output streams
+     * and cancel its input streams, so neither side waits for the other any more.
+     * 
+     * @param newState - the new state.
+     */
+    private void settleStreams(final RunnableState newState) {
+
+        final List<RecordChannel> channels = outputStreams;
+        outputStreams = List.of();
+        if (newState == RunnableState.DONE && !hasError) {
+            channels.forEach(RecordChannel::close);
+        } else {
+            final ConfigurationMismatchException error = new ConfigurationMismatchException(
+                    getLogText("producer finished in state " + newState));
+            channels.forEach(channel -> channel.fail(error));
+        }
+
+        if (!getInputJunction().hasLines()) {
+            return;
+        }
+        getInputJunction().getLines().stream()
+                .filter(Line::isStreaming)
+                .map(Line::getChannel)
+                .filter(Objects::nonNull)
+                .forEach(RecordChannel::cancel);
+    }
+
+    /**
+     * Store the result of the finished block in the cache if it was missed there.
+     */
+    private void storeCachedResult() {
+
+        final String key = pendingCacheKey;
+        final ResultCache cache = resultCache;
+        pendingCacheKey = null;
+
+        // The cache keeps text: a binary result would come back as Base64 text, a spilled one
+        // would be read back onto the heap.
+        final Payload payload = resultPayload;
+        if (key != null && cache != null && !hasError && payload.isText()
+                && !payload.isSpilled()) {
+            cache.put(key, payload.asText());
+        }
     }
 
     /**
@@ -490,20 +1277,25 @@ public abstract class BlockBaseImpl implements Block {
      * Base state machine which runs from [NOT_CONFIGURED||READY] to [DONE]. Main working state is
      * [RUNNING] and it's processing in the subclass.
      * 
-     * Subclasses must implement the [RUNNING] state and then put the block to [DONE] state.
+     * Subclasses must implement the [RUNNING] state and then put the block to [DONE] state. Only
+     * the caller which owns the run (see {@link #isRunOwner()}) does the job: a concurrent call
+     * returns at once.
      * 
      * @throws ConfigurationMismatchException - if the block is not configured.
      */
     @Override
-    public synchronized void run() {
+    public void run() {
 
-        if (getState() == RunnableState.NOT_CONFIGURED) {
-            setError(true, "Block is not configured");
-            throw new ConfigurationMismatchException(getLogText(getErrorMessage()));
+        final RunStart start = startRun();
+        if (start.isLost()) {
+            return;
         }
 
-        if (getState() == RunnableState.READY) {
-            setState(RunnableState.RUNNING);
+        if (start.flight() != null) {
+            final String shared = start.flight().await();
+            if (shared != null) {
+                takeSharedResult(shared, "result shared by an identical invocation");
+            }
         }
 
         // CHECKSTYLE:OFF
@@ -511,7 +1303,7 @@ public abstract class BlockBaseImpl implements Block {
         /* 
          * Do the job in the subclass as follows:
          *
-         * if getState() is RunnableState.RUNNING then
+         * if isRunOwner() then
          *     do the job and then
          *     setState() to RunnableState.DONE.
          * That's all.
@@ -543,4 +1335,21 @@ public abstract class BlockBaseImpl implements Block {
         getInputJunction().setState(LineState.OFF);
         getOutputJunction().setState(LineState.ON);
     }
+
+    /**
+     * Go further on the selected branches only: turn off the input junction and turn on the
+     * selected output lines, the other output lines stay OFF.
+     * 
+     * The blocks which can not be reached any more through the lines left OFF are not run, the
+     * engine marks them SKIPPED.
+     * 
+     * @param internalLineIds - the internal ids of the output lines to turn on.
+     * @throws NullArgumentException - if internalLineIds is null.
+     * @throws ConfigurationMismatchException - if a line is not an output line of the block.
+     */
+    protected void goFurtherSelected(final Collection<String> internalLineIds) {
+
+        getInputJunction().setState(LineState.OFF);
+        getOutputJunction().select(internalLineIds);
+    }
 }
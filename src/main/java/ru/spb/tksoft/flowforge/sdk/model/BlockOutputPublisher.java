@@ -0,0 +1,302 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.contract.Block;
+import ru.spb.tksoft.flowforge.sdk.contract.RunnableStateChangeListener;
+import ru.spb.tksoft.flowforge.sdk.enumeration.RunnableState;
+
+/**
+ * Publisher of the results of blocks, e.g. of the terminal blocks of a flow.
+ * 
+ * Every subscriber receives the result text of each block when the block reaches [DONE], in the
+ * order the blocks finish, and is completed when all blocks have settled. A block which is
+ * already [DONE] at subscription publishes its current result, a [SKIPPED] block publishes
+ * nothing. A block which goes to [STOPPED] or [ABORTED] fails the subscription.
+ * 
+ * Results are delivered only on demand: a finished block waits in the subscription until the
+ * subscriber requests it, no copy of the result is made. Signals are delivered on the thread of
+ * the block which finishes or of the subscriber which requests.
+ * 
+ * Subclassing is not allowed.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public final class BlockOutputPublisher implements Flow.Publisher<String> {
+
+    @NotNull
+    private final List<BlockBaseImpl> blocks;
+
+    /**
+     * Constructor.
+     * 
+     * @param blocks - the blocks to publish the results of.
+     * @throws NullArgumentException - if blocks is null or contains null.
+     * @throws ConfigurationMismatchException - if a block is not derived from BlockBaseImpl.
+     */
+    public BlockOutputPublisher(final List<? extends Block> blocks) {
+
+        if (blocks == null) {
+            throw new NullArgumentException("blocks must not be null");
+        }
+
+        final List<BlockBaseImpl> list = new ArrayList<>(blocks.size());
+        for (Block block : blocks) {
+            if (block == null) {
+                throw new NullArgumentException("blocks must not contain null");
+            }
+            if (!(block instanceof BlockBaseImpl impl)) {
+                throw new ConfigurationMismatchException(
+                        "block must be derived from BlockBaseImpl: " + block.getInternalBlockId());
+            }
+            list.add(impl);
+        }
+        this.blocks = List.copyOf(list);
+    }
+
+    /**
+     * Create the publisher of the result of a single block.
+     * 
+     * @param block - the block.
+     * @return the publisher.
+     * @throws NullArgumentException - if block is null.
+     * @throws ConfigurationMismatchException - if the block is not derived from BlockBaseImpl.
+     */
+    @NotNull
+    public static BlockOutputPublisher of(final Block block) {
+
+        if (block == null) {
+            throw new NullArgumentException("block must not be null");
+        }
+        return new BlockOutputPublisher(List.of(block));
+    }
+
+    /**
+     * Subscribe to the results of the blocks.
+     * 
+     * @param subscriber - the subscriber.
+     * @throws NullArgumentException - if subscriber is null.
+     */
+    @Override
+    public void subscribe(final Flow.Subscriber<? super String> subscriber) {
+
+        if (subscriber == null) {
+            throw new NullArgumentException("subscriber must not be null");
+        }
+
+        final Subscription subscription = new Subscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        subscription.watch();
+    }
+
+    /**
+     * Subscription of one subscriber.
+     * 
+     * Signals are serialized with a work-in-progress counter: whoever increments it from zero
+     * drains the finished results, the others only leave their work to the drainer.
+     */
+    private final class Subscription implements Flow.Subscription {
+
+        @NotNull
+        private final Flow.Subscriber<? super String> subscriber;
+
+        @NotNull
+        private final Queue<String> results = new ConcurrentLinkedQueue<>();
+
+        @NotNull
+        private final List<RunnableStateChangeListener> listeners = new ArrayList<>();
+
+        private final AtomicLong demand = new AtomicLong();
+
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private final AtomicInteger unsettled = new AtomicInteger(blocks.size());
+
+        private volatile Throwable error;
+
+        private volatile boolean cancelled;
+
+        private volatile boolean terminated;
+
+        /**
+         * Constructor.
+         * 
+         * @param subscriber - the subscriber.
+         */
+        Subscription(final Flow.Subscriber<? super String> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        /**
+         * Start watching the blocks.
+         * 
+         * The listener is added before the current state is checked, so a block settling in
+         * between is seen either way; the per-block flag counts it only once. No listener is
+         * added after the subscription has terminated.
+         */
+        void watch() {
+
+            for (BlockBaseImpl block : blocks) {
+                final AtomicBoolean settled = new AtomicBoolean();
+                final RunnableStateChangeListener listener =
+                        event -> settle(block, event.getNewState(), settled);
+                synchronized (listeners) {
+                    if (terminated) {
+                        return;
+                    }
+                    listeners.add(listener);
+                    block.addStateChangeListener(listener);
+                }
+                settle(block, block.getState(), settled);
+            }
+            drain();
+        }
+
+        /**
+         * Take the state of a block into account.
+         * 
+         * @param block - the block.
+         * @param state - the state of the block.
+         * @param settled - the flag of the block, set when the block is taken into account.
+         */
+        private void settle(final BlockBaseImpl block, final RunnableState state,
+                final AtomicBoolean settled) {
+
+            switch (state) {
+                case DONE, SKIPPED, STOPPED, ABORTED -> {
+                    // Settled below.
+                }
+                default -> {
+                    return;
+                }
+            }
+
+            if (!settled.compareAndSet(false, true)) {
+                return;
+            }
+
+            if (state == RunnableState.DONE) {
+                results.add(block.getResultText());
+            } else if (state == RunnableState.STOPPED || state == RunnableState.ABORTED) {
+                error = new ConfigurationMismatchException(
+                        block.getLogText("block finished in state " + state));
+            }
+            unsettled.decrementAndGet();
+            drain();
+        }
+
+        /**
+         * Request more results.
+         * 
+         * @param n - the number of results.
+         */
+        @Override
+        public void request(final long n) {
+
+            if (n <= 0) {
+                error = new IllegalArgumentException("request must be positive: " + n);
+                results.clear();
+            } else {
+                demand.getAndAccumulate(n, (current, added) -> {
+                    final long sum = current + added;
+                    return sum < 0 ? Long.MAX_VALUE : sum;
+                });
+            }
+            drain();
+        }
+
+        /**
+         * Cancel the subscription.
+         */
+        @Override
+        public void cancel() {
+
+            cancelled = true;
+            drain();
+        }
+
+        /**
+         * Deliver the results on demand and the terminal signal.
+         */
+        private void drain() {
+
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                if (!terminated) {
+                    deliver();
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Deliver what can be delivered now. Called by the single drainer only.
+         */
+        private void deliver() {
+
+            if (cancelled) {
+                terminate();
+                return;
+            }
+
+            final Throwable failure = error;
+            if (failure != null) {
+                terminate();
+                subscriber.onError(failure);
+                return;
+            }
+
+            while (demand.get() > 0 && !results.isEmpty() && !cancelled) {
+                demand.decrementAndGet();
+                subscriber.onNext(results.poll());
+            }
+
+            if (!cancelled && results.isEmpty() && unsettled.get() == 0 && error == null) {
+                terminate();
+                subscriber.onComplete();
+            }
+        }
+
+        /**
+         * Stop watching the blocks and drop the results not delivered.
+         */
+        private void terminate() {
+
+            results.clear();
+            synchronized (listeners) {
+                terminated = true;
+                for (int i = 0; i < listeners.size(); i++) {
+                    blocks.get(i).removeStateChangeListener(listeners.get(i));
+                }
+                listeners.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.model;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.contract.RecordChannel;
+
+/**
+ * Bounded record channel implementation.
+ * 
+ * The capacity is enforced with a semaphore of free slots, so closing and failing the channel
+ * never block the producer: the end marker does not take a slot. Waiting for a slot is managed
+ * blocking, so a fork-join pool running the producer adds a thread for the consumer meanwhile.
+ * 
+ * Subclassing is not allowed.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public final class BoundedRecordChannel implements RecordChannel {
+
+    // End of the stream, put once by close() or fail() and put back by the consumer which takes
+    // it, so every later receive() sees the end too.
+    private static final Object END = new Object();
+
+    @NotNull
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+
+    @NotNull
+    private final Semaphore freeSlots;
+
+    private final int capacity;
+
+    private volatile boolean closed;
+
+    private volatile boolean cancelled;
+
+    private volatile Throwable failure;
+
+    /**
+     * Constructor.
+     * 
+     * @param capacity - the maximum number of records buffered in the channel.
+     * @throws IllegalArgumentException - if capacity is not positive.
+     */
+    public BoundedRecordChannel(final int capacity) {
+
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+
+        this.capacity = capacity;
+        this.freeSlots = new Semaphore(capacity);
+    }
+
+    /**
+     * Send a record, waiting while the channel is full.
+     * 
+     * @param record - the record.
+     * @return true if the record is accepted, false if the consumer has cancelled the channel.
+     * @throws InterruptedException - if interrupted while waiting.
+     * @throws NullArgumentException - if record is null.
+     * @throws ConfigurationMismatchException - if the channel is closed.
+     */
+    @Override
+    public boolean send(final String record) throws InterruptedException {
+
+        if (record == null) {
+            throw new NullArgumentException("record must not be null");
+        }
+
+        if (closed) {
+            throw new ConfigurationMismatchException("channel is closed");
+        }
+
+        if (cancelled) {
+            return false;
+        }
+
+        if (!freeSlots.tryAcquire()) {
+            ForkJoinPool.managedBlock(new SlotBlocker());
+        }
+        if (cancelled) {
+            freeSlots.release();
+            return false;
+        }
+
+        queue.add(record);
+        return true;
+    }
+
+    /**
+     * Waits for a free slot as a managed blocker.
+     */
+    private final class SlotBlocker implements ForkJoinPool.ManagedBlocker {
+
+        private boolean acquired;
+
+        @Override
+        public boolean block() throws InterruptedException {
+
+            if (!acquired) {
+                freeSlots.acquire();
+                acquired = true;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+
+            if (!acquired) {
+                acquired = freeSlots.tryAcquire();
+            }
+            return acquired;
+        }
+    }
+
+    /**
+     * Receive the next record, waiting while the channel is empty.
+     * 
+     * @return the next record or null at the end of the stream or if the channel is cancelled.
+     * @throws InterruptedException - if interrupted while waiting.
+     * @throws IllegalStateException - if the producer has failed.
+     */
+    @Override
+    public String receive() throws InterruptedException {
+
+        if (cancelled) {
+            return null;
+        }
+
+        final Object next = queue.take();
+        if (next == END) {
+            queue.add(END);
+            final Throwable error = failure;
+            if (error != null && !cancelled) {
+                throw new IllegalStateException("stream failed: " + error.getMessage(), error);
+            }
+            return null;
+        }
+
+        freeSlots.release();
+        return (String) next;
+    }
+
+    /**
+     * Close the channel: the end of the stream. Never blocks.
+     * 
+     * Does nothing if the channel is already closed.
+     */
+    @Override
+    public synchronized void close() {
+
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.add(END);
+    }
+
+    /**
+     * Fail the channel: the consumer gets the error after the records sent before. Never blocks.
+     * 
+     * Does nothing if the channel is already closed.
+     * 
+     * @param error - the error.
+     * @throws NullArgumentException - if error is null.
+     */
+    @Override
+    public synchronized void fail(final Throwable error) {
+
+        if (error == null) {
+            throw new NullArgumentException("error must not be null");
+        }
+
+        if (closed) {
+            return;
+        }
+        failure = error;
+        closed = true;
+        queue.add(END);
+    }
+
+    /**
+     * Cancel the channel from the consumer side.
+     * 
+     * The buffered records are dropped, a producer waiting for a free slot is released and a
+     * consumer waiting for a record gets the end of the stream.
+     */
+    @Override
+    public synchronized void cancel() {
+
+        if (cancelled) {
+            return;
+        }
+        cancelled = true;
+
+        queue.clear();
+        queue.add(END);
+
+        // Wake up the producer waiting for a slot, it sees the cancellation.
+        freeSlots.release(capacity);
+    }
+
+    /**
+     * Check if the producer has closed or failed the channel.
+     * 
+     * @return true if the channel is closed, false otherwise.
+     */
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Check if the consumer has cancelled the channel.
+     * 
+     * @return true if the channel is cancelled, false otherwise.
+     */
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Get the capacity of the channel.
+     * 
+     * @return the maximum number of records buffered in the channel.
+     */
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+}
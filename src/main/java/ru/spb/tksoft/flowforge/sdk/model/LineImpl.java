@@ -18,13 +18,19 @@ import ru.spb.tksoft.utils.log.LogEx;
 import jakarta.validation.constraints.NotNull;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
 import ru.spb.tksoft.common.exceptions.NullArgumentException;
 import ru.spb.tksoft.flowforge.sdk.contract.Block;
+import ru.spb.tksoft.flowforge.sdk.contract.EventListener;
 import ru.spb.tksoft.flowforge.sdk.contract.Line;
+import ru.spb.tksoft.flowforge.sdk.contract.LineStateChangedEvent;
+import ru.spb.tksoft.flowforge.sdk.contract.RecordChannel;
 import ru.spb.tksoft.flowforge.sdk.enumeration.LineState;
-import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.flowforge.sdk.value.JsonNode;
+import ru.spb.tksoft.flowforge.sdk.value.Payload;
 
 /**
  * Line implementation.
@@ -69,6 +75,16 @@ public final class LineImpl implements Line {
 
     private volatile boolean modified;
 
+    // True when the next block has finished with the result, cleared when the previous block
+    // runs again.
+    private volatile boolean consumed;
+
+    // Capacity of the record channel, 0 if the line is not streaming.
+    private volatile int streamCapacity;
+
+    // Record channel of the current run, null if not opened.
+    private volatile RecordChannel channel;
+
     /**
      * Constructor.
      * 
@@ -138,6 +154,59 @@ public final class LineImpl implements Line {
                         getLogText("blockTo not found")));
     }
 
+    /**
+     * Resolve the blocks which are already looked up by the caller.
+     * 
+     * Call it only once, instead of {@link #resolveBlocks(List)}. Used by graph builders which
+     * index the blocks once for all lines.
+     * 
+     * @param blockFrom - the block from.
+     * @param blockTo - the block to.
+     * @throws NullArgumentException - if blockFrom or blockTo is null.
+     * @throws ConfigurationMismatchException - if the blocks are already resolved or their ids do
+     *         not match the ids of the line.
+     */
+    public synchronized void resolveBlocks(final Block blockFrom, final Block blockTo) {
+
+        if (blockFrom == null || blockTo == null) {
+            throw new NullArgumentException(getLogText("blockFrom, blockTo must not be null"));
+        }
+
+        if (this.blockFrom != null || this.blockTo != null) {
+            throw new ConfigurationMismatchException(
+                    getLogText("blockFrom or blockTo must not be already resolved"));
+        }
+
+        if (!blockFrom.getInternalBlockId().equals(blockFromInternalId)
+                || !blockTo.getInternalBlockId().equals(blockToInternalId)) {
+            throw new ConfigurationMismatchException(
+                    getLogText("blockFrom or blockTo does not match the line"));
+        }
+
+        this.blockFrom = blockFrom;
+        this.blockTo = blockTo;
+    }
+
+    /**
+     * Get the internal id of the block from.
+     * 
+     * @return the internal id of the block from.
+     */
+    @NotNull
+    public String getBlockFromInternalId() {
+        return blockFromInternalId;
+    }
+
+    /**
+     * Get the internal id of the block to.
+     * 
+     * @return the internal id of the block to.
+     */
+    @NotNull
+    public String getBlockToInternalId() {
+        return blockToInternalId;
+    }
+
     /**
      * Set the modified flag.
      */
@@ -219,33 +288,196 @@ public final class LineImpl implements Line {
     /**
      * Set the line state.
      * 
+     * The state is updated under the monitor of the line, the state change event is fired after
+     * the monitor is released, so listeners never run while the line is locked.
+     * 
      * @param state - the line state.
      */
     @Override
-    public synchronized void setState(final LineState state) {
+    public void setState(final LineState state) {
 
         if (state == null) {
             throw new NullArgumentException(getLogText("state must not be null"));
         }
 
-        if (this.state != state) {
+        if (updateState(state)) {
+            fireStateChanged(state);
+        }
+    }
+
+    /**
+     * Update the line state under the monitor of the line.
+     * 
+     * @param state - the line state.
+     * @return true if the state has actually changed, false otherwise.
+     */
+    private synchronized boolean updateState(final LineState state) {
+
+        final boolean changed = this.state != state;
+        if (changed) {
             setModified();
         }
 
         this.state = state;
         LogEx.info(log, LogEx.me(), getLogText("state changed to " + state));
+
+        return changed;
+    }
+
+    // Junctions and engines are interested in the state transitions of the line. We use a
+    // CopyOnWriteArrayList to ensure thread safety.
+    private final List<EventListener<LineStateChangedEvent>> stateChangeListeners =
+            new CopyOnWriteArrayList<>();
+
+    /**
+     * Add a state change listener.
+     * 
+     * @param listener - the listener to add.
+     */
+    @Override
+    public void addListener(final EventListener<LineStateChangedEvent> listener) {
+
+        if (listener == null) {
+            throw new NullArgumentException(getLogText("listener must not be null"));
+        }
+
+        stateChangeListeners.add(listener);
+    }
+
+    /**
+     * Remove a state change listener.
+     * 
+     * @param listener - the listener to remove.
+     */
+    @Override
+    public void removeListener(final EventListener<LineStateChangedEvent> listener) {
+        stateChangeListeners.remove(listener);
+    }
+
+    /**
+     * Fire the state change event to all listeners on every actual state transition.
+     * 
+     * @param newState - the new state to fire the event for.
+     */
+    private void fireStateChanged(final LineState newState) {
+
+        final LineStateChangedEvent event = new LineStateChangedEvent(this, newState);
+        stateChangeListeners.forEach(listener -> listener.onEvent(event));
+    }
+
+    /**
+     * Make the line carry a stream of records.
+     * 
+     * Call it before the flow plan is compiled: streaming lines are never fused into chains, the
+     * block to must run concurrently with the block from.
+     * 
+     * @param capacity - the maximum number of records buffered in the channel.
+     * @throws IllegalArgumentException - if capacity is not positive.
+     */
+    public void enableStreaming(final int capacity) {
+
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+
+        this.streamCapacity = capacity;
+    }
+
+    /**
+     * Get the capacity of the record channel.
+     * 
+     * @return the capacity or 0 if the line is not streaming.
+     */
+    public int getStreamCapacity() {
+        return streamCapacity;
+    }
+
+    /**
+     * Check if the line carries a stream of records.
+     * 
+     * @return true if the line is streaming, false otherwise.
+     */
+    @Override
+    public boolean isStreaming() {
+        return streamCapacity > 0;
+    }
+
+    /**
+     * Open a new record channel for a run, replacing the previous one.
+     * 
+     * @return the new channel.
+     * @throws ConfigurationMismatchException - if the line is not streaming.
+     */
+    @Override
+    @NotNull
+    public synchronized RecordChannel openChannel() {
+
+        if (!isStreaming()) {
+            throw new ConfigurationMismatchException(getLogText("line is not streaming"));
+        }
+
+        channel = new BoundedRecordChannel(streamCapacity);
+        return channel;
+    }
+
+    /**
+     * Get the record channel of the current run.
+     * 
+     * @return the channel or null if it is not opened.
+     */
+    @Override
+    public RecordChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Check if the result carried by the line is consumed.
+     * 
+     * @return true if the next block has finished with the result, false otherwise.
+     */
+    @Override
+    public boolean isConsumed() {
+        return consumed;
+    }
+
+    /**
+     * Set the consumed flag of the line.
+     * 
+     * @param consumed - true if the next block has finished with the result.
+     */
+    @Override
+    public void setConsumed(final boolean consumed) {
+        this.consumed = consumed;
     }
 
     /**
      * Reset the line.
+     * 
+     * The record channel of the line, if any, is cancelled and dropped, the consumed flag is
+     * cleared.
      */
     @Override
-    public synchronized void reset() {
+    public void reset() {
+
+        final boolean changed;
+        final RecordChannel current;
+        synchronized (this) {
+            changed = updateState(LineState.OFF);
+            consumed = false;
 
-        setState(LineState.OFF);
+            current = channel;
+            channel = null;
 
-        // Ensure the line is marked as modified.
-        setModified();
+            // Ensure the line is marked as modified.
+            setModified();
+        }
+
+        if (current != null) {
+            current.cancel();
+        }
+        if (changed) {
+            fireStateChanged(LineState.OFF);
+        }
 
         LogEx.info(log, LogEx.me(), getLogText("reset completed"));
     }
@@ -262,4 +494,26 @@ public final class LineImpl implements Line {
         }
         return "";
     }
+
+    /**
+     * Get the result payload from previous block.
+     */
+    @Override
+    @NotNull
+    public Payload getResultPayload() {
+
+        if (blockFrom != null) {
+            return blockFrom.getResultPayload();
+        }
+        return Payload.EMPTY;
+    }
+
+    /**
+     * Get the result from previous block parsed as a JSON document.
+     */
+    @Override
+    @NotNull
+    public JsonNode getResultJson() {
+        return getResultPayload().asJson();
+    }
 }
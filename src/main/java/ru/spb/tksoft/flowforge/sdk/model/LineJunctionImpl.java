@@ -15,13 +15,24 @@
 package ru.spb.tksoft.flowforge.sdk.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import jakarta.validation.constraints.NotNull;
 import lombok.NoArgsConstructor;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
 import ru.spb.tksoft.common.exceptions.NullArgumentException;
 import ru.spb.tksoft.flowforge.sdk.contract.Line;
 import ru.spb.tksoft.flowforge.sdk.contract.LineJunction;
+import ru.spb.tksoft.flowforge.sdk.enumeration.JoinMode;
 import ru.spb.tksoft.flowforge.sdk.enumeration.LineState;
+import ru.spb.tksoft.flowforge.sdk.value.JoinPolicy;
+import ru.spb.tksoft.flowforge.sdk.value.Payload;
+import ru.spb.tksoft.flowforge.sdk.value.ResultRope;
 
 /**
  * LineJunction implementation.
@@ -42,9 +53,27 @@ public final class LineJunctionImpl implements LineJunction {
     @NotNull
     private volatile LineState state = LineState.OFF;
 
+    // Ids of the lines turned ON by the last activation of the junction.
+    @NotNull
+    private volatile Set<String> selectedLineIds = Set.of();
+
+    @NotNull
+    private volatile JoinPolicy joinPolicy = JoinPolicy.all();
+
+    // Number of lines which are ON, kept up to date by the line state transitions.
+    @NotNull
+    private final AtomicInteger onCount = new AtomicInteger();
+
+    // Result of the last getResult() call, reused while the lines carry the same result texts.
+    @NotNull
+    private volatile ResultRope cachedResult = ResultRope.EMPTY;
+
     /**
      * Add a line to the junction.
      * 
+     * The junction subscribes to the state transitions of the line to count the lines which are
+     * ON.
+     * 
      * @param line - the line to add.
      */
     @Override
@@ -55,6 +84,28 @@ public final class LineJunctionImpl implements LineJunction {
         }
 
         lines.add(line);
+
+        if (line.getState() == LineState.ON) {
+            onCount.incrementAndGet();
+        }
+        line.addListener(event -> {
+            if (event.getNewState() == LineState.ON) {
+                onCount.incrementAndGet();
+            } else {
+                onCount.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Get the lines of the junction.
+     * 
+     * @return the unmodifiable copy of the list of lines.
+     */
+    @Override
+    @NotNull
+    public synchronized List<Line> getLines() {
+        return List.copyOf(lines);
     }
 
     /**
@@ -81,6 +132,55 @@ public final class LineJunctionImpl implements LineJunction {
 
         lines.forEach(line -> line.setState(state));
         this.state = state;
+        this.selectedLineIds = state == LineState.ON
+                ? Set.copyOf(lines.stream().map(Line::getInternalLineId).toList())
+                : Set.of();
+    }
+
+    /**
+     * Select the lines to activate: turn the selected lines ON and the other lines OFF.
+     * 
+     * The state of the junction is ON if at least one line is selected.
+     * 
+     * @param internalLineIds - the internal ids of the lines to turn ON.
+     * @throws NullArgumentException - if internalLineIds is null or contains null.
+     * @throws ConfigurationMismatchException - if a line id is not in the junction.
+     */
+    @Override
+    public synchronized void select(final Collection<String> internalLineIds) {
+
+        if (internalLineIds == null || internalLineIds.stream().anyMatch(Objects::isNull)) {
+            throw new NullArgumentException("internalLineIds must not be null");
+        }
+
+        final Set<String> selected = Set.copyOf(internalLineIds);
+        final Set<String> known = Set.copyOf(lines.stream().map(Line::getInternalLineId).toList());
+        if (!known.containsAll(selected)) {
+            throw new ConfigurationMismatchException(
+                    "unknown lines selected: " + selected.stream()
+                            .filter(id -> !known.contains(id)).sorted().toList());
+        }
+
+        // Turn the lines OFF first, so no successor sees a mix of the old and the new selection.
+        lines.stream().filter(line -> !selected.contains(line.getInternalLineId()))
+                .forEach(line -> line.setState(LineState.OFF));
+        this.selectedLineIds = selected;
+        this.state = selected.isEmpty() ? LineState.OFF : LineState.ON;
+        lines.stream().filter(line -> selected.contains(line.getInternalLineId()))
+                .forEach(line -> line.setState(LineState.ON));
+    }
+
+    /**
+     * Check if the line is selected by the last activation of the junction.
+     * 
+     * Never blocks: the selection is replaced as a whole.
+     * 
+     * @param line - the line.
+     * @return true if the line is selected, false otherwise.
+     */
+    @Override
+    public boolean isSelected(final Line line) {
+        return line != null && selectedLineIds.contains(line.getInternalLineId());
     }
 
     /**
@@ -96,20 +196,144 @@ public final class LineJunctionImpl implements LineJunction {
     }
 
     /**
-     * Get the result string.
+     * Set the join policy.
+     * 
+     * @param joinPolicy - the join policy.
+     * @throws NullArgumentException - if joinPolicy is null.
+     */
+    @Override
+    public void setJoinPolicy(final JoinPolicy joinPolicy) {
+
+        if (joinPolicy == null) {
+            throw new NullArgumentException("joinPolicy must not be null");
+        }
+
+        this.joinPolicy = joinPolicy;
+    }
+
+    /**
+     * Get the join policy.
+     * 
+     * @return the join policy.
      */
     @Override
     @NotNull
-    public String getResultString() {
+    public JoinPolicy getJoinPolicy() {
+        return joinPolicy;
+    }
 
-        final var sb = new StringBuilder();
-        lines.forEach(line -> {
-            String result = line.getResultText();
+    /**
+     * Check if the junction is satisfied.
+     * 
+     * O(1): compares the counter of the lines which are ON with the count required by the join
+     * policy. A junction without lines is always satisfied.
+     * 
+     * @return true if the junction is satisfied, false otherwise.
+     * @throws ConfigurationMismatchException - if the quorum exceeds the number of lines.
+     */
+    @Override
+    public boolean isSatisfied() {
+        return onCount.get() >= joinPolicy.getRequiredCount(lines.size());
+    }
+
+    /**
+     * Get the result of the previous blocks as a rope which references their result texts.
+     * 
+     * With {@link JoinMode#ALL} the results of all lines are joined. With the other join modes the
+     * block fires before all lines are ON, so only the results of the lines which are ON are
+     * joined.
+     * 
+     * The rope is cached: while the lines carry the very same result texts, repeated calls return
+     * the same instance, so its materialized string is built at most once. A spilled result is
+     * referenced as a part which reads its file on demand, never as text read back onto the heap;
+     * a rope with such parts is not cached.
+     * 
+     * @return the result rope.
+     */
+    @Override
+    @NotNull
+    public ResultRope getResult() {
+
+        final boolean onlyOn = joinPolicy.mode() != JoinMode.ALL;
+        final CharSequence[] parts = new CharSequence[lines.size()];
+        int count = 0;
+        boolean spilled = false;
+        for (Line line : lines) {
+            if (onlyOn && line.getState() != LineState.ON) {
+                continue;
+            }
+
+            final Payload payload = line.getResultPayload();
+            if (payload != null && payload.isSpilled()) {
+                if (!payload.isEmpty()) {
+                    parts[count++] = payload.asCharSequence();
+                    spilled = true;
+                }
+                continue;
+            }
+
+            final String result = line.getResultText();
             if (result == null || result.isBlank()) {
-                return;
+                continue;
             }
-            sb.append(result).append(NL);
-        });
-        return sb.toString();
+            parts[count++] = result;
+        }
+
+        final ResultRope cached = cachedResult;
+        if (cached.hasSameParts(parts, count)) {
+            return cached;
+        }
+
+        final ResultRope result = count == 0
+                ? ResultRope.EMPTY
+                : new ResultRope(Arrays.copyOf(parts, count), NL);
+        if (!spilled) {
+            cachedResult = result;
+        }
+        return result;
+    }
+
+    /**
+     * Drop the cached result, so it no longer references the results of the previous blocks.
+     */
+    void dropCachedResult() {
+        cachedResult = ResultRope.EMPTY;
+    }
+
+    /**
+     * Get the result payloads of the lines which contribute to the result: the same lines as for
+     * {@link #getResult()}, with empty and blank text payloads left out.
+     * 
+     * @return the unmodifiable list of result payloads.
+     */
+    @Override
+    @NotNull
+    public List<Payload> getResultPayloads() {
+
+        final boolean onlyOn = joinPolicy.mode() != JoinMode.ALL;
+        final List<Payload> payloads = new ArrayList<>(lines.size());
+        for (Line line : lines) {
+            if (onlyOn && line.getState() != LineState.ON) {
+                continue;
+            }
+            final Payload payload = line.getResultPayload();
+            if (payload == null || payload.isEmpty()
+                    || payload.isText() && !payload.isSpilled() && payload.asText().isBlank()) {
+                continue;
+            }
+            payloads.add(payload);
+        }
+        return Collections.unmodifiableList(payloads);
+    }
+
+    /**
+     * Get the result string: the materialized {@link #getResult()}.
+     * 
+     * @return the result string.
+     */
+    @Override
+    @NotNull
+    public String getResultString() {
+        return getResult().toString();
     }
 }
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.model;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.contract.Line;
+import ru.spb.tksoft.flowforge.sdk.contract.RunnableStateChangeListener;
+import ru.spb.tksoft.flowforge.sdk.enumeration.RunnableState;
+import ru.spb.tksoft.utils.log.LogEx;
+
+/**
+ * Publisher block implementation. Base class for blocks which take their input from a
+ * {@link Flow.Publisher}, e.g. a reactive client.
+ * 
+ * Open for subclassing. Subclasses implement {@link #source(String)}. The block subscribes to the
+ * source and requests one record at a time: the next record is requested only after the previous
+ * one is handled on the executor, so the demand follows the consumers of the block and no record
+ * is buffered.
+ * 
+ * If the block has streaming output lines, every record is emitted to them and a full channel
+ * holds the next request back. The result text is the last record, empty if the source has
+ * published nothing, so a single-valued source gives the block's result directly. If all
+ * consumers have stopped reading, the subscription is cancelled and the block goes to [DONE]. If
+ * the source fails, the block goes to [ABORTED]; if the block is stopped, the subscription is
+ * cancelled.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public abstract class PublisherBlockBaseImpl extends AsyncBlockBaseImpl {
+
+    private static final Logger log = LoggerFactory.getLogger(PublisherBlockBaseImpl.class);
+
+    @NotNull
+    private final Executor executor;
+
+    /**
+     * Constructor. Records are handled on the common fork-join pool.
+     * 
+     * @param blockTypeId - the block type id.
+     * @param internalBlockId - the internal block id.
+     * @param defaultInputText - the default input text.
+     */
+    protected PublisherBlockBaseImpl(final String blockTypeId, final String internalBlockId,
+            final String defaultInputText) {
+
+        this(blockTypeId, internalBlockId, defaultInputText, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param blockTypeId - the block type id.
+     * @param internalBlockId - the internal block id.
+     * @param defaultInputText - the default input text.
+     * @param executor - the executor to handle the records on.
+     * @throws NullArgumentException - if executor is null.
+     */
+    protected PublisherBlockBaseImpl(final String blockTypeId, final String internalBlockId,
+            final String defaultInputText, final Executor executor) {
+
+        super(blockTypeId, internalBlockId, defaultInputText);
+
+        if (executor == null) {
+            throw new NullArgumentException("executor must not be null");
+        }
+
+        this.executor = executor;
+    }
+
+    /**
+     * Create the source of the records. Called in [RUNNING] state.
+     * 
+     * @param inputText - the input text.
+     * @return the publisher of the records.
+     */
+    @NotNull
+    protected abstract Flow.Publisher<String> source(final String inputText);
+
+    /**
+     * Subscribe to the source and take its records.
+     * 
+     * @param inputText - the input text.
+     * @return the stage which is completed with the last record when the source completes.
+     */
+    @Override
+    @NotNull
+    protected CompletionStage<String> process(final String inputText) {
+
+        final Flow.Publisher<String> publisher = source(inputText);
+        if (publisher == null) {
+            throw new NullArgumentException(getLogText("source() returned null"));
+        }
+
+        final boolean streaming =
+                getOutputJunction().getLines().stream().anyMatch(Line::isStreaming);
+        if (streaming) {
+            openOutputStreams();
+        }
+
+        final Intake intake = new Intake(streaming);
+        publisher.subscribe(intake);
+        return intake.completion;
+    }
+
+    /**
+     * Subscriber of a single run.
+     * 
+     * Subscriber signals are serialized by the publisher; the records are handled one after
+     * another on the executor by chaining them to the tail stage.
+     */
+    private final class Intake implements Flow.Subscriber<String> {
+
+        private final boolean streaming;
+
+        private final CompletableFuture<String> completion = new CompletableFuture<>();
+
+        private final RunnableStateChangeListener stopListener = event -> {
+            if (event.getNewState() != RunnableState.RUNNING) {
+                cancel();
+            }
+        };
+
+        private volatile Flow.Subscription subscription;
+
+        private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+
+        private volatile String last = "";
+
+        Intake(final boolean streaming) {
+            this.streaming = streaming;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+
+            if (this.subscription != null) {
+                subscription.cancel();
+                return;
+            }
+
+            this.subscription = subscription;
+            addStateChangeListener(stopListener);
+            if (getState() != RunnableState.RUNNING) {
+                cancel();
+                return;
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(final String item) {
+            tail = tail.thenRunAsync(() -> accept(item), executor);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            tail = tail.thenRunAsync(() -> fail(throwable), executor);
+        }
+
+        @Override
+        public void onComplete() {
+            tail = tail.thenRunAsync(() -> finish(), executor);
+        }
+
+        /**
+         * Handle a record and request the next one.
+         * 
+         * @param item - the record.
+         */
+        private void accept(final String item) {
+
+            if (completion.isDone()) {
+                return;
+            }
+
+            if (item == null) {
+                subscription.cancel();
+                fail(new NullArgumentException(getLogText("source published null")));
+                return;
+            }
+
+            last = item;
+            if (streaming) {
+                final boolean accepted;
+                try {
+                    accepted = emit(item);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    subscription.cancel();
+                    fail(e);
+                    return;
+                } catch (RuntimeException e) {
+                    subscription.cancel();
+                    fail(e);
+                    return;
+                }
+
+                if (!accepted) {
+                    LogEx.info(log, LogEx.me(), getLogText("consumers stopped reading"));
+                    subscription.cancel();
+                    finish();
+                    return;
+                }
+            }
+
+            subscription.request(1);
+        }
+
+        /**
+         * Cancel the subscription because the block has left [RUNNING].
+         */
+        private void cancel() {
+
+            final Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+            finish();
+        }
+
+        /**
+         * Complete the run with the last record.
+         */
+        private void finish() {
+
+            removeStateChangeListener(stopListener);
+            completion.complete(last);
+        }
+
+        /**
+         * Fail the run.
+         * 
+         * @param error - the error.
+         */
+        private void fail(final Throwable error) {
+
+            removeStateChangeListener(stopListener);
+            completion.completeExceptionally(error);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.model;
+
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.flowforge.sdk.cache.SingleFlight;
+
+/**
+ * Outcome of {@link BlockBaseImpl#startRun()} for the calling invocation.
+ * 
+ * @param outcome - what the caller has to do.
+ * @param flight - the flight led by an identical invocation, set for {@link Outcome#FOLLOWING}
+ *        only.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+record RunStart(@NotNull Outcome outcome, SingleFlight.Flight flight) {
+
+    /** The caller has moved the block to RUNNING and does the job. */
+    static final RunStart WON = new RunStart(Outcome.WON, null);
+
+    /** Another caller runs the block or the block is not READY: the caller does nothing. */
+    static final RunStart LOST = new RunStart(Outcome.LOST, null);
+
+    /**
+     * What the caller has to do.
+     */
+    enum Outcome {
+
+        /** The caller has moved the block to RUNNING and does the job. */
+        WON,
+
+        /**
+         * The caller has moved the block to RUNNING and takes the result of the flight, doing
+         * the job itself only if the flight fails.
+         */
+        FOLLOWING,
+
+        /** Another caller runs the block or the block is not READY: the caller does nothing. */
+        LOST
+    }
+
+    /**
+     * Create the outcome of the caller which follows the flight.
+     * 
+     * @param flight - the flight led by an identical invocation.
+     * @return the outcome.
+     */
+    static RunStart following(final SingleFlight.Flight flight) {
+        return new RunStart(Outcome.FOLLOWING, flight);
+    }
+
+    /**
+     * Check if the caller has lost the start to another one.
+     * 
+     * @return true if the caller must not do the job, false otherwise.
+     */
+    boolean isLost() {
+        return outcome == Outcome.LOST;
+    }
+}
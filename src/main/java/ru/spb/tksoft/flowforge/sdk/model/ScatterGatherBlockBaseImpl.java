@@ -0,0 +1,352 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.value.JsonNode;
+import ru.spb.tksoft.utils.log.LogEx;
+
+/**
+ * Scatter/gather block implementation. Base class for blocks which process every element of a
+ * collection input on its own.
+ * 
+ * Open for subclassing. Subclasses implement {@link #processElement(String)}. The input text is
+ * split into elements (see {@link #split(String)}, a JSON array by default), the elements are
+ * processed in parallel on the executor with no more than maxConcurrency at once, and the results
+ * are gathered in the order of the elements (see {@link #gather(List)}, a JSON array by default).
+ * No thread waits for the elements: every finished element starts the next one. The default split
+ * and gather read and write JSON with {@link JsonNode}.
+ * 
+ * If some elements fail, the block still goes to [DONE] with the results of the others (null in
+ * place of the failed ones) and reports the failed elements with {@link #setError(boolean,
+ * String)}. If all elements fail, the block goes to [ABORTED].
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public abstract class ScatterGatherBlockBaseImpl extends AsyncBlockBaseImpl {
+
+    private static final Logger log = LoggerFactory.getLogger(ScatterGatherBlockBaseImpl.class);
+
+    @NotNull
+    private final Executor executor;
+
+    private final int maxConcurrency;
+
+    /**
+     * Constructor. Elements are processed on the common fork-join pool.
+     * 
+     * @param blockTypeId - the block type id.
+     * @param internalBlockId - the internal block id.
+     * @param defaultInputText - the default input text.
+     * @param maxConcurrency - the maximum number of elements processed at once.
+     * @throws IllegalArgumentException - if maxConcurrency is not positive.
+     */
+    protected ScatterGatherBlockBaseImpl(final String blockTypeId, final String internalBlockId,
+            final String defaultInputText, final int maxConcurrency) {
+
+        this(blockTypeId, internalBlockId, defaultInputText, ForkJoinPool.commonPool(),
+                maxConcurrency);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param blockTypeId - the block type id.
+     * @param internalBlockId - the internal block id.
+     * @param defaultInputText - the default input text.
+     * @param executor - the executor to process the elements on.
+     * @param maxConcurrency - the maximum number of elements processed at once.
+     * @throws NullArgumentException - if executor is null.
+     * @throws IllegalArgumentException - if maxConcurrency is not positive.
+     */
+    protected ScatterGatherBlockBaseImpl(final String blockTypeId, final String internalBlockId,
+            final String defaultInputText, final Executor executor, final int maxConcurrency) {
+
+        super(blockTypeId, internalBlockId, defaultInputText);
+
+        if (executor == null) {
+            throw new NullArgumentException("executor must not be null");
+        }
+
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+
+        this.executor = executor;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Get the maximum number of elements processed at once.
+     * 
+     * @return the maximum number of elements processed at once.
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Process a single element. Called on the executor, concurrently for different elements.
+     * 
+     * @param element - the element text.
+     * @return the result text of the element.
+     */
+    @NotNull
+    protected abstract String processElement(final String element);
+
+    /**
+     * Split the input text into elements.
+     * 
+     * By default the input text is a JSON array and the elements are the compact JSON of its
+     * items, e.g. a string item keeps its quotes.
+     * 
+     * @param inputText - the input text.
+     * @return the elements.
+     * @throws NullArgumentException - if the input text is null.
+     * @throws IllegalArgumentException - if the input text is not a JSON array.
+     */
+    @NotNull
+    protected List<String> split(final String inputText) {
+
+        final JsonNode array = JsonNode.parse(inputText);
+        if (!array.isArray()) {
+            throw new IllegalArgumentException("input text is not a JSON array");
+        }
+        return array.getElements().stream().map(JsonNode::toString).toList();
+    }
+
+    /**
+     * Gather the results of the elements into the result text.
+     * 
+     * By default the results are joined into a JSON array: a result which is a JSON document is
+     * taken as it is, any other text is encoded as a JSON string, null stands for a failed
+     * element. The result text is always a JSON array.
+     * 
+     * @param results - the results in the order of the elements, null for the failed ones.
+     * @return the result text.
+     */
+    @NotNull
+    protected String gather(final List<String> results) {
+
+        final StringBuilder sb = new StringBuilder().append('[');
+        for (int i = 0; i < results.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(toJson(results.get(i)));
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * Get the JSON of an element result.
+     * 
+     * @param result - the result or null.
+     * @return the result if it is a JSON document, the result as a JSON string otherwise, or null
+     *         for a failed element.
+     */
+    private static String toJson(final String result) {
+
+        if (result == null) {
+            return JsonNode.NULL.toString();
+        }
+        try {
+            JsonNode.parse(result);
+            return result;
+        } catch (IllegalArgumentException e) {
+            return JsonNode.ofString(result).toString();
+        }
+    }
+
+    /**
+     * Scatter the elements of the input text and gather their results.
+     * 
+     * @param inputText - the input text.
+     * @return the stage which is completed with the result text when all elements are processed.
+     */
+    @Override
+    @NotNull
+    protected CompletionStage<String> process(final String inputText) {
+        return new Scatter(split(inputText)).start();
+    }
+
+    /**
+     * Processing of the elements of a single run.
+     */
+    private final class Scatter {
+
+        private final List<String> elements;
+
+        private final String[] results;
+
+        private final Throwable[] errors;
+
+        // Index of the next element to start.
+        private final AtomicInteger next = new AtomicInteger();
+
+        // Number of elements not finished yet. Decremented after the result of an element is
+        // stored, so the thread which finishes the last element sees all results.
+        private final AtomicInteger remaining;
+
+        private final CompletableFuture<String> completion = new CompletableFuture<>();
+
+        Scatter(final List<String> elements) {
+            this.elements = elements;
+            this.results = new String[elements.size()];
+            this.errors = new Throwable[elements.size()];
+            this.remaining = new AtomicInteger(elements.size());
+        }
+
+        /**
+         * Start the first elements, no more than maxConcurrency.
+         * 
+         * @return the stage which is completed with the result text.
+         */
+        CompletionStage<String> start() {
+
+            if (elements.isEmpty()) {
+                gatherResults();
+                return completion;
+            }
+
+            for (int i = 0; i < Math.min(maxConcurrency, elements.size()); i++) {
+                startNext();
+            }
+            return completion;
+        }
+
+        /**
+         * Start the next elements until one of them is pending.
+         * 
+         * Elements completed at once (e.g. on a direct executor) are finished in the loop, not
+         * recursively, so the stack does not grow with the number of elements.
+         */
+        private void startNext() {
+
+            int index;
+            while ((index = next.getAndIncrement()) < elements.size()) {
+                final int current = index;
+                final CompletableFuture<String> element;
+                try {
+                    element = CompletableFuture.supplyAsync(
+                            () -> processElement(elements.get(current)), executor);
+                } catch (RuntimeException e) {
+                    if (!finishElement(current, null, e)) {
+                        return;
+                    }
+                    continue;
+                }
+
+                if (!element.isDone()) {
+                    element.whenComplete((result, error) -> {
+                        if (finishElement(current, result, error)) {
+                            startNext();
+                        }
+                    });
+                    return;
+                }
+
+                String result = null;
+                Throwable error = null;
+                try {
+                    result = element.join();
+                } catch (RuntimeException e) {
+                    error = e;
+                }
+                if (!finishElement(current, result, error)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Store the result of the element and gather the results after the last one.
+         * 
+         * @param index - the element index.
+         * @param result - the result text or null.
+         * @param error - the error or null.
+         * @return true if elements remain unfinished, false after the last one.
+         */
+        private boolean finishElement(final int index, final String result,
+                final Throwable error) {
+
+            if (error != null) {
+                errors[index] = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause()
+                        : error;
+            } else if (result == null) {
+                errors[index] = new NullArgumentException(getLogText("element result is null"));
+            } else {
+                results[index] = result;
+            }
+
+            if (remaining.decrementAndGet() == 0) {
+                gatherResults();
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Gather the results and report the failed elements.
+         */
+        private void gatherResults() {
+
+            final StringBuilder failures = new StringBuilder();
+            int failed = 0;
+            Throwable first = null;
+            for (int i = 0; i < errors.length; i++) {
+                if (errors[i] == null) {
+                    continue;
+                }
+                if (first == null) {
+                    first = errors[i];
+                }
+                failed++;
+                failures.append(failed > 1 ? "; " : "").append('#').append(i).append(": ")
+                        .append(errors[i].getMessage());
+            }
+
+            if (failed > 0 && failed == elements.size()) {
+                completion.completeExceptionally(first);
+                return;
+            }
+
+            try {
+                final String resultText = gather(Arrays.asList(results));
+                if (failed > 0) {
+                    final String message = failed + " of " + elements.size()
+                            + " elements failed: " + failures;
+                    setError(true, message);
+                    LogEx.info(log, LogEx.me(), getLogText(message));
+                }
+                completion.complete(resultText);
+            } catch (RuntimeException e) {
+                completion.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.value;
+
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.enumeration.JoinMode;
+
+/**
+ * Join policy of an input junction: how many of its input lines must be ON for the block to fire.
+ * 
+ * With {@link JoinMode#ANY} and {@link JoinMode#QUORUM} the block fires as soon as the policy is
+ * met. If cancelSlower is set, the engine then cancels the predecessors which have not delivered
+ * yet and feed nobody else: they are skipped if they have not started and stopped if they are
+ * running.
+ * 
+ * @param mode - the join mode.
+ * @param quorum - the number of input lines which must be ON, used by {@link JoinMode#QUORUM}.
+ * @param cancelSlower - true to cancel the slower predecessors once the policy is met.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public record JoinPolicy(@NotNull JoinMode mode, int quorum, boolean cancelSlower) {
+
+    private static final JoinPolicy ALL = new JoinPolicy(JoinMode.ALL, 0, false);
+
+    private static final JoinPolicy ANY = new JoinPolicy(JoinMode.ANY, 1, false);
+
+    /**
+     * Constructor.
+     * 
+     * @param mode - the join mode.
+     * @param quorum - the number of input lines which must be ON, used by {@link JoinMode#QUORUM}.
+     * @param cancelSlower - true to cancel the slower predecessors once the policy is met.
+     * @throws NullArgumentException - if mode is null.
+     * @throws IllegalArgumentException - if the quorum of {@link JoinMode#QUORUM} is not positive.
+     */
+    public JoinPolicy {
+
+        if (mode == null) {
+            throw new NullArgumentException("mode must not be null");
+        }
+
+        if (mode == JoinMode.QUORUM && quorum <= 0) {
+            throw new IllegalArgumentException("quorum must be positive");
+        }
+    }
+
+    /**
+     * Get the policy which waits for all input lines. It is the default one.
+     * 
+     * @return the policy.
+     */
+    @NotNull
+    public static JoinPolicy all() {
+        return ALL;
+    }
+
+    /**
+     * Get the policy which fires on the first input line turned ON.
+     * 
+     * @return the policy.
+     */
+    @NotNull
+    public static JoinPolicy any() {
+        return ANY;
+    }
+
+    /**
+     * Get the policy which fires when the given number of input lines are ON.
+     * 
+     * @param quorum - the number of input lines which must be ON.
+     * @return the policy.
+     * @throws IllegalArgumentException - if quorum is not positive.
+     */
+    @NotNull
+    public static JoinPolicy quorum(final int quorum) {
+        return new JoinPolicy(JoinMode.QUORUM, quorum, false);
+    }
+
+    /**
+     * Get the same policy which cancels the slower predecessors once it is met.
+     * 
+     * @return the policy.
+     */
+    @NotNull
+    public JoinPolicy cancellingSlower() {
+        return new JoinPolicy(mode, quorum, true);
+    }
+
+    /**
+     * Get the number of input lines which must be ON.
+     * 
+     * @param lineCount - the number of input lines of the junction.
+     * @return the number of input lines which must be ON, 0 if there are no input lines.
+     * @throws ConfigurationMismatchException - if the quorum exceeds the number of input lines.
+     */
+    public int getRequiredCount(final int lineCount) {
+
+        if (lineCount == 0) {
+            return 0;
+        }
+
+        return switch (mode) {
+            case ALL -> lineCount;
+            case ANY -> 1;
+            case QUORUM -> {
+                if (quorum > lineCount) {
+                    throw new ConfigurationMismatchException("quorum " + quorum
+                            + " exceeds the number of input lines " + lineCount);
+                }
+                yield quorum;
+            }
+        };
+    }
+}
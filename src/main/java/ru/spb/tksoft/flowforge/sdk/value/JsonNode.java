@@ -0,0 +1,429 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.value;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.enumeration.JsonType;
+
+/**
+ * JsonNode: a value of a parsed JSON document.
+ * 
+ * A minimal tree for reading results: objects keep their fields in the document order (the last
+ * of duplicate names wins), numbers keep their literal text and are converted on access. Parsed
+ * once by {@link Payload#asJson()} and shared by every reader of the result. Immutable.
+ * 
+ * Subclassing is not allowed.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public final class JsonNode {
+
+    /** null. */
+    public static final JsonNode NULL = new JsonNode(JsonType.NULL, "null", List.of(), Map.of());
+
+    /** true. */
+    public static final JsonNode TRUE = new JsonNode(JsonType.BOOLEAN, "true", List.of(), Map.of());
+
+    /** false. */
+    public static final JsonNode FALSE =
+            new JsonNode(JsonType.BOOLEAN, "false", List.of(), Map.of());
+
+    @NotNull
+    private final JsonType type;
+
+    // String value, number literal or boolean literal; null for arrays and objects.
+    private final String value;
+
+    @NotNull
+    private final List<JsonNode> elements;
+
+    @NotNull
+    private final Map<String, JsonNode> fields;
+
+    /**
+     * Constructor.
+     * 
+     * @param type - the type.
+     * @param value - the scalar value, null for arrays and objects.
+     * @param elements - the elements of an array.
+     * @param fields - the fields of an object.
+     */
+    private JsonNode(final JsonType type, final String value, final List<JsonNode> elements,
+            final Map<String, JsonNode> fields) {
+
+        this.type = type;
+        this.value = value;
+        this.elements = elements;
+        this.fields = fields;
+    }
+
+    /**
+     * Create a string node, e.g. to encode a text as a JSON string with {@link #toString()}.
+     * 
+     * @param value - the string value.
+     * @return the node.
+     * @throws NullArgumentException - if value is null.
+     */
+    @NotNull
+    public static JsonNode ofString(final String value) {
+
+        if (value == null) {
+            throw new NullArgumentException("value must not be null");
+        }
+        return new JsonNode(JsonType.STRING, value, List.of(), Map.of());
+    }
+
+    /**
+     * Create a number node.
+     * 
+     * @param literal - the number literal, already validated.
+     * @return the node.
+     */
+    static JsonNode ofNumber(final String literal) {
+        return new JsonNode(JsonType.NUMBER, literal, List.of(), Map.of());
+    }
+
+    /**
+     * Create an array node. The list is taken as it is, so the caller must not change it
+     * afterwards.
+     * 
+     * @param elements - the elements.
+     * @return the node.
+     */
+    static JsonNode ofArray(final List<JsonNode> elements) {
+        return new JsonNode(JsonType.ARRAY, null, Collections.unmodifiableList(elements),
+                Map.of());
+    }
+
+    /**
+     * Create an object node. The map is taken as it is, so the caller must not change it
+     * afterwards.
+     * 
+     * @param fields - the fields in the document order.
+     * @return the node.
+     */
+    static JsonNode ofObject(final LinkedHashMap<String, JsonNode> fields) {
+        return new JsonNode(JsonType.OBJECT, null, List.of(),
+                Collections.unmodifiableMap(fields));
+    }
+
+    /**
+     * Parse a JSON document.
+     * 
+     * @param text - the text of the document.
+     * @return the root node.
+     * @throws IllegalArgumentException - if the text is not a JSON document.
+     */
+    @NotNull
+    public static JsonNode parse(final CharSequence text) {
+
+        if (text == null) {
+            throw new NullArgumentException("text must not be null");
+        }
+        return new JsonParser(text).parse();
+    }
+
+    /**
+     * Get the type.
+     * 
+     * @return the type.
+     */
+    @NotNull
+    public JsonType getType() {
+        return type;
+    }
+
+    /**
+     * Check if the node is an object.
+     * 
+     * @return true if the node is an object, false otherwise.
+     */
+    public boolean isObject() {
+        return type == JsonType.OBJECT;
+    }
+
+    /**
+     * Check if the node is an array.
+     * 
+     * @return true if the node is an array, false otherwise.
+     */
+    public boolean isArray() {
+        return type == JsonType.ARRAY;
+    }
+
+    /**
+     * Check if the node is null.
+     * 
+     * @return true if the node is null, false otherwise.
+     */
+    public boolean isNull() {
+        return type == JsonType.NULL;
+    }
+
+    /**
+     * Get the number of elements of an array or fields of an object, 0 for other nodes.
+     * 
+     * @return the size.
+     */
+    public int size() {
+        return type == JsonType.ARRAY ? elements.size() : fields.size();
+    }
+
+    /**
+     * Get a field of an object.
+     * 
+     * @param name - the field name.
+     * @return the field value, null if there is no such field or the node is not an object.
+     */
+    public JsonNode get(final String name) {
+
+        if (name == null) {
+            throw new NullArgumentException("name must not be null");
+        }
+        return fields.get(name);
+    }
+
+    /**
+     * Get an element of an array.
+     * 
+     * @param index - the element index.
+     * @return the element, null if the index is out of range or the node is not an array.
+     */
+    public JsonNode get(final int index) {
+        return index >= 0 && index < elements.size() ? elements.get(index) : null;
+    }
+
+    /**
+     * Get the elements of an array.
+     * 
+     * @return the unmodifiable elements, empty if the node is not an array.
+     */
+    @NotNull
+    public List<JsonNode> getElements() {
+        return elements;
+    }
+
+    /**
+     * Get the fields of an object.
+     * 
+     * @return the unmodifiable fields in the document order, empty if the node is not an object.
+     */
+    @NotNull
+    public Map<String, JsonNode> getFields() {
+        return fields;
+    }
+
+    /**
+     * Get the node as text: the value of a string, the literal of a number, a boolean or null,
+     * the compact JSON of an array or an object.
+     * 
+     * @return the text.
+     */
+    @NotNull
+    public String asText() {
+        return value != null ? value : toString();
+    }
+
+    /**
+     * Get the value of a number.
+     * 
+     * @return the exact value.
+     * @throws ConfigurationMismatchException - if the node is not a number.
+     */
+    @NotNull
+    public BigDecimal asDecimal() {
+        return new BigDecimal(numberLiteral());
+    }
+
+    /**
+     * Get the value of a number as long.
+     * 
+     * @return the value.
+     * @throws ConfigurationMismatchException - if the node is not a number.
+     * @throws ArithmeticException - if the value has a fraction or does not fit into long.
+     */
+    public long asLong() {
+
+        final String literal = numberLiteral();
+        try {
+            return Long.parseLong(literal);
+        } catch (NumberFormatException e) {
+            return new BigDecimal(literal).longValueExact();
+        }
+    }
+
+    /**
+     * Get the value of a number as double.
+     * 
+     * @return the nearest double value.
+     * @throws ConfigurationMismatchException - if the node is not a number.
+     */
+    public double asDouble() {
+        return Double.parseDouble(numberLiteral());
+    }
+
+    /**
+     * Get the value of a boolean.
+     * 
+     * @return the value.
+     * @throws ConfigurationMismatchException - if the node is not a boolean.
+     */
+    public boolean asBoolean() {
+
+        if (type != JsonType.BOOLEAN) {
+            throw new ConfigurationMismatchException("JSON value is not a boolean: " + type);
+        }
+        return this == TRUE;
+    }
+
+    /**
+     * Get the literal of a number.
+     * 
+     * @return the literal.
+     */
+    private String numberLiteral() {
+
+        if (type != JsonType.NUMBER) {
+            throw new ConfigurationMismatchException("JSON value is not a number: " + type);
+        }
+        return value;
+    }
+
+    /**
+     * Compare with another node. Numbers are equal if their literals are, so 1 and 1.0 differ.
+     * 
+     * @param obj - the object to compare with.
+     * @return true if the nodes have the same type and content, false otherwise.
+     */
+    @Override
+    public boolean equals(final Object obj) {
+
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof JsonNode other) || type != other.type) {
+            return false;
+        }
+        return switch (type) {
+            case ARRAY -> elements.equals(other.elements);
+            case OBJECT -> fields.equals(other.fields);
+            default -> value.equals(other.value);
+        };
+    }
+
+    /**
+     * Get the hash code of the type and content.
+     * 
+     * @return the hash code.
+     */
+    @Override
+    public int hashCode() {
+
+        return switch (type) {
+            case ARRAY -> elements.hashCode();
+            case OBJECT -> 31 * fields.hashCode() + 1;
+            default -> value.hashCode();
+        };
+    }
+
+    /**
+     * Get the compact JSON of the node.
+     * 
+     * @return the JSON text.
+     */
+    @Override
+    @NotNull
+    public String toString() {
+
+        final StringBuilder sb = new StringBuilder();
+        appendJson(sb);
+        return sb.toString();
+    }
+
+    /**
+     * Append the compact JSON of the node.
+     * 
+     * @param sb - the builder to append to.
+     */
+    private void appendJson(final StringBuilder sb) {
+
+        switch (type) {
+            case STRING -> appendString(sb, value);
+            case ARRAY -> {
+                sb.append('[');
+                for (int i = 0; i < elements.size(); i++) {
+                    if (i > 0) {
+                        sb.append(',');
+                    }
+                    elements.get(i).appendJson(sb);
+                }
+                sb.append(']');
+            }
+            case OBJECT -> {
+                sb.append('{');
+                boolean first = true;
+                for (final Map.Entry<String, JsonNode> field : fields.entrySet()) {
+                    if (!first) {
+                        sb.append(',');
+                    }
+                    first = false;
+                    appendString(sb, field.getKey());
+                    sb.append(':');
+                    field.getValue().appendJson(sb);
+                }
+                sb.append('}');
+            }
+            default -> sb.append(value);
+        }
+    }
+
+    /**
+     * Append a quoted and escaped JSON string.
+     * 
+     * @param sb - the builder to append to.
+     * @param s - the string.
+     */
+    private static void appendString(final StringBuilder sb, final String s) {
+
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            final char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                case '\b' -> sb.append("\\b");
+                case '\f' -> sb.append("\\f");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,363 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.value;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * JsonParser: recursive descent parser of a single JSON document (RFC 8259) into
+ * {@link JsonNode}.
+ * 
+ * Not thread-safe: one instance parses one document.
+ * 
+ * Subclassing is not allowed.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+final class JsonParser {
+
+    /** Nesting limit, keeps a hostile document from exhausting the stack. */
+    static final int MAX_DEPTH = 512;
+
+    @NotNull
+    private final CharSequence text;
+
+    private int pos;
+
+    private int depth;
+
+    /**
+     * Constructor.
+     * 
+     * @param text - the text of the document.
+     */
+    JsonParser(final CharSequence text) {
+        this.text = text;
+    }
+
+    /**
+     * Parse the whole text as one value surrounded by optional whitespace.
+     * 
+     * @return the root node.
+     * @throws IllegalArgumentException - if the text is not a JSON document.
+     */
+    @NotNull
+    JsonNode parse() {
+
+        skipWhitespace();
+        final JsonNode root = parseValue();
+        skipWhitespace();
+        if (pos < text.length()) {
+            throw error("unexpected text after the value");
+        }
+        return root;
+    }
+
+    /**
+     * Parse a value at the current position.
+     * 
+     * @return the node.
+     */
+    private JsonNode parseValue() {
+
+        if (pos >= text.length()) {
+            throw error("unexpected end of text");
+        }
+
+        final char c = text.charAt(pos);
+        return switch (c) {
+            case '{' -> parseObject();
+            case '[' -> parseArray();
+            case '"' -> JsonNode.ofString(parseString());
+            case 't' -> parseLiteral("true", JsonNode.TRUE);
+            case 'f' -> parseLiteral("false", JsonNode.FALSE);
+            case 'n' -> parseLiteral("null", JsonNode.NULL);
+            default -> {
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    yield parseNumber();
+                }
+                throw error("unexpected character '" + c + "'");
+            }
+        };
+    }
+
+    /**
+     * Parse an object, the current character is '{'.
+     * 
+     * @return the object node.
+     */
+    private JsonNode parseObject() {
+
+        enter();
+        pos++;
+        final LinkedHashMap<String, JsonNode> fields = new LinkedHashMap<>();
+        skipWhitespace();
+        if (!consume('}')) {
+            do {
+                skipWhitespace();
+                if (pos >= text.length() || text.charAt(pos) != '"') {
+                    throw error("field name expected");
+                }
+                final String name = parseString();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                fields.put(name, parseValue());
+                skipWhitespace();
+            } while (consume(','));
+            expect('}');
+        }
+        depth--;
+        return JsonNode.ofObject(fields);
+    }
+
+    /**
+     * Parse an array, the current character is '['.
+     * 
+     * @return the array node.
+     */
+    private JsonNode parseArray() {
+
+        enter();
+        pos++;
+        final List<JsonNode> elements = new ArrayList<>();
+        skipWhitespace();
+        if (!consume(']')) {
+            do {
+                skipWhitespace();
+                elements.add(parseValue());
+                skipWhitespace();
+            } while (consume(','));
+            expect(']');
+        }
+        depth--;
+        return JsonNode.ofArray(elements);
+    }
+
+    /**
+     * Parse a string, the current character is the opening quote.
+     * 
+     * @return the unescaped value.
+     */
+    private String parseString() {
+
+        pos++;
+        final int start = pos;
+        // Fast path: no escapes, the value is a plain copy of the range.
+        while (pos < text.length()) {
+            final char c = text.charAt(pos);
+            if (c == '"') {
+                return text.subSequence(start, pos++).toString();
+            }
+            if (c == '\\') {
+                break;
+            }
+            if (c < 0x20) {
+                throw error("control character in string");
+            }
+            pos++;
+        }
+
+        final StringBuilder sb = new StringBuilder().append(text, start, pos);
+        while (pos < text.length()) {
+            final char c = text.charAt(pos++);
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c < 0x20) {
+                pos--;
+                throw error("control character in string");
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (pos >= text.length()) {
+                break;
+            }
+            final char e = text.charAt(pos++);
+            switch (e) {
+                case '"', '\\', '/' -> sb.append(e);
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> sb.append(parseHex4());
+                default -> {
+                    pos--;
+                    throw error("invalid escape '\\" + e + "'");
+                }
+            }
+        }
+        throw error("unterminated string");
+    }
+
+    /**
+     * Parse the four hex digits of a unicode escape.
+     * 
+     * @return the character.
+     */
+    private char parseHex4() {
+
+        if (pos + 4 > text.length()) {
+            throw error("invalid unicode escape");
+        }
+        int code = 0;
+        for (int i = 0; i < 4; i++) {
+            final int digit = Character.digit(text.charAt(pos++), 16);
+            if (digit < 0) {
+                pos--;
+                throw error("invalid unicode escape");
+            }
+            code = code * 16 + digit;
+        }
+        return (char) code;
+    }
+
+    /**
+     * Parse a number, validating the literal against the JSON grammar.
+     * 
+     * @return the number node.
+     */
+    private JsonNode parseNumber() {
+
+        final int start = pos;
+        consume('-');
+        if (consume('0')) {
+            if (pos < text.length() && isDigit(text.charAt(pos))) {
+                throw error("leading zero in number");
+            }
+        } else {
+            digits();
+        }
+        if (consume('.')) {
+            digits();
+        }
+        if (consume('e') || consume('E')) {
+            if (!consume('+')) {
+                consume('-');
+            }
+            digits();
+        }
+        return JsonNode.ofNumber(text.subSequence(start, pos).toString());
+    }
+
+    /**
+     * Skip one or more digits.
+     */
+    private void digits() {
+
+        final int start = pos;
+        while (pos < text.length() && isDigit(text.charAt(pos))) {
+            pos++;
+        }
+        if (pos == start) {
+            throw error("digit expected");
+        }
+    }
+
+    /**
+     * Check if the character is an ASCII digit.
+     * 
+     * @param c - the character.
+     * @return true if the character is a digit, false otherwise.
+     */
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Parse a literal: true, false or null.
+     * 
+     * @param literal - the expected literal.
+     * @param node - the node of the literal.
+     * @return the node.
+     */
+    private JsonNode parseLiteral(final String literal, final JsonNode node) {
+
+        for (int i = 0; i < literal.length(); i++) {
+            if (pos >= text.length() || text.charAt(pos) != literal.charAt(i)) {
+                throw error("invalid literal, '" + literal + "' expected");
+            }
+            pos++;
+        }
+        return node;
+    }
+
+    /**
+     * Enter an array or an object.
+     */
+    private void enter() {
+
+        if (++depth > MAX_DEPTH) {
+            throw error("nesting is deeper than " + MAX_DEPTH);
+        }
+    }
+
+    /**
+     * Skip the JSON whitespace.
+     */
+    private void skipWhitespace() {
+
+        while (pos < text.length()) {
+            final char c = text.charAt(pos);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    /**
+     * Skip the character if it is the current one.
+     * 
+     * @param c - the character.
+     * @return true if the character is skipped, false otherwise.
+     */
+    private boolean consume(final char c) {
+
+        if (pos < text.length() && text.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Skip the character, which must be the current one.
+     * 
+     * @param c - the character.
+     */
+    private void expect(final char c) {
+
+        if (!consume(c)) {
+            throw error("'" + c + "' expected");
+        }
+    }
+
+    /**
+     * Create the error for the current position.
+     * 
+     * @param message - the message.
+     * @return the exception.
+     */
+    private IllegalArgumentException error(final String message) {
+        return new IllegalArgumentException("invalid JSON at " + pos + ": " + message);
+    }
+}
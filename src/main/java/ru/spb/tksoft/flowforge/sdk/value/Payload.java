@@ -0,0 +1,670 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.value;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Base64;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.enumeration.PayloadType;
+import ru.spb.tksoft.utils.log.LogEx;
+
+/**
+ * Payload: the result of a block, either text or binary data.
+ * 
+ * Binary data is kept as a read-only buffer over the bytes given, without copying, so the caller
+ * must not change them afterwards. Each payload can be viewed the other way: {@link #asText()}
+ * gives the Base64 of binary data, {@link #asBuffer()} gives the UTF-8 bytes of text. The view is
+ * built on first use and kept only behind a soft reference, so it does not double the heap held by
+ * a result: under memory pressure it is dropped and built again on the next call. A payload passed
+ * between binary-aware blocks is never transcoded.
+ * 
+ * A payload may be spilled to a file by {@link ResultSpill}: then only the file handle is kept on
+ * the heap. {@link #openReader()} and {@link #openStream()} stream the file in chunks, whatever
+ * its size, and {@link #asBuffer()} maps it as a whole, up to 2 GB. {@link #asText()} still works:
+ * it reads the file into a string once and keeps it softly reachable, as the views above.
+ * {@link #asJson()} parses text once and keeps the tree. Immutable.
+ * 
+ * Subclassing is not allowed.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public final class Payload {
+
+    private static final Logger log = LoggerFactory.getLogger(Payload.class);
+
+    // Size of the windows of the spill file mapped by openStream().
+    private static final int MAP_CHUNK_SIZE = 16 * 1024 * 1024;
+
+    /** Empty text payload. */
+    public static final Payload EMPTY = new Payload(PayloadType.TEXT, "", null, null, 0, 0);
+
+    @NotNull
+    private final PayloadType type;
+
+    // Text of an in-memory TEXT payload, null otherwise.
+    private final String text;
+
+    // Data of an in-memory BINARY payload, read-only, position 0; null otherwise.
+    private final ByteBuffer data;
+
+    // File of a spilled payload, null otherwise. Text is stored in UTF-8.
+    private final Path file;
+
+    // Number of bytes in the file of a spilled payload.
+    private final long fileSize;
+
+    // Number of characters of spilled text, known without reading the file.
+    private final long textLength;
+
+    // The other view, built on first use and softly reachable only.
+    private volatile SoftReference<String> encodedText;
+    private volatile SoftReference<ByteBuffer> encodedData;
+
+    // Mapping of the spill file, built on first use; off the heap.
+    private volatile ByteBuffer mapping;
+
+    // Parsed JSON of a TEXT payload, or the parse error, built on first use of asJson().
+    private final Object jsonLock = new Object();
+    private volatile JsonNode json;
+    private volatile String jsonError;
+
+    /**
+     * Constructor.
+     * 
+     * @param type - the payload type.
+     * @param text - the text or null.
+     * @param data - the read-only data or null.
+     * @param file - the spill file or null.
+     * @param fileSize - the size of the spill file.
+     * @param textLength - the number of characters of spilled text.
+     */
+    private Payload(final PayloadType type, final String text, final ByteBuffer data,
+            final Path file, final long fileSize, final long textLength) {
+
+        this.type = type;
+        this.text = text;
+        this.data = data;
+        this.file = file;
+        this.fileSize = fileSize;
+        this.textLength = textLength;
+    }
+
+    /**
+     * Create a text payload.
+     * 
+     * @param text - the text.
+     * @return the payload.
+     * @throws NullArgumentException - if text is null.
+     */
+    @NotNull
+    public static Payload ofText(final String text) {
+
+        if (text == null) {
+            throw new NullArgumentException("text must not be null");
+        }
+        return text.isEmpty() ? EMPTY : new Payload(PayloadType.TEXT, text, null, null, 0, 0);
+    }
+
+    /**
+     * Create a binary payload over the bytes, without copying them.
+     * 
+     * @param bytes - the bytes, must not be changed afterwards.
+     * @return the payload.
+     * @throws NullArgumentException - if bytes is null.
+     */
+    @NotNull
+    public static Payload ofBytes(final byte[] bytes) {
+
+        if (bytes == null) {
+            throw new NullArgumentException("bytes must not be null");
+        }
+        return new Payload(PayloadType.BINARY, null, ByteBuffer.wrap(bytes).asReadOnlyBuffer(),
+                null, 0, 0);
+    }
+
+    /**
+     * Create a binary payload over the remaining bytes of the buffer, without copying them.
+     * 
+     * The position of the buffer is not changed.
+     * 
+     * @param buffer - the buffer, its content must not be changed afterwards.
+     * @return the payload.
+     * @throws NullArgumentException - if buffer is null.
+     */
+    @NotNull
+    public static Payload ofBuffer(final ByteBuffer buffer) {
+
+        if (buffer == null) {
+            throw new NullArgumentException("buffer must not be null");
+        }
+        return new Payload(PayloadType.BINARY, null, buffer.slice().asReadOnlyBuffer(), null, 0,
+                0);
+    }
+
+    /**
+     * Create a payload spilled to a file.
+     * 
+     * @param type - the payload type.
+     * @param file - the file which holds the content, UTF-8 for text.
+     * @param fileSize - the number of bytes in the file.
+     * @param textLength - the number of characters of spilled text, ignored for binary data.
+     * @return the payload.
+     */
+    @NotNull
+    static Payload spilled(final PayloadType type, final Path file, final long fileSize,
+            final long textLength) {
+        return new Payload(type, null, null, file, fileSize, textLength);
+    }
+
+    /**
+     * Get the payload type.
+     * 
+     * @return the payload type.
+     */
+    @NotNull
+    public PayloadType getType() {
+        return type;
+    }
+
+    /**
+     * Check if the payload is text.
+     * 
+     * @return true if the payload is text, false if it is binary.
+     */
+    public boolean isText() {
+        return type == PayloadType.TEXT;
+    }
+
+    /**
+     * Check if the payload is spilled to a file.
+     * 
+     * @return true if only the file handle is kept on the heap, false otherwise.
+     */
+    public boolean isSpilled() {
+        return file != null;
+    }
+
+    /**
+     * Get the size of the payload: the number of characters of in-memory text, the number of
+     * bytes otherwise.
+     * 
+     * @return the size.
+     */
+    public long getSize() {
+
+        if (text != null) {
+            return text.length();
+        }
+        return data != null ? data.limit() : fileSize;
+    }
+
+    /**
+     * Get the number of characters of the payload as text (see {@link #asText()}) without
+     * building the text: the Base64 length of binary data.
+     * 
+     * @return the number of characters.
+     */
+    long textLength() {
+
+        if (text != null) {
+            return text.length();
+        }
+        if (isText()) {
+            return textLength;
+        }
+        final long bytes = data != null ? data.limit() : fileSize;
+        return (bytes + 2) / 3 * 4;
+    }
+
+    /**
+     * Check if the payload is empty.
+     * 
+     * @return true if the payload has no characters or no bytes, false otherwise.
+     */
+    public boolean isEmpty() {
+        return getSize() == 0;
+    }
+
+    /**
+     * Get the payload as text: the text itself or the Base64 of binary data.
+     * 
+     * The text of a spilled payload is read from the file in chunks on first call and kept
+     * softly reachable; prefer {@link #openReader()} for it, which never builds the string.
+     * 
+     * @return the text.
+     * @throws UncheckedIOException - if the spill file cannot be read.
+     * @throws ArithmeticException - if the text is longer than Integer.MAX_VALUE characters.
+     */
+    @NotNull
+    public String asText() {
+
+        if (text != null) {
+            return text;
+        }
+
+        final SoftReference<String> ref = encodedText;
+        String encoded = ref != null ? ref.get() : null;
+        if (encoded == null) {
+            encoded = file != null ? readText() : encode(data.duplicate());
+            encodedText = new SoftReference<>(encoded);
+        }
+        return encoded;
+    }
+
+    /**
+     * Get the payload as a read-only buffer: binary data itself or the UTF-8 bytes of text.
+     * 
+     * Every call returns an independent buffer at position 0, so readers do not disturb each
+     * other. The buffer of a spilled payload maps its file, off the heap; a file over 2 GB does
+     * not fit in one buffer, read it with {@link #openStream()}.
+     * 
+     * @return the read-only buffer.
+     * @throws UncheckedIOException - if the spill file cannot be mapped.
+     * @throws ConfigurationMismatchException - if the spill file is too large to be mapped.
+     */
+    @NotNull
+    public ByteBuffer asBuffer() {
+
+        if (data != null) {
+            return data.duplicate();
+        }
+
+        if (file != null) {
+            ByteBuffer mapped = mapping;
+            if (mapped == null) {
+                mapped = map();
+                mapping = mapped;
+            }
+            return mapped.duplicate();
+        }
+
+        final SoftReference<ByteBuffer> ref = encodedData;
+        ByteBuffer encoded = ref != null ? ref.get() : null;
+        if (encoded == null) {
+            encoded = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+            encodedData = new SoftReference<>(encoded);
+        }
+        return encoded.duplicate();
+    }
+
+    /**
+     * Open a reader of the payload as text, see {@link #asText()}.
+     * 
+     * Spilled text is decoded from the file as it is read, binary data is encoded to Base64 chunk
+     * by chunk, in-memory text is read in place: the text is never materialized.
+     * 
+     * @return the reader, to be closed by the caller.
+     * @throws IOException - if the spill file cannot be opened.
+     */
+    @NotNull
+    public Reader openReader() throws IOException {
+
+        if (text != null) {
+            return new StringReader(text);
+        }
+        if (isText()) {
+            return Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        }
+        return new Base64Reader(openStream());
+    }
+
+    /**
+     * Open a stream of the payload bytes: binary data itself or the UTF-8 bytes of text, see
+     * {@link #asBuffer()}.
+     * 
+     * The spill file is mapped window by window as it is read, so files of any size are streamed.
+     * 
+     * @return the stream, to be closed by the caller.
+     * @throws IOException - if the spill file cannot be opened.
+     */
+    @NotNull
+    public InputStream openStream() throws IOException {
+
+        if (file != null) {
+            return new MappedInputStream(FileChannel.open(file, StandardOpenOption.READ),
+                    fileSize);
+        }
+        return new MappedInputStream(asBuffer());
+    }
+
+    /**
+     * Get the payload as a character sequence, see {@link #asText()}.
+     * 
+     * The sequence of a spilled payload reads its file on demand, the text is never materialized.
+     * 
+     * @return the character sequence.
+     */
+    @NotNull
+    public CharSequence asCharSequence() {
+        return file != null ? new PayloadText(this) : asText();
+    }
+
+    /**
+     * Get the text parsed as a JSON document.
+     * 
+     * The document is parsed once, on first call, and the tree is shared by every caller, so a
+     * result read by many successors is not parsed by each of them. A new result is a new payload
+     * with a tree of its own. Spilled text is read from its file as by {@link #asText()}.
+     * 
+     * @return the root node.
+     * @throws ConfigurationMismatchException - if the payload is binary.
+     * @throws IllegalArgumentException - if the text is not a JSON document.
+     */
+    @NotNull
+    public JsonNode asJson() {
+
+        JsonNode node = json;
+        if (node != null) {
+            return node;
+        }
+        if (!isText()) {
+            throw new ConfigurationMismatchException("binary payload is not JSON");
+        }
+
+        synchronized (jsonLock) {
+            if (json == null && jsonError == null) {
+                try {
+                    json = JsonNode.parse(asText());
+                } catch (IllegalArgumentException e) {
+                    jsonError = e.getMessage();
+                }
+            }
+            node = json;
+        }
+        if (node == null) {
+            throw new IllegalArgumentException(jsonError);
+        }
+        return node;
+    }
+
+    /**
+     * Copy the payload bytes: binary data itself or the UTF-8 bytes of text.
+     * 
+     * @return the new array.
+     */
+    @NotNull
+    public byte[] toByteArray() {
+
+        final ByteBuffer buffer = asBuffer();
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Delete the spill file, if any. The mapping already taken stays readable where the platform
+     * allows it.
+     */
+    public void release() {
+
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LogEx.info(log, LogEx.me(), "spill file not deleted: " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Read the spilled text or encode the spilled data in Base64, chunk by chunk.
+     * 
+     * @return the text.
+     * @throws UncheckedIOException - if the spill file cannot be read.
+     */
+    private String readText() {
+
+        final StringBuilder sb = new StringBuilder(Math.toIntExact(textLength()));
+        try (Reader reader = openReader()) {
+            final char[] buffer = new char[8192];
+            int n;
+            while ((n = reader.read(buffer)) > 0) {
+                sb.append(buffer, 0, n);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Map the spill file as a whole.
+     * 
+     * @return the read-only mapping.
+     */
+    private ByteBuffer map() {
+
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new ConfigurationMismatchException(
+                    "spilled payload is too large to be mapped: " + fileSize + " bytes");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize).asReadOnlyBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Encode the bytes in Base64.
+     * 
+     * @param bytes - the bytes.
+     * @return the Base64 text.
+     */
+    private static String encode(final ByteBuffer bytes) {
+
+        return new String(Base64.getEncoder().encode(bytes).array(),
+                StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Compare payloads by type and content. Spilled payloads are equal only if they share the
+     * file.
+     * 
+     * @param obj - the object to compare with.
+     * @return true if the payloads have the same type and content, false otherwise.
+     */
+    @Override
+    public boolean equals(final Object obj) {
+
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Payload other) || type != other.type) {
+            return false;
+        }
+        if (file != null || other.file != null) {
+            return file != null && file.equals(other.file);
+        }
+        return text != null ? text.equals(other.text) : data.equals(other.data);
+    }
+
+    /**
+     * Get the hash code of the type and content.
+     * 
+     * @return the hash code.
+     */
+    @Override
+    public int hashCode() {
+
+        if (file != null) {
+            return file.hashCode();
+        }
+        return text != null ? text.hashCode() : 31 * data.hashCode() + 1;
+    }
+
+    /**
+     * Get a short description of the payload, without its content.
+     * 
+     * @return the description.
+     */
+    @Override
+    @NotNull
+    public String toString() {
+
+        if (file != null) {
+            return "Payload [" + type + ", spilled, " + fileSize + " bytes]";
+        }
+        return text != null
+                ? "Payload [TEXT, " + text.length() + " chars]"
+                : "Payload [BINARY, " + data.limit() + " bytes]";
+    }
+
+    /**
+     * Reader of the Base64 of bytes, encoded chunk by chunk.
+     */
+    private static final class Base64Reader extends Reader {
+
+        // Multiple of 3, so the encoded chunks concatenate to the encoding of the whole.
+        private static final int CHUNK_SIZE = 3 * 1024;
+
+        private final InputStream bytes;
+
+        private final byte[] chunk = new byte[CHUNK_SIZE];
+
+        private byte[] encoded = new byte[0];
+
+        private int position;
+
+        Base64Reader(final InputStream bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int read(final char[] buffer, final int offset, final int length)
+                throws IOException {
+
+            if (length == 0) {
+                return 0;
+            }
+            if (position == encoded.length) {
+                final int n = bytes.readNBytes(chunk, 0, CHUNK_SIZE);
+                if (n == 0) {
+                    return -1;
+                }
+                encoded = Base64.getEncoder().encode(
+                        n == CHUNK_SIZE ? chunk : Arrays.copyOf(chunk, n));
+                position = 0;
+            }
+
+            final int count = Math.min(length, encoded.length - position);
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = (char) encoded[position++];
+            }
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            bytes.close();
+        }
+    }
+
+    /**
+     * Stream of bytes read from a buffer or from a file mapped window by window.
+     */
+    private static final class MappedInputStream extends InputStream {
+
+        // The file, null for a buffer.
+        private final FileChannel channel;
+
+        private final long size;
+
+        // Position in the file of the next window.
+        private long position;
+
+        private ByteBuffer window;
+
+        MappedInputStream(final ByteBuffer buffer) {
+
+            this.channel = null;
+            this.size = buffer.remaining();
+            this.position = size;
+            this.window = buffer;
+        }
+
+        MappedInputStream(final FileChannel channel, final long size) {
+
+            this.channel = channel;
+            this.size = size;
+            this.window = ByteBuffer.allocate(0);
+        }
+
+        @Override
+        public int read() throws IOException {
+            return nextWindow() ? window.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length)
+                throws IOException {
+
+            if (length == 0) {
+                return 0;
+            }
+            if (!nextWindow()) {
+                return -1;
+            }
+            final int n = Math.min(length, window.remaining());
+            window.get(buffer, offset, n);
+            return n;
+        }
+
+        /**
+         * Make sure the window has bytes left, mapping the next window of the file if needed.
+         * 
+         * @return true if there are bytes left, false at the end of the stream.
+         * @throws IOException - if the file cannot be mapped.
+         */
+        private boolean nextWindow() throws IOException {
+
+            if (window.hasRemaining()) {
+                return true;
+            }
+            if (position >= size) {
+                return false;
+            }
+            final long n = Math.min(MAP_CHUNK_SIZE, size - position);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, n);
+            position += n;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.value;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * PayloadText: the text of a spilled payload as a character sequence which reads the file on
+ * demand instead of keeping the text on the heap.
+ * 
+ * The length is known without reading. {@link #appendTo(Appendable)} streams the text out;
+ * {@link #charAt(int)} and {@link #subSequence(int, int)} read the file up to the index, so they
+ * suit occasional access only. Immutable.
+ * 
+ * Subclassing is not allowed.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+final class PayloadText implements CharSequence {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    @NotNull
+    private final Payload payload;
+
+    private final int length;
+
+    /**
+     * Constructor.
+     * 
+     * @param payload - the spilled payload.
+     * @throws ArithmeticException - if the text is longer than Integer.MAX_VALUE characters.
+     */
+    PayloadText(final Payload payload) {
+
+        this.payload = payload;
+        this.length = Math.toIntExact(payload.textLength());
+    }
+
+    /**
+     * Get the payload.
+     * 
+     * @return the payload.
+     */
+    @NotNull
+    Payload getPayload() {
+        return payload;
+    }
+
+    /**
+     * Get the length.
+     * 
+     * @return the number of characters.
+     */
+    @Override
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Get the character at the index, reading the file up to it.
+     * 
+     * @param index - the index.
+     * @return the character.
+     * @throws IndexOutOfBoundsException - if the index is out of the text.
+     */
+    @Override
+    public char charAt(final int index) {
+
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        return read(index, index + 1).charAt(0);
+    }
+
+    /**
+     * Get the subsequence, reading the file up to its end.
+     * 
+     * @param start - the start index, inclusive.
+     * @param end - the end index, exclusive.
+     * @return the subsequence.
+     * @throws IndexOutOfBoundsException - if the range is out of the text.
+     */
+    @Override
+    @NotNull
+    public CharSequence subSequence(final int start, final int end) {
+
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException(
+                    "range [" + start + ", " + end + "), length " + length);
+        }
+        return read(start, end);
+    }
+
+    /**
+     * Stream the text out chunk by chunk.
+     * 
+     * @param out - the destination.
+     * @throws IOException - if the file cannot be read or the destination fails.
+     */
+    void appendTo(final Appendable out) throws IOException {
+
+        try (Reader reader = payload.openReader()) {
+            final char[] buffer = new char[BUFFER_SIZE];
+            int n;
+            while ((n = reader.read(buffer)) > 0) {
+                if (out instanceof StringBuilder sb) {
+                    sb.append(buffer, 0, n);
+                } else {
+                    out.append(CharBuffer.wrap(buffer, 0, n));
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the range of the text.
+     * 
+     * @param start - the start index, inclusive.
+     * @param end - the end index, exclusive.
+     * @return the characters of the range.
+     * @throws UncheckedIOException - if the file cannot be read.
+     */
+    private String read(final int start, final int end) {
+
+        try (Reader reader = payload.openReader()) {
+            long toSkip = start;
+            while (toSkip > 0) {
+                final long skipped = reader.skip(toSkip);
+                if (skipped <= 0) {
+                    throw new IOException("spilled text is shorter than " + length);
+                }
+                toSkip -= skipped;
+            }
+
+            final char[] chars = new char[end - start];
+            int read = 0;
+            while (read < chars.length) {
+                final int n = reader.read(chars, read, chars.length - read);
+                if (n < 0) {
+                    throw new IOException("spilled text is shorter than " + length);
+                }
+                read += n;
+            }
+            return new String(chars);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Materialize the text.
+     * 
+     * @return the text read from the file.
+     */
+    @Override
+    @NotNull
+    public String toString() {
+        return payload.asText();
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.value;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.flowforge.sdk.enumeration.PayloadType;
+import ru.spb.tksoft.utils.log.LogEx;
+
+/**
+ * Payload writer: builds a text payload from the text written to it.
+ * 
+ * Without a result spill the text is collected on the heap. With one, the text is collected until
+ * it reaches the threshold of the spill, then it moves to a spill file and the rest is encoded to
+ * the file chunk by chunk as it is written, so a large result is never held on the heap as a whole
+ * (see {@link ResultSpill#openWriter()}). If the file cannot be created the text stays on the heap,
+ * as with {@link ResultSpill#spill(Payload)}. The payload is available once the writer is closed.
+ * 
+ * Not thread-safe. Subclassing is not allowed.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public final class PayloadWriter extends Writer {
+
+    private static final Logger log = LoggerFactory.getLogger(PayloadWriter.class);
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    // The spill to move the text to, null to keep it on the heap.
+    private ResultSpill spill;
+
+    // The text collected on the heap, null once it has moved to the file.
+    private StringBuilder text = new StringBuilder();
+
+    // Spill file and its channel, null while the text is on the heap.
+    private Path file;
+    private FileChannel channel;
+
+    private CharsetEncoder encoder;
+
+    // Characters waiting to be encoded; a trailing high surrogate waits for its pair here.
+    private CharBuffer pending;
+
+    private ByteBuffer out;
+
+    private long length;
+
+    private long fileSize;
+
+    private Payload payload;
+
+    /**
+     * Constructor of a writer which keeps the text on the heap.
+     */
+    public PayloadWriter() {
+        this(null);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param spill - the spill to move the text to, null to keep it on the heap.
+     */
+    PayloadWriter(final ResultSpill spill) {
+        this.spill = spill;
+    }
+
+    /**
+     * Write the characters.
+     * 
+     * @param chars - the characters.
+     * @param offset - the offset of the first character.
+     * @param count - the number of characters.
+     * @throws IOException - if the writer is closed or the spill file cannot be written.
+     */
+    @Override
+    public void write(final char[] chars, final int offset, final int count) throws IOException {
+        write(CharBuffer.wrap(chars, offset, count));
+    }
+
+    /**
+     * Write the characters of the string.
+     * 
+     * @param string - the string.
+     * @param offset - the offset of the first character.
+     * @param count - the number of characters.
+     * @throws IOException - if the writer is closed or the spill file cannot be written.
+     */
+    @Override
+    public void write(final String string, final int offset, final int count) throws IOException {
+        write(CharBuffer.wrap(string, offset, offset + count));
+    }
+
+    /**
+     * Write the characters of the sequence.
+     * 
+     * @param sequence - the sequence, "null" if null.
+     * @return this writer.
+     * @throws IOException - if the writer is closed or the spill file cannot be written.
+     */
+    @Override
+    @NotNull
+    public PayloadWriter append(final CharSequence sequence) throws IOException {
+
+        final CharSequence chars = sequence != null ? sequence : "null";
+        write(CharBuffer.wrap(chars));
+        return this;
+    }
+
+    /**
+     * Nothing to flush: the text is either on the heap or written out chunk by chunk.
+     */
+    @Override
+    public void flush() {
+        // Chunks are written as they fill, a partial chunk is written on close.
+    }
+
+    /**
+     * Close the writer and build the payload.
+     * 
+     * @throws IOException - if the spill file cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+
+        if (payload != null) {
+            return;
+        }
+
+        if (channel == null) {
+            payload = Payload.ofText(text.toString());
+            text = null;
+            return;
+        }
+
+        try (FileChannel closing = channel) {
+            pending.flip();
+            encode(true);
+            CoderResult result;
+            do {
+                result = encoder.flush(out);
+                fileSize += ResultSpill.drain(closing, out);
+            } while (result.isOverflow());
+        }
+        payload = Payload.spilled(PayloadType.TEXT, file, fileSize, length);
+        LogEx.info(log, LogEx.me(), "spilled " + payload + " to " + file);
+    }
+
+    /**
+     * Get the payload built from the text written.
+     * 
+     * @return the text payload, spilled if the text has reached the threshold of the spill.
+     * @throws ConfigurationMismatchException - if the writer is not closed yet.
+     */
+    @NotNull
+    public Payload getPayload() {
+
+        if (payload == null) {
+            throw new ConfigurationMismatchException("payload writer is not closed");
+        }
+        return payload;
+    }
+
+    /**
+     * Write the characters, to the heap or to the spill file.
+     * 
+     * @param chars - the characters.
+     * @throws IOException - if the writer is closed or the spill file cannot be written.
+     */
+    private void write(final CharBuffer chars) throws IOException {
+
+        if (payload != null) {
+            throw new IOException("payload writer is closed");
+        }
+
+        length += chars.remaining();
+        if (channel == null) {
+            text.append(chars);
+            if (spill != null && text.length() >= spill.getThreshold()) {
+                moveToFile();
+            }
+            return;
+        }
+
+        while (chars.hasRemaining()) {
+            final int n = Math.min(chars.remaining(), pending.remaining());
+            final int limit = chars.limit();
+            chars.limit(chars.position() + n);
+            pending.put(chars);
+            chars.limit(limit);
+            if (!pending.hasRemaining()) {
+                pending.flip();
+                encode(false);
+            }
+        }
+    }
+
+    /**
+     * Move the text collected on the heap to a new spill file. If the file cannot be written the
+     * text stays on the heap, with no further attempts.
+     */
+    private void moveToFile() {
+
+        final ResultSpill target = spill;
+        spill = null;
+
+        final CharsetEncoder newEncoder = ResultSpill.newEncoder();
+        final CharBuffer collected = CharBuffer.wrap(text);
+        final ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+        Path newFile = null;
+        FileChannel newChannel = null;
+        try {
+            newFile = target.newFile();
+            newChannel = FileChannel.open(newFile, StandardOpenOption.WRITE);
+            fileSize = ResultSpill.encode(newEncoder, collected, buffer, newChannel, false);
+        } catch (IOException e) {
+            LogEx.info(log, LogEx.me(), "payload not spilled: " + e.getMessage());
+            closeQuietly(newChannel);
+            if (newFile != null) {
+                Payload.spilled(PayloadType.TEXT, newFile, 0, 0).release();
+            }
+            fileSize = 0;
+            return;
+        }
+
+        file = newFile;
+        channel = newChannel;
+        encoder = newEncoder;
+        out = buffer;
+        pending = CharBuffer.allocate(CHUNK_SIZE);
+        // Only a trailing high surrogate may be left, it waits for its pair.
+        pending.put(collected);
+        text = null;
+    }
+
+    /**
+     * Close the channel, logging the error if any.
+     * 
+     * @param closing - the channel or null.
+     */
+    private static void closeQuietly(final FileChannel closing) {
+
+        if (closing == null) {
+            return;
+        }
+        try {
+            closing.close();
+        } catch (IOException e) {
+            LogEx.info(log, LogEx.me(), "spill file not closed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Encode the pending characters to the file and keep the rest, if any, for the next chunk.
+     * 
+     * @param endOfInput - true if no more characters follow.
+     * @throws IOException - if the spill file cannot be written.
+     */
+    private void encode(final boolean endOfInput) throws IOException {
+
+        fileSize += ResultSpill.encode(encoder, pending, out, channel, endOfInput);
+        pending.compact();
+    }
+}
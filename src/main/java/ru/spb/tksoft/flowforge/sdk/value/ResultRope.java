@@ -0,0 +1,280 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.value;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+
+/**
+ * Result rope: the results of the input lines of a junction, each followed by the separator, as a
+ * single character sequence which references the results instead of copying them.
+ * 
+ * {@link #toString()} materializes the rope once and keeps the string,
+ * {@link #appendTo(Appendable)} writes it out part by part without materializing. A spilled result
+ * is a part which reads its file on demand: it is streamed by {@link #appendTo(Appendable)}, and
+ * the string of a rope with such parts is not kept. Immutable.
+ * 
+ * Subclassing is not allowed.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public final class ResultRope implements CharSequence {
+
+    /** The rope without parts. */
+    public static final ResultRope EMPTY = new ResultRope(new String[0], "");
+
+    @NotNull
+    private final CharSequence[] parts;
+
+    @NotNull
+    private final String separator;
+
+    // Offset of every part in the rope, the last element is the length of the rope.
+    @NotNull
+    private final int[] offsets;
+
+    // True if some part is not a string, e.g. reads a spill file.
+    private final boolean lazy;
+
+    private volatile String materialized;
+
+    /**
+     * Constructor.
+     * 
+     * @param parts - the parts, the array is taken as is and must not be changed afterwards.
+     * @param separator - the separator appended to every part.
+     * @throws NullArgumentException - if parts or separator is null or parts contains null.
+     * @throws ArithmeticException - if the rope is longer than Integer.MAX_VALUE characters.
+     */
+    public ResultRope(final CharSequence[] parts, final String separator) {
+
+        if (parts == null || separator == null) {
+            throw new NullArgumentException("parts and separator must not be null");
+        }
+
+        this.parts = parts;
+        this.separator = separator;
+        this.offsets = new int[parts.length + 1];
+        boolean hasLazyPart = false;
+        for (int i = 0; i < parts.length; i++) {
+            if (parts[i] == null) {
+                throw new NullArgumentException("parts must not contain null");
+            }
+            hasLazyPart |= !(parts[i] instanceof String);
+            offsets[i + 1] = Math.addExact(offsets[i],
+                    Math.addExact(parts[i].length(), separator.length()));
+        }
+        this.lazy = hasLazyPart;
+    }
+
+    /**
+     * Check if the rope is made of the very same parts: compared by reference, not by content.
+     * 
+     * @param candidates - the candidate parts.
+     * @param count - the number of candidate parts to compare.
+     * @return true if the rope has the same parts in the same order, false otherwise.
+     */
+    public boolean hasSameParts(final CharSequence[] candidates, final int count) {
+
+        if (count != parts.length) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            if (candidates[i] != parts[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the number of parts.
+     * 
+     * @return the number of parts.
+     */
+    public int getPartCount() {
+        return parts.length;
+    }
+
+    /**
+     * Get the length of the rope.
+     * 
+     * @return the number of characters.
+     */
+    @Override
+    public int length() {
+        return offsets[parts.length];
+    }
+
+    /**
+     * Get the character at the index.
+     * 
+     * Finds the part with a binary search over the part offsets.
+     * 
+     * @param index - the index.
+     * @return the character.
+     * @throws IndexOutOfBoundsException - if the index is out of the rope.
+     */
+    @Override
+    public char charAt(final int index) {
+
+        if (index < 0 || index >= length()) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length());
+        }
+
+        final String whole = materialized;
+        if (whole != null) {
+            return whole.charAt(index);
+        }
+
+        int part = Arrays.binarySearch(offsets, index);
+        if (part < 0) {
+            // Insertion point minus one is the part which contains the index.
+            part = -part - 2;
+        } else {
+            // The index is the start of a part; skip the empty parts without separator.
+            while (offsets[part + 1] == index) {
+                part++;
+            }
+        }
+
+        final int local = index - offsets[part];
+        final CharSequence text = parts[part];
+        return local < text.length()
+                ? text.charAt(local)
+                : separator.charAt(local - text.length());
+    }
+
+    /**
+     * Get the subsequence. Copies only the characters of the subsequence.
+     * 
+     * @param start - the start index, inclusive.
+     * @param end - the end index, exclusive.
+     * @return the subsequence.
+     * @throws IndexOutOfBoundsException - if the range is out of the rope.
+     */
+    @Override
+    @NotNull
+    public CharSequence subSequence(final int start, final int end) {
+
+        if (start < 0 || end > length() || start > end) {
+            throw new IndexOutOfBoundsException(
+                    "range [" + start + ", " + end + "), length " + length());
+        }
+
+        final String whole = materialized;
+        if (whole != null) {
+            return whole.substring(start, end);
+        }
+
+        final StringBuilder sb = new StringBuilder(end - start);
+        for (int i = 0; i < parts.length && offsets[i] < end; i++) {
+            if (offsets[i + 1] <= start) {
+                continue;
+            }
+            final int from = Math.max(start - offsets[i], 0);
+            final int to = Math.min(end - offsets[i], offsets[i + 1] - offsets[i]);
+            final CharSequence text = parts[i];
+            if (from < text.length()) {
+                final int partEnd = Math.min(to, text.length());
+                if (text instanceof String) {
+                    sb.append(text, from, partEnd);
+                } else {
+                    sb.append(text.subSequence(from, partEnd));
+                }
+            }
+            if (to > text.length()) {
+                sb.append(separator, Math.max(from - text.length(), 0), to - text.length());
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Write the rope out part by part, without materializing it.
+     * 
+     * @param out - the destination.
+     * @throws IOException - if the destination fails.
+     * @throws NullArgumentException - if out is null.
+     */
+    public void appendTo(final Appendable out) throws IOException {
+
+        if (out == null) {
+            throw new NullArgumentException("out must not be null");
+        }
+
+        for (CharSequence part : parts) {
+            appendPart(out, part);
+            out.append(separator);
+        }
+    }
+
+    /**
+     * Append the part, streaming a spilled one.
+     * 
+     * @param out - the destination.
+     * @param part - the part.
+     * @throws IOException - if the destination fails or the spill file cannot be read.
+     */
+    private static void appendPart(final Appendable out, final CharSequence part)
+            throws IOException {
+
+        if (part instanceof PayloadText spilled) {
+            spilled.appendTo(out);
+        } else {
+            out.append(part);
+        }
+    }
+
+    /**
+     * Check if the rope is empty.
+     * 
+     * @return true if the rope has no characters, false otherwise.
+     */
+    @Override
+    public boolean isEmpty() {
+        return length() == 0;
+    }
+
+    /**
+     * Materialize the rope. The string is built with the exact capacity and kept, unless the rope
+     * has spilled parts: their text is not held on the heap beyond the caller's use.
+     * 
+     * @return the string.
+     * @throws UncheckedIOException - if a spill file cannot be read.
+     */
+    @Override
+    @NotNull
+    public String toString() {
+
+        String whole = materialized;
+        if (whole == null) {
+            final StringBuilder sb = new StringBuilder(length());
+            try {
+                appendTo(sb);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            whole = sb.toString();
+            if (!lazy) {
+                materialized = whole;
+            }
+        }
+        return whole;
+    }
+}
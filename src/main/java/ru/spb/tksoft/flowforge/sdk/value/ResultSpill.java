@@ -0,0 +1,331 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.value;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.validation.constraints.NotNull;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.utils.log.LogEx;
+
+/**
+ * Result spill: moves oversized block results from the heap to files.
+ * 
+ * A payload whose size reaches the threshold (characters of text, bytes of binary data) is
+ * written to a new file in the directory, text in UTF-8, and replaced with a spilled payload
+ * which keeps only the file handle (see {@link Payload}). Text is encoded in small chunks, so
+ * spilling never needs a second copy of the result on the heap. A producer of large text writes
+ * it through {@link #openWriter()} instead, so the text goes to the file as it is produced and is
+ * never held on the heap as a whole. The file is deleted when the block replaces or resets the
+ * result.
+ * 
+ * {@link #close()} deletes the spill files left and the directory created by
+ * {@link #inTempDirectory(long)}; payloads spilled by the closed spill can no longer be read.
+ * 
+ * Errors of the disk are logged and the payload is kept on the heap, they never fail a block.
+ * 
+ * Thread-safe. Subclassing is not allowed.
+ * 
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+public final class ResultSpill implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ResultSpill.class);
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final String FILE_PREFIX = "result-";
+    private static final String FILE_SUFFIX = ".spill";
+
+    @NotNull
+    private final Path directory;
+
+    private final long threshold;
+
+    // True if the directory was created for this spill and is deleted on close.
+    private final boolean ownsDirectory;
+
+    private volatile boolean closed;
+
+    /**
+     * Constructor.
+     * 
+     * @param directory - the directory for the spill files, created if missing.
+     * @param threshold - the size from which payloads are spilled.
+     * @throws NullArgumentException - if directory is null.
+     * @throws IllegalArgumentException - if threshold is not positive.
+     * @throws IOException - if the directory cannot be created.
+     */
+    public ResultSpill(final Path directory, final long threshold) throws IOException {
+        this(directory, threshold, false);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param directory - the directory for the spill files, created if missing.
+     * @param threshold - the size from which payloads are spilled.
+     * @param ownsDirectory - true to delete the directory on close.
+     * @throws NullArgumentException - if directory is null.
+     * @throws IllegalArgumentException - if threshold is not positive.
+     * @throws IOException - if the directory cannot be created.
+     */
+    private ResultSpill(final Path directory, final long threshold, final boolean ownsDirectory)
+            throws IOException {
+
+        if (directory == null) {
+            throw new NullArgumentException("directory must not be null");
+        }
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("threshold must be positive");
+        }
+
+        this.directory = directory;
+        this.threshold = threshold;
+        this.ownsDirectory = ownsDirectory;
+
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Create the result spill in a new temporary directory, deleted by {@link #close()}.
+     * 
+     * @param threshold - the size from which payloads are spilled.
+     * @return the result spill.
+     * @throws IllegalArgumentException - if threshold is not positive.
+     * @throws IOException - if the directory cannot be created.
+     */
+    @NotNull
+    public static ResultSpill inTempDirectory(final long threshold) throws IOException {
+        return new ResultSpill(Files.createTempDirectory("flowforge-spill-"), threshold, true);
+    }
+
+    /**
+     * Get the directory for the spill files.
+     * 
+     * @return the directory.
+     */
+    @NotNull
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Get the size from which payloads are spilled.
+     * 
+     * @return the threshold.
+     */
+    public long getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Spill the payload if it has reached the threshold.
+     * 
+     * @param payload - the payload.
+     * @return the spilled payload, or the payload itself if it is under the threshold, already
+     *         spilled or cannot be written.
+     * @throws NullArgumentException - if payload is null.
+     */
+    @NotNull
+    public Payload spill(final Payload payload) {
+
+        if (payload == null) {
+            throw new NullArgumentException("payload must not be null");
+        }
+        if (payload.isSpilled() || payload.getSize() < threshold) {
+            return payload;
+        }
+
+        Path file = null;
+        try {
+            file = newFile();
+            final long size;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                size = payload.isText()
+                        ? writeText(channel, payload.asText())
+                        : writeFully(channel, payload.asBuffer());
+            }
+            LogEx.info(log, LogEx.me(), "spilled " + payload + " to " + file);
+            return Payload.spilled(payload.getType(), file, size, payload.getSize());
+        } catch (IOException e) {
+            LogEx.info(log, LogEx.me(), "payload not spilled: " + e.getMessage());
+            if (file != null) {
+                Payload.spilled(payload.getType(), file, 0, 0).release();
+            }
+            return payload;
+        }
+    }
+
+    /**
+     * Open a writer which builds a text payload, moving the text to a spill file once it reaches
+     * the threshold, see {@link PayloadWriter}.
+     * 
+     * @return the writer, to be closed by the caller before its payload is taken.
+     */
+    @NotNull
+    public PayloadWriter openWriter() {
+        return new PayloadWriter(closed ? null : this);
+    }
+
+    /**
+     * Delete the spill files left in the directory, and the directory itself if it was created by
+     * {@link #inTempDirectory(long)}. Payloads are no longer spilled afterwards.
+     * 
+     * Errors of the disk are logged.
+     */
+    @Override
+    public void close() {
+
+        closed = true;
+        try (DirectoryStream<Path> files =
+                Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+            if (ownsDirectory) {
+                Files.deleteIfExists(directory);
+            }
+            LogEx.info(log, LogEx.me(), "spill closed: " + directory);
+        } catch (IOException e) {
+            LogEx.info(log, LogEx.me(), "spill not cleaned up: " + directory + ": "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Create a new spill file.
+     * 
+     * @return the empty file.
+     * @throws IOException - if the spill is closed or the file cannot be created.
+     */
+    Path newFile() throws IOException {
+
+        if (closed) {
+            throw new IOException("spill is closed: " + directory);
+        }
+        return Files.createTempFile(directory, FILE_PREFIX, FILE_SUFFIX);
+    }
+
+    /**
+     * Create an encoder of text to UTF-8 which replaces unpaired surrogates as String.getBytes()
+     * does.
+     * 
+     * @return the encoder.
+     */
+    static CharsetEncoder newEncoder() {
+
+        return StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Encode the characters to the file, chunk by chunk through the output buffer.
+     * 
+     * Unless this is the end of input, a trailing high surrogate is left in the input to be
+     * encoded with its pair.
+     * 
+     * @param encoder - the encoder.
+     * @param in - the characters.
+     * @param out - the output buffer in write mode, empty.
+     * @param channel - the file channel.
+     * @param endOfInput - true if no more characters follow.
+     * @return the number of bytes written.
+     * @throws IOException - if the file cannot be written.
+     */
+    static long encode(final CharsetEncoder encoder, final CharBuffer in, final ByteBuffer out,
+            final FileChannel channel, final boolean endOfInput) throws IOException {
+
+        long size = 0;
+        CoderResult result;
+        do {
+            result = encoder.encode(in, out, endOfInput);
+            size += drain(channel, out);
+        } while (result.isOverflow());
+        return size;
+    }
+
+    /**
+     * Write the text in UTF-8, chunk by chunk.
+     * 
+     * @param channel - the file channel.
+     * @param text - the text.
+     * @return the number of bytes written.
+     * @throws IOException - if the file cannot be written.
+     */
+    private static long writeText(final FileChannel channel, final String text)
+            throws IOException {
+
+        final CharsetEncoder encoder = newEncoder();
+        final ByteBuffer out = ByteBuffer.allocate(CHUNK_SIZE);
+        long size = encode(encoder, CharBuffer.wrap(text), out, channel, true);
+
+        CoderResult result;
+        do {
+            result = encoder.flush(out);
+            size += drain(channel, out);
+        } while (result.isOverflow());
+
+        return size;
+    }
+
+    /**
+     * Write the bytes collected in the output buffer and clear it.
+     * 
+     * @param channel - the file channel.
+     * @param out - the output buffer in write mode.
+     * @return the number of bytes written.
+     * @throws IOException - if the file cannot be written.
+     */
+    static long drain(final FileChannel channel, final ByteBuffer out)
+            throws IOException {
+
+        out.flip();
+        final long size = writeFully(channel, out);
+        out.clear();
+        return size;
+    }
+
+    /**
+     * Write all remaining bytes of the buffer.
+     * 
+     * @param channel - the file channel.
+     * @param buffer - the buffer.
+     * @return the number of bytes written.
+     * @throws IOException - if the file cannot be written.
+     */
+    private static long writeFully(final FileChannel channel, final ByteBuffer buffer)
+            throws IOException {
+
+        long size = 0;
+        while (buffer.hasRemaining()) {
+            size += channel.write(buffer);
+        }
+        return size;
+    }
+}
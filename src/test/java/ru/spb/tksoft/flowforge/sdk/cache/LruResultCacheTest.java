@@ -0,0 +1,124 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.cache;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+
+/**
+ * Tests for LruResultCache.
+ *
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+class LruResultCacheTest {
+
+    @Test
+    void testConstructorWithInvalidMaxEntries() {
+        assertThatThrownBy(() -> new LruResultCache(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testPutAndGet() {
+        LruResultCache cache = new LruResultCache(2);
+
+        cache.put("k1", "v1");
+
+        assertThat(cache.get("k1")).isEqualTo("v1");
+        assertThat(cache.get("k2")).isNull();
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() {
+        LruResultCache cache = new LruResultCache(2);
+        cache.put("k1", "v1");
+        cache.put("k2", "v2");
+        cache.get("k1");
+
+        cache.put("k3", "v3");
+
+        assertThat(cache.get("k1")).isEqualTo("v1");
+        assertThat(cache.get("k2")).isNull();
+        assertThat(cache.get("k3")).isEqualTo("v3");
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testConstructorWithInvalidMaxBytes() {
+        assertThatThrownBy(() -> new LruResultCache(10, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testEvictsByWeight() {
+        // Each entry weighs 2 bytes per character: ("k1", "v1") weighs 8 bytes.
+        LruResultCache cache = new LruResultCache(10, 20);
+        cache.put("k1", "v1");
+        cache.put("k2", "v2");
+        cache.get("k1");
+
+        cache.put("k3", "v3");
+
+        assertThat(cache.get("k1")).isEqualTo("v1");
+        assertThat(cache.get("k2")).isNull();
+        assertThat(cache.get("k3")).isEqualTo("v3");
+        assertThat(cache.getBytes()).isEqualTo(16);
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testDoesNotCacheResultHeavierThanMaxBytes() {
+        LruResultCache cache = new LruResultCache(10, 20);
+        cache.put("k1", "v1");
+
+        cache.put("k1", "x".repeat(20));
+
+        assertThat(cache.get("k1")).isNull();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.getBytes()).isZero();
+        assertThat(cache.getEvictionCount()).isZero();
+    }
+
+    @Test
+    void testRemoveAndClear() {
+        LruResultCache cache = new LruResultCache(10);
+        cache.put("k1", "v1");
+        cache.put("k2", "v2");
+
+        cache.remove("k1");
+        assertThat(cache.get("k1")).isNull();
+        assertThat(cache.getBytes()).isEqualTo(8);
+
+        cache.clear();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.getBytes()).isZero();
+    }
+
+    @Test
+    void testNullArguments() {
+        LruResultCache cache = new LruResultCache(10);
+
+        assertThatThrownBy(() -> cache.get(null))
+                .isInstanceOf(NullArgumentException.class);
+        assertThatThrownBy(() -> cache.put("k", null))
+                .isInstanceOf(NullArgumentException.class);
+    }
+}
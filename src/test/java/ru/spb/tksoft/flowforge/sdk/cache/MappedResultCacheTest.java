@@ -0,0 +1,194 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.cache;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+
+/**
+ * Tests for MappedResultCache.
+ *
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+class MappedResultCacheTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+    private static final long MAX_BYTES = SEGMENT_SIZE * 8L;
+
+    @TempDir
+    Path directory;
+
+    private MappedResultCache open() throws IOException {
+        return new MappedResultCache(directory, SEGMENT_SIZE, MAX_BYTES);
+    }
+
+    @Test
+    void testConstructorWithInvalidArguments() {
+        assertThatThrownBy(() -> new MappedResultCache(null, SEGMENT_SIZE, MAX_BYTES))
+                .isInstanceOf(NullArgumentException.class);
+        assertThatThrownBy(() -> new MappedResultCache(directory, 8, MAX_BYTES))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new MappedResultCache(directory, SEGMENT_SIZE, SEGMENT_SIZE))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testPutAndGet() throws IOException {
+        try (MappedResultCache cache = open()) {
+            cache.put("k1", "v1");
+            cache.put("k1", "v2");
+
+            assertThat(cache.get("k1")).isEqualTo("v2");
+            assertThat(cache.get("k2")).isNull();
+            assertThat(cache.size()).isEqualTo(1);
+            assertThat(cache.getHitCount()).isEqualTo(1);
+            assertThat(cache.getMissCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testSurvivesReopen() throws IOException {
+        try (MappedResultCache cache = open()) {
+            for (int i = 0; i < 100; i++) {
+                cache.put("k" + i, "v" + i);
+            }
+        }
+
+        try (MappedResultCache cache = open()) {
+            assertThat(cache.size()).isEqualTo(100);
+            assertThat(cache.get("k42")).isEqualTo("v42");
+        }
+    }
+
+    @Test
+    void testRecoversWithoutHint() throws IOException {
+        MappedResultCache crashed = open();
+        crashed.put("k1", "v1");
+        crashed.flush();
+
+        // The hint is written on close only, so this is a crash.
+        assertThat(directory.resolve("index.hint")).doesNotExist();
+
+        try (MappedResultCache cache = open()) {
+            assertThat(cache.get("k1")).isEqualTo("v1");
+        }
+    }
+
+    @Test
+    void testDropsTornRecord() throws IOException {
+        MappedResultCache crashed = open();
+        crashed.put("k1", "v1");
+        crashed.put("k2", "v2");
+        crashed.flush();
+
+        // Corrupt the value of the last record: 2 records of 16 + 2 + 2 bytes.
+        try (RandomAccessFile file = new RandomAccessFile(
+                directory.resolve("segment-00000001.dat").toFile(), "rw")) {
+            file.seek(20 + 16 + 2);
+            file.write('X');
+        }
+
+        try (MappedResultCache cache = open()) {
+            assertThat(cache.get("k1")).isEqualTo("v1");
+            assertThat(cache.get("k2")).isNull();
+
+            cache.put("k3", "v3");
+            assertThat(cache.get("k3")).isEqualTo("v3");
+        }
+    }
+
+    @Test
+    void testCompactsToDiskBudget() throws IOException {
+        String value = "x".repeat(1000);
+
+        try (MappedResultCache cache = open()) {
+            for (int i = 0; i < 200; i++) {
+                cache.put("k" + i, value + i);
+            }
+
+            assertThat(cache.getDiskBytes()).isLessThanOrEqualTo(MAX_BYTES);
+            assertThat(cache.get("k199")).isEqualTo(value + 199);
+            assertThat(cache.get("k0")).isNull();
+        }
+
+        try (MappedResultCache cache = open()) {
+            assertThat(cache.get("k199")).isEqualTo(value + 199);
+        }
+    }
+
+    @Test
+    void testKeepsEntriesWhenCompactionFails() throws IOException {
+        String value = "x".repeat(1000);
+
+        try (MappedResultCache cache = open()) {
+            int count = 0;
+            while (cache.getDiskBytes() < MAX_BYTES) {
+                cache.put("k" + count, value + count);
+                count++;
+            }
+
+            // The segments of the compaction can not be created.
+            for (int id = 9; id < 40; id++) {
+                Files.createDirectory(directory.resolve(String.format("segment-%08d.dat", id)));
+            }
+            for (int i = 0; i < 10; i++) {
+                cache.put("new" + i, value);
+            }
+
+            for (int i = 0; i < count; i++) {
+                assertThat(cache.get("k" + i)).isEqualTo(value + i);
+            }
+            assertThat(cache.getDiskBytes()).isEqualTo(MAX_BYTES);
+        }
+    }
+
+    @Test
+    void testIgnoresTooLargeRecord() throws IOException {
+        try (MappedResultCache cache = open()) {
+            cache.put("k1", "x".repeat(SEGMENT_SIZE));
+
+            assertThat(cache.get("k1")).isNull();
+        }
+    }
+
+    @Test
+    void testIgnoresCorruptedHint() throws IOException {
+        try (MappedResultCache cache = open()) {
+            cache.put("k1", "v1");
+        }
+        Files.write(directory.resolve("index.hint"), new byte[] {1, 2, 3});
+
+        try (MappedResultCache cache = open()) {
+            assertThat(cache.get("k1")).isEqualTo("v1");
+        }
+    }
+
+    @Test
+    void testClosed() throws IOException {
+        MappedResultCache cache = open();
+        cache.close();
+
+        assertThatThrownBy(() -> cache.get("k1"))
+                .isInstanceOf(ConfigurationMismatchException.class);
+    }
+}
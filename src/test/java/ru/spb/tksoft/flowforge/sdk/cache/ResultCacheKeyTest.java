@@ -0,0 +1,67 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.cache;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+
+/**
+ * Tests for ResultCacheKey.
+ *
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+class ResultCacheKeyTest {
+
+    @Test
+    void testSameInputGivesSameKey() {
+        assertThat(ResultCacheKey.of("type1", "input", "upstream"))
+                .isEqualTo(ResultCacheKey.of("type1", "input", "upstream"))
+                .hasSize(64)
+                .matches("[0-9a-f]+");
+    }
+
+    @Test
+    void testDifferentInputGivesDifferentKey() {
+        String key = ResultCacheKey.of("type1", "input", "upstream");
+
+        assertThat(ResultCacheKey.of("type2", "input", "upstream")).isNotEqualTo(key);
+        assertThat(ResultCacheKey.of("type1", "other", "upstream")).isNotEqualTo(key);
+        assertThat(ResultCacheKey.of("type1", "input", "other")).isNotEqualTo(key);
+    }
+
+    @Test
+    void testPartsAreSeparated() {
+        assertThat(ResultCacheKey.of("type1", "ab", "c"))
+                .isNotEqualTo(ResultCacheKey.of("type1", "a", "bc"));
+    }
+
+    @Test
+    void testPartsWithNulCharactersAreSeparated() {
+        assertThat(ResultCacheKey.of("type1", "a\0", "b"))
+                .isNotEqualTo(ResultCacheKey.of("type1", "a", "\0b"));
+        assertThat(ResultCacheKey.of("type1", null, "b"))
+                .isNotEqualTo(ResultCacheKey.of("type1", "", "b"));
+    }
+
+    @Test
+    void testNullArguments() {
+        assertThatThrownBy(() -> ResultCacheKey.of(null, "input", ""))
+                .isInstanceOf(NullArgumentException.class);
+        assertThatThrownBy(() -> ResultCacheKey.of(null))
+                .isInstanceOf(NullArgumentException.class);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.cache;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.junit.jupiter.api.Test;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+
+/**
+ * Tests for SingleFlight.
+ *
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+class SingleFlightTest {
+
+    private static final Duration MAX_WAIT = Duration.ofSeconds(5);
+
+    @Test
+    void testConstructorWithInvalidMaxWait() {
+        assertThatThrownBy(() -> new SingleFlight(null))
+                .isInstanceOf(NullArgumentException.class);
+        assertThatThrownBy(() -> new SingleFlight(Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SingleFlight(MAX_WAIT, null))
+                .isInstanceOf(NullArgumentException.class);
+    }
+
+    @Test
+    void testFirstCallerLeads() {
+        SingleFlight singleFlight = new SingleFlight(MAX_WAIT);
+
+        SingleFlight.Flight leader = singleFlight.join("k1");
+        SingleFlight.Flight follower = singleFlight.join("k1");
+        SingleFlight.Flight other = singleFlight.join("k2");
+
+        assertThat(leader.isLeader()).isTrue();
+        assertThat(follower.isLeader()).isFalse();
+        assertThat(other.isLeader()).isTrue();
+        assertThat(singleFlight.getInFlightCount()).isEqualTo(2);
+        assertThat(singleFlight.getLeaderCount()).isEqualTo(2);
+        assertThat(singleFlight.getFollowerCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testFollowerTakesResult() {
+        SingleFlight singleFlight = new SingleFlight(MAX_WAIT);
+        SingleFlight.Flight leader = singleFlight.join("k1");
+        SingleFlight.Flight follower = singleFlight.join("k1");
+
+        leader.complete("result");
+
+        assertThat(follower.await()).isEqualTo("result");
+        assertThat(follower.awaitAsync().join()).isEqualTo("result");
+        assertThat(singleFlight.getInFlightCount()).isZero();
+        assertThat(singleFlight.join("k1").isLeader()).isTrue();
+    }
+
+    @Test
+    void testFollowerGetsNullOnFailure() {
+        SingleFlight singleFlight = new SingleFlight(MAX_WAIT);
+        SingleFlight.Flight leader = singleFlight.join("k1");
+        SingleFlight.Flight follower = singleFlight.join("k1");
+
+        leader.fail(new IllegalStateException("failed"));
+
+        assertThat(follower.await()).isNull();
+        assertThat(follower.awaitAsync().join()).isNull();
+        assertThat(singleFlight.getInFlightCount()).isZero();
+    }
+
+    @Test
+    void testFollowerGetsNullOnTimeout() {
+        SingleFlight singleFlight = new SingleFlight(Duration.ofMillis(10));
+        singleFlight.join("k1");
+        SingleFlight.Flight follower = singleFlight.join("k1");
+
+        assertThat(follower.await()).isNull();
+        assertThat(follower.awaitAsync().join()).isNull();
+    }
+
+    @Test
+    void testTimedOutFlightIsLedAgain() {
+        SingleFlight singleFlight = new SingleFlight(Duration.ofMillis(10));
+        SingleFlight.Flight dead = singleFlight.join("k1");
+        SingleFlight.Flight follower = singleFlight.join("k1");
+
+        assertThat(follower.await()).isNull();
+        assertThat(singleFlight.getInFlightCount()).isZero();
+
+        SingleFlight.Flight next = singleFlight.join("k1");
+        assertThat(next.isLeader()).isTrue();
+
+        // The late leader of the dead flight does not settle the new one.
+        dead.complete("late");
+        assertThat(singleFlight.getInFlightCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testAsyncFollowerTimeoutRemovesFlight() {
+        SingleFlight singleFlight = new SingleFlight(Duration.ofMillis(10));
+        singleFlight.join("k1");
+
+        assertThat(singleFlight.join("k1").awaitAsync().join()).isNull();
+        assertThat(singleFlight.join("k1").isLeader()).isTrue();
+    }
+
+    @Test
+    void testAsyncFollowerContinuesOnExecutor() {
+        List<Runnable> tasks = new ArrayList<>();
+        Executor executor = tasks::add;
+        SingleFlight singleFlight = new SingleFlight(MAX_WAIT, executor);
+        SingleFlight.Flight leader = singleFlight.join("k1");
+        SingleFlight.Flight follower = singleFlight.join("k1");
+
+        var result = follower.awaitAsync();
+        leader.complete("result");
+
+        assertThat(result).isNotDone();
+        assertThat(tasks).hasSize(1);
+
+        tasks.get(0).run();
+        assertThat(result).isCompletedWithValue("result");
+    }
+
+    @Test
+    void testJoinWithNull() {
+        SingleFlight singleFlight = new SingleFlight(MAX_WAIT);
+
+        assertThatThrownBy(() -> singleFlight.join(null))
+                .isInstanceOf(NullArgumentException.class);
+        assertThatThrownBy(() -> singleFlight.join("k1").fail(null))
+                .isInstanceOf(NullArgumentException.class);
+    }
+}
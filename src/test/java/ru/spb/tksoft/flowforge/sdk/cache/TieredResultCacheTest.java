@@ -0,0 +1,61 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.cache;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+
+/**
+ * Tests for TieredResultCache.
+ *
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+class TieredResultCacheTest {
+
+    @Test
+    void testConstructorWithNull() {
+        assertThatThrownBy(() -> new TieredResultCache(null, new LruResultCache(1)))
+                .isInstanceOf(NullArgumentException.class);
+        assertThatThrownBy(() -> new TieredResultCache(new LruResultCache(1), null))
+                .isInstanceOf(NullArgumentException.class);
+    }
+
+    @Test
+    void testPutWritesBothTiers() {
+        LruResultCache memory = new LruResultCache(10);
+        LruResultCache disk = new LruResultCache(10);
+
+        new TieredResultCache(memory, disk).put("k1", "v1");
+
+        assertThat(memory.get("k1")).isEqualTo("v1");
+        assertThat(disk.get("k1")).isEqualTo("v1");
+    }
+
+    @Test
+    void testGetPromotesFromDisk() {
+        LruResultCache memory = new LruResultCache(10);
+        LruResultCache disk = new LruResultCache(10);
+        disk.put("k1", "v1");
+        TieredResultCache cache = new TieredResultCache(memory, disk);
+
+        assertThat(cache.get("k1")).isEqualTo("v1");
+        assertThat(memory.get("k1")).isEqualTo("v1");
+        assertThat(cache.get("k2")).isNull();
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.contract;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import ru.spb.tksoft.flowforge.sdk.enumeration.RunnableState;
+
+/**
+ * Tests for BlockSnapshot.
+ *
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+class BlockSnapshotTest {
+
+    @Test
+    void testOf() {
+        Block block = mock(Block.class);
+        when(block.getBlockTypeId()).thenReturn("type1");
+        when(block.getInternalBlockId()).thenReturn("block1");
+        when(block.getDefaultInputText()).thenReturn("default input");
+        when(block.getInputText()).thenReturn("input");
+        when(block.getResultText()).thenReturn("result");
+        when(block.getState()).thenReturn(RunnableState.DONE);
+        when(block.hasError()).thenReturn(false);
+        when(block.getErrorMessage()).thenReturn("");
+        when(block.isModified()).thenReturn(true);
+
+        BlockSnapshot snapshot = BlockSnapshot.of(block);
+
+        assertThat(snapshot.version()).isZero();
+        assertThat(snapshot.blockTypeId()).isEqualTo("type1");
+        assertThat(snapshot.internalBlockId()).isEqualTo("block1");
+        assertThat(snapshot.inputText()).isEqualTo("input");
+        assertThat(snapshot.resultText()).isEqualTo("result");
+        assertThat(snapshot.state()).isEqualTo(RunnableState.DONE);
+        assertThat(snapshot.modified()).isTrue();
+    }
+
+    @Test
+    void testToPrintableState() {
+        BlockSnapshot snapshot = new BlockSnapshot(1, "type1", "block1", "default input",
+                "input", "result", RunnableState.RUNNING, true, "error", false);
+
+        assertThat(snapshot.toPrintableState())
+                .contains("Block Type ID: type1")
+                .contains("Internal Block ID: block1")
+                .contains("Default Input Text: default input")
+                .contains("Input Text: input")
+                .contains("Result Text: result")
+                .contains("State: RUNNING")
+                .contains("Has Error: true")
+                .contains("Error Message: error")
+                .contains("Modified: false");
+    }
+}
@@ -0,0 +1,777 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.engine;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.cache.SingleFlight;
+import ru.spb.tksoft.flowforge.sdk.contract.Block;
+import ru.spb.tksoft.flowforge.sdk.contract.Line;
+import ru.spb.tksoft.flowforge.sdk.enumeration.ExecutionMode;
+import ru.spb.tksoft.flowforge.sdk.enumeration.RunnableState;
+import ru.spb.tksoft.flowforge.sdk.model.AsyncBlockBaseImpl;
+import ru.spb.tksoft.flowforge.sdk.model.BlockBaseImpl;
+import ru.spb.tksoft.flowforge.sdk.model.LineImpl;
+import ru.spb.tksoft.flowforge.sdk.value.JoinPolicy;
+
+/**
+ * Tests for FlowExecutor.
+ *
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+class FlowExecutorTest {
+
+    private static final String BLOCK_TYPE_ID = "type1";
+    private static final String DEFAULT_INPUT_TEXT = "default input";
+
+    /**
+     * Test block which appends its id to the results of the predecessors.
+     */
+    private static class TestBlock extends BlockBaseImpl {
+
+        TestBlock(String internalBlockId) {
+            super(BLOCK_TYPE_ID, internalBlockId, DEFAULT_INPUT_TEXT);
+        }
+
+        @Override
+        public void run() {
+            super.run();
+
+            if (getState() == RunnableState.RUNNING) {
+                setResultText(getInputJunction().getResultString() + getInternalBlockId());
+                setState(RunnableState.DONE);
+            }
+
+            if (getState() == RunnableState.DONE) {
+                goFurtherNormal();
+            }
+        }
+    }
+
+    /**
+     * Test block which counts its runs.
+     */
+    private static class CountingBlock extends TestBlock {
+
+        private final AtomicInteger runs;
+
+        CountingBlock(String internalBlockId, AtomicInteger runs) {
+            super(internalBlockId);
+            this.runs = runs;
+        }
+
+        @Override
+        public void run() {
+            if (getState() == RunnableState.READY) {
+                runs.incrementAndGet();
+            }
+            super.run();
+        }
+    }
+
+    /**
+     * Test block which turns on the output line whose id is its input text.
+     */
+    private static class SwitchBlock extends CountingBlock {
+
+        SwitchBlock(String internalBlockId, AtomicInteger runs) {
+            super(internalBlockId, runs);
+        }
+
+        @Override
+        protected void goFurtherNormal() {
+            goFurtherSelected(List.of(getInputText()));
+        }
+    }
+
+    /**
+     * Test block which keeps running until it is stopped from outside.
+     */
+    private static class CancellableBlock extends TestBlock {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        CancellableBlock(String internalBlockId) {
+            super(internalBlockId);
+        }
+
+        @Override
+        public void run() {
+            if (!compareAndSetState(RunnableState.READY, RunnableState.RUNNING)) {
+                return;
+            }
+
+            started.countDown();
+            while (getState() == RunnableState.RUNNING) {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Test block which records the thread it runs on.
+     */
+    private static class ThreadRecordingBlock extends TestBlock {
+
+        private volatile Thread thread;
+
+        ThreadRecordingBlock(String internalBlockId) {
+            super(internalBlockId);
+        }
+
+        @Override
+        public void run() {
+            thread = Thread.currentThread();
+            super.run();
+        }
+    }
+
+    /**
+     * Test block which fails in the RUNNING state.
+     */
+    private static class FailingBlock extends BlockBaseImpl {
+
+        FailingBlock(String internalBlockId) {
+            super(BLOCK_TYPE_ID, internalBlockId, DEFAULT_INPUT_TEXT);
+        }
+
+        @Override
+        public void run() {
+            super.run();
+            throw new IllegalStateException("failed");
+        }
+    }
+
+    /**
+     * Test block which waits a bit and records how many blocks run at once.
+     */
+    private static class SlowBlock extends TestBlock {
+
+        private final AtomicInteger running;
+        private final AtomicInteger maxRunning;
+
+        SlowBlock(String internalBlockId, AtomicInteger running, AtomicInteger maxRunning) {
+            super(internalBlockId);
+            this.running = running;
+            this.maxRunning = maxRunning;
+        }
+
+        @Override
+        public void run() {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+            super.run();
+        }
+    }
+
+    /**
+     * Test asynchronous block which completes on another thread.
+     */
+    private static class TestAsyncBlock extends AsyncBlockBaseImpl {
+
+        TestAsyncBlock(String internalBlockId) {
+            super(BLOCK_TYPE_ID, internalBlockId, DEFAULT_INPUT_TEXT);
+        }
+
+        @Override
+        protected CompletionStage<String> process(String inputText) {
+            return CompletableFuture.supplyAsync(
+                    () -> getInputJunction().getResultString() + getInternalBlockId());
+        }
+    }
+
+    /**
+     * Test asynchronous block whose stage completes only once all blocks of its gate have started.
+     */
+    private static class GateBlock extends AsyncBlockBaseImpl {
+
+        private final CountDownLatch started;
+        private final CompletableFuture<Void> gate;
+
+        GateBlock(String internalBlockId, CountDownLatch started, CompletableFuture<Void> gate) {
+            super(BLOCK_TYPE_ID, internalBlockId, DEFAULT_INPUT_TEXT);
+            this.started = started;
+            this.gate = gate;
+        }
+
+        @Override
+        protected CompletionStage<String> process(String inputText) {
+            started.countDown();
+            if (started.getCount() == 0) {
+                gate.complete(null);
+            }
+            return gate.thenApply(v -> getInternalBlockId());
+        }
+    }
+
+    /**
+     * Test block which streams numbered records to its streaming output lines.
+     */
+    private static class ProducerBlock extends BlockBaseImpl {
+
+        private final int count;
+        private final AtomicInteger produced = new AtomicInteger();
+
+        ProducerBlock(String internalBlockId, int count) {
+            super(BLOCK_TYPE_ID, internalBlockId, DEFAULT_INPUT_TEXT);
+            this.count = count;
+        }
+
+        @Override
+        public void run() {
+            super.run();
+            if (getState() == RunnableState.RUNNING) {
+                openOutputStreams();
+                try {
+                    for (int i = 0; i < count && emit(String.valueOf(i)); i++) {
+                        produced.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                setResultText("produced");
+                setState(RunnableState.DONE);
+            }
+            if (getState() == RunnableState.DONE) {
+                goFurtherNormal();
+            }
+        }
+    }
+
+    /**
+     * Test block which counts the records of its streaming input line.
+     */
+    private static class ConsumerBlock extends BlockBaseImpl {
+
+        private final AtomicInteger consumed = new AtomicInteger();
+
+        ConsumerBlock(String internalBlockId) {
+            super(BLOCK_TYPE_ID, internalBlockId, DEFAULT_INPUT_TEXT);
+        }
+
+        @Override
+        public void run() {
+            super.run();
+            if (getState() == RunnableState.RUNNING) {
+                try {
+                    while (getInputStream().receive() != null) {
+                        consumed.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                setResultText("consumed " + consumed.get());
+                setState(RunnableState.DONE);
+            }
+            if (getState() == RunnableState.DONE) {
+                goFurtherNormal();
+            }
+        }
+    }
+
+    private static List<Line> resolve(List<Block> blocks, String... fromTo) {
+
+        final List<Line> lines = new ArrayList<>();
+        for (int i = 0; i < fromTo.length; i += 2) {
+            LineImpl line = new LineImpl("line" + i, fromTo[i], fromTo[i + 1]);
+            line.resolveBlocks(blocks);
+            lines.add(line);
+        }
+
+        blocks.forEach(block -> ((BlockBaseImpl) block).resolveLines(lines));
+        return lines;
+    }
+
+    @Test
+    void testConstructorWithNull() {
+        assertThatThrownBy(() -> new FlowExecutor(null, List.of()))
+                .isInstanceOf(NullArgumentException.class);
+        assertThatThrownBy(() -> new FlowExecutor(List.of(), null))
+                .isInstanceOf(NullArgumentException.class);
+        assertThatThrownBy(() -> new FlowExecutor(List.of(), List.of(), null))
+                .isInstanceOf(NullArgumentException.class);
+    }
+
+    @Test
+    void testConstructorWithDuplicateBlockId() {
+        List<Block> blocks = List.of(new TestBlock("a"), new TestBlock("a"));
+
+        assertThatThrownBy(() -> new FlowExecutor(blocks, List.of()))
+                .isInstanceOf(ConfigurationMismatchException.class)
+                .hasMessageContaining("duplicate block id");
+    }
+
+    @Test
+    void testConstructorWithUnresolvedLine() {
+        List<Line> lines = List.of(new LineImpl("line1", "a", "b"));
+
+        assertThatThrownBy(() -> new FlowExecutor(List.of(new TestBlock("a")), lines))
+                .isInstanceOf(ConfigurationMismatchException.class)
+                .hasMessageContaining("line is not resolved");
+    }
+
+    @Test
+    void testConstructorWithCycle() {
+        List<Block> blocks = List.of(new TestBlock("a"), new TestBlock("b"));
+        List<Line> lines = resolve(blocks, "a", "b", "b", "a");
+
+        assertThatThrownBy(() -> new FlowExecutor(blocks, lines))
+                .isInstanceOf(ConfigurationMismatchException.class)
+                .hasMessageContaining("cycle");
+    }
+
+    @Test
+    void testTopologicalOrder() {
+        List<Block> blocks = List.of(new TestBlock("c"), new TestBlock("b"), new TestBlock("a"));
+        List<Line> lines = resolve(blocks, "a", "b", "b", "c");
+
+        FlowExecutor executor = new FlowExecutor(blocks, lines);
+
+        assertThat(executor.getTopologicalOrder())
+                .extracting(Block::getInternalBlockId)
+                .containsExactly("a", "b", "c");
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void testExecuteWithRejectingPool() {
+        List<Block> blocks = List.of(new TestBlock("a"), new TestBlock("b"));
+        List<Line> lines = resolve(blocks, "a", "b");
+        ForkJoinPool pool = new ForkJoinPool(1);
+        pool.shutdown();
+
+        FlowExecutor executor = new FlowExecutor(blocks, lines, pool);
+
+        assertThatThrownBy(executor::execute)
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(blocks.get(0).getState()).isEqualTo(RunnableState.ABORTED);
+        assertThat(blocks.get(1).getState()).isEqualTo(RunnableState.READY);
+    }
+
+    @Test
+    void testExecuteDiamond() {
+        List<Block> blocks = List.of(new TestBlock("a"), new TestBlock("b"),
+                new TestBlock("c"), new TestBlock("d"));
+        List<Line> lines = resolve(blocks, "a", "b", "a", "c", "b", "d", "c", "d");
+
+        new FlowExecutor(blocks, lines, new ForkJoinPool(4)).execute();
+
+        assertThat(blocks).allSatisfy(
+                block -> assertThat(block.getState()).isEqualTo(RunnableState.DONE));
+        assertThat(blocks.get(3).getResultText())
+                .contains("b")
+                .contains("c")
+                .endsWith("d");
+    }
+
+    @Test
+    void testExecuteIndependentBlocks() {
+        List<Block> blocks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            blocks.add(new TestBlock("block" + i));
+        }
+
+        new FlowExecutor(blocks, List.of()).execute();
+
+        assertThat(blocks).allSatisfy(
+                block -> assertThat(block.getState()).isEqualTo(RunnableState.DONE));
+    }
+
+    @Test
+    void testExecuteStopsOnFailure() {
+        List<Block> blocks = List.of(new FailingBlock("a"), new TestBlock("b"));
+        List<Line> lines = resolve(blocks, "a", "b");
+
+        FlowExecutor executor = new FlowExecutor(blocks, lines);
+
+        assertThatThrownBy(executor::execute)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("failed");
+        assertThat(blocks.get(1).getState()).isEqualTo(RunnableState.READY);
+    }
+
+    @Test
+    void testExecuteAbortsFailedBlockAndSettlesItsFlight() {
+        FailingBlock failing = new FailingBlock("a") {
+            @Override
+            public boolean isCacheable() {
+                return true;
+            }
+        };
+        SingleFlight singleFlight = new SingleFlight(Duration.ofSeconds(5));
+        failing.setSingleFlight(singleFlight);
+        List<Block> blocks = List.of(failing);
+
+        assertThatThrownBy(new FlowExecutor(blocks, List.of())::execute)
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(failing.getState()).isEqualTo(RunnableState.ABORTED);
+        assertThat(singleFlight.getInFlightCount()).isZero();
+    }
+
+    @Test
+    void testConstructorWithInvalidConcurrency() {
+        assertThatThrownBy(
+                () -> new FlowExecutor(List.of(), List.of(), ExecutionMode.VIRTUAL_THREADS, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new FlowExecutor(List.of(), List.of(), null, 1))
+                .isInstanceOf(NullArgumentException.class);
+    }
+
+    @Test
+    void testExecuteOnVirtualThreadsRespectsConcurrencyCap() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Block> blocks = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            blocks.add(new SlowBlock("block" + i, running, maxRunning));
+        }
+
+        new FlowExecutor(blocks, List.of(), ExecutionMode.VIRTUAL_THREADS, 4).execute();
+
+        assertThat(blocks).allSatisfy(
+                block -> assertThat(block.getState()).isEqualTo(RunnableState.DONE));
+        assertThat(maxRunning.get()).isBetween(1, 4);
+    }
+
+    @Test
+    void testExecuteDiamondOnVirtualThreads() {
+        List<Block> blocks = List.of(new TestBlock("a"), new TestBlock("b"),
+                new TestBlock("c"), new TestBlock("d"));
+        List<Line> lines = resolve(blocks, "a", "b", "a", "c", "b", "d", "c", "d");
+
+        new FlowExecutor(blocks, lines, ExecutionMode.VIRTUAL_THREADS, 2).execute();
+
+        assertThat(blocks).allSatisfy(
+                block -> assertThat(block.getState()).isEqualTo(RunnableState.DONE));
+    }
+
+    @Test
+    void testExecuteAsyncBlocks() {
+        List<Block> blocks = List.of(new TestAsyncBlock("a"), new TestBlock("b"),
+                new TestAsyncBlock("c"));
+        List<Line> lines = resolve(blocks, "a", "b", "b", "c");
+
+        new FlowExecutor(blocks, lines, ExecutionMode.FORK_JOIN, 1).execute();
+
+        assertThat(blocks).allSatisfy(
+                block -> assertThat(block.getState()).isEqualTo(RunnableState.DONE));
+        assertThat(blocks.get(2).getResultText()).endsWith("c");
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void testExecuteAsyncBlocksDoNotHoldPermits() {
+        CountDownLatch started = new CountDownLatch(2);
+        CompletableFuture<Void> gate = new CompletableFuture<>();
+        List<Block> blocks = List.of(new GateBlock("a", started, gate),
+                new GateBlock("b", started, gate));
+
+        new FlowExecutor(blocks, List.of(), ExecutionMode.VIRTUAL_THREADS, 1).execute();
+
+        assertThat(blocks).allSatisfy(
+                block -> assertThat(block.getState()).isEqualTo(RunnableState.DONE));
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void testExecuteCompletesWhenBlockThrowsError() {
+        Block failing = new BlockBaseImpl(BLOCK_TYPE_ID, "a", DEFAULT_INPUT_TEXT) {
+            @Override
+            public void run() {
+                super.run();
+                throw new Error("failed");
+            }
+        };
+        List<Block> blocks = List.of(failing, new TestBlock("b"));
+        List<Line> lines = resolve(blocks, "a", "b");
+        FlowExecutor executor = new FlowExecutor(blocks, lines, ExecutionMode.VIRTUAL_THREADS, 1);
+
+        assertThatThrownBy(executor::execute)
+                .hasCauseInstanceOf(Error.class);
+        assertThat(blocks.get(0).getState()).isEqualTo(RunnableState.ABORTED);
+        assertThat(blocks.get(1).getState()).isEqualTo(RunnableState.READY);
+    }
+
+    @Test
+    void testExecuteMarksDoneBlocksNotModified() {
+        List<Block> blocks = List.of(new TestBlock("a"), new TestBlock("b"));
+        List<Line> lines = resolve(blocks, "a", "b");
+
+        new FlowExecutor(blocks, lines).execute();
+
+        assertThat(blocks).noneMatch(Block::isModified);
+    }
+
+    @Test
+    void testExecuteIncrementalWithoutChanges() {
+        AtomicInteger runs = new AtomicInteger();
+        List<Block> blocks = List.of(new CountingBlock("a", runs), new CountingBlock("b", runs));
+        List<Line> lines = resolve(blocks, "a", "b");
+        FlowExecutor executor = new FlowExecutor(blocks, lines);
+        executor.execute();
+        runs.set(0);
+
+        executor.executeIncremental();
+
+        assertThat(runs.get()).isZero();
+    }
+
+    @Test
+    void testExecuteIncrementalRunsDirtyConeOnly() {
+        AtomicInteger runs = new AtomicInteger();
+        List<Block> blocks = List.of(new CountingBlock("a", runs), new CountingBlock("b", runs),
+                new CountingBlock("c", runs), new CountingBlock("d", runs),
+                new CountingBlock("e", runs));
+        List<Line> lines = resolve(blocks, "a", "b", "a", "c", "b", "d", "c", "d", "e", "d");
+        FlowExecutor executor = new FlowExecutor(blocks, lines);
+        executor.execute();
+        runs.set(0);
+
+        blocks.get(2).setInputText("changed");
+        executor.executeIncremental();
+
+        assertThat(runs.get()).isEqualTo(2);
+        assertThat(blocks).allSatisfy(
+                block -> assertThat(block.getState()).isEqualTo(RunnableState.DONE));
+        assertThat(blocks).noneMatch(Block::isModified);
+        assertThat(blocks.get(3).getResultText())
+                .contains("b")
+                .contains("c")
+                .contains("e")
+                .endsWith("d");
+    }
+
+    @Test
+    void testExecuteIncrementalRunsBlocksNotDone() {
+        AtomicInteger runs = new AtomicInteger();
+        List<Block> blocks = List.of(new CountingBlock("a", runs), new CountingBlock("b", runs));
+        List<Line> lines = resolve(blocks, "a", "b");
+
+        new FlowExecutor(blocks, lines).executeIncremental();
+
+        assertThat(runs.get()).isEqualTo(2);
+        assertThat(blocks).allSatisfy(
+                block -> assertThat(block.getState()).isEqualTo(RunnableState.DONE));
+    }
+
+    @Test
+    void testExecuteSkipsBranchNotTaken() {
+        // s -> a -> a2 -> m, s -> b -> b2 -> m: s takes the branch of a.
+        AtomicInteger runs = new AtomicInteger();
+        List<Block> blocks = List.of(new SwitchBlock("s", runs), new CountingBlock("a", runs),
+                new CountingBlock("a2", runs), new CountingBlock("b", runs),
+                new CountingBlock("b2", runs), new CountingBlock("m", runs));
+        List<Line> lines = resolve(blocks,
+                "s", "a", "s", "b", "a", "a2", "b", "b2", "a2", "m", "b2", "m");
+        blocks.get(0).setInputText("line0");
+
+        new FlowExecutor(blocks, lines).execute();
+
+        assertThat(runs.get()).isEqualTo(3);
+        assertThat(blocks).extracting(Block::getState).containsExactly(
+                RunnableState.DONE, RunnableState.DONE, RunnableState.DONE,
+                RunnableState.SKIPPED, RunnableState.SKIPPED, RunnableState.SKIPPED);
+    }
+
+    @Test
+    void testExecuteIncrementalSwitchesBranch() {
+        AtomicInteger runs = new AtomicInteger();
+        List<Block> blocks = List.of(new SwitchBlock("s", runs), new CountingBlock("a", runs),
+                new CountingBlock("b", runs), new CountingBlock("c", runs));
+        List<Line> lines = resolve(blocks, "s", "a", "s", "b", "b", "c");
+        blocks.get(0).setInputText("line0");
+        FlowExecutor executor = new FlowExecutor(blocks, lines);
+        executor.execute();
+
+        runs.set(0);
+        executor.executeIncremental();
+        assertThat(runs.get()).isZero();
+
+        blocks.get(0).setInputText("line2");
+        executor.executeIncremental();
+
+        assertThat(runs.get()).isEqualTo(3);
+        assertThat(blocks).extracting(Block::getState).containsExactly(
+                RunnableState.DONE, RunnableState.SKIPPED, RunnableState.DONE,
+                RunnableState.DONE);
+        assertThat(blocks).allSatisfy(block -> assertThat(block.isModified()).isFalse());
+    }
+
+    @Test
+    void testExecuteWithAnyJoinAfterBranch() {
+        // s -> a -> m, s -> b -> m: s takes the branch of a, m waits for any input.
+        AtomicInteger runs = new AtomicInteger();
+        List<Block> blocks = List.of(new SwitchBlock("s", runs), new CountingBlock("a", runs),
+                new CountingBlock("b", runs), new CountingBlock("m", runs));
+        List<Line> lines = resolve(blocks, "s", "a", "s", "b", "a", "m", "b", "m");
+        blocks.get(0).setInputText("line0");
+        blocks.get(3).getInputJunction().setJoinPolicy(JoinPolicy.any());
+
+        new FlowExecutor(blocks, lines).execute();
+
+        assertThat(runs.get()).isEqualTo(3);
+        assertThat(blocks.get(2).getState()).isEqualTo(RunnableState.SKIPPED);
+        assertThat(blocks.get(3).getState()).isEqualTo(RunnableState.DONE);
+        assertThat(blocks.get(3).getResultText()).contains("a").endsWith("m");
+    }
+
+    @Test
+    void testExecuteWithQuorumCancelsSlower() {
+        // a -> m, b -> m, c0 -> c -> m: m needs 2 of 3, c0 never finishes by itself.
+        CancellableBlock slow = new CancellableBlock("c0");
+        List<Block> blocks = List.of(new TestBlock("a") {
+            @Override
+            public void run() {
+                try {
+                    slow.started.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.run();
+            }
+        }, new TestBlock("b"), slow, new TestBlock("c"), new TestBlock("m"));
+        List<Line> lines = resolve(blocks, "a", "m", "b", "m", "c0", "c", "c", "m");
+        blocks.get(4).getInputJunction().setJoinPolicy(JoinPolicy.quorum(2).cancellingSlower());
+
+        new FlowExecutor(blocks, lines, ExecutionMode.VIRTUAL_THREADS, 8).execute();
+
+        assertThat(blocks).extracting(Block::getState).containsExactly(
+                RunnableState.DONE, RunnableState.DONE, RunnableState.STOPPED,
+                RunnableState.SKIPPED, RunnableState.DONE);
+        assertThat(blocks.get(4).getResultText()).doesNotContain("c");
+    }
+
+    @Test
+    void testExecuteRunsChainOnOneThread() {
+        List<Block> blocks = new ArrayList<>();
+        String[] fromTo = new String[98];
+        for (int i = 0; i < 50; i++) {
+            blocks.add(new ThreadRecordingBlock("block" + i));
+            if (i > 0) {
+                fromTo[2 * (i - 1)] = "block" + (i - 1);
+                fromTo[2 * (i - 1) + 1] = "block" + i;
+            }
+        }
+        List<Line> lines = resolve(blocks, fromTo);
+
+        new FlowExecutor(blocks, lines, new ForkJoinPool(4)).execute();
+
+        Thread thread = ((ThreadRecordingBlock) blocks.get(0)).thread;
+        assertThat(blocks).allSatisfy(block -> {
+            assertThat(block.getState()).isEqualTo(RunnableState.DONE);
+            assertThat(((ThreadRecordingBlock) block).thread).isSameAs(thread);
+        });
+        assertThat(blocks.get(49).getResultText()).endsWith("block49");
+    }
+
+    @Test
+    void testExecuteChainStopsOnFailure() {
+        List<Block> blocks = List.of(new TestBlock("a"), new FailingBlock("b"),
+                new TestBlock("c"));
+        List<Line> lines = resolve(blocks, "a", "b", "b", "c");
+
+        assertThatThrownBy(new FlowExecutor(blocks, lines)::execute)
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(blocks.get(0).getState()).isEqualTo(RunnableState.DONE);
+        assertThat(blocks.get(2).getState()).isEqualTo(RunnableState.READY);
+    }
+
+    @Test
+    void testExecuteEmptyFlow() {
+        FlowExecutor executor = new FlowExecutor(List.of(), List.of());
+
+        assertThatCode(executor::execute).doesNotThrowAnyException();
+    }
+
+    @Test
+    void testExecuteStreamingLine() {
+        ProducerBlock producer = new ProducerBlock("p", 1000);
+        ConsumerBlock consumer = new ConsumerBlock("c");
+        List<Block> blocks = List.of(producer, consumer);
+        List<Line> lines = resolve(blocks, "p", "c");
+        ((LineImpl) lines.get(0)).enableStreaming(4);
+
+        new FlowExecutor(blocks, lines, ExecutionMode.VIRTUAL_THREADS, 2).execute();
+
+        assertThat(blocks).extracting(Block::getState)
+                .containsOnly(RunnableState.DONE);
+        assertThat(producer.produced.get()).isEqualTo(1000);
+        assertThat(consumer.getResultText()).isEqualTo("consumed 1000");
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void testExecuteStreamingLineWithConcurrencyOfOne() {
+        ProducerBlock producer = new ProducerBlock("p", 1000);
+        ConsumerBlock consumer = new ConsumerBlock("c");
+        List<Block> blocks = List.of(producer, consumer);
+        List<Line> lines = resolve(blocks, "p", "c");
+        ((LineImpl) lines.get(0)).enableStreaming(4);
+
+        new FlowExecutor(blocks, lines, ExecutionMode.VIRTUAL_THREADS, 1).execute();
+
+        assertThat(blocks).extracting(Block::getState)
+                .containsOnly(RunnableState.DONE);
+        assertThat(producer.produced.get()).isEqualTo(1000);
+        assertThat(consumer.getResultText()).isEqualTo("consumed 1000");
+    }
+
+    @Test
+    void testExecuteReleasesConsumedResults() {
+        List<Block> blocks = List.of(new TestBlock("a"), new TestBlock("b"), new TestBlock("c"),
+                new TestBlock("d"));
+        List<Line> lines = resolve(blocks, "a", "b", "b", "c", "a", "d");
+        blocks.forEach(block -> ((BlockBaseImpl) block).setReleaseWhenConsumed(true));
+        FlowExecutor executor = new FlowExecutor(blocks, lines);
+
+        executor.execute();
+
+        assertThat(blocks).extracting(block -> ((BlockBaseImpl) block).isResultReleased())
+                .containsExactly(true, true, false, false);
+        assertThat(blocks.get(2).getResultText()).endsWith("abc");
+        assertThat(blocks.get(3).getResultText()).endsWith("ad");
+
+        // The released blocks are computed again for the changed block.
+        blocks.get(2).setInputText("changed");
+        executor.executeIncremental();
+
+        assertThat(blocks.get(2).getResultText()).endsWith("abc");
+    }
+}
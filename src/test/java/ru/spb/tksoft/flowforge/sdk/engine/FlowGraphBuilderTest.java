@@ -0,0 +1,172 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.engine;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.contract.Block;
+import ru.spb.tksoft.flowforge.sdk.enumeration.RunnableState;
+import ru.spb.tksoft.flowforge.sdk.model.BlockBaseImpl;
+import ru.spb.tksoft.flowforge.sdk.model.LineImpl;
+
+/**
+ * Tests for FlowGraphBuilder.
+ *
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+class FlowGraphBuilderTest {
+
+    private static final String BLOCK_TYPE_ID = "type1";
+    private static final String DEFAULT_INPUT_TEXT = "default input";
+
+    /**
+     * Test block which completes with its id.
+     */
+    private static class TestBlock extends BlockBaseImpl {
+
+        TestBlock(String internalBlockId) {
+            super(BLOCK_TYPE_ID, internalBlockId, DEFAULT_INPUT_TEXT);
+        }
+
+        @Override
+        public void run() {
+            super.run();
+
+            if (getState() == RunnableState.RUNNING) {
+                setResultText(getInternalBlockId());
+                setState(RunnableState.DONE);
+                goFurtherNormal();
+            }
+        }
+    }
+
+    @Test
+    void testAddWithNull() {
+        FlowGraphBuilder builder = new FlowGraphBuilder();
+
+        assertThatThrownBy(() -> builder.addBlock(null))
+                .isInstanceOf(NullArgumentException.class);
+        assertThatThrownBy(() -> builder.addLine(null))
+                .isInstanceOf(NullArgumentException.class);
+        assertThatThrownBy(() -> builder.addBlocks(null))
+                .isInstanceOf(NullArgumentException.class);
+        assertThatThrownBy(() -> builder.addLines(null))
+                .isInstanceOf(NullArgumentException.class);
+    }
+
+    @Test
+    void testBuildWiresLinesAndJunctions() {
+        Block a = new TestBlock("a");
+        Block b = new TestBlock("b");
+        LineImpl line = new LineImpl("line1", "a", "b");
+
+        FlowGraph graph = new FlowGraphBuilder()
+                .addBlocks(List.of(a, b))
+                .addLine(line)
+                .build();
+
+        assertThat(graph.getBlocks()).containsExactly(a, b);
+        assertThat(graph.getLines()).containsExactly(line);
+        assertThat(graph.getBlock("a")).isSameAs(a);
+        assertThat(graph.getBlock("unknown")).isNull();
+        assertThat(line.getBlockFrom()).isSameAs(a);
+        assertThat(line.getBlockTo()).isSameAs(b);
+        assertThat(a.getOutputJunction().getLines()).containsExactly(line);
+        assertThat(b.getInputJunction().getLines()).containsExactly(line);
+        assertThat(a.getInputJunction().hasLines()).isFalse();
+        assertThat(b.getOutputJunction().hasLines()).isFalse();
+    }
+
+    @Test
+    void testBuildReportsAllProblems() {
+        FlowGraphBuilder builder = new FlowGraphBuilder()
+                .addBlock(new TestBlock("a"))
+                .addBlock(new TestBlock("a"))
+                .addLine(new LineImpl("line1", "a", "x"))
+                .addLine(new LineImpl("line1", "y", "a"));
+
+        assertThatThrownBy(builder::build)
+                .isInstanceOf(ConfigurationMismatchException.class)
+                .hasMessageContaining("4 problems")
+                .hasMessageContaining("duplicate block id: a")
+                .hasMessageContaining("duplicate line id: line1")
+                .hasMessageContaining("unknown block to: x")
+                .hasMessageContaining("unknown block from: y");
+    }
+
+    @Test
+    void testBuildWiresNothingOnFailure() {
+        Block a = new TestBlock("a");
+        LineImpl line = new LineImpl("line1", "a", "a");
+
+        FlowGraphBuilder builder = new FlowGraphBuilder()
+                .addBlock(a)
+                .addLine(line)
+                .addLine(new LineImpl("line2", "a", "x"));
+
+        assertThatThrownBy(builder::build)
+                .isInstanceOf(ConfigurationMismatchException.class);
+        assertThat(line.getBlockFrom()).isNull();
+        assertThat(a.getInputJunction().hasLines()).isFalse();
+    }
+
+    @Test
+    void testBuildTwiceReportsAlreadyWired() {
+        FlowGraphBuilder builder = new FlowGraphBuilder()
+                .addBlocks(List.of(new TestBlock("a"), new TestBlock("b")))
+                .addLine(new LineImpl("line1", "a", "b"));
+        builder.build();
+
+        assertThatThrownBy(builder::build)
+                .isInstanceOf(ConfigurationMismatchException.class)
+                .hasMessageContaining("block is already wired: a")
+                .hasMessageContaining("line is already resolved: line1");
+    }
+
+    @Test
+    void testBuiltGraphExecutes() {
+        List<Block> blocks = List.of(new TestBlock("a"), new TestBlock("b"),
+                new TestBlock("c"));
+
+        FlowGraph graph = new FlowGraphBuilder()
+                .addBlocks(blocks)
+                .addLines(List.of(new LineImpl("line1", "a", "b"),
+                        new LineImpl("line2", "b", "c")))
+                .build();
+        new FlowExecutor(graph).execute();
+
+        assertThat(blocks).allSatisfy(
+                block -> assertThat(block.getState()).isEqualTo(RunnableState.DONE));
+    }
+
+    @Test
+    void testGetTerminalBlocks() {
+        Block a = new TestBlock("a");
+        Block b = new TestBlock("b");
+        Block c = new TestBlock("c");
+
+        FlowGraph graph = new FlowGraphBuilder()
+                .addBlocks(List.of(a, b, c))
+                .addLines(List.of(new LineImpl("line1", "a", "b"),
+                        new LineImpl("line2", "a", "c")))
+                .build();
+
+        assertThat(graph.getTerminalBlocks()).containsExactly(b, c);
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.engine;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.contract.Block;
+import ru.spb.tksoft.flowforge.sdk.contract.Line;
+import ru.spb.tksoft.flowforge.sdk.model.BlockBaseImpl;
+import ru.spb.tksoft.flowforge.sdk.model.LineImpl;
+
+/**
+ * Tests for FlowPlan.
+ *
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+class FlowPlanTest {
+
+    private static final String BLOCK_TYPE_ID = "type1";
+    private static final String DEFAULT_INPUT_TEXT = "default input";
+
+    /**
+     * Test block.
+     */
+    private static class TestBlock extends BlockBaseImpl {
+
+        TestBlock(String internalBlockId) {
+            super(BLOCK_TYPE_ID, internalBlockId, DEFAULT_INPUT_TEXT);
+        }
+    }
+
+    private static List<Line> resolve(List<Block> blocks, String... fromTo) {
+
+        final List<Line> lines = new ArrayList<>();
+        for (int i = 0; i < fromTo.length; i += 2) {
+            LineImpl line = new LineImpl("line" + i / 2, fromTo[i], fromTo[i + 1]);
+            line.resolveBlocks(blocks);
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    @Test
+    void testCompileWithNull() {
+        assertThatThrownBy(() -> FlowPlan.compile(null, List.of()))
+                .isInstanceOf(NullArgumentException.class);
+        assertThatThrownBy(() -> FlowPlan.compile(List.of(), null))
+                .isInstanceOf(NullArgumentException.class);
+        assertThatThrownBy(() -> FlowPlan.compile(null))
+                .isInstanceOf(NullArgumentException.class);
+    }
+
+    @Test
+    void testCompileWithInvalidFlow() {
+        List<Block> blocks = List.of(new TestBlock("a"), new TestBlock("b"));
+
+        assertThatThrownBy(() -> FlowPlan.compile(
+                List.of(new TestBlock("a"), new TestBlock("a")), List.of()))
+                .isInstanceOf(ConfigurationMismatchException.class)
+                .hasMessageContaining("duplicate block id");
+        assertThatThrownBy(() -> FlowPlan.compile(blocks, List.of(new LineImpl("l", "a", "b"))))
+                .isInstanceOf(ConfigurationMismatchException.class)
+                .hasMessageContaining("line is not resolved");
+        assertThatThrownBy(() -> FlowPlan.compile(blocks.subList(0, 1), resolve(blocks, "a", "b")))
+                .isInstanceOf(ConfigurationMismatchException.class)
+                .hasMessageContaining("unknown block");
+        assertThatThrownBy(() -> FlowPlan.compile(blocks, resolve(blocks, "a", "b", "b", "a")))
+                .isInstanceOf(ConfigurationMismatchException.class)
+                .hasMessageContaining("cycle");
+    }
+
+    @Test
+    void testAdjacency() {
+        List<Block> blocks = List.of(new TestBlock("d"), new TestBlock("a"),
+                new TestBlock("b"), new TestBlock("c"));
+        List<Line> lines = resolve(blocks, "a", "b", "a", "c", "b", "d", "c", "d");
+
+        FlowPlan plan = FlowPlan.compile(blocks, lines);
+
+        assertThat(plan.getBlockCount()).isEqualTo(4);
+        assertThat(plan.getLineCount()).isEqualTo(4);
+
+        int a = plan.indexOf("a");
+        int d = plan.indexOf("d");
+        assertThat(plan.getBlock(a)).isSameAs(blocks.get(1));
+        assertThat(plan.indexOf("unknown")).isEqualTo(-1);
+
+        assertThat(plan.getFanIn(a)).isZero();
+        assertThat(plan.getFanOut(a)).isEqualTo(2);
+        assertThat(plan.getSuccessor(a, 0)).isEqualTo(plan.indexOf("b"));
+        assertThat(plan.getSuccessor(a, 1)).isEqualTo(plan.indexOf("c"));
+        assertThat(plan.getSuccessorLine(a, 1)).isEqualTo(1);
+
+        assertThat(plan.getFanIn(d)).isEqualTo(2);
+        assertThat(plan.getFanOut(d)).isZero();
+        assertThat(plan.getPredecessor(d, 0)).isEqualTo(plan.indexOf("b"));
+        assertThat(plan.getPredecessor(d, 1)).isEqualTo(plan.indexOf("c"));
+        assertThat(plan.getPredecessorLine(d, 0)).isEqualTo(2);
+
+        assertThat(plan.getLineFrom(3)).isEqualTo(plan.indexOf("c"));
+        assertThat(plan.getLineTo(3)).isEqualTo(d);
+        assertThat(plan.getLine(3)).isSameAs(lines.get(3));
+
+        assertThatThrownBy(() -> plan.getSuccessor(d, 0))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void testTopologicalOrder() {
+        List<Block> blocks = List.of(new TestBlock("c"), new TestBlock("b"), new TestBlock("a"));
+        List<Line> lines = resolve(blocks, "a", "b", "b", "c");
+
+        FlowPlan plan = FlowPlan.compile(blocks, lines);
+
+        assertThat(plan.getTopologicalOrder()).containsExactly(2, 1, 0);
+        assertThat(plan.getTopologicalBlocks())
+                .extracting(Block::getInternalBlockId)
+                .containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void testTopologicalOrderIsCopied() {
+        FlowPlan plan = FlowPlan.compile(List.of(new TestBlock("a")), List.of());
+
+        plan.getTopologicalOrder()[0] = 42;
+
+        assertThat(plan.getTopologicalOrder()).containsExactly(0);
+    }
+
+    @Test
+    void testChains() {
+        // a -> b -> c -> e, d -> e: a-b-c is a chain, e has two inputs.
+        List<Block> blocks = List.of(new TestBlock("a"), new TestBlock("b"),
+                new TestBlock("c"), new TestBlock("d"), new TestBlock("e"));
+        List<Line> lines = resolve(blocks, "a", "b", "b", "c", "c", "e", "d", "e");
+
+        FlowPlan plan = FlowPlan.compile(blocks, lines);
+
+        assertThat(plan.getChainNext(0)).isEqualTo(1);
+        assertThat(plan.getChainNext(1)).isEqualTo(2);
+        assertThat(plan.getChainNext(2)).isEqualTo(-1);
+        assertThat(plan.getChainNext(3)).isEqualTo(-1);
+        assertThat(plan.isFused(0)).isFalse();
+        assertThat(plan.isFused(1)).isTrue();
+        assertThat(plan.isFused(2)).isTrue();
+        assertThat(plan.isFused(4)).isFalse();
+    }
+
+    @Test
+    void testNoChainThroughFanOut() {
+        List<Block> blocks = List.of(new TestBlock("a"), new TestBlock("b"), new TestBlock("c"));
+        List<Line> lines = resolve(blocks, "a", "b", "a", "c");
+
+        FlowPlan plan = FlowPlan.compile(blocks, lines);
+
+        assertThat(plan.getChainNext(0)).isEqualTo(-1);
+        assertThat(plan.isFused(1)).isFalse();
+        assertThat(plan.isFused(2)).isFalse();
+    }
+
+    @Test
+    void testNoChainThroughStreamingLine() {
+        List<Block> blocks = List.of(new TestBlock("a"), new TestBlock("b"));
+        List<Line> lines = resolve(blocks, "a", "b");
+        ((LineImpl) lines.get(0)).enableStreaming(4);
+
+        FlowPlan plan = FlowPlan.compile(blocks, lines);
+
+        assertThat(plan.getChainNext(0)).isEqualTo(-1);
+        assertThat(plan.isFused(1)).isFalse();
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.engine;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.contract.BlockFunction;
+import ru.spb.tksoft.flowforge.sdk.enumeration.RunnableState;
+import ru.spb.tksoft.flowforge.sdk.model.BlockBaseImpl;
+import ru.spb.tksoft.flowforge.sdk.model.LineImpl;
+import ru.spb.tksoft.flowforge.sdk.value.JoinPolicy;
+
+/**
+ * Tests for FlowTemplate and FlowInstance.
+ *
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+class FlowTemplateTest {
+
+    private static final String UPPER = "upper";
+    private static final String CONCAT = "concat";
+    private static final String NL = System.lineSeparator();
+
+    /**
+     * Prototype block.
+     */
+    private static class TestBlock extends BlockBaseImpl {
+
+        TestBlock(String blockTypeId, String internalBlockId, String defaultInputText) {
+            super(blockTypeId, internalBlockId, defaultInputText);
+        }
+    }
+
+    private static final Map<String, BlockFunction> FUNCTIONS = Map.of(
+            UPPER, (inputText, upstreamResult) -> inputText.toUpperCase(),
+            CONCAT, (inputText, upstreamResult) -> upstreamResult + inputText);
+
+    private static FlowPlan plan() {
+        return plan(JoinPolicy.all());
+    }
+
+    private static FlowPlan plan(JoinPolicy joinPolicy) {
+        TestBlock c = new TestBlock(CONCAT, "c", "!");
+        c.getInputJunction().setJoinPolicy(joinPolicy);
+        return FlowPlan.compile(new FlowGraphBuilder()
+                .addBlocks(List.of(new TestBlock(UPPER, "a", "x"),
+                        new TestBlock(UPPER, "b", "y"),
+                        c))
+                .addLines(List.of(new LineImpl("line1", "a", "c"),
+                        new LineImpl("line2", "b", "c")))
+                .build());
+    }
+
+    @Test
+    void testConstructorWithNull() {
+        assertThatThrownBy(() -> new FlowTemplate(null, FUNCTIONS))
+                .isInstanceOf(NullArgumentException.class);
+        assertThatThrownBy(() -> new FlowTemplate(plan(), null))
+                .isInstanceOf(NullArgumentException.class);
+    }
+
+    @Test
+    void testConstructorWithMissingFunction() {
+        assertThatThrownBy(() -> new FlowTemplate(plan(), Map.of(UPPER, FUNCTIONS.get(UPPER))))
+                .isInstanceOf(ConfigurationMismatchException.class)
+                .hasMessageContaining(CONCAT);
+    }
+
+    @Test
+    void testRunWithDefaults() {
+        FlowInstance instance = new FlowTemplate(plan(), FUNCTIONS).newInstance();
+
+        instance.run();
+
+        assertThat(instance.getState("c")).isEqualTo(RunnableState.DONE);
+        assertThat(instance.getResultText("c")).isEqualTo("X" + NL + "Y" + NL + "!");
+    }
+
+    @Test
+    void testInstancesDoNotShareState() {
+        FlowTemplate template = new FlowTemplate(plan(), FUNCTIONS);
+        FlowInstance first = template.newInstance();
+        FlowInstance second = template.newInstance();
+
+        first.setInputText("a", "first");
+        first.run();
+
+        assertThat(first.getResultText("a")).isEqualTo("FIRST");
+        assertThat(second.getState("a")).isEqualTo(RunnableState.READY);
+        assertThat(second.getResultText("a")).isNull();
+        assertThat(second.getInputText("a")).isEqualTo("x");
+    }
+
+    @Test
+    void testRunWithFailingFunction() {
+        Map<String, BlockFunction> functions = Map.of(
+                UPPER, FUNCTIONS.get(UPPER),
+                CONCAT, (inputText, upstreamResult) -> {
+                    throw new IllegalStateException("failed");
+                });
+        FlowInstance instance = new FlowTemplate(plan(), functions).newInstance();
+
+        assertThatThrownBy(instance::run)
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(instance.getState("a")).isEqualTo(RunnableState.DONE);
+        assertThat(instance.getState("c")).isEqualTo(RunnableState.ABORTED);
+        assertThat(instance.getErrorMessage("c")).isEqualTo("failed");
+    }
+
+    @Test
+    void testRunWithAnyJoinFiresOnFirstDonePredecessor() {
+        FlowInstance instance = new FlowTemplate(plan(JoinPolicy.any()), FUNCTIONS).newInstance();
+
+        instance.run();
+
+        assertThat(instance.getState("c")).isEqualTo(RunnableState.DONE);
+        assertThat(instance.getResultText("c")).isEqualTo("X" + NL + "!");
+    }
+
+    @Test
+    void testRunWithAnyJoinToleratesFailedPredecessor() {
+        Map<String, BlockFunction> functions = Map.of(
+                UPPER, (inputText, upstreamResult) -> {
+                    if (inputText.equals("x")) {
+                        throw new IllegalStateException("failed");
+                    }
+                    return inputText.toUpperCase();
+                },
+                CONCAT, FUNCTIONS.get(CONCAT));
+        FlowInstance all = new FlowTemplate(plan(), functions).newInstance();
+        FlowInstance any = new FlowTemplate(plan(JoinPolicy.any()), functions).newInstance();
+
+        assertThatThrownBy(all::run).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(any::run).isInstanceOf(IllegalStateException.class);
+
+        assertThat(all.getState("c")).isEqualTo(RunnableState.READY);
+        assertThat(any.getState("a")).isEqualTo(RunnableState.ABORTED);
+        assertThat(any.getState("c")).isEqualTo(RunnableState.DONE);
+        assertThat(any.getResultText("c")).isEqualTo("Y" + NL + "!");
+    }
+
+    @Test
+    void testConstructorWithQuorumExceedingLines() {
+        assertThatThrownBy(() -> new FlowTemplate(plan(JoinPolicy.quorum(3)), FUNCTIONS))
+                .isInstanceOf(ConfigurationMismatchException.class)
+                .hasMessageContaining("quorum");
+    }
+
+    @Test
+    void testResetKeepsInputTexts() {
+        FlowInstance instance = new FlowTemplate(plan(), FUNCTIONS).newInstance();
+        instance.setInputText("a", "z");
+        instance.run();
+
+        instance.reset();
+
+        assertThat(instance.getState("c")).isEqualTo(RunnableState.READY);
+        assertThat(instance.getResultText("c")).isNull();
+        assertThat(instance.getInputText("a")).isEqualTo("z");
+    }
+
+    @Test
+    void testUnknownBlock() {
+        FlowInstance instance = new FlowTemplate(plan(), FUNCTIONS).newInstance();
+
+        assertThatThrownBy(() -> instance.getState("unknown"))
+                .isInstanceOf(ConfigurationMismatchException.class);
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.engine;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Test;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.contract.BatchCapableBlock;
+import ru.spb.tksoft.flowforge.sdk.model.BlockBaseImpl;
+
+/**
+ * Tests for MicroBatcher.
+ *
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+class MicroBatcherTest {
+
+    private static final Duration LONG_LINGER = Duration.ofSeconds(30);
+
+    /**
+     * Test block which upper-cases its inputs and records the batch sizes.
+     */
+    private static class TestBatchBlock extends BlockBaseImpl implements BatchCapableBlock {
+
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+        TestBatchBlock(String blockTypeId) {
+            super(blockTypeId, "block1", "default input");
+        }
+
+        @Override
+        public List<String> runBatch(List<String> inputs) {
+            batchSizes.add(inputs.size());
+            return inputs.stream().map(String::toUpperCase).toList();
+        }
+    }
+
+    @Test
+    void testConstructorWithInvalidArguments() {
+        assertThatThrownBy(() -> new MicroBatcher(0, LONG_LINGER))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new MicroBatcher(1, Duration.ofMillis(-1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new MicroBatcher(1, null))
+                .isInstanceOf(NullArgumentException.class);
+    }
+
+    @Test
+    void testDispatchesFullBatch() {
+        TestBatchBlock block = new TestBatchBlock("type1");
+
+        try (MicroBatcher batcher = new MicroBatcher(3, LONG_LINGER)) {
+            List<CompletableFuture<String>> results = new ArrayList<>();
+            for (String input : List.of("a", "b", "c")) {
+                results.add(batcher.submit(block, input));
+            }
+
+            assertThat(results).extracting(CompletableFuture::join)
+                    .containsExactly("A", "B", "C");
+            assertThat(block.batchSizes).containsExactly(3);
+            assertThat(batcher.getBatchCount()).isEqualTo(1);
+            assertThat(batcher.getInvocationCount()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void testDispatchesAfterLinger() {
+        TestBatchBlock block = new TestBatchBlock("type1");
+
+        try (MicroBatcher batcher = new MicroBatcher(100, Duration.ofMillis(10))) {
+            CompletableFuture<String> first = batcher.submit(block, "a");
+            CompletableFuture<String> second = batcher.submit(block, "b");
+
+            assertThat(first.join()).isEqualTo("A");
+            assertThat(second.join()).isEqualTo("B");
+            assertThat(block.batchSizes).containsExactly(2);
+        }
+    }
+
+    @Test
+    void testBatchesPerBlockType() {
+        TestBatchBlock first = new TestBatchBlock("type1");
+        TestBatchBlock second = new TestBatchBlock("type2");
+
+        try (MicroBatcher batcher = new MicroBatcher(2, LONG_LINGER)) {
+            CompletableFuture<String> a = batcher.submit(first, "a");
+            CompletableFuture<String> b = batcher.submit(second, "b");
+            CompletableFuture<String> c = batcher.submit(first, "c");
+
+            assertThat(a.join()).isEqualTo("A");
+            assertThat(c.join()).isEqualTo("C");
+            assertThat(b).isNotDone();
+        }
+    }
+
+    @Test
+    void testBatchesPerBatchKey() {
+        TestBatchBlock first = new TestBatchBlock("type1") {
+            @Override
+            public String getBatchKey() {
+                return "type1/first";
+            }
+        };
+        TestBatchBlock second = new TestBatchBlock("type1") {
+            @Override
+            public String getBatchKey() {
+                return "type1/second";
+            }
+        };
+
+        try (MicroBatcher batcher = new MicroBatcher(2, LONG_LINGER)) {
+            CompletableFuture<String> a = batcher.submit(first, "a");
+            CompletableFuture<String> b = batcher.submit(second, "b");
+            CompletableFuture<String> c = batcher.submit(first, "c");
+
+            assertThat(a.join()).isEqualTo("A");
+            assertThat(c.join()).isEqualTo("C");
+            assertThat(b).isNotDone();
+            assertThat(first.batchSizes).containsExactly(2);
+            assertThat(second.batchSizes).isEmpty();
+        }
+    }
+
+    @Test
+    void testFailsAllOnError() {
+        TestBatchBlock block = new TestBatchBlock("type1") {
+            @Override
+            public List<String> runBatch(List<String> inputs) {
+                throw new Error("failed");
+            }
+        };
+
+        try (MicroBatcher batcher = new MicroBatcher(2, LONG_LINGER)) {
+            CompletableFuture<String> a = batcher.submit(block, "a");
+            CompletableFuture<String> b = batcher.submit(block, "b");
+
+            assertThatThrownBy(a::join)
+                    .isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(Error.class);
+            assertThatThrownBy(b::join)
+                    .isInstanceOf(CompletionException.class);
+        }
+    }
+
+    @Test
+    void testCloseDispatchesPending() {
+        TestBatchBlock block = new TestBatchBlock("type1");
+        MicroBatcher batcher = new MicroBatcher(100, LONG_LINGER);
+        CompletableFuture<String> result = batcher.submit(block, "a");
+
+        batcher.close();
+
+        assertThat(result.join()).isEqualTo("A");
+        assertThatThrownBy(() -> batcher.submit(block, "b"))
+                .isInstanceOf(ConfigurationMismatchException.class);
+    }
+
+    @Test
+    void testFailsAllOnWrongResultCount() {
+        TestBatchBlock block = new TestBatchBlock("type1") {
+            @Override
+            public List<String> runBatch(List<String> inputs) {
+                return List.of();
+            }
+        };
+
+        try (MicroBatcher batcher = new MicroBatcher(2, LONG_LINGER)) {
+            CompletableFuture<String> a = batcher.submit(block, "a");
+            CompletableFuture<String> b = batcher.submit(block, "b");
+
+            assertThatThrownBy(a::join)
+                    .isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(ConfigurationMismatchException.class);
+            assertThatThrownBy(b::join)
+                    .isInstanceOf(CompletionException.class);
+        }
+    }
+}
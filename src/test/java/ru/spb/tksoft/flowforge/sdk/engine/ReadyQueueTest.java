@@ -0,0 +1,207 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.engine;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.contract.Block;
+import ru.spb.tksoft.flowforge.sdk.contract.Line;
+import ru.spb.tksoft.flowforge.sdk.enumeration.LineState;
+import ru.spb.tksoft.flowforge.sdk.model.BlockBaseImpl;
+import ru.spb.tksoft.flowforge.sdk.model.LineImpl;
+import ru.spb.tksoft.flowforge.sdk.value.JoinPolicy;
+
+/**
+ * Tests for ReadyQueue.
+ *
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+class ReadyQueueTest {
+
+    private static final String BLOCK_TYPE_ID = "type1";
+    private static final String DEFAULT_INPUT_TEXT = "default input";
+
+    private List<Block> blocks;
+    private List<Line> lines;
+
+    /**
+     * Test implementation of BlockBaseImpl.
+     */
+    private static class TestBlock extends BlockBaseImpl {
+
+        TestBlock(String internalBlockId) {
+            super(BLOCK_TYPE_ID, internalBlockId, DEFAULT_INPUT_TEXT);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        // a -> c, b -> c
+        blocks = List.of(new TestBlock("a"), new TestBlock("b"), new TestBlock("c"));
+        lines = new ArrayList<>();
+        lines.add(new LineImpl("line1", "a", "c"));
+        lines.add(new LineImpl("line2", "b", "c"));
+        lines.forEach(line -> ((LineImpl) line).resolveBlocks(blocks));
+    }
+
+    @Test
+    void testConstructorWithNull() {
+        assertThatThrownBy(() -> new ReadyQueue(null, lines))
+                .isInstanceOf(NullArgumentException.class);
+        assertThatThrownBy(() -> new ReadyQueue(blocks, null))
+                .isInstanceOf(NullArgumentException.class);
+    }
+
+    @Test
+    void testConstructorWithUnknownBlock() {
+        assertThatThrownBy(() -> new ReadyQueue(blocks.subList(0, 2), lines))
+                .isInstanceOf(ConfigurationMismatchException.class)
+                .hasMessageContaining("unknown block");
+    }
+
+    @Test
+    void testOfferSatisfied() {
+        try (ReadyQueue queue = new ReadyQueue(blocks, lines)) {
+            queue.offerSatisfied();
+
+            assertThat(queue.size()).isEqualTo(2);
+            assertThat(List.of(queue.poll(), queue.poll()))
+                    .extracting(Block::getInternalBlockId)
+                    .containsExactlyInAnyOrder("a", "b");
+            assertThat(queue.isEmpty()).isTrue();
+        }
+    }
+
+    @Test
+    void testEnqueuedWhenLastInputLineTurnsOn() {
+        try (ReadyQueue queue = new ReadyQueue(blocks, lines)) {
+            lines.get(0).setState(LineState.ON);
+            assertThat(queue.isEmpty()).isTrue();
+
+            lines.get(1).setState(LineState.ON);
+            assertThat(queue.poll()).isSameAs(blocks.get(2));
+        }
+    }
+
+    @Test
+    void testEnqueuedOnlyOnce() {
+        try (ReadyQueue queue = new ReadyQueue(blocks, lines)) {
+            lines.forEach(line -> line.setState(LineState.ON));
+            lines.forEach(line -> line.setState(LineState.OFF));
+            lines.forEach(line -> line.setState(LineState.ON));
+
+            assertThat(queue.offer(blocks.get(2))).isFalse();
+            assertThat(queue.size()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testLineTurningOffAgainBlocksEnqueue() {
+        try (ReadyQueue queue = new ReadyQueue(blocks, lines)) {
+            lines.get(0).setState(LineState.ON);
+            lines.get(0).setState(LineState.OFF);
+            lines.get(1).setState(LineState.ON);
+
+            assertThat(queue.isEmpty()).isTrue();
+        }
+    }
+
+    @Test
+    void testListenerIsNotified() {
+        List<Block> notified = new ArrayList<>();
+        try (ReadyQueue queue = new ReadyQueue(blocks, lines)) {
+            queue.addListener(notified::add);
+            queue.offer(blocks.get(0));
+        }
+
+        assertThat(notified).containsExactly(blocks.get(0));
+    }
+
+    @Test
+    void testOfferUnknownBlock() {
+        try (ReadyQueue queue = new ReadyQueue(blocks, lines)) {
+            assertThatThrownBy(() -> queue.offer(new TestBlock("x")))
+                    .isInstanceOf(ConfigurationMismatchException.class);
+            assertThatThrownBy(() -> queue.offer(null))
+                    .isInstanceOf(NullArgumentException.class);
+        }
+    }
+
+    @Test
+    void testCloseUnsubscribesFromLines() {
+        ReadyQueue queue = new ReadyQueue(blocks, lines);
+        queue.close();
+
+        lines.forEach(line -> line.setState(LineState.ON));
+
+        assertThat(queue.isEmpty()).isTrue();
+    }
+
+    @Test
+    void testFusedBlockIsNotEnqueuedByLineTransition() {
+        // b is fused into the chain of a: a -> b is the single output and input line.
+        List<Block> chain = List.of(new TestBlock("a"), new TestBlock("b"));
+        LineImpl line = new LineImpl("line1", "a", "b");
+        line.resolveBlocks(chain);
+
+        try (ReadyQueue queue = new ReadyQueue(FlowPlan.compile(chain, List.of(line)), true)) {
+            line.setState(LineState.ON);
+
+            assertThat(queue.isEmpty()).isTrue();
+        }
+    }
+
+    @Test
+    void testFusedBlockIsOfferedIfSatisfiedBeforeRun() {
+        List<Block> chain = List.of(new TestBlock("a"), new TestBlock("b"));
+        LineImpl line = new LineImpl("line1", "a", "b");
+        line.resolveBlocks(chain);
+        line.setState(LineState.ON);
+
+        try (ReadyQueue queue = new ReadyQueue(FlowPlan.compile(chain, List.of(line)), true)) {
+            queue.offerSatisfied();
+
+            assertThat(queue.size()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void testEnqueuedWhenJoinPolicyIsMet() {
+        blocks.get(2).getInputJunction().setJoinPolicy(JoinPolicy.any());
+
+        try (ReadyQueue queue = new ReadyQueue(blocks, lines)) {
+            lines.get(1).setState(LineState.ON);
+            assertThat(queue.poll()).isSameAs(blocks.get(2));
+
+            lines.get(0).setState(LineState.ON);
+            assertThat(queue.isEmpty()).isTrue();
+        }
+    }
+
+    @Test
+    void testConstructorWithQuorumTooLarge() {
+        blocks.get(2).getInputJunction().setJoinPolicy(JoinPolicy.quorum(3));
+
+        assertThatThrownBy(() -> new ReadyQueue(blocks, lines))
+                .isInstanceOf(ConfigurationMismatchException.class)
+                .hasMessageContaining("quorum");
+    }
+}
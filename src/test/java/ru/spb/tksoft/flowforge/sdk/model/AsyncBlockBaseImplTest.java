@@ -0,0 +1,160 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.model;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.spb.tksoft.flowforge.sdk.enumeration.LineState;
+import ru.spb.tksoft.flowforge.sdk.enumeration.RunnableState;
+
+/**
+ * Tests for AsyncBlockBaseImpl.
+ *
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+class AsyncBlockBaseImplTest {
+
+    private static final String BLOCK_ID = "block1";
+    private static final String BLOCK_TYPE_ID = "type1";
+    private static final String DEFAULT_INPUT_TEXT = "default input";
+
+    private TestAsyncBlock block;
+
+    /**
+     * Test implementation of AsyncBlockBaseImpl completed from the outside.
+     */
+    private static class TestAsyncBlock extends AsyncBlockBaseImpl {
+
+        private final CompletableFuture<String> future = new CompletableFuture<>();
+        private String processedInput;
+        private int processCount;
+
+        TestAsyncBlock() {
+            super(BLOCK_TYPE_ID, BLOCK_ID, DEFAULT_INPUT_TEXT);
+        }
+
+        @Override
+        protected CompletionStage<String> process(String inputText) {
+            processedInput = inputText;
+            processCount++;
+            return future;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        block = new TestAsyncBlock();
+    }
+
+    @Test
+    void testRunAsyncStaysRunningUntilStageCompletes() {
+        CompletionStage<String> stage = block.runAsync();
+
+        assertThat(block.processedInput).isEqualTo(DEFAULT_INPUT_TEXT);
+        assertThat(block.getState()).isEqualTo(RunnableState.RUNNING);
+        assertThat(stage.toCompletableFuture()).isNotDone();
+    }
+
+    @Test
+    void testRunAsyncCompletes() {
+        CompletionStage<String> stage = block.runAsync();
+        block.future.complete("result");
+
+        assertThat(stage.toCompletableFuture()).isCompletedWithValue("result");
+        assertThat(block.getState()).isEqualTo(RunnableState.DONE);
+        assertThat(block.getResultText()).isEqualTo("result");
+        assertThat(block.getInputJunction().getState()).isEqualTo(LineState.OFF);
+        assertThat(block.getOutputJunction().getState()).isEqualTo(LineState.ON);
+    }
+
+    @Test
+    void testRunAsyncFails() {
+        CompletionStage<String> stage = block.runAsync();
+        block.future.completeExceptionally(new IllegalStateException("remote failed"));
+
+        assertThat(stage.toCompletableFuture()).isCompletedExceptionally();
+        assertThat(block.getState()).isEqualTo(RunnableState.ABORTED);
+        assertThat(block.hasError()).isTrue();
+        assertThat(block.getErrorMessage()).isEqualTo("remote failed");
+        assertThat(block.getOutputJunction().getState()).isEqualTo(LineState.OFF);
+    }
+
+    @Test
+    void testRunAsyncWithNullResult() {
+        CompletionStage<String> stage = block.runAsync();
+        block.future.complete(null);
+
+        assertThat(stage.toCompletableFuture()).isCompletedExceptionally();
+        assertThat(block.getState()).isEqualTo(RunnableState.ABORTED);
+        assertThat(block.hasError()).isTrue();
+    }
+
+    @Test
+    void testResultIgnoredAfterStop() {
+        CompletionStage<String> stage = block.runAsync();
+        block.stop();
+        block.future.complete("result");
+
+        assertThat(stage.toCompletableFuture()).isCompletedWithValue("result");
+        assertThat(block.getState()).isEqualTo(RunnableState.STOPPED);
+        assertThat(block.getResultText()).isEmpty();
+    }
+
+    @Test
+    void testConcurrentRunAsyncProcessesOnce() {
+        CompletionStage<String> first = block.runAsync();
+        CompletionStage<String> second = block.runAsync();
+
+        assertThat(block.processCount).isEqualTo(1);
+        assertThat(second.toCompletableFuture()).isNotDone();
+
+        block.future.complete("result");
+
+        assertThat(first.toCompletableFuture()).isCompletedWithValue("result");
+        assertThat(second.toCompletableFuture()).isCompletedWithValue("result");
+        assertThat(block.processCount).isEqualTo(1);
+    }
+
+    @Test
+    void testConcurrentRunAsyncFollowsFailure() {
+        block.runAsync();
+        CompletionStage<String> second = block.runAsync();
+
+        block.future.completeExceptionally(new IllegalStateException("remote failed"));
+
+        assertThat(second.toCompletableFuture()).isCompletedExceptionally();
+        assertThat(block.processCount).isEqualTo(1);
+    }
+
+    @Test
+    void testRunAsyncWhenNotRunning() {
+        block.abort();
+
+        assertThat(block.runAsync().toCompletableFuture()).isCompletedExceptionally();
+    }
+
+    @Test
+    void testRunWaitsForStage() {
+        block.future.complete("result");
+        block.run();
+
+        assertThat(block.getState()).isEqualTo(RunnableState.DONE);
+        assertThat(block.getResultText()).isEqualTo("result");
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.model;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.engine.MicroBatcher;
+import ru.spb.tksoft.flowforge.sdk.enumeration.RunnableState;
+
+/**
+ * Tests for BatchBlockBaseImpl.
+ *
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+class BatchBlockBaseImplTest {
+
+    private static final String BLOCK_TYPE_ID = "type1";
+    private static final String DEFAULT_INPUT_TEXT = "default input";
+
+    /**
+     * Test batch block which upper-cases its inputs.
+     */
+    private static class TestBatchBlock extends BatchBlockBaseImpl {
+
+        TestBatchBlock(String internalBlockId, MicroBatcher batcher) {
+            super(BLOCK_TYPE_ID, internalBlockId, DEFAULT_INPUT_TEXT, batcher);
+        }
+
+        @Override
+        public List<String> runBatch(List<String> inputs) {
+            return inputs.stream().map(String::toUpperCase).toList();
+        }
+    }
+
+    @Test
+    void testConstructorWithNullBatcher() {
+        assertThatThrownBy(() -> new TestBatchBlock("block1", null))
+                .isInstanceOf(NullArgumentException.class);
+    }
+
+    @Test
+    void testRunAsyncFansResultsOut() {
+        try (MicroBatcher batcher = new MicroBatcher(2, Duration.ofSeconds(30))) {
+            TestBatchBlock first = new TestBatchBlock("block1", batcher);
+            TestBatchBlock second = new TestBatchBlock("block2", batcher);
+            second.setInputText("other input");
+
+            CompletableFuture.allOf(first.runAsync().toCompletableFuture(),
+                    second.runAsync().toCompletableFuture()).join();
+
+            assertThat(first.getState()).isEqualTo(RunnableState.DONE);
+            assertThat(first.getResultText()).isEqualTo(DEFAULT_INPUT_TEXT.toUpperCase());
+            assertThat(second.getState()).isEqualTo(RunnableState.DONE);
+            assertThat(second.getResultText()).isEqualTo("OTHER INPUT");
+            assertThat(batcher.getBatchCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testRunWaitsForLinger() {
+        try (MicroBatcher batcher = new MicroBatcher(100, Duration.ofMillis(10))) {
+            TestBatchBlock block = new TestBatchBlock("block1", batcher);
+
+            block.run();
+
+            assertThat(block.getState()).isEqualTo(RunnableState.DONE);
+            assertThat(block.getResultText()).isEqualTo(DEFAULT_INPUT_TEXT.toUpperCase());
+        }
+    }
+}
@@ -17,22 +17,34 @@ package ru.spb.tksoft.flowforge.sdk.model;
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
 import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.cache.LruResultCache;
+import ru.spb.tksoft.flowforge.sdk.cache.ResultCacheKey;
+import ru.spb.tksoft.flowforge.sdk.cache.SingleFlight;
 import ru.spb.tksoft.flowforge.sdk.contract.Block;
+import ru.spb.tksoft.flowforge.sdk.contract.BlockSnapshot;
 import ru.spb.tksoft.flowforge.sdk.contract.Line;
 import ru.spb.tksoft.flowforge.sdk.contract.LineJunction;
+import ru.spb.tksoft.flowforge.sdk.contract.RecordChannel;
+import ru.spb.tksoft.flowforge.sdk.contract.ResultCache;
 import ru.spb.tksoft.flowforge.sdk.contract.RunnableStateChangeListener;
 import ru.spb.tksoft.flowforge.sdk.enumeration.LineState;
 import ru.spb.tksoft.flowforge.sdk.enumeration.RunnableState;
+import ru.spb.tksoft.flowforge.sdk.value.JsonNode;
+import ru.spb.tksoft.flowforge.sdk.value.Payload;
 
 /**
  * Tests for BlockBaseImpl.
@@ -233,6 +245,67 @@ class BlockBaseImplTest {
         assertThat(block.isModified()).isFalse();
     }
 
+    @Test
+    void testSetStateWithIllegalTransition() {
+        block.abort();
+
+        assertThatThrownBy(() -> block.setState(RunnableState.DONE))
+                .isInstanceOf(ConfigurationMismatchException.class)
+                .hasMessageContaining("illegal state transition");
+        assertThat(block.getState()).isEqualTo(RunnableState.ABORTED);
+    }
+
+    @Test
+    void testCompareAndSetState() {
+        assertThat(block.compareAndSetState(RunnableState.RUNNING, RunnableState.DONE)).isFalse();
+        assertThat(block.compareAndSetState(RunnableState.READY, RunnableState.RUNNING)).isTrue();
+        assertThat(block.getState()).isEqualTo(RunnableState.RUNNING);
+    }
+
+    @Test
+    void testCompareAndSetStateWithIllegalTransition() {
+        block.abort();
+
+        assertThat(block.compareAndSetState(RunnableState.ABORTED, RunnableState.DONE)).isFalse();
+        assertThat(block.getState()).isEqualTo(RunnableState.ABORTED);
+    }
+
+    @Test
+    void testStopIgnoredWhenAborted() {
+        block.abort();
+        block.stop();
+
+        assertThat(block.getState()).isEqualTo(RunnableState.ABORTED);
+    }
+
+    @Test
+    void testGetStateDoesNotBlockWhileRunning() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TestBlock slowBlock = new TestBlock(BLOCK_TYPE_ID, "block2", DEFAULT_INPUT_TEXT) {
+            @Override
+            public void run() {
+                super.run();
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        Thread runner = new Thread(slowBlock::run);
+        runner.start();
+        started.await();
+
+        assertThat(slowBlock.getState()).isEqualTo(RunnableState.RUNNING);
+        assertThat(slowBlock.getPrintableState()).contains("State: RUNNING");
+
+        release.countDown();
+        runner.join();
+    }
+
     @Test
     void testStop() {
         block.stop();
@@ -275,6 +348,52 @@ class BlockBaseImplTest {
         assertThat(block.getState()).isEqualTo(RunnableState.RUNNING);
     }
 
+    @Test
+    void testSkip() {
+        assertThat(block.skip()).isTrue();
+
+        assertThat(block.getState()).isEqualTo(RunnableState.SKIPPED);
+        assertThat(block.isModified()).isTrue();
+        assertThat(block.getOutputJunction().getState()).isEqualTo(LineState.OFF);
+    }
+
+    @Test
+    void testSkipIgnoredWhenNotReady() {
+        block.setState(RunnableState.RUNNING);
+
+        assertThat(block.skip()).isFalse();
+        assertThat(block.getState()).isEqualTo(RunnableState.RUNNING);
+    }
+
+    @Test
+    void testSetReadyFromSkipped() {
+        block.skip();
+        block.setReady();
+
+        assertThat(block.getState()).isEqualTo(RunnableState.READY);
+    }
+
+    @Test
+    void testGoFurtherSelected() {
+        List<Block> blocks = List.of(block,
+                new TestBlock(BLOCK_TYPE_ID, "block2", DEFAULT_INPUT_TEXT),
+                new TestBlock(BLOCK_TYPE_ID, "block3", DEFAULT_INPUT_TEXT));
+        LineImpl taken = new LineImpl("taken", BLOCK_ID, "block2");
+        LineImpl notTaken = new LineImpl("notTaken", BLOCK_ID, "block3");
+        taken.resolveBlocks(blocks);
+        notTaken.resolveBlocks(blocks);
+        block.resolveLines(List.of(taken, notTaken));
+
+        block.goFurtherSelected(List.of("taken"));
+
+        assertThat(taken.getState()).isEqualTo(LineState.ON);
+        assertThat(notTaken.getState()).isEqualTo(LineState.OFF);
+        assertThat(block.getOutputJunction().isSelected(taken)).isTrue();
+        assertThat(block.getOutputJunction().isSelected(notTaken)).isFalse();
+        assertThatThrownBy(() -> block.goFurtherSelected(List.of("unknown")))
+                .isInstanceOf(ConfigurationMismatchException.class);
+    }
+
     @Test
     void testReset() {
         block.setInputText("input");
@@ -363,6 +482,39 @@ class BlockBaseImplTest {
         verify(listener3).onStateChanged(any()); // Only once from before removal
     }
 
+    @Test
+    void testSnapshotIsPublishedOnMutation() {
+        BlockSnapshot initial = block.snapshot();
+
+        block.setInputText("custom input");
+        block.setState(RunnableState.RUNNING);
+        block.setResultText("result");
+        block.setError(true, "test error");
+
+        BlockSnapshot snapshot = block.snapshot();
+        assertThat(snapshot.version()).isGreaterThan(initial.version());
+        assertThat(snapshot.internalBlockId()).isEqualTo(BLOCK_ID);
+        assertThat(snapshot.inputText()).isEqualTo("custom input");
+        assertThat(snapshot.resultText()).isEqualTo("result");
+        assertThat(snapshot.state()).isEqualTo(RunnableState.RUNNING);
+        assertThat(snapshot.hasError()).isTrue();
+        assertThat(snapshot.errorMessage()).isEqualTo("test error");
+        assertThat(snapshot.modified()).isTrue();
+
+        // Published snapshots are immutable.
+        assertThat(initial.state()).isEqualTo(RunnableState.READY);
+        assertThat(initial.resultText()).isEmpty();
+    }
+
+    @Test
+    void testSnapshotFollowsModifiedFlag() {
+        block.resetModified();
+        assertThat(block.snapshot().modified()).isFalse();
+
+        block.setModified();
+        assertThat(block.snapshot().modified()).isTrue();
+    }
+
     @Test
     void testGetPrintableState() {
         String printableState = block.getPrintableState();
@@ -433,5 +585,297 @@ class BlockBaseImplTest {
                 .contains("Input Text: " + DEFAULT_INPUT_TEXT)
                 .doesNotContain("Input Text:    "); // Should not show blank spaces
     }
-}
 
+    /**
+     * Cacheable test block which counts the computations of its result.
+     */
+    private static class CacheableBlock extends BlockBaseImpl {
+
+        private int computations;
+
+        CacheableBlock() {
+            super(BLOCK_TYPE_ID, BLOCK_ID, DEFAULT_INPUT_TEXT);
+        }
+
+        @Override
+        public boolean isCacheable() {
+            return true;
+        }
+
+        @Override
+        public void run() {
+            super.run();
+
+            if (getState() == RunnableState.RUNNING) {
+                computations++;
+                setResultText(getInputText().toUpperCase());
+                setState(RunnableState.DONE);
+            }
+        }
+    }
+
+    @Test
+    void testRunOwnedByWinnerOnly() throws Exception {
+        block.run();
+        assertThat(block.getState()).isEqualTo(RunnableState.RUNNING);
+        assertThat(block.isRunOwner()).isTrue();
+
+        CompletableFuture<Boolean> other = CompletableFuture.supplyAsync(() -> {
+            block.run();
+            return block.isRunOwner();
+        });
+
+        assertThat(other.get()).isFalse();
+        assertThat(block.getState()).isEqualTo(RunnableState.RUNNING);
+
+        block.setState(RunnableState.DONE);
+        assertThat(block.isRunOwner()).isFalse();
+    }
+
+    @Test
+    void testIsNotCacheableByDefault() {
+        assertThat(block.isCacheable()).isFalse();
+    }
+
+    @Test
+    void testRunStoresAndTakesCachedResult() {
+        LruResultCache cache = new LruResultCache(10);
+        CacheableBlock first = new CacheableBlock();
+        CacheableBlock second = new CacheableBlock();
+        first.setResultCache(cache);
+        second.setResultCache(cache);
+
+        first.run();
+        second.run();
+
+        assertThat(first.computations).isEqualTo(1);
+        assertThat(second.computations).isZero();
+        assertThat(second.getState()).isEqualTo(RunnableState.DONE);
+        assertThat(second.getResultText()).isEqualTo(DEFAULT_INPUT_TEXT.toUpperCase());
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testRunMissesCacheForOtherInput() {
+        LruResultCache cache = new LruResultCache(10);
+        CacheableBlock first = new CacheableBlock();
+        CacheableBlock second = new CacheableBlock();
+        first.setResultCache(cache);
+        second.setResultCache(cache);
+        second.setInputText("other input");
+
+        first.run();
+        second.run();
+
+        assertThat(second.computations).isEqualTo(1);
+        assertThat(second.getResultText()).isEqualTo("OTHER INPUT");
+        assertThat(cache.getHitCount()).isZero();
+    }
+
+    @Test
+    void testRunIgnoresCacheForNotCacheableBlock() {
+        ResultCache cache = mock(ResultCache.class);
+        block.setResultCache(cache);
+
+        block.run();
+
+        verify(cache, never()).get(any());
+    }
+
+    @Test
+    void testRunTakesResultOfLeadingInvocation() {
+        SingleFlight singleFlight = new SingleFlight(Duration.ofSeconds(5));
+        CacheableBlock leader = new CacheableBlock();
+        CacheableBlock follower = new CacheableBlock();
+        leader.setSingleFlight(singleFlight);
+        follower.setSingleFlight(singleFlight);
+
+        // Simulate the leader which is running right now.
+        SingleFlight.Flight flight = singleFlight.join(ResultCacheKey.of(follower));
+        CompletableFuture<Void> run = CompletableFuture.runAsync(follower::run);
+        flight.complete("shared");
+        run.join();
+
+        assertThat(follower.computations).isZero();
+        assertThat(follower.getState()).isEqualTo(RunnableState.DONE);
+        assertThat(follower.getResultText()).isEqualTo("shared");
+
+        leader.run();
+        assertThat(leader.computations).isEqualTo(1);
+        assertThat(singleFlight.getInFlightCount()).isZero();
+    }
+
+    @Test
+    void testRunComputesWhenLeaderFails() {
+        SingleFlight singleFlight = new SingleFlight(Duration.ofSeconds(5));
+        CacheableBlock follower = new CacheableBlock();
+        follower.setSingleFlight(singleFlight);
+
+        SingleFlight.Flight flight = singleFlight.join(ResultCacheKey.of(follower));
+        CompletableFuture<Void> run = CompletableFuture.runAsync(follower::run);
+        flight.fail(new IllegalStateException("failed"));
+        run.join();
+
+        assertThat(follower.computations).isEqualTo(1);
+        assertThat(follower.getState()).isEqualTo(RunnableState.DONE);
+    }
+
+    @Test
+    void testEmitWithoutOpenStreams() {
+        assertThatThrownBy(() -> block.emit("record"))
+                .isInstanceOf(ConfigurationMismatchException.class);
+        assertThatThrownBy(() -> block.getInputStream())
+                .isInstanceOf(ConfigurationMismatchException.class);
+    }
+
+    @Test
+    void testOutputStreamIsClosedWhenDone() throws InterruptedException {
+        TestBlock consumer = new TestBlock(BLOCK_TYPE_ID, "block2", DEFAULT_INPUT_TEXT);
+        LineImpl line = new LineImpl("stream", BLOCK_ID, "block2");
+        line.resolveBlocks(List.of(block, consumer));
+        line.enableStreaming(4);
+        block.resolveLines(List.of(line));
+        consumer.resolveLines(List.of(line));
+
+        block.run();
+        block.openOutputStreams();
+
+        assertThat(line.getState()).isEqualTo(LineState.ON);
+        assertThat(block.emit("a")).isTrue();
+        block.setState(RunnableState.DONE);
+
+        RecordChannel input = consumer.getInputStream();
+        assertThat(input.receive()).isEqualTo("a");
+        assertThat(input.receive()).isNull();
+    }
+
+    @Test
+    void testOutputStreamFailsWhenAborted() throws InterruptedException {
+        TestBlock consumer = new TestBlock(BLOCK_TYPE_ID, "block2", DEFAULT_INPUT_TEXT);
+        LineImpl line = new LineImpl("stream", BLOCK_ID, "block2");
+        line.resolveBlocks(List.of(block, consumer));
+        line.enableStreaming(4);
+        block.resolveLines(List.of(line));
+        consumer.resolveLines(List.of(line));
+
+        block.run();
+        block.openOutputStreams();
+        block.setState(RunnableState.ABORTED);
+
+        assertThatThrownBy(() -> consumer.getInputStream().receive())
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testSetResultPayload() {
+        Payload payload = Payload.ofBytes(new byte[] {1, 2, 3});
+        block.resetModified();
+
+        block.setResultPayload(payload);
+
+        assertThat(block.getResultPayload()).isSameAs(payload);
+        assertThat(block.getResultText()).isEqualTo("AQID");
+        assertThat(block.isModified()).isTrue();
+        assertThat(block.snapshot().resultText()).isEqualTo(payload.toString());
+        assertThatThrownBy(() -> block.setResultPayload(null))
+                .isInstanceOf(NullArgumentException.class);
+    }
+
+    @Test
+    void testResultJsonFollowsResult() {
+        block.setResultText("{\"n\": 1}");
+        JsonNode first = block.getResultJson();
+
+        assertThat(block.getResultJson()).isSameAs(first);
+
+        block.setResultText("{\"n\": 2}");
+
+        assertThat(block.getResultJson()).isNotSameAs(first);
+        assertThat(block.getResultJson().get("n").asLong()).isEqualTo(2);
+    }
+
+    @Test
+    void testSetResultTextSetsTextPayload() {
+        block.setResultText("result");
+
+        assertThat(block.getResultPayload().isText()).isTrue();
+        assertThat(block.getResultPayload().asText()).isEqualTo("result");
+    }
+
+    @Test
+    void testReleaseWhenConsumed() {
+        TestBlock next = new TestBlock(BLOCK_TYPE_ID, "block2", DEFAULT_INPUT_TEXT);
+        LineImpl line = new LineImpl("line1", BLOCK_ID, "block2");
+        line.resolveBlocks(List.of(block, next));
+        block.resolveLines(List.of(line));
+        next.resolveLines(List.of(line));
+        block.setReleaseWhenConsumed(true);
+
+        block.run();
+        block.setResultText("result");
+        block.setState(RunnableState.DONE);
+        block.resetModified();
+        assertThat(block.getResultText()).isEqualTo("result");
+
+        next.run();
+        next.setState(RunnableState.DONE);
+
+        assertThat(line.isConsumed()).isTrue();
+        assertThat(block.isResultReleased()).isTrue();
+        assertThat(block.getResultText()).isEmpty();
+        assertThat(block.isModified()).isTrue();
+        assertThat(block.snapshot().modified()).isTrue();
+
+        block.setReady();
+        block.run();
+        assertThat(line.isConsumed()).isFalse();
+        block.setResultText("again");
+        assertThat(block.isResultReleased()).isFalse();
+    }
+
+    @Test
+    void testPinnedResultIsNotReleased() {
+        TestBlock next = new TestBlock(BLOCK_TYPE_ID, "block2", DEFAULT_INPUT_TEXT);
+        LineImpl line = new LineImpl("line1", BLOCK_ID, "block2");
+        line.resolveBlocks(List.of(block, next));
+        block.resolveLines(List.of(line));
+        next.resolveLines(List.of(line));
+        block.setReleaseWhenConsumed(true);
+
+        block.run();
+        block.setResultText("result");
+        block.setState(RunnableState.DONE);
+        assertThat(block.pinResult()).isTrue();
+        next.run();
+        next.setState(RunnableState.DONE);
+
+        assertThat(block.getResultText()).isEqualTo("result");
+
+        block.unpinResult();
+
+        assertThat(block.isResultReleased()).isTrue();
+        assertThat(block.pinResult()).isFalse();
+        assertThatThrownBy(() -> block.unpinResult())
+                .isInstanceOf(ConfigurationMismatchException.class);
+    }
+
+    @Test
+    void testResultIsKeptByDefault() {
+        TestBlock next = new TestBlock(BLOCK_TYPE_ID, "block2", DEFAULT_INPUT_TEXT);
+        LineImpl line = new LineImpl("line1", BLOCK_ID, "block2");
+        line.resolveBlocks(List.of(block, next));
+        block.resolveLines(List.of(line));
+        next.resolveLines(List.of(line));
+
+        block.run();
+        block.setResultText("result");
+        block.setState(RunnableState.DONE);
+        next.run();
+        next.setState(RunnableState.DONE);
+
+        assertThat(block.isReleaseWhenConsumed()).isFalse();
+        assertThat(block.isResultReleased()).isFalse();
+        assertThat(block.getResultText()).isEqualTo("result");
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.model;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.contract.Block;
+import ru.spb.tksoft.flowforge.sdk.enumeration.RunnableState;
+
+/**
+ * Tests for BlockOutputPublisher.
+ *
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+class BlockOutputPublisherTest {
+
+    private static final String BLOCK_TYPE_ID = "type1";
+    private static final String DEFAULT_INPUT_TEXT = "default input";
+
+    private TestBlock block1;
+    private TestBlock block2;
+
+    /**
+     * Test block which completes with its id.
+     */
+    private static class TestBlock extends BlockBaseImpl {
+
+        TestBlock(String internalBlockId) {
+            super(BLOCK_TYPE_ID, internalBlockId, DEFAULT_INPUT_TEXT);
+        }
+
+        @Override
+        public void run() {
+            super.run();
+
+            if (getState() == RunnableState.RUNNING) {
+                setResultText(getInternalBlockId());
+                setState(RunnableState.DONE);
+            }
+        }
+    }
+
+    /**
+     * Test subscriber which records the signals.
+     */
+    private static class RecordingSubscriber implements Flow.Subscriber<String> {
+
+        private final List<String> items = new CopyOnWriteArrayList<>();
+        private volatile Flow.Subscription subscription;
+        private volatile Throwable error;
+        private volatile boolean completed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(String item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        block1 = new TestBlock("block1");
+        block2 = new TestBlock("block2");
+    }
+
+    @Test
+    void testConstructorWithInvalidBlocks() {
+        assertThatThrownBy(() -> new BlockOutputPublisher(null))
+                .isInstanceOf(NullArgumentException.class);
+        assertThatThrownBy(() -> BlockOutputPublisher.of(null))
+                .isInstanceOf(NullArgumentException.class);
+        assertThatThrownBy(() -> BlockOutputPublisher.of(mock(Block.class)))
+                .isInstanceOf(ConfigurationMismatchException.class);
+    }
+
+    @Test
+    void testSubscribeWithNull() {
+        BlockOutputPublisher publisher = BlockOutputPublisher.of(block1);
+
+        assertThatThrownBy(() -> publisher.subscribe(null))
+                .isInstanceOf(NullArgumentException.class);
+    }
+
+    @Test
+    void testPublishesOnDemand() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        new BlockOutputPublisher(List.of(block1, block2)).subscribe(subscriber);
+
+        block2.run();
+        block1.run();
+        assertThat(subscriber.items).isEmpty();
+
+        subscriber.subscription.request(1);
+        assertThat(subscriber.items).containsExactly("block2");
+        assertThat(subscriber.completed).isFalse();
+
+        subscriber.subscription.request(1);
+        assertThat(subscriber.items).containsExactly("block2", "block1");
+        assertThat(subscriber.completed).isTrue();
+        assertThat(subscriber.error).isNull();
+    }
+
+    @Test
+    void testPublishesResultOfDoneBlock() {
+        block1.run();
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        BlockOutputPublisher.of(block1).subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertThat(subscriber.items).containsExactly("block1");
+        assertThat(subscriber.completed).isTrue();
+    }
+
+    @Test
+    void testSkippedBlockPublishesNothing() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        new BlockOutputPublisher(List.of(block1, block2)).subscribe(subscriber);
+        subscriber.subscription.request(2);
+
+        block1.skip();
+        block2.run();
+
+        assertThat(subscriber.items).containsExactly("block2");
+        assertThat(subscriber.completed).isTrue();
+    }
+
+    @Test
+    void testAbortedBlockFailsSubscription() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        new BlockOutputPublisher(List.of(block1, block2)).subscribe(subscriber);
+        subscriber.subscription.request(2);
+
+        block1.abort();
+        block2.run();
+
+        assertThat(subscriber.items).isEmpty();
+        assertThat(subscriber.error)
+                .isInstanceOf(ConfigurationMismatchException.class)
+                .hasMessageContaining("ABORTED");
+        assertThat(subscriber.completed).isFalse();
+    }
+
+    @Test
+    void testInvalidRequestFailsSubscription() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        BlockOutputPublisher.of(block1).subscribe(subscriber);
+
+        subscriber.subscription.request(0);
+
+        assertThat(subscriber.error).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testCancel() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        BlockOutputPublisher.of(block1).subscribe(subscriber);
+
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(1);
+        block1.run();
+
+        assertThat(subscriber.items).isEmpty();
+        assertThat(subscriber.completed).isFalse();
+        assertThat(subscriber.error).isNull();
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.model;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+
+/**
+ * Tests for BoundedRecordChannel.
+ *
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+class BoundedRecordChannelTest {
+
+    @Test
+    void testConstructorWithInvalidCapacity() {
+        assertThatThrownBy(() -> new BoundedRecordChannel(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testSendAndReceive() throws InterruptedException {
+        BoundedRecordChannel channel = new BoundedRecordChannel(2);
+
+        assertThat(channel.send("a")).isTrue();
+        assertThat(channel.send("b")).isTrue();
+        channel.close();
+
+        assertThat(channel.isClosed()).isTrue();
+        assertThat(channel.receive()).isEqualTo("a");
+        assertThat(channel.receive()).isEqualTo("b");
+        assertThat(channel.receive()).isNull();
+        assertThat(channel.receive()).isNull();
+    }
+
+    /**
+     * Send a record on a new thread.
+     * 
+     * @param channel - the channel.
+     * @param record - the record.
+     * @param sent - completed with the outcome of the send.
+     * @return the sending thread.
+     */
+    private static Thread startSender(BoundedRecordChannel channel, String record,
+            CompletableFuture<Boolean> sent) {
+        return Thread.ofPlatform().start(() -> {
+            try {
+                sent.complete(channel.send(record));
+            } catch (InterruptedException e) {
+                sent.completeExceptionally(e);
+            }
+        });
+    }
+
+    /**
+     * Wait until the sending thread is parked in send.
+     * 
+     * @param sender - the sending thread.
+     */
+    private static void awaitParked(Thread sender) {
+        while (sender.getState() != Thread.State.WAITING) {
+            Thread.onSpinWait();
+        }
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void testSendWaitsWhileFull() throws Exception {
+        BoundedRecordChannel channel = new BoundedRecordChannel(1);
+        channel.send("a");
+
+        CompletableFuture<Boolean> sent = new CompletableFuture<>();
+        awaitParked(startSender(channel, "b", sent));
+        assertThat(sent).isNotDone();
+
+        assertThat(channel.receive()).isEqualTo("a");
+        assertThat(sent.get()).isTrue();
+        assertThat(channel.receive()).isEqualTo("b");
+    }
+
+    @Test
+    void testStreamOfRecordsWithBoundedBuffer() throws Exception {
+        BoundedRecordChannel channel = new BoundedRecordChannel(4);
+        CompletableFuture<Void> producer = CompletableFuture.runAsync(() -> {
+            try {
+                for (int i = 0; i < 1000; i++) {
+                    channel.send(String.valueOf(i));
+                }
+                channel.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        List<String> received = new ArrayList<>();
+        String record;
+        while ((record = channel.receive()) != null) {
+            received.add(record);
+        }
+
+        producer.get();
+        assertThat(received).hasSize(1000).startsWith("0", "1").endsWith("999");
+    }
+
+    @Test
+    void testFail() throws InterruptedException {
+        BoundedRecordChannel channel = new BoundedRecordChannel(2);
+        channel.send("a");
+        channel.fail(new IllegalStateException("boom"));
+
+        assertThat(channel.receive()).isEqualTo("a");
+        assertThatThrownBy(channel::receive)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("boom");
+        assertThatThrownBy(() -> channel.send("b"))
+                .isInstanceOf(ConfigurationMismatchException.class);
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void testCancelReleasesProducer() throws Exception {
+        BoundedRecordChannel channel = new BoundedRecordChannel(1);
+        channel.send("a");
+
+        CompletableFuture<Boolean> sent = new CompletableFuture<>();
+        awaitParked(startSender(channel, "b", sent));
+        channel.cancel();
+
+        assertThat(sent.get()).isFalse();
+        assertThat(channel.isCancelled()).isTrue();
+        assertThat(channel.send("c")).isFalse();
+        assertThat(channel.receive()).isNull();
+    }
+
+    @Test
+    void testSendNull() {
+        BoundedRecordChannel channel = new BoundedRecordChannel(1);
+
+        assertThatThrownBy(() -> channel.send(null))
+                .isInstanceOf(NullArgumentException.class);
+        assertThatThrownBy(() -> channel.fail(null))
+                .isInstanceOf(NullArgumentException.class);
+    }
+}
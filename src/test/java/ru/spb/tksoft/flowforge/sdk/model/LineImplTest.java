@@ -15,9 +15,13 @@
 package ru.spb.tksoft.flowforge.sdk.model;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -26,7 +30,11 @@ import org.junit.jupiter.api.Test;
 import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
 import ru.spb.tksoft.common.exceptions.NullArgumentException;
 import ru.spb.tksoft.flowforge.sdk.contract.Block;
+import ru.spb.tksoft.flowforge.sdk.contract.EventListener;
+import ru.spb.tksoft.flowforge.sdk.contract.LineStateChangedEvent;
+import ru.spb.tksoft.flowforge.sdk.contract.RecordChannel;
 import ru.spb.tksoft.flowforge.sdk.enumeration.LineState;
+import ru.spb.tksoft.flowforge.sdk.value.Payload;
 
 /**
  * Tests for LineImpl.
@@ -177,6 +185,57 @@ class LineImplTest {
         assertThat(line.isModified()).isFalse();
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStateChangeListener() {
+        EventListener<LineStateChangedEvent> listener = mock(EventListener.class);
+        line.addListener(listener);
+
+        line.setState(LineState.ON);
+
+        verify(listener).onEvent(new LineStateChangedEvent(line, LineState.ON));
+    }
+
+    @Test
+    void testStateChangeListenerRunsWithoutLineLock() {
+        List<Boolean> held = new ArrayList<>();
+        line.addListener(event -> held.add(Thread.holdsLock(line)));
+
+        line.setState(LineState.ON);
+        line.reset();
+
+        assertThat(held).containsExactly(false, false);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStateChangeListenerIsNotCalledIfSameState() {
+        EventListener<LineStateChangedEvent> listener = mock(EventListener.class);
+        line.addListener(listener);
+
+        line.setState(LineState.OFF);
+
+        verify(listener, never()).onEvent(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRemoveStateChangeListener() {
+        EventListener<LineStateChangedEvent> listener = mock(EventListener.class);
+        line.addListener(listener);
+        line.removeListener(listener);
+
+        line.setState(LineState.ON);
+
+        verify(listener, never()).onEvent(any());
+    }
+
+    @Test
+    void testAddListenerWithNull() {
+        assertThatThrownBy(() -> line.addListener(null))
+                .isInstanceOf(NullArgumentException.class);
+    }
+
     @Test
     void testSetModified() {
         line.resetModified();
@@ -217,5 +276,79 @@ class LineImplTest {
     void testGetResultTextWhenBlockFromIsNull() {
         assertThat(line.getResultText()).isEmpty();
     }
-}
 
+    @Test
+    void testEnableStreaming() {
+        assertThat(line.isStreaming()).isFalse();
+
+        line.enableStreaming(8);
+
+        assertThat(line.isStreaming()).isTrue();
+        assertThat(line.getStreamCapacity()).isEqualTo(8);
+        assertThatThrownBy(() -> line.enableStreaming(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testOpenChannel() {
+        line.enableStreaming(4);
+
+        RecordChannel channel = line.openChannel();
+
+        assertThat(line.getChannel()).isSameAs(channel);
+        assertThat(channel.getCapacity()).isEqualTo(4);
+    }
+
+    @Test
+    void testOpenChannelWhenNotStreaming() {
+        assertThat(line.getChannel()).isNull();
+        assertThatThrownBy(line::openChannel)
+                .isInstanceOf(ConfigurationMismatchException.class);
+    }
+
+    @Test
+    void testResetCancelsChannel() {
+        line.enableStreaming(4);
+        RecordChannel channel = line.openChannel();
+
+        line.reset();
+
+        assertThat(channel.isCancelled()).isTrue();
+        assertThat(line.getChannel()).isNull();
+    }
+
+    @Test
+    void testGetResultPayload() {
+        line.resolveBlocks(Arrays.asList(blockFrom, blockTo));
+        Payload payload = Payload.ofBytes(new byte[] {1});
+        when(blockFrom.getResultPayload()).thenReturn(payload);
+
+        assertThat(line.getResultPayload()).isSameAs(payload);
+    }
+
+    @Test
+    void testGetResultPayloadWhenBlockFromIsNull() {
+        assertThat(line.getResultPayload()).isSameAs(Payload.EMPTY);
+    }
+
+    @Test
+    void testGetResultJson() {
+        line.resolveBlocks(Arrays.asList(blockFrom, blockTo));
+        Payload payload = Payload.ofText("{\"a\": 1}");
+        when(blockFrom.getResultPayload()).thenReturn(payload);
+
+        assertThat(line.getResultJson()).isSameAs(payload.asJson());
+        assertThat(line.getResultJson().get("a").asLong()).isEqualTo(1);
+    }
+
+    @Test
+    void testConsumed() {
+        assertThat(line.isConsumed()).isFalse();
+
+        line.setConsumed(true);
+        assertThat(line.isConsumed()).isTrue();
+
+        line.reset();
+        assertThat(line.isConsumed()).isFalse();
+    }
+}
@@ -15,15 +15,21 @@
 package ru.spb.tksoft.flowforge.sdk.model;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
 import ru.spb.tksoft.common.exceptions.NullArgumentException;
 import ru.spb.tksoft.flowforge.sdk.contract.Line;
+import ru.spb.tksoft.flowforge.sdk.contract.LineJunction;
 import ru.spb.tksoft.flowforge.sdk.enumeration.LineState;
+import ru.spb.tksoft.flowforge.sdk.value.JoinPolicy;
+import ru.spb.tksoft.flowforge.sdk.value.Payload;
 
 /**
  * Tests for LineJunctionImpl.
@@ -155,5 +161,224 @@ class LineJunctionImplTest {
 
         assertThat(result).isEmpty();
     }
-}
 
+    @Test
+    void testSelect() {
+        Line line1 = mock(Line.class);
+        Line line2 = mock(Line.class);
+        when(line1.getInternalLineId()).thenReturn("line1");
+        when(line2.getInternalLineId()).thenReturn("line2");
+        junction.addLine(line1);
+        junction.addLine(line2);
+
+        junction.select(List.of("line2"));
+
+        assertThat(junction.getState()).isEqualTo(LineState.ON);
+        assertThat(junction.isSelected(line1)).isFalse();
+        assertThat(junction.isSelected(line2)).isTrue();
+        verify(line1).setState(LineState.OFF);
+        verify(line2).setState(LineState.ON);
+    }
+
+    @Test
+    void testSelectNothing() {
+        Line line = mock(Line.class);
+        when(line.getInternalLineId()).thenReturn("line1");
+        junction.addLine(line);
+
+        junction.select(List.of());
+
+        assertThat(junction.getState()).isEqualTo(LineState.OFF);
+        assertThat(junction.isSelected(line)).isFalse();
+        verify(line).setState(LineState.OFF);
+    }
+
+    @Test
+    void testSelectUnknownLine() {
+        Line line = mock(Line.class);
+        when(line.getInternalLineId()).thenReturn("line1");
+        junction.addLine(line);
+
+        assertThatThrownBy(() -> junction.select(List.of("line1", "line9")))
+                .isInstanceOf(ConfigurationMismatchException.class)
+                .hasMessageContaining("line9");
+        assertThatThrownBy(() -> junction.select(null))
+                .isInstanceOf(NullArgumentException.class);
+        assertThat(junction.isSelected(line)).isFalse();
+    }
+
+    @Test
+    void testSetStateSelectsAllLines() {
+        Line line1 = mock(Line.class);
+        Line line2 = mock(Line.class);
+        when(line1.getInternalLineId()).thenReturn("line1");
+        when(line2.getInternalLineId()).thenReturn("line2");
+        junction.addLine(line1);
+        junction.addLine(line2);
+
+        junction.select(List.of("line1"));
+        junction.setState(LineState.ON);
+
+        assertThat(junction.isSelected(line1)).isTrue();
+        assertThat(junction.isSelected(line2)).isTrue();
+
+        junction.setState(LineState.OFF);
+
+        assertThat(junction.isSelected(line1)).isFalse();
+        assertThat(junction.isSelected(line2)).isFalse();
+    }
+
+    @Test
+    void testIsSatisfied() {
+        LineImpl line1 = new LineImpl("line1", "a", "c");
+        LineImpl line2 = new LineImpl("line2", "b", "c");
+        junction.addLine(line1);
+        junction.addLine(line2);
+
+        assertThat(junction.getJoinPolicy()).isEqualTo(JoinPolicy.all());
+        line1.setState(LineState.ON);
+        assertThat(junction.isSatisfied()).isFalse();
+        line2.setState(LineState.ON);
+        assertThat(junction.isSatisfied()).isTrue();
+        line2.setState(LineState.OFF);
+        assertThat(junction.isSatisfied()).isFalse();
+
+        junction.setJoinPolicy(JoinPolicy.any());
+        assertThat(junction.isSatisfied()).isTrue();
+        line1.setState(LineState.OFF);
+        assertThat(junction.isSatisfied()).isFalse();
+    }
+
+    @Test
+    void testIsSatisfiedWithoutLines() {
+        junction.setJoinPolicy(JoinPolicy.quorum(2));
+
+        assertThat(junction.isSatisfied()).isTrue();
+    }
+
+    @Test
+    void testSetJoinPolicyWithNull() {
+        assertThatThrownBy(() -> junction.setJoinPolicy(null))
+                .isInstanceOf(NullArgumentException.class);
+    }
+
+    @Test
+    void testGetResultStringWithAnyJoin() {
+        Line line1 = mock(Line.class);
+        Line line2 = mock(Line.class);
+        when(line1.getState()).thenReturn(LineState.ON);
+        when(line1.getResultText()).thenReturn("result1");
+        when(line2.getState()).thenReturn(LineState.OFF);
+        when(line2.getResultText()).thenReturn("result2");
+        junction.addLine(line1);
+        junction.addLine(line2);
+
+        junction.setJoinPolicy(JoinPolicy.any());
+
+        assertThat(junction.getResultString())
+                .contains("result1")
+                .doesNotContain("result2");
+    }
+
+    @Test
+    void testGetLines() {
+        Line line1 = mock(Line.class);
+        Line line2 = mock(Line.class);
+        junction.addLine(line1);
+        junction.addLine(line2);
+
+        List<Line> lines = junction.getLines();
+
+        assertThat(lines).containsExactly(line1, line2);
+        assertThatThrownBy(() -> lines.add(line1))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void testGetResultIsCachedWhileResultsAreSame() {
+        Line line1 = mock(Line.class);
+        Line line2 = mock(Line.class);
+        when(line1.getResultText()).thenReturn("result1");
+        when(line2.getResultText()).thenReturn("result2");
+        junction.addLine(line1);
+        junction.addLine(line2);
+
+        CharSequence result = junction.getResult();
+
+        assertThat(junction.getResult()).isSameAs(result);
+        assertThat(junction.getResultString()).isSameAs(result.toString());
+
+        when(line2.getResultText()).thenReturn("result3");
+
+        assertThat(junction.getResult()).isNotSameAs(result);
+        assertThat(junction.getResultString())
+                .contains("result1")
+                .contains("result3")
+                .doesNotContain("result2");
+    }
+
+    @Test
+    void testGetResultPayloads() {
+        Payload binary = Payload.ofBytes(new byte[] {1, 2});
+        Line line1 = mock(Line.class);
+        Line line2 = mock(Line.class);
+        Line line3 = mock(Line.class);
+        when(line1.getResultPayload()).thenReturn(binary);
+        when(line2.getResultPayload()).thenReturn(Payload.ofText("  "));
+        when(line3.getResultPayload()).thenReturn(Payload.ofText("text"));
+        junction.addLine(line1);
+        junction.addLine(line2);
+        junction.addLine(line3);
+
+        assertThat(junction.getResultPayloads())
+                .containsExactly(binary, Payload.ofText("text"));
+    }
+
+    @Test
+    void testDefaultResultPayloadsWrapResultTexts() {
+        Line line1 = mock(Line.class, CALLS_REAL_METHODS);
+        Line line2 = mock(Line.class, CALLS_REAL_METHODS);
+        when(line1.getResultText()).thenReturn("text");
+        when(line2.getResultText()).thenReturn("");
+        LineJunction other = mock(LineJunction.class, CALLS_REAL_METHODS);
+        when(other.getLines()).thenReturn(List.of(line1, line2));
+
+        assertThat(line1.getResultPayload()).isEqualTo(Payload.ofText("text"));
+        assertThat(other.getResultPayloads()).containsExactly(Payload.ofText("text"));
+    }
+
+    @Test
+    void testDefaultJunctionAcceptsAllLinesOnly() {
+        Line line1 = mock(Line.class);
+        Line line2 = mock(Line.class);
+        when(line1.getInternalLineId()).thenReturn("line1");
+        when(line2.getInternalLineId()).thenReturn("line2");
+        when(line1.getState()).thenReturn(LineState.ON);
+        when(line2.getState()).thenReturn(LineState.OFF);
+        LineJunction other = mock(LineJunction.class, CALLS_REAL_METHODS);
+        when(other.getLines()).thenReturn(List.of(line1, line2));
+
+        other.select(List.of("line2", "line1"));
+        verify(other).setState(LineState.ON);
+        assertThatThrownBy(() -> other.select(List.of("line1")))
+                .isInstanceOf(ConfigurationMismatchException.class);
+
+        assertThat(other.getJoinPolicy()).isEqualTo(JoinPolicy.all());
+        assertThat(other.isSatisfied()).isFalse();
+        assertThatThrownBy(() -> other.setJoinPolicy(JoinPolicy.any()))
+                .isInstanceOf(ConfigurationMismatchException.class);
+    }
+
+    @Test
+    void testDefaultLineIsNotStreaming() {
+        Line line = mock(Line.class, CALLS_REAL_METHODS);
+        when(line.getInternalLineId()).thenReturn("line1");
+
+        assertThat(line.isStreaming()).isFalse();
+        assertThat(line.isConsumed()).isFalse();
+        assertThat(line.getChannel()).isNull();
+        assertThatThrownBy(line::openChannel)
+                .isInstanceOf(ConfigurationMismatchException.class)
+                .hasMessageContaining("line1");
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.model;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.contract.RecordChannel;
+import ru.spb.tksoft.flowforge.sdk.enumeration.RunnableState;
+
+/**
+ * Tests for PublisherBlockBaseImpl.
+ *
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+class PublisherBlockBaseImplTest {
+
+    private static final String BLOCK_TYPE_ID = "type1";
+    private static final String DEFAULT_INPUT_TEXT = "default input";
+
+    /**
+     * Test publisher which publishes the items on request and records the largest request.
+     */
+    private static class ListPublisher implements Flow.Publisher<String> {
+
+        private final List<String> items;
+        private final RuntimeException error;
+        private final AtomicInteger maxRequest = new AtomicInteger();
+
+        ListPublisher(List<String> items, RuntimeException error) {
+            this.items = items;
+            this.error = error;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super String> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+
+                private int next;
+
+                @Override
+                public synchronized void request(long n) {
+                    maxRequest.accumulateAndGet((int) Math.min(n, Integer.MAX_VALUE), Math::max);
+                    for (long i = 0; i < n && next < items.size(); i++) {
+                        subscriber.onNext(items.get(next++));
+                    }
+                    if (next == items.size()) {
+                        next++;
+                        if (error != null) {
+                            subscriber.onError(error);
+                        } else {
+                            subscriber.onComplete();
+                        }
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    // Nothing to release.
+                }
+            });
+        }
+    }
+
+    /**
+     * Test block which takes its records from the given publisher.
+     */
+    private static class SourceBlock extends PublisherBlockBaseImpl {
+
+        private final Flow.Publisher<String> publisher;
+
+        SourceBlock(String internalBlockId, Flow.Publisher<String> publisher, Executor executor) {
+            super(BLOCK_TYPE_ID, internalBlockId, DEFAULT_INPUT_TEXT, executor);
+            this.publisher = publisher;
+        }
+
+        @Override
+        protected Flow.Publisher<String> source(String inputText) {
+            return publisher;
+        }
+    }
+
+    /**
+     * Test block which reads its streaming input.
+     */
+    private static class ReaderBlock extends BlockBaseImpl {
+
+        ReaderBlock(String internalBlockId) {
+            super(BLOCK_TYPE_ID, internalBlockId, DEFAULT_INPUT_TEXT);
+        }
+    }
+
+    @Test
+    void testConstructorWithNullExecutor() {
+        assertThatThrownBy(() -> new SourceBlock("block1", new ListPublisher(List.of(), null),
+                null)).isInstanceOf(NullArgumentException.class);
+    }
+
+    @Test
+    void testRunTakesLastRecord() {
+        ListPublisher publisher = new ListPublisher(List.of("a", "b", "c"), null);
+        SourceBlock block = new SourceBlock("block1", publisher, ForkJoinPool.commonPool());
+
+        block.run();
+
+        assertThat(block.getState()).isEqualTo(RunnableState.DONE);
+        assertThat(block.getResultText()).isEqualTo("c");
+        assertThat(publisher.maxRequest.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testRunWithEmptySource() {
+        SourceBlock block = new SourceBlock("block1", new ListPublisher(List.of(), null),
+                Runnable::run);
+
+        block.run();
+
+        assertThat(block.getState()).isEqualTo(RunnableState.DONE);
+        assertThat(block.getResultText()).isEmpty();
+    }
+
+    @Test
+    void testRunWithFailingSource() {
+        SourceBlock block = new SourceBlock("block1",
+                new ListPublisher(List.of("a"), new IllegalStateException("source failed")),
+                ForkJoinPool.commonPool());
+
+        block.run();
+
+        assertThat(block.getState()).isEqualTo(RunnableState.ABORTED);
+        assertThat(block.getErrorMessage()).contains("source failed");
+    }
+
+    @Test
+    void testRunWithNullSource() {
+        SourceBlock block = new SourceBlock("block1", null, ForkJoinPool.commonPool());
+
+        block.run();
+
+        assertThat(block.getState()).isEqualTo(RunnableState.ABORTED);
+    }
+
+    @Test
+    void testRunStreamsRecords() throws Exception {
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            items.add(String.valueOf(i));
+        }
+        SourceBlock source = new SourceBlock("block1", new ListPublisher(items, null),
+                ForkJoinPool.commonPool());
+        ReaderBlock reader = new ReaderBlock("block2");
+        LineImpl line = new LineImpl("stream", "block1", "block2");
+        line.resolveBlocks(List.of(source, reader));
+        line.enableStreaming(2);
+        source.resolveLines(List.of(line));
+        reader.resolveLines(List.of(line));
+
+        CompletableFuture<Void> run = CompletableFuture.runAsync(source::run);
+        while (line.getChannel() == null) {
+            Thread.onSpinWait();
+        }
+        RecordChannel input = reader.getInputStream();
+        List<String> received = new ArrayList<>();
+        String record;
+        while ((record = input.receive()) != null) {
+            received.add(record);
+        }
+        run.get();
+
+        assertThat(received).isEqualTo(items);
+        assertThat(source.getState()).isEqualTo(RunnableState.DONE);
+        assertThat(source.getResultText()).isEqualTo("99");
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.model;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.enumeration.RunnableState;
+
+/**
+ * Tests for ScatterGatherBlockBaseImpl.
+ *
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+class ScatterGatherBlockBaseImplTest {
+
+    private static final String BLOCK_TYPE_ID = "type1";
+    private static final String DEFAULT_INPUT_TEXT = "[]";
+
+    /**
+     * Test scatter/gather block which doubles numbers and fails on 13.
+     */
+    private static class DoublingBlock extends ScatterGatherBlockBaseImpl {
+
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+
+        DoublingBlock(ExecutorService executor, int maxConcurrency) {
+            super(BLOCK_TYPE_ID, "block1", DEFAULT_INPUT_TEXT, executor, maxConcurrency);
+        }
+
+        @Override
+        protected String processElement(String element) {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(element.length());
+                if (element.equals("13")) {
+                    throw new IllegalStateException("unlucky");
+                }
+                return String.valueOf(Integer.parseInt(element) * 2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+
+    @Test
+    void testConstructorWithInvalidArguments() {
+        assertThatThrownBy(() -> new DoublingBlock(null, 1))
+                .isInstanceOf(NullArgumentException.class);
+        assertThatThrownBy(() -> new DoublingBlock(Executors.newSingleThreadExecutor(), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testRunGathersResultsInOrder() {
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            DoublingBlock block = new DoublingBlock(executor, 3);
+            block.setInputText("[100, 1, 20, 2, 300, 3, 4]");
+
+            block.run();
+
+            assertThat(block.getState()).isEqualTo(RunnableState.DONE);
+            assertThat(block.getResultText()).isEqualTo("[200,2,40,4,600,6,8]");
+            assertThat(block.hasError()).isFalse();
+            assertThat(block.maxRunning.get()).isBetween(1, 3);
+        }
+    }
+
+    @Test
+    void testRunWithPartialFailure() {
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            DoublingBlock block = new DoublingBlock(executor, 2);
+            block.setInputText("[1, 13, 2]");
+
+            block.run();
+
+            assertThat(block.getState()).isEqualTo(RunnableState.DONE);
+            assertThat(block.getResultText()).isEqualTo("[2,null,4]");
+            assertThat(block.hasError()).isTrue();
+            assertThat(block.getErrorMessage()).contains("1 of 3").contains("#1: unlucky");
+        }
+    }
+
+    @Test
+    void testRunWithAllElementsFailed() {
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            DoublingBlock block = new DoublingBlock(executor, 2);
+            block.setInputText("[13, 13]");
+
+            block.run();
+
+            assertThat(block.getState()).isEqualTo(RunnableState.ABORTED);
+            assertThat(block.getErrorMessage()).isEqualTo("unlucky");
+        }
+    }
+
+    @Test
+    void testRunWithEmptyArray() {
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            DoublingBlock block = new DoublingBlock(executor, 2);
+
+            block.run();
+
+            assertThat(block.getState()).isEqualTo(RunnableState.DONE);
+            assertThat(block.getResultText()).isEqualTo("[]");
+        }
+    }
+
+    @Test
+    void testRunWithInvalidInput() {
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            DoublingBlock block = new DoublingBlock(executor, 2);
+            block.setInputText("not an array");
+
+            block.run();
+
+            assertThat(block.getState()).isEqualTo(RunnableState.ABORTED);
+            assertThat(block.hasError()).isTrue();
+        }
+    }
+
+    /**
+     * Test scatter/gather block which greets every element as plain text.
+     */
+    private static class GreetingBlock extends ScatterGatherBlockBaseImpl {
+
+        GreetingBlock(ExecutorService executor) {
+            super(BLOCK_TYPE_ID, "block1", DEFAULT_INPUT_TEXT, executor, 2);
+        }
+
+        @Override
+        protected String processElement(String element) {
+            return element.equals("\"json\"") ? "{\"k\": 1}" : "hello, " + element;
+        }
+    }
+
+    @Test
+    void testRunEncodesPlainTextResults() {
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            GreetingBlock block = new GreetingBlock(executor);
+            block.setInputText("[\"a\", \"json\", 1]");
+
+            block.run();
+
+            assertThat(block.getState()).isEqualTo(RunnableState.DONE);
+            assertThat(block.getResultText())
+                    .isEqualTo("[\"hello, \\\"a\\\"\",{\"k\": 1},\"hello, 1\"]");
+            assertThat(block.getResultJson().get(0).asText()).isEqualTo("hello, \"a\"");
+        }
+    }
+
+    @Test
+    void testSplitJsonArray() {
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            DoublingBlock block = new DoublingBlock(executor, 1);
+
+            assertThat(block.split("[\"a,b\", {\"x\": [1, 2]}, \"q\\\"]\" , 3]"))
+                    .containsExactly("\"a,b\"", "{\"x\":[1,2]}", "\"q\\\"]\"", "3");
+            assertThat(block.split(" [ ] ")).isEmpty();
+        }
+    }
+
+    @Test
+    void testSplitJsonArrayWithInvalidText() {
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            DoublingBlock block = new DoublingBlock(executor, 1);
+
+            assertThatThrownBy(() -> block.split("{}"))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> block.split("[1,,2]"))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> block.split("[1],[2]"))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> block.split("[\"a]"))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> block.split(null))
+                    .isInstanceOf(NullArgumentException.class);
+        }
+    }
+}
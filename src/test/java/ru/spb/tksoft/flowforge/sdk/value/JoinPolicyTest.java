@@ -0,0 +1,69 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.value;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.enumeration.JoinMode;
+
+/**
+ * Tests for JoinPolicy.
+ *
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+class JoinPolicyTest {
+
+    @Test
+    void testConstructorWithInvalidArguments() {
+        assertThatThrownBy(() -> new JoinPolicy(null, 0, false))
+                .isInstanceOf(NullArgumentException.class);
+        assertThatThrownBy(() -> JoinPolicy.quorum(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testGetRequiredCount() {
+        assertThat(JoinPolicy.all().getRequiredCount(3)).isEqualTo(3);
+        assertThat(JoinPolicy.any().getRequiredCount(3)).isEqualTo(1);
+        assertThat(JoinPolicy.quorum(2).getRequiredCount(3)).isEqualTo(2);
+    }
+
+    @Test
+    void testGetRequiredCountWithoutLines() {
+        assertThat(JoinPolicy.all().getRequiredCount(0)).isZero();
+        assertThat(JoinPolicy.any().getRequiredCount(0)).isZero();
+        assertThat(JoinPolicy.quorum(2).getRequiredCount(0)).isZero();
+    }
+
+    @Test
+    void testGetRequiredCountWithQuorumTooLarge() {
+        assertThatThrownBy(() -> JoinPolicy.quorum(4).getRequiredCount(3))
+                .isInstanceOf(ConfigurationMismatchException.class)
+                .hasMessageContaining("quorum 4");
+    }
+
+    @Test
+    void testCancellingSlower() {
+        JoinPolicy policy = JoinPolicy.quorum(2).cancellingSlower();
+
+        assertThat(policy.mode()).isEqualTo(JoinMode.QUORUM);
+        assertThat(policy.quorum()).isEqualTo(2);
+        assertThat(policy.cancelSlower()).isTrue();
+        assertThat(JoinPolicy.any().cancelSlower()).isFalse();
+    }
+}
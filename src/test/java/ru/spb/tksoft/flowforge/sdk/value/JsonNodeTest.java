@@ -0,0 +1,160 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.value;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.enumeration.JsonType;
+
+/**
+ * Tests for JsonNode and JsonParser.
+ *
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+class JsonNodeTest {
+
+    @Test
+    void testParseWithNull() {
+        assertThatThrownBy(() -> JsonNode.parse(null))
+                .isInstanceOf(NullArgumentException.class);
+    }
+
+    @Test
+    void testParseObject() {
+        JsonNode node = JsonNode.parse(" {\"b\": 1, \"a\": {\"c\": [true, null]}} ");
+
+        assertThat(node.getType()).isEqualTo(JsonType.OBJECT);
+        assertThat(node.size()).isEqualTo(2);
+        assertThat(node.getFields().keySet()).containsExactly("b", "a");
+        assertThat(node.get("a").get("c").get(0).asBoolean()).isTrue();
+        assertThat(node.get("a").get("c").get(1).isNull()).isTrue();
+        assertThat(node.get("missing")).isNull();
+        assertThat(node.get(0)).isNull();
+    }
+
+    @Test
+    void testParseArray() {
+        JsonNode node = JsonNode.parse("[1, \"x\", [], {}]");
+
+        assertThat(node.isArray()).isTrue();
+        assertThat(node.getElements()).hasSize(4);
+        assertThat(node.get(1).asText()).isEqualTo("x");
+        assertThat(node.get(2).size()).isZero();
+        assertThat(node.get(3).isObject()).isTrue();
+        assertThat(node.get(4)).isNull();
+        assertThat(node.get(-1)).isNull();
+    }
+
+    @Test
+    void testTreeIsUnmodifiable() {
+        JsonNode node = JsonNode.parse("{\"a\": [1]}");
+
+        assertThatThrownBy(() -> node.getFields().clear())
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> node.get("a").getElements().clear())
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void testDuplicateFieldLastWins() {
+        assertThat(JsonNode.parse("{\"a\": 1, \"a\": 2}").get("a").asLong()).isEqualTo(2);
+    }
+
+    @Test
+    void testStringEscapes() {
+        JsonNode node = JsonNode.parse("\"q\\\" b\\\\ s\\/ n\\n t\\t u\\u0041 \\ud83d\\ude00\"");
+
+        assertThat(node.getType()).isEqualTo(JsonType.STRING);
+        assertThat(node.asText()).isEqualTo("q\" b\\ s/ n\n t\t uA \uD83D\uDE00");
+    }
+
+    @Test
+    void testNumbers() {
+        assertThat(JsonNode.parse("42").asLong()).isEqualTo(42);
+        assertThat(JsonNode.parse("-0").asLong()).isZero();
+        assertThat(JsonNode.parse("2.0").asLong()).isEqualTo(2);
+        assertThat(JsonNode.parse("-2.5e3").asDouble()).isEqualTo(-2500.0);
+        assertThat(JsonNode.parse("1E+2").asDecimal()).isEqualByComparingTo(new BigDecimal(100));
+        assertThat(JsonNode.parse("0.1").asText()).isEqualTo("0.1");
+        assertThatThrownBy(() -> JsonNode.parse("1.5").asLong())
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> JsonNode.parse("1e30").asLong())
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void testConversionOfWrongType() {
+        assertThatThrownBy(() -> JsonNode.parse("\"1\"").asLong())
+                .isInstanceOf(ConfigurationMismatchException.class);
+        assertThatThrownBy(() -> JsonNode.parse("1").asBoolean())
+                .isInstanceOf(ConfigurationMismatchException.class);
+    }
+
+    @Test
+    void testLiterals() {
+        assertThat(JsonNode.parse("true")).isSameAs(JsonNode.TRUE);
+        assertThat(JsonNode.parse("false")).isSameAs(JsonNode.FALSE);
+        assertThat(JsonNode.parse("null")).isSameAs(JsonNode.NULL);
+        assertThat(JsonNode.NULL.asText()).isEqualTo("null");
+    }
+
+    @Test
+    void testParseInvalid() {
+        String[] texts = {"", " ", "{", "[1,]", "{\"a\"}", "{\"a\":1,}", "{a:1}", "[1 2]", "01",
+                "-", "1.", "1e", "tru", "'a'", "\"abc", "\"a\nb\"", "\"\\x\"", "\"\\u12\"",
+                "[1] 2"};
+
+        for (String text : texts) {
+            assertThatThrownBy(() -> JsonNode.parse(text))
+                    .as(text)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageStartingWith("invalid JSON at ");
+        }
+    }
+
+    @Test
+    void testNestingLimit() {
+        int depth = JsonParser.MAX_DEPTH;
+
+        assertThat(JsonNode.parse("[".repeat(depth) + "]".repeat(depth)).isArray()).isTrue();
+        assertThatThrownBy(() -> JsonNode.parse("[".repeat(depth + 1) + "]".repeat(depth + 1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("nesting");
+    }
+
+    @Test
+    void testToStringRoundTrip() {
+        String json = "{\"a\":[1,-2.5e3,true,null],\"b\":{\"c\":\"x\\\"\\n\\u0001\"}}";
+        JsonNode node = JsonNode.parse(json);
+
+        assertThat(node.toString()).isEqualTo(json);
+        assertThat(JsonNode.parse(node.toString())).isEqualTo(node);
+        assertThat(node.asText()).isEqualTo(json);
+    }
+
+    @Test
+    void testEqualsAndHashCode() {
+        JsonNode node = JsonNode.parse("{\"a\": [1, \"x\"]}");
+        JsonNode same = JsonNode.parse("{ \"a\" : [ 1 , \"x\" ] }");
+
+        assertThat(node).isEqualTo(same).hasSameHashCodeAs(same);
+        assertThat(JsonNode.parse("1")).isNotEqualTo(JsonNode.parse("1.0"));
+        assertThat(JsonNode.parse("\"1\"")).isNotEqualTo(JsonNode.parse("1"));
+    }
+}
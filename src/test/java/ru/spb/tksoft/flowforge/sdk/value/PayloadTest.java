@@ -0,0 +1,160 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.value;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.enumeration.PayloadType;
+
+/**
+ * Tests for Payload.
+ *
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+class PayloadTest {
+
+    private static final byte[] BYTES = {1, 2, 3, (byte) 255};
+
+    @Test
+    void testFactoriesWithNull() {
+        assertThatThrownBy(() -> Payload.ofText(null))
+                .isInstanceOf(NullArgumentException.class);
+        assertThatThrownBy(() -> Payload.ofBytes(null))
+                .isInstanceOf(NullArgumentException.class);
+        assertThatThrownBy(() -> Payload.ofBuffer(null))
+                .isInstanceOf(NullArgumentException.class);
+    }
+
+    @Test
+    void testTextPayload() {
+        Payload payload = Payload.ofText("héllo");
+
+        assertThat(payload.getType()).isEqualTo(PayloadType.TEXT);
+        assertThat(payload.isText()).isTrue();
+        assertThat(payload.isEmpty()).isFalse();
+        assertThat(payload.asText()).isEqualTo("héllo");
+        assertThat(payload.toByteArray()).isEqualTo("héllo".getBytes(StandardCharsets.UTF_8));
+        assertThat(Payload.ofText("")).isSameAs(Payload.EMPTY);
+    }
+
+    @Test
+    void testBinaryPayload() {
+        Payload payload = Payload.ofBytes(BYTES);
+
+        assertThat(payload.getType()).isEqualTo(PayloadType.BINARY);
+        assertThat(payload.isText()).isFalse();
+        assertThat(payload.asText()).isEqualTo("AQID/w==");
+        assertThat(payload.asText()).isEqualTo(payload.asText());
+        assertThat(payload.toByteArray()).isEqualTo(BYTES);
+        assertThat(payload.toString()).isEqualTo("Payload [BINARY, 4 bytes]");
+    }
+
+    @Test
+    void testOpenReaderAndStream() throws IOException {
+        Payload payload = Payload.ofBytes(BYTES);
+
+        StringWriter read = new StringWriter();
+        try (Reader reader = payload.openReader()) {
+            reader.transferTo(read);
+        }
+        assertThat(read.toString()).isEqualTo("AQID/w==");
+        try (InputStream stream = payload.openStream()) {
+            assertThat(stream.readAllBytes()).isEqualTo(BYTES);
+        }
+        try (InputStream stream = Payload.ofText("héllo").openStream()) {
+            assertThat(stream.readAllBytes()).isEqualTo("héllo".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testAsBufferIsReadOnlyAndIndependent() {
+        Payload payload = Payload.ofBytes(BYTES);
+
+        ByteBuffer first = payload.asBuffer();
+        first.get();
+        ByteBuffer second = payload.asBuffer();
+
+        assertThat(first.isReadOnly()).isTrue();
+        assertThat(second.position()).isZero();
+        assertThat(second.remaining()).isEqualTo(BYTES.length);
+    }
+
+    @Test
+    void testOfBufferTakesRemainingBytes() {
+        ByteBuffer buffer = ByteBuffer.wrap(BYTES);
+        buffer.position(1);
+
+        Payload payload = Payload.ofBuffer(buffer);
+
+        assertThat(payload.toByteArray()).containsExactly(2, 3, (byte) 255);
+        assertThat(buffer.position()).isEqualTo(1);
+    }
+
+    @Test
+    void testEqualsAndHashCode() {
+        Payload payload = Payload.ofBytes(BYTES);
+        Payload same = Payload.ofBuffer(ByteBuffer.wrap(BYTES.clone()));
+
+        assertThat(payload).isEqualTo(same).hasSameHashCodeAs(same);
+        assertThat(payload).isNotEqualTo(Payload.ofText("AQID/w=="));
+        assertThat(Payload.ofText("a")).isEqualTo(Payload.ofText("a"));
+    }
+
+    @Test
+    void testEmptyBinaryPayload() {
+        assertThat(Payload.ofBytes(new byte[0]).isEmpty()).isTrue();
+        assertThat(Payload.ofBytes(new byte[0]).asText()).isEmpty();
+    }
+
+    @Test
+    void testAsJsonIsParsedOnce() {
+        Payload payload = Payload.ofText("{\"a\": [1, 2]}");
+
+        JsonNode json = payload.asJson();
+
+        assertThat(json.get("a").get(1).asLong()).isEqualTo(2);
+        assertThat(payload.asJson()).isSameAs(json);
+        assertThat(Payload.ofText("{\"a\": [1, 2]}").asJson()).isNotSameAs(json).isEqualTo(json);
+    }
+
+    @Test
+    void testAsJsonInvalid() {
+        Payload payload = Payload.ofText("{oops");
+
+        assertThatThrownBy(payload::asJson)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("invalid JSON");
+        assertThatThrownBy(payload::asJson)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("invalid JSON");
+        assertThatThrownBy(Payload.EMPTY::asJson)
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testAsJsonOfBinaryPayload() {
+        assertThatThrownBy(() -> Payload.ofBytes(BYTES).asJson())
+                .isInstanceOf(ConfigurationMismatchException.class);
+    }
+}
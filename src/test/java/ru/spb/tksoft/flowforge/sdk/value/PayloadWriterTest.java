@@ -0,0 +1,97 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.value;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.spb.tksoft.common.exceptions.ConfigurationMismatchException;
+
+/**
+ * Tests for PayloadWriter.
+ *
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+class PayloadWriterTest {
+
+    @TempDir
+    Path directory;
+
+    private long countFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void testTextIsKeptOnHeap() throws IOException {
+        PayloadWriter writer = new PayloadWriter();
+        writer.write("hello");
+        writer.append(", ").append("world");
+        writer.close();
+
+        assertThat(writer.getPayload().isSpilled()).isFalse();
+        assertThat(writer.getPayload().asText()).isEqualTo("hello, world");
+    }
+
+    @Test
+    void testTextUnderThresholdIsNotSpilled() throws IOException {
+        PayloadWriter writer = new ResultSpill(directory, 100).openWriter();
+        writer.write("x".repeat(99));
+        writer.close();
+
+        assertThat(writer.getPayload().isSpilled()).isFalse();
+        assertThat(countFiles()).isZero();
+    }
+
+    @Test
+    void testTextIsWrittenToFile() throws IOException {
+        // Surrogate pairs split between writes and between the chunks of the encoder.
+        String text = "ab😀é".repeat(50_000);
+        PayloadWriter writer = new ResultSpill(directory, 100).openWriter();
+        for (int i = 0; i < text.length(); i += 997) {
+            writer.write(text, i, Math.min(997, text.length() - i));
+        }
+        writer.close();
+
+        Payload payload = writer.getPayload();
+        assertThat(payload.isSpilled()).isTrue();
+        assertThat(payload.asText()).isEqualTo(text);
+        assertThat(payload.asCharSequence()).hasSize(text.length());
+        assertThat(countFiles()).isEqualTo(1);
+    }
+
+    @Test
+    void testPayloadBeforeClose() {
+        PayloadWriter writer = new PayloadWriter();
+
+        assertThatThrownBy(writer::getPayload)
+                .isInstanceOf(ConfigurationMismatchException.class);
+    }
+
+    @Test
+    void testWriteAfterClose() throws IOException {
+        PayloadWriter writer = new PayloadWriter();
+        writer.close();
+
+        assertThatThrownBy(() -> writer.write("x"))
+                .isInstanceOf(IOException.class);
+    }
+}
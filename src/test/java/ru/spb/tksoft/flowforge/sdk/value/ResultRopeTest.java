@@ -0,0 +1,105 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.value;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+
+/**
+ * Tests for ResultRope.
+ *
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+class ResultRopeTest {
+
+    private static final String EXPECTED = "abc|d|efgh|";
+
+    private final ResultRope rope = new ResultRope(new String[] {"abc", "d", "efgh"}, "|");
+
+    @Test
+    void testConstructorWithNull() {
+        assertThatThrownBy(() -> new ResultRope(null, "|"))
+                .isInstanceOf(NullArgumentException.class);
+        assertThatThrownBy(() -> new ResultRope(new String[] {"a"}, null))
+                .isInstanceOf(NullArgumentException.class);
+        assertThatThrownBy(() -> new ResultRope(new String[] {null}, "|"))
+                .isInstanceOf(NullArgumentException.class);
+    }
+
+    @Test
+    void testLengthAndCharAt() {
+        assertThat(rope.length()).isEqualTo(EXPECTED.length());
+        assertThat(rope.getPartCount()).isEqualTo(3);
+
+        StringBuilder chars = new StringBuilder();
+        for (int i = 0; i < rope.length(); i++) {
+            chars.append(rope.charAt(i));
+        }
+        assertThat(chars.toString()).isEqualTo(EXPECTED);
+        assertThatThrownBy(() -> rope.charAt(rope.length()))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void testSubSequence() {
+        for (int start = 0; start <= EXPECTED.length(); start++) {
+            for (int end = start; end <= EXPECTED.length(); end++) {
+                assertThat(rope.subSequence(start, end).toString())
+                        .isEqualTo(EXPECTED.substring(start, end));
+            }
+        }
+        assertThatThrownBy(() -> rope.subSequence(2, 1))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void testToStringIsMaterializedOnce() {
+        String whole = rope.toString();
+
+        assertThat(whole).isEqualTo(EXPECTED);
+        assertThat(rope.toString()).isSameAs(whole);
+        assertThat(rope.charAt(4)).isEqualTo('d');
+    }
+
+    @Test
+    void testAppendTo() throws IOException {
+        StringBuilder out = new StringBuilder();
+
+        rope.appendTo(out);
+
+        assertThat(out.toString()).isEqualTo(EXPECTED);
+        assertThatThrownBy(() -> rope.appendTo(null))
+                .isInstanceOf(NullArgumentException.class);
+    }
+
+    @Test
+    void testHasSameParts() {
+        String[] parts = {"abc", "d", "efgh"};
+        ResultRope same = new ResultRope(parts, "|");
+
+        assertThat(same.hasSameParts(parts, 3)).isTrue();
+        assertThat(same.hasSameParts(parts, 2)).isFalse();
+        assertThat(same.hasSameParts(new String[] {"abc", "d", new String("efgh")}, 3)).isFalse();
+    }
+
+    @Test
+    void testEmpty() {
+        assertThat(ResultRope.EMPTY.isEmpty()).isTrue();
+        assertThat(ResultRope.EMPTY.toString()).isEmpty();
+    }
+}
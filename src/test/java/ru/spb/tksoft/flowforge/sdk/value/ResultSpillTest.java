@@ -0,0 +1,305 @@
+/*
+ * Copyright 2025 Konstantin Terskikh
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package ru.spb.tksoft.flowforge.sdk.value;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.spb.tksoft.common.exceptions.NullArgumentException;
+import ru.spb.tksoft.flowforge.sdk.cache.ResultCacheKey;
+import ru.spb.tksoft.flowforge.sdk.contract.Block;
+import ru.spb.tksoft.flowforge.sdk.contract.Line;
+import ru.spb.tksoft.flowforge.sdk.enumeration.PayloadType;
+import ru.spb.tksoft.flowforge.sdk.model.BlockBaseImpl;
+import ru.spb.tksoft.flowforge.sdk.model.LineImpl;
+
+/**
+ * Tests for ResultSpill.
+ *
+ * @author Konstantin Terskikh, kostus.online.1974@yandex.ru, 2025
+ */
+class ResultSpillTest {
+
+    @TempDir
+    Path directory;
+
+    private ResultSpill spill;
+
+    /**
+     * Test implementation of BlockBaseImpl.
+     */
+    private static class TestBlock extends BlockBaseImpl {
+
+        TestBlock() {
+            this("block1");
+        }
+
+        TestBlock(String internalBlockId) {
+            super("type1", internalBlockId, "default input");
+        }
+
+        void writeResult(String text) throws IOException {
+            try (Writer writer = openResultWriter()) {
+                writer.write(text);
+            }
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        spill = new ResultSpill(directory, 100);
+    }
+
+    private long countFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void testConstructorWithInvalidArguments() {
+        assertThatThrownBy(() -> new ResultSpill(null, 100))
+                .isInstanceOf(NullArgumentException.class);
+        assertThatThrownBy(() -> new ResultSpill(directory, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> spill.spill(null))
+                .isInstanceOf(NullArgumentException.class);
+    }
+
+    @Test
+    void testSmallPayloadIsKept() throws IOException {
+        Payload payload = Payload.ofText("small");
+
+        assertThat(spill.spill(payload)).isSameAs(payload);
+        assertThat(countFiles()).isZero();
+    }
+
+    @Test
+    void testTextIsSpilled() throws IOException {
+        // Multi-byte characters crossing the chunk boundaries of the encoder.
+        String text = "héllo 😀 ".repeat(20_000);
+
+        Payload spilled = spill.spill(Payload.ofText(text));
+
+        assertThat(spilled.isSpilled()).isTrue();
+        assertThat(spilled.getType()).isEqualTo(PayloadType.TEXT);
+        assertThat(spilled.getSize()).isEqualTo(text.getBytes(StandardCharsets.UTF_8).length);
+        assertThat(spilled.asText()).isEqualTo(text);
+        assertThat(spilled.toString()).contains("spilled");
+        assertThat(countFiles()).isEqualTo(1);
+
+        StringWriter read = new StringWriter();
+        try (Reader reader = spilled.openReader()) {
+            reader.transferTo(read);
+        }
+        assertThat(read.toString()).isEqualTo(text);
+    }
+
+    @Test
+    void testSpilledTextIsParsedAsJson() {
+        String text = "{\"k\": \"" + "é".repeat(200) + "\"}";
+
+        Payload spilled = spill.spill(Payload.ofText(text));
+
+        assertThat(spilled.isSpilled()).isTrue();
+        assertThat(spilled.asJson().get("k").asText()).isEqualTo("é".repeat(200));
+        assertThat(spilled.asJson()).isSameAs(spilled.asJson());
+    }
+
+    @Test
+    void testBinaryIsSpilled() {
+        byte[] bytes = new byte[1000];
+        bytes[999] = 7;
+
+        Payload spilled = spill.spill(Payload.ofBytes(bytes));
+
+        assertThat(spilled.isSpilled()).isTrue();
+        assertThat(spilled.getType()).isEqualTo(PayloadType.BINARY);
+        assertThat(spilled.asBuffer().isReadOnly()).isTrue();
+        assertThat(spilled.toByteArray()).isEqualTo(bytes);
+        assertThat(spill.spill(spilled)).isSameAs(spilled);
+    }
+
+    @Test
+    void testReleaseDeletesFile() throws IOException {
+        Payload spilled = spill.spill(Payload.ofText("x".repeat(100)));
+
+        spilled.release();
+
+        assertThat(countFiles()).isZero();
+    }
+
+    @Test
+    void testSpilledBinaryIsStreamed() throws IOException {
+        byte[] bytes = new byte[1000];
+        bytes[999] = 7;
+        Payload spilled = spill.spill(Payload.ofBytes(bytes));
+
+        try (InputStream stream = spilled.openStream()) {
+            assertThat(stream.readAllBytes()).isEqualTo(bytes);
+        }
+        StringWriter read = new StringWriter();
+        try (Reader reader = spilled.openReader()) {
+            reader.transferTo(read);
+        }
+        assertThat(read.toString()).isEqualTo(Base64.getEncoder().encodeToString(bytes));
+    }
+
+    @Test
+    void testSpilledTextIsReadOnce() {
+        Payload spilled = spill.spill(Payload.ofText("x".repeat(100)));
+
+        assertThat(spilled.asText()).isSameAs(spilled.asText());
+    }
+
+    @Test
+    void testWriterSpillsText() throws IOException {
+        String text = "héllo 😀 ".repeat(20_000);
+
+        PayloadWriter writer = spill.openWriter();
+        writer.write(text);
+        writer.close();
+
+        assertThat(writer.getPayload().isSpilled()).isTrue();
+        assertThat(writer.getPayload().asText()).isEqualTo(text);
+        assertThat(countFiles()).isEqualTo(1);
+    }
+
+    @Test
+    void testBlockWritesResultToFile() throws IOException {
+        TestBlock block = new TestBlock();
+        block.setResultSpill(spill);
+
+        block.writeResult("x".repeat(1000));
+
+        assertThat(block.getResultPayload().isSpilled()).isTrue();
+        assertThat(block.getResultText()).isEqualTo("x".repeat(1000));
+        assertThat(countFiles()).isEqualTo(1);
+    }
+
+    @Test
+    void testCloseDeletesSpillFiles() throws IOException {
+        spill.spill(Payload.ofText("x".repeat(100)));
+        spill.spill(Payload.ofBytes(new byte[100]));
+
+        spill.close();
+
+        assertThat(countFiles()).isZero();
+        assertThat(directory).exists();
+        assertThat(spill.spill(Payload.ofText("x".repeat(100))).isSpilled()).isFalse();
+    }
+
+    @Test
+    void testCloseDeletesTempDirectory() throws IOException {
+        ResultSpill temporary = ResultSpill.inTempDirectory(100);
+        temporary.spill(Payload.ofText("x".repeat(100)));
+
+        temporary.close();
+
+        assertThat(temporary.getDirectory()).doesNotExist();
+    }
+
+    @Test
+    void testBlockSpillsAndReleasesResult() throws IOException {
+        TestBlock block = new TestBlock();
+        block.setResultSpill(spill);
+
+        block.setResultText("x".repeat(1000));
+
+        assertThat(block.getResultSpill()).isSameAs(spill);
+        assertThat(block.getResultPayload().isSpilled()).isTrue();
+        assertThat(block.getResultText()).hasSize(1000);
+        assertThat(block.snapshot().resultText()).contains("spilled");
+        assertThat(countFiles()).isEqualTo(1);
+
+        block.setResultText("small");
+
+        assertThat(block.getResultPayload().isSpilled()).isFalse();
+        assertThat(countFiles()).isZero();
+    }
+
+    @Test
+    void testSpilledBinaryReaderStreamsBase64() throws IOException {
+        byte[] bytes = new byte[10_000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i * 31);
+        }
+        Payload spilled = spill.spill(Payload.ofBytes(bytes));
+
+        StringWriter out = new StringWriter();
+        try (Reader reader = spilled.openReader()) {
+            reader.transferTo(out);
+        }
+
+        assertThat(out.toString()).isEqualTo(Base64.getEncoder().encodeToString(bytes));
+    }
+
+    @Test
+    void testRopeReadsSpilledPartOnDemand() throws IOException {
+        String text = "héllo 😀 ".repeat(1000);
+        Payload spilled = spill.spill(Payload.ofText(text));
+        String expected = "head|" + text + "|";
+
+        ResultRope rope = new ResultRope(
+                new CharSequence[] {"head", new PayloadText(spilled)}, "|");
+
+        assertThat(rope.length()).isEqualTo(expected.length());
+        assertThat(rope.charAt(5000)).isEqualTo(expected.charAt(5000));
+        assertThat(rope.subSequence(2, 3000).toString()).isEqualTo(expected.substring(2, 3000));
+        StringBuilder out = new StringBuilder();
+        rope.appendTo(out);
+        assertThat(out.toString()).isEqualTo(expected);
+        assertThat(rope.toString()).isEqualTo(expected);
+        // The text read back from the file is not kept by the rope.
+        assertThat(rope.toString()).isNotSameAs(rope.toString());
+    }
+
+    @Test
+    void testJunctionReferencesSpilledResult() {
+        TestBlock from = new TestBlock("from");
+        TestBlock to = new TestBlock("to");
+        List<Block> blocks = List.of(from, to);
+        LineImpl line = new LineImpl("line1", "from", "to");
+        line.resolveBlocks(blocks);
+        List<Line> lines = List.of(line);
+        from.resolveLines(lines);
+        to.resolveLines(lines);
+
+        String text = "x".repeat(1000);
+        from.setResultText(text);
+        String key = ResultCacheKey.of(to);
+
+        from.setResultSpill(spill);
+        from.setResultText(text);
+
+        assertThat(from.getResultPayload().isSpilled()).isTrue();
+        assertThat(to.getInputJunction().getResult().toString())
+                .isEqualTo(text + System.lineSeparator());
+        assertThat(ResultCacheKey.of(to)).isEqualTo(key);
+    }
+}